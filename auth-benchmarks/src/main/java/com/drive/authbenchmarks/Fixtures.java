@@ -0,0 +1,94 @@
+package com.drive.authbenchmarks;
+
+import com.drive.authservice.cache.TokenVersionRegistry;
+import com.drive.authservice.cache.VerifiedTokenCache;
+import com.drive.authservice.entity.Role;
+import com.drive.authservice.entity.User;
+import com.drive.authservice.properties.AuthProperties;
+import com.drive.authservice.repository.UserRepository;
+import com.drive.authservice.security.JwtKeyRing;
+import com.drive.authservice.service.JwtService;
+
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.SignatureAlgorithm;
+
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.lang.reflect.Proxy;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Builds auth-service components outside a Spring context, wired the same way the
+ * application wires them.
+ */
+final class Fixtures {
+
+    // 256-bit Base64 key, same shape as auth.token.secret-key (OTP HMAC fallback)
+    static final String SECRET_KEY = "c2h1Ymhkcml2ZS1iZW5jaG1hcmstc2VjcmV0LWtleS0wMTIzNDU2Nzg5YWJjZGVm";
+    static final long JWT_EXPIRATION = 10_800_000L;
+
+    private Fixtures() {
+    }
+
+    static AuthProperties authProperties(boolean stateless) {
+        AuthProperties.Token token = new AuthProperties.Token();
+        token.setSecretKey(SECRET_KEY);
+        token.setJwtExpiration(JWT_EXPIRATION);
+        token.setStateless(stateless);
+
+        AuthProperties properties = new AuthProperties();
+        properties.setToken(token);
+        return properties;
+    }
+
+    static User user(String passwordHash) {
+        return User.builder()
+                .id(1L)
+                .username("alice")
+                .email("alice@example.com")
+                .password(passwordHash)
+                .role(Role.USER)
+                .isFirstLogin(false)
+                .build();
+    }
+
+    // One active key, as SigningKeyRotator would load it
+    static JwtKeyRing keyRing(String algorithm) {
+        JwtKeyRing keyRing = new JwtKeyRing();
+        SignatureAlgorithm signatureAlgorithm = (SignatureAlgorithm) Jwts.SIG.get().forKey(algorithm);
+        keyRing.replace(List.of(JwtKeyRing.SigningKey.generate(signatureAlgorithm, Instant.now())));
+        return keyRing;
+    }
+
+    static JwtService jwtService(int cacheSize) {
+        return jwtService(cacheSize, keyRing("ES256"));
+    }
+
+    static JwtService jwtService(int cacheSize, JwtKeyRing keyRing) {
+        JwtService jwtService = new JwtService(new VerifiedTokenCache(cacheSize), keyRing);
+        ReflectionTestUtils.setField(jwtService, "jwtExpiration", JWT_EXPIRATION);
+        ReflectionTestUtils.invokeMethod(jwtService, "init");
+        return jwtService;
+    }
+
+    // Repository stub that answers findByUsername from memory and fails on anything else
+    static UserRepository userRepository(User user) {
+        return (UserRepository) Proxy.newProxyInstance(
+                UserRepository.class.getClassLoader(),
+                new Class<?>[]{UserRepository.class},
+                (proxy, method, args) -> switch (method.getName()) {
+                    case "findByUsername", "findByEmail", "findByLoginIdentifier" -> Optional.of(user);
+                    case "hashCode" -> System.identityHashCode(proxy);
+                    case "equals" -> proxy == args[0];
+                    case "toString" -> "UserRepositoryStub";
+                    default -> throw new UnsupportedOperationException(method.getName());
+                }
+        );
+    }
+
+    static TokenVersionRegistry tokenVersionRegistry(User user) {
+        return new TokenVersionRegistry(userRepository(user), authProperties(true));
+    }
+}
@@ -0,0 +1,76 @@
+package com.drive.authbenchmarks;
+
+import com.drive.authservice.entity.User;
+import com.drive.authservice.filter.JwtFilter;
+import com.drive.authservice.metrics.AuthMetrics;
+import com.drive.authservice.service.JwtService;
+
+import jakarta.servlet.FilterChain;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.ServletException;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.UserDetailsService;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Full JwtFilter pass for an authenticated request: header parsing, token
+ * verification, user resolution (stubbed UserDetailsService, or the token version
+ * table in stateless mode) and SecurityContext population.
+ */
+@State(Scope.Thread)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtFilterBenchmark {
+
+    private static final String FILTERED_ATTRIBUTE = JwtFilter.class.getName() + ".FILTERED";
+    private static final FilterChain NO_OP_CHAIN = (request, response) -> { };
+
+    @Param({"false", "true"})
+    public boolean stateless;
+
+    @Param({"10000", "0"})
+    public int tokenCacheSize;
+
+    private JwtFilter filter;
+    private MockHttpServletRequest request;
+    private MockHttpServletResponse response;
+
+    @Setup
+    public void setUp() {
+        User user = Fixtures.user("unused");
+        JwtService jwtService = Fixtures.jwtService(tokenCacheSize);
+        UserDetailsService userDetailsService = username -> user;
+
+        filter = new JwtFilter(
+                jwtService,
+                userDetailsService,
+                Fixtures.tokenVersionRegistry(user),
+                Fixtures.authProperties(stateless),
+                new AuthMetrics(new SimpleMeterRegistry())
+        );
+
+        request = new MockHttpServletRequest("GET", "/api/v1/files");
+        request.addHeader("Authorization", "Bearer " + jwtService.generateToken(user));
+        response = new MockHttpServletResponse();
+    }
+
+    @Benchmark
+    public Object doFilter() throws ServletException, IOException {
+        try {
+            filter.doFilter(request, response, NO_OP_CHAIN);
+            return SecurityContextHolder.getContext().getAuthentication();
+        } finally {
+            SecurityContextHolder.clearContext();
+            request.removeAttribute(FILTERED_ATTRIBUTE);
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package com.drive.authbenchmarks;
+
+import com.drive.authservice.entity.User;
+import com.drive.authservice.security.JwtKeyRing;
+import com.drive.authservice.service.JwtService;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Token issue and validation. {@code cached} goes through the verified-token cache the
+ * way JwtFilter does for a token it has seen before; {@code uncached} disables the
+ * cache so every call pays the full parse + signature verification with the given
+ * algorithm.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtServiceBenchmark {
+
+    @Param({"ES256", "EdDSA"})
+    public String algorithm;
+
+    private JwtService cached;
+    private JwtService uncached;
+    private User user;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        JwtKeyRing keyRing = Fixtures.keyRing(algorithm);
+        cached = Fixtures.jwtService(10_000, keyRing);
+        uncached = Fixtures.jwtService(0, keyRing);
+        user = Fixtures.user("unused");
+        token = cached.generateToken(user);
+    }
+
+    @Benchmark
+    public String generateToken() {
+        return cached.generateToken(user);
+    }
+
+    @Benchmark
+    public String extractEmailCached() {
+        return cached.extractEmail(token);
+    }
+
+    @Benchmark
+    public String extractEmailUncached() {
+        return uncached.extractEmail(token);
+    }
+
+    @Benchmark
+    public boolean isTokenValidCached() {
+        return cached.isTokenValid(token, user);
+    }
+
+    @Benchmark
+    public boolean isTokenValidUncached() {
+        return uncached.isTokenValid(token, user);
+    }
+}
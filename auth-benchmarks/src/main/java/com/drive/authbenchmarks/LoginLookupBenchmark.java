@@ -0,0 +1,65 @@
+package com.drive.authbenchmarks;
+
+import com.drive.authservice.entity.User;
+import com.drive.authservice.repository.UserRepository;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Resolving a login identifier under concurrent logins, against the Postgres of
+ * {@link UserFixture}. Identifiers are usernames, the case the old lookup paid for
+ * twice: {@code emailThenUsername} is the former {@code findByEmail(...).or(findByUsername(...))}
+ * chain, two round trips; {@code loginKey} is {@link UserRepository#findByLoginIdentifier},
+ * one. Sixteen threads share a pool of as many connections ({@code -Dbench.pool-size}),
+ * so the difference shows up as throughput as well as latency.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(16)
+@Fork(1)
+public class LoginLookupBenchmark {
+
+    private ConfigurableApplicationContext context;
+    private UserRepository userRepository;
+    private String[] identifiers;
+
+    @State(Scope.Thread)
+    public static class Cursor {
+        int next = (int) (Math.random() * UserFixture.USERS);
+    }
+
+    @Setup
+    public void setUp() {
+        context = UserFixture.start();
+        userRepository = context.getBean(UserRepository.class);
+        UserFixture.seed(userRepository);
+
+        identifiers = new String[UserFixture.USERS];
+        for (int i = 0; i < identifiers.length; i++) {
+            identifiers[i] = UserFixture.username(i);
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Optional<User> emailThenUsername(Cursor cursor) {
+        String identifier = identifiers[cursor.next++ % identifiers.length];
+        return userRepository.findByEmail(identifier).or(() -> userRepository.findByUsername(identifier));
+    }
+
+    @Benchmark
+    public Optional<User> loginKey(Cursor cursor) {
+        return userRepository.findByLoginIdentifier(identifiers[cursor.next++ % identifiers.length]);
+    }
+}
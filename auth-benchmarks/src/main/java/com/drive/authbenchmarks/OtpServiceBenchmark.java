@@ -0,0 +1,67 @@
+package com.drive.authbenchmarks;
+
+import com.drive.authservice.entity.User;
+import com.drive.authservice.notification.OtpIssuedEvent;
+import com.drive.authservice.otp.InMemoryOtpStore;
+import com.drive.authservice.otp.OtpHasher;
+import com.drive.authservice.properties.AuthProperties;
+import com.drive.authservice.service.OtpService;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * OTP generation and validation against the in-memory OTP store. The event
+ * publisher stub captures the issued code instead of delivering it.
+ */
+@State(Scope.Thread)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class OtpServiceBenchmark {
+
+    private OtpService otpService;
+    private InMemoryOtpStore otpStore;
+    private User user;
+    private String lastCode;
+
+    @Setup
+    public void setUp() {
+        AuthProperties properties = Fixtures.authProperties(false);
+        otpStore = new InMemoryOtpStore(properties);
+        otpService = new OtpService(
+                otpStore,
+                new OtpHasher(properties),
+                properties,
+                event -> lastCode = ((OtpIssuedEvent) event).code()
+        );
+        user = Fixtures.user("unused");
+    }
+
+    @TearDown
+    public void tearDown() {
+        ReflectionTestUtils.invokeMethod(otpStore, "shutdown");
+    }
+
+    @Benchmark
+    public String generate() {
+        otpService.generateAndSendOtp(user);
+        return lastCode;
+    }
+
+    @Benchmark
+    public int generateAndValidate() {
+        otpService.generateAndSendOtp(user);
+        return otpService.validateOtp(user, lastCode);
+    }
+
+    @Benchmark
+    public int generateAndRejectWrongCode() {
+        otpService.generateAndSendOtp(user);
+        return otpService.validateOtp(user, "000000");
+    }
+}
@@ -0,0 +1,58 @@
+package com.drive.authbenchmarks;
+
+import com.drive.authservice.security.BoundedPasswordEncoder;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * BCrypt at the configured cost ({@code auth.hashing.bcrypt-strength}, default 10),
+ * directly and through the bounded hashing pool used by the application.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PasswordEncoderBenchmark {
+
+    private static final String PASSWORD = "Sup3rSecretPassw0rd";
+
+    @Param({"10"})
+    public int strength;
+
+    private BCryptPasswordEncoder bcrypt;
+    private BoundedPasswordEncoder bounded;
+    private String hash;
+
+    @Setup
+    public void setUp() {
+        bcrypt = new BCryptPasswordEncoder(strength);
+        int cores = Runtime.getRuntime().availableProcessors();
+        bounded = new BoundedPasswordEncoder(bcrypt, cores, 1024, 1);
+        hash = bcrypt.encode(PASSWORD);
+    }
+
+    @TearDown
+    public void tearDown() {
+        bounded.shutdown();
+    }
+
+    @Benchmark
+    public String encode() {
+        return bcrypt.encode(PASSWORD);
+    }
+
+    @Benchmark
+    public boolean matches() {
+        return bcrypt.matches(PASSWORD, hash);
+    }
+
+    @Benchmark
+    public boolean matchesOnHashingPool() {
+        return bounded.matches(PASSWORD, hash);
+    }
+}
@@ -0,0 +1,84 @@
+package com.drive.authbenchmarks;
+
+import com.drive.authservice.metrics.AuthMetrics;
+import com.drive.authservice.properties.AuthProperties;
+import com.drive.authservice.ratelimit.AuthRateLimiter;
+import com.drive.authservice.ratelimit.TokenBucketLimiter;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-request cost of the login throttle. Limits are set high enough that every call is
+ * allowed, so the numbers are the overhead a legitimate request pays.
+ * {@code contendedHotKey} has four threads racing on the same bucket.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RateLimiterBenchmark {
+
+    private static final int KEYS = 10_000;
+
+    private TokenBucketLimiter limiter;
+    private AuthRateLimiter authRateLimiter;
+    private String[] keys;
+    private String[] addresses;
+
+    @State(Scope.Thread)
+    public static class Cursor {
+        int next;
+        final MockHttpServletRequest request = new MockHttpServletRequest();
+    }
+
+    @Setup
+    public void setUp() {
+        limiter = new TokenBucketLimiter(Integer.MAX_VALUE, Duration.ofSeconds(1), KEYS * 2);
+
+        AuthProperties properties = Fixtures.authProperties(false);
+        AuthProperties.Bucket unlimited = new AuthProperties.Bucket(Integer.MAX_VALUE, Duration.ofSeconds(1));
+        properties.getRateLimit().setPerIp(unlimited);
+        properties.getRateLimit().setPerIdentifier(unlimited);
+        properties.getRateLimit().setMaxKeys(KEYS * 2);
+        authRateLimiter = new AuthRateLimiter(properties, new AuthMetrics(new SimpleMeterRegistry()));
+
+        keys = new String[KEYS];
+        addresses = new String[KEYS];
+        for (int i = 0; i < KEYS; i++) {
+            keys[i] = "user" + i + "@example.com";
+            addresses[i] = "10.0." + (i >> 8 & 0xff) + "." + (i & 0xff);
+        }
+    }
+
+    @Benchmark
+    public long hotKey() {
+        return limiter.tryAcquire(keys[0]);
+    }
+
+    @Benchmark
+    public long spreadKeys(Cursor cursor) {
+        return limiter.tryAcquire(keys[cursor.next++ % KEYS]);
+    }
+
+    // IP and identifier bucket, identifier normalization included
+    @Benchmark
+    public void loginCheck(Cursor cursor) {
+        int i = cursor.next++ % KEYS;
+        cursor.request.setRemoteAddr(addresses[i]);
+        authRateLimiter.check(AuthMetrics.Operation.LOGIN, cursor.request, keys[i]);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public long contendedHotKey() {
+        return limiter.tryAcquire(keys[0]);
+    }
+}
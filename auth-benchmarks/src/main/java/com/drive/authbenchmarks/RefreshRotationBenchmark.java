@@ -0,0 +1,76 @@
+package com.drive.authbenchmarks;
+
+import com.drive.authservice.dto.LoginResponse;
+import com.drive.authservice.repository.UserRepository;
+import com.drive.authservice.service.RefreshTokenService;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Refresh token rotation against the Postgres of {@link UserFixture}: one conditional
+ * UPDATE per refresh plus issuing the access token. Each thread signs in one user of its
+ * own and keeps presenting the token it was last given, as a device would, so threads
+ * never contend on a row. {@code rotate} runs on 16 threads, {@code rotateSingleThread}
+ * on one, to show how rotation scales with concurrency.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RefreshRotationBenchmark {
+
+    private ConfigurableApplicationContext context;
+    private UserRepository userRepository;
+    private RefreshTokenService refreshTokenService;
+    private final AtomicInteger devices = new AtomicInteger();
+
+    @State(Scope.Thread)
+    public static class Device {
+        String token;
+
+        @Setup
+        public void signIn(RefreshRotationBenchmark benchmark) {
+            int i = benchmark.devices.getAndIncrement() % UserFixture.USERS;
+            token = benchmark.refreshTokenService.createRefreshToken(
+                    benchmark.userRepository.findByUsername(UserFixture.username(i)).orElseThrow()).getToken();
+        }
+    }
+
+    @Setup
+    public void setUp() {
+        context = UserFixture.start();
+        userRepository = context.getBean(UserRepository.class);
+        refreshTokenService = context.getBean(RefreshTokenService.class);
+        UserFixture.seed(userRepository);
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    @Threads(16)
+    public LoginResponse rotate(Device device) {
+        return rotate(refreshTokenService, device);
+    }
+
+    @Benchmark
+    public LoginResponse rotateSingleThread(Device device) {
+        return rotate(refreshTokenService, device);
+    }
+
+    private static LoginResponse rotate(RefreshTokenService refreshTokenService, Device device) {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        LoginResponse login = refreshTokenService.processRefreshToken(device.token, response);
+        device.token = response.getCookie("refreshToken").getValue();
+        return login;
+    }
+}
@@ -0,0 +1,70 @@
+package com.drive.authbenchmarks;
+
+import com.drive.authservice.AuthServiceApplication;
+import com.drive.authservice.entity.Role;
+import com.drive.authservice.entity.User;
+import com.drive.authservice.repository.UserRepository;
+
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Starts auth-service against the Postgres given by
+ * {@code -Dbench.datasource.url/username/password} and seeds, once per database,
+ * {@value #USERS} users named {@code bench-user-00000} ... with emails
+ * {@code bench-user-00000@example.com} .... Passwords are never checked by the
+ * benchmarks that use it, so they are stored unhashed.
+ */
+final class UserFixture {
+
+    static final int USERS = 10_000;
+
+    private UserFixture() {
+    }
+
+    static ConfigurableApplicationContext start() {
+        // Command-line arguments, so they win over application.yml
+        return new SpringApplicationBuilder(AuthServiceApplication.class)
+                .run(
+                        "--spring.config.on-not-found=ignore",
+                        "--spring.datasource.url=" + System.getProperty("bench.datasource.url",
+                                "jdbc:postgresql://localhost:5432/auth_bench"),
+                        "--spring.datasource.username=" + System.getProperty("bench.datasource.username", "auth"),
+                        "--spring.datasource.password=" + System.getProperty("bench.datasource.password", "auth"),
+                        "--spring.datasource.hikari.maximum-pool-size=" + System.getProperty("bench.pool-size", "16"),
+                        "--spring.jpa.show-sql=false",
+                        "--server.port=0",
+                        "--auth.token.secret-key=" + Fixtures.SECRET_KEY,
+                        "--auth.admin.username=bench-admin",
+                        "--auth.admin.password=bench-admin"
+                );
+    }
+
+    // Idempotent: an already seeded database is reused as is
+    static void seed(UserRepository userRepository) {
+        if (userRepository.findByUsername(username(0)).isPresent()) {
+            return;
+        }
+        List<User> batch = new ArrayList<>(1_000);
+        for (int i = 0; i < USERS; i++) {
+            batch.add(User.builder()
+                    .username(username(i))
+                    .email(username(i) + "@example.com")
+                    .password("unused")
+                    .role(Role.USER)
+                    .isFirstLogin(false)
+                    .build());
+            if (batch.size() == 1_000) {
+                userRepository.saveAll(batch);
+                batch.clear();
+            }
+        }
+    }
+
+    static String username(int i) {
+        return "bench-user-%05d".formatted(i);
+    }
+}
@@ -0,0 +1,131 @@
+package com.drive.authservice.cache;
+
+import com.drive.authservice.entity.User;
+import com.drive.authservice.properties.AuthProperties;
+import com.drive.authservice.repository.UserRepository;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * In-memory table of the current token version per user, used by the stateless
+ * authentication mode. {@link #invalidate(User)} is called by whoever changed the user on
+ * this instance; changes made on other replicas arrive two ways:
+ * <ul>
+ *   <li>a token newer than the cached version reloads the row before it is judged, so new
+ *       tokens work at once;</li>
+ *   <li>entries expire after {@code auth.user-cache.ttl}, which bounds how long a token
+ *       revoked elsewhere is still accepted here.</li>
+ * </ul>
+ * At most {@code auth.user-cache.max-size} users are kept; a full table evicts the
+ * oldest entry of a small sample.
+ */
+@Component
+public class TokenVersionRegistry {
+
+    // Version of subjects that no longer exist (deleted users)
+    private static final long REVOKED = -1L;
+    private static final int EVICTION_SAMPLE = 8;
+    // A newer token reloads a row at most this often, so tokens of deleted users cannot
+    // turn every request into a query
+    private static final long RELOAD_INTERVAL_NANOS = Duration.ofSeconds(1).toNanos();
+
+    private record Entry(long version, long loadedAt) {
+    }
+
+    private final UserRepository userRepository;
+    private final int maxSize;
+    private final long ttlNanos;
+    private final LongSupplier clock;
+    private final ConcurrentHashMap<String, Entry> versions = new ConcurrentHashMap<>();
+    // Bumped by every invalidation; a load that overlaps one is not cached
+    private final AtomicLong generation = new AtomicLong();
+
+    @Autowired
+    public TokenVersionRegistry(UserRepository userRepository, AuthProperties authProperties) {
+        this(userRepository, authProperties.getUserCache().getMaxSize(), authProperties.getUserCache().getTtl(),
+                System::nanoTime);
+    }
+
+    TokenVersionRegistry(UserRepository userRepository, int maxSize, Duration ttl, LongSupplier clock) {
+        this.userRepository = userRepository;
+        this.maxSize = maxSize;
+        this.ttlNanos = ttl.toNanos();
+        this.clock = clock;
+    }
+
+    public boolean isCurrent(String username, long tokenVersion) {
+        long now = clock.getAsLong();
+        Entry entry = versions.get(username);
+        if (entry == null || now - entry.loadedAt() >= ttlNanos
+                || (tokenVersion > entry.version() && now - entry.loadedAt() >= RELOAD_INTERVAL_NANOS)) {
+            entry = load(username, now);
+        }
+        return entry.version() != REVOKED && entry.version() == tokenVersion;
+    }
+
+    /**
+     * Forgets the cached version of the user. When called inside a transaction the
+     * entry is dropped after commit as well, so a concurrent reload cannot re-cache the
+     * old row.
+     */
+    public void invalidate(User user) {
+        String username = user.getUsername();
+        generation.incrementAndGet();
+        versions.remove(username);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    generation.incrementAndGet();
+                    versions.remove(username);
+                }
+            });
+        }
+    }
+
+    public int size() {
+        return versions.size();
+    }
+
+    private Entry load(String username, long now) {
+        long loadGeneration = generation.get();
+        Entry entry = new Entry(userRepository.findByUsername(username)
+                .map(User::getTokenVersion)
+                .orElse(REVOKED), now);
+        if (generation.get() == loadGeneration) {
+            if (versions.size() >= maxSize && !versions.containsKey(username)) {
+                evictOldest();
+            }
+            versions.put(username, entry);
+        }
+        return entry;
+    }
+
+    // Of a sample, the entry loaded longest ago
+    private void evictOldest() {
+        String victim = null;
+        long oldest = Long.MAX_VALUE;
+        int sampled = 0;
+        for (Map.Entry<String, Entry> entry : versions.entrySet()) {
+            if (victim == null || entry.getValue().loadedAt() - oldest < 0) {
+                victim = entry.getKey();
+                oldest = entry.getValue().loadedAt();
+            }
+            if (++sampled == EVICTION_SAMPLE) {
+                break;
+            }
+        }
+        if (victim != null) {
+            versions.remove(victim);
+        }
+    }
+}
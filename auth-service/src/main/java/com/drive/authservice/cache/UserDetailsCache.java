@@ -0,0 +1,170 @@
+package com.drive.authservice.cache;
+
+import com.drive.authservice.entity.User;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Size-bounded LRU near-cache in front of the user lookup used by login, activation
+ * and {@code JwtFilter}. Entries are keyed by the identifier that was looked up
+ * (email or username) and expire after a fixed TTL as a safety net; every code path
+ * that saves a {@link User} must call {@link #invalidate(User)}.
+ * <p>
+ * The cache holds a detached copy of each user, never the JPA entity, and hands out a
+ * fresh copy on every hit, so nothing a caller does to its user reaches the cache.
+ */
+public class UserDetailsCache implements UserDetailsService, MeterBinder {
+
+    private record Entry(UserDetails user, long loadedAt) {
+    }
+
+    public record Stats(long hits, long misses, long evictions, int size) {
+    }
+
+    private final UserDetailsService loader;
+    private final int maxSize;
+    private final long ttlNanos;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    // Bumped by every invalidation; a load that overlaps one is not cached
+    private long generation;
+
+    // Access-ordered, so the eldest entry is the least recently used one
+    private final LinkedHashMap<String, Entry> entries;
+
+    public UserDetailsCache(UserDetailsService loader, int maxSize, Duration ttl) {
+        this.loader = loader;
+        this.maxSize = maxSize;
+        this.ttlNanos = ttl.toNanos();
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                if (size() > UserDetailsCache.this.maxSize) {
+                    evictions.increment();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    @Override
+    public UserDetails loadUserByUsername(String identifier) throws UsernameNotFoundException {
+        long now = System.nanoTime();
+        long loadGeneration;
+        synchronized (entries) {
+            Entry entry = entries.get(identifier);
+            if (entry != null && now - entry.loadedAt() < ttlNanos) {
+                hits.increment();
+                return copy(entry.user());
+            }
+            loadGeneration = generation;
+        }
+
+        misses.increment();
+        // Loaded outside the lock; an unknown user throws and is never cached
+        UserDetails user = copy(loader.loadUserByUsername(identifier));
+        if (maxSize > 0) {
+            synchronized (entries) {
+                // An invalidation since the read started may mean this row is already stale
+                if (generation == loadGeneration) {
+                    entries.put(identifier, new Entry(copy(user), now));
+                }
+            }
+        }
+        return user;
+    }
+
+    /**
+     * Drops every entry of the given user. Inside a transaction the entries are dropped
+     * again after commit so a lookup racing with the write cannot re-cache the old row.
+     */
+    public void invalidate(User user) {
+        evict(user);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    evict(user);
+                }
+            });
+        }
+    }
+
+    public void invalidateAll() {
+        synchronized (entries) {
+            generation++;
+            entries.clear();
+        }
+    }
+
+    public Stats stats() {
+        synchronized (entries) {
+            return new Stats(hits.sum(), misses.sum(), evictions.sum(), entries.size());
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("auth.user.cache.requests", hits, LongAdder::sum)
+                .tag("result", "hit")
+                .register(registry);
+        FunctionCounter.builder("auth.user.cache.requests", misses, LongAdder::sum)
+                .tag("result", "miss")
+                .register(registry);
+        FunctionCounter.builder("auth.user.cache.evictions", evictions, LongAdder::sum)
+                .register(registry);
+        Gauge.builder("auth.user.cache.size", this, cache -> cache.stats().size())
+                .register(registry);
+    }
+
+    private void evict(User user) {
+        synchronized (entries) {
+            generation++;
+            entries.remove(user.getUsername());
+            if (user.getEmail() != null) {
+                entries.remove(user.getEmail());
+            }
+            // The user may also be cached under an identifier that has since changed
+            entries.values().removeIf(entry -> entry.user() instanceof User cached
+                    && Objects.equals(cached.getId(), user.getId()));
+        }
+    }
+
+    // Same fields, detached from any persistence context
+    private static UserDetails copy(UserDetails details) {
+        if (!(details instanceof User user)) {
+            return details;
+        }
+        return User.builder()
+                .id(user.getId())
+                .username(user.getUsername())
+                .password(user.getPassword())
+                .email(user.getEmail())
+                .usernameKey(user.getUsernameKey())
+                .emailKey(user.getEmailKey())
+                .createdAt(user.getCreatedAt() != null ? new Date(user.getCreatedAt().getTime()) : null)
+                .role(user.getRole())
+                .isFirstLogin(user.isFirstLogin())
+                .tokenVersion(user.getTokenVersion())
+                .build();
+    }
+}
@@ -0,0 +1,37 @@
+package com.drive.authservice.cache;
+
+import com.drive.authservice.dto.VerifiedToken;
+import com.drive.common.cache.TokenCache;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Already-verified JWTs, up to {@code auth.token.cache.max-size} of them, kept until they
+ * expire. See {@link TokenCache} for keying and eviction.
+ */
+@Component
+public class VerifiedTokenCache {
+
+    private final TokenCache<VerifiedToken> cache;
+
+    public VerifiedTokenCache(@Value("${auth.token.cache.max-size:10000}") int maxSize) {
+        this.cache = new TokenCache<>(maxSize, VerifiedToken::getExpiresAt);
+    }
+
+    public VerifiedToken get(String token) {
+        return cache.get(token);
+    }
+
+    public void put(String token, VerifiedToken verified) {
+        cache.put(token, verified);
+    }
+
+    public void invalidate(String token) {
+        cache.invalidate(token);
+    }
+
+    public int size() {
+        return cache.size();
+    }
+}
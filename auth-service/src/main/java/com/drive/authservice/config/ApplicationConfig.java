@@ -1,14 +1,18 @@
 package com.drive.authservice.config;
 
+import com.drive.authservice.cache.UserDetailsCache;
+import com.drive.authservice.properties.AuthProperties;
+import com.drive.authservice.security.BoundedPasswordEncoder;
 import com.drive.authservice.repository.UserRepository;
 
 import lombok.RequiredArgsConstructor;
 
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
-// import org.springframework.core.task.SimpleAsyncTaskExecutor;
-// import org.springframework.core.task.TaskExecutor;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.core.task.TaskExecutor;
 import org.springframework.scheduling.annotation.EnableAsync;
+import org.springframework.scheduling.annotation.EnableScheduling;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.AuthenticationProvider;
 import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
@@ -16,25 +20,40 @@ import org.springframework.security.config.annotation.authentication.configurati
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
-import org.springframework.security.crypto.password.PasswordEncoder;
 
 @Configuration
 @EnableAsync
+@EnableScheduling
 @RequiredArgsConstructor
 public class ApplicationConfig {
 
     private final UserRepository userRepository;
+    private final AuthProperties authProperties;
 
     @Bean
-    public UserDetailsService userDetailsService() {
-        return username -> userRepository.findByEmail(username)
-                .or(() -> userRepository.findByUsername(username))
+    public UserDetailsCache userDetailsService() {
+        UserDetailsService loader = username -> userRepository.findByLoginIdentifier(username)
                 .orElseThrow(() -> new UsernameNotFoundException("User not found"));
+
+        return new UserDetailsCache(
+                loader,
+                authProperties.getUserCache().getMaxSize(),
+                authProperties.getUserCache().getTtl()
+        );
     }
 
-    @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    // BCrypt runs on its own bounded pool so a login storm cannot take every request thread
+    @Bean(destroyMethod = "shutdown")
+    public BoundedPasswordEncoder passwordEncoder() {
+        AuthProperties.Hashing hashing = authProperties.getHashing();
+        int threads = hashing.getThreads() > 0 ? hashing.getThreads() : Runtime.getRuntime().availableProcessors();
+
+        return new BoundedPasswordEncoder(
+                new BCryptPasswordEncoder(hashing.getBcryptStrength()),
+                threads,
+                hashing.getQueueCapacity(),
+                hashing.getRetryAfterSeconds()
+        );
     }
 
     @Bean
@@ -49,11 +68,11 @@ public class ApplicationConfig {
         return config.getAuthenticationManager();
     }
 
-    //TODO: Enable Virtual Threads for Async Email Sending in Java 21+
-    // @Bean(name = "taskExecutor")
-    // public TaskExecutor taskExecutor() {
-    //     SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor("Email-VT-");
-    //     executor.setVirtualThreads(true);
-    //     return executor;
-    // }
+    // Virtual threads for async work such as notification delivery
+    @Bean(name = "taskExecutor")
+    public TaskExecutor taskExecutor() {
+        SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor("Email-VT-");
+        executor.setVirtualThreads(true);
+        return executor;
+    }
 }
\ No newline at end of file
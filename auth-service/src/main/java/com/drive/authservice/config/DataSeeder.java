@@ -1,5 +1,6 @@
 package com.drive.authservice.config;
 
+import com.drive.authservice.cache.UserDetailsCache;
 import com.drive.authservice.entity.Role;
 import com.drive.authservice.entity.User;
 import com.drive.authservice.properties.AuthProperties;
@@ -19,10 +20,14 @@ public class DataSeeder {
     private final UserRepository userRepository;
     private final PasswordEncoder passwordEncoder;
     private final AuthProperties authProperties;
+    private final UserDetailsCache userDetailsCache;
 
     @Bean
     public CommandLineRunner initAdmin() {
         return args -> {
+            // 0. Populate normalized login keys on rows that predate them
+            userRepository.backfillLoginKeys();
+
             // 1. Check if 'admin' already exists to prevent duplicates
             if (userRepository.findByUsername("admin").isEmpty()) {
                 
@@ -35,6 +40,7 @@ public class DataSeeder {
                         .build();
 
                 userRepository.save(admin);
+                userDetailsCache.invalidate(admin);
                 System.out.println("✅ Default Admin created: admin / admin");
             }
         };
@@ -1,14 +1,21 @@
 package com.drive.authservice.controller;
 
 import lombok.*;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.*;
 
+import org.springframework.http.CacheControl;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import com.drive.authservice.dto.LoginResponse;
 import com.drive.authservice.dto.UserActivationRequest;
+import com.drive.authservice.metrics.AuthMetrics.Operation;
+import com.drive.authservice.properties.AuthProperties;
+import com.drive.authservice.ratelimit.AuthRateLimiter;
+import com.drive.authservice.security.JwtKeyRing;
 import com.drive.authservice.service.AuthService;
 import com.drive.authservice.service.RefreshTokenService;
 import com.drive.authservice.dto.AdminSetupRequest;
@@ -21,28 +28,37 @@ import com.drive.authservice.dto.LoginRequest;
 public class AuthController {
     private final AuthService authService;
     private final RefreshTokenService refreshTokenService;
+    private final AuthRateLimiter rateLimiter;
+    private final JwtKeyRing keyRing;
+    private final AuthProperties authProperties;
 
     @PostMapping("/login")
     public ResponseEntity<LoginResponse> login(
         @RequestBody @Valid LoginRequest request, 
+        HttpServletRequest httpRequest,
         HttpServletResponse httpResponse
     ) {
+        rateLimiter.check(Operation.LOGIN, httpRequest, request.getEmail());
         return ResponseEntity.ok(authService.login(request, httpResponse));
     }
     
     @PostMapping("/admin/setup")
     public ResponseEntity<LoginResponse> adminSetup(
         @RequestBody @Valid AdminSetupRequest request, 
+        HttpServletRequest httpRequest,
         HttpServletResponse httpResponse
     ) {
+        rateLimiter.check(Operation.ADMIN_SETUP, httpRequest, request.getUsername());
         return ResponseEntity.ok(authService.setupAdmin(request, httpResponse));
     }
 
     @PostMapping("/activate")
     public ResponseEntity<LoginResponse> activateAccount(
         @RequestBody @Valid UserActivationRequest request, 
+        HttpServletRequest httpRequest,
         HttpServletResponse httpResponse
     ) {
+        rateLimiter.check(Operation.ACTIVATE, httpRequest, request.getUsername());
         return ResponseEntity.ok(authService.activateAccount(request, httpResponse));
     }
 
@@ -50,8 +66,10 @@ public class AuthController {
     @PostMapping("/refresh")
     public ResponseEntity<LoginResponse> refresh(
             @CookieValue("refreshToken") String refreshToken,
+            HttpServletRequest httpRequest,
             HttpServletResponse httpResponse
     ) {
+        rateLimiter.check(Operation.REFRESH, httpRequest, null);
         return ResponseEntity.ok(refreshTokenService.processRefreshToken(refreshToken, httpResponse));
     }
 
@@ -67,4 +85,13 @@ public class AuthController {
         }
         return ResponseEntity.ok("Logged out successfully");
     }
+
+    // 6. Public signing keys, so other services verify access tokens without calling us
+    @GetMapping("/.well-known/jwks.json")
+    public ResponseEntity<String> jwks() {
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .cacheControl(CacheControl.maxAge(authProperties.getToken().getKeys().getJwksMaxAge()).cachePublic())
+                .body(keyRing.jwks());
+    }
 }
@@ -0,0 +1,26 @@
+package com.drive.authservice.dto;
+
+import lombok.Builder;
+import lombok.Value;
+
+import java.time.Instant;
+
+/**
+ * Immutable view of a JWT whose signature and expiry have already been checked.
+ * Produced once per token by {@code JwtService.verify} and safe to share between threads.
+ */
+@Value
+@Builder
+public class VerifiedToken {
+    String subject;
+    Instant issuedAt;
+    Instant expiresAt;
+    String type;
+    Long userId;
+    String role;
+    Long tokenVersion;
+
+    public boolean isExpired(Instant now) {
+        return expiresAt != null && !expiresAt.isAfter(now);
+    }
+}
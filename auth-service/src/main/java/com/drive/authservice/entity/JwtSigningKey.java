@@ -0,0 +1,47 @@
+package com.drive.authservice.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.Instant;
+
+/**
+ * An asymmetric access-token signing key, shared by every auth-service replica.
+ * A key is published in the JWKS from creation, signs tokens from {@code activatesAt}
+ * until its successor activates, and is deleted once {@code expiresAt} (set when the
+ * successor is created) has passed.
+ */
+@Entity
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(name = "jwt_signing_keys")
+public class JwtSigningKey {
+
+    // The JWS "kid" header
+    @Id
+    @Column(length = 36)
+    private String kid;
+
+    // JWS algorithm id, e.g. ES256 or EdDSA
+    @Column(nullable = false, length = 16)
+    private String algorithm;
+
+    // Base64 X.509 SubjectPublicKeyInfo
+    @Column(nullable = false, columnDefinition = "text")
+    private String publicKey;
+
+    // Base64 AES-GCM encrypted PKCS#8, see SigningKeyRotator
+    @Column(nullable = false, columnDefinition = "text")
+    private String privateKey;
+
+    @Column(nullable = false, updatable = false)
+    private Instant createdAt;
+
+    @Column(nullable = false)
+    private Instant activatesAt;
+
+    // Null while the key has no successor
+    private Instant expiresAt;
+}
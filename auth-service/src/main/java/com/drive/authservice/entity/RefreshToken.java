@@ -5,25 +5,47 @@ import lombok.*;
 
 import java.time.Instant;
 
+/**
+ * One row per refresh token family, i.e. per signed-in device. Rotation replaces
+ * {@code tokenHash} in place and remembers the previous hash, so presenting an
+ * already-rotated token is detected and revokes the family.
+ */
 @Entity
 @Data
 @Builder
 @NoArgsConstructor
 @AllArgsConstructor
-@Table(name = "refresh_tokens")
+@Table(
+        name = "refresh_token_families",
+        indexes = {
+                @Index(name = "idx_refresh_token_previous_hash", columnList = "previous_hash"),
+                @Index(name = "idx_refresh_token_user", columnList = "user_id")
+        }
+)
 public class RefreshToken {
 
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
-    @Column(nullable = false, unique = true)
-    private String token;
+    // SHA-256 (hex) of the current token; the raw token only ever lives in the cookie
+    @Column(nullable = false, unique = true, length = 64)
+    private String tokenHash;
+
+    @Column(length = 64)
+    private String previousHash;
 
     @Column(nullable = false)
     private Instant expiryDate;
 
-    @OneToOne
-    @JoinColumn(name = "user_id", referencedColumnName = "id")
+    @Column(nullable = false, updatable = false)
+    private Instant createdAt;
+
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
+    @JoinColumn(name = "user_id", nullable = false, referencedColumnName = "id")
     private User user;
-}
\ No newline at end of file
+
+    // Raw token, only set on a freshly issued instance so it can be written to the cookie
+    @Transient
+    private String token;
+}
@@ -11,6 +11,7 @@ import org.hibernate.annotations.CreationTimestamp;
 import java.util.Collection;
 import java.util.List;
 import java.util.Date;
+import java.util.Locale;
 
 @Entity
 @Data
@@ -33,6 +34,14 @@ public class User implements UserDetails {
     @Column(unique = true)
     private String email;
 
+    // Normalized (trimmed, lower-case) copies of username/email; the unique constraints
+    // double as the indexes behind UserRepository.findByLoginIdentifier
+    @Column(name = "username_key", unique = true)
+    private String usernameKey;
+
+    @Column(name = "email_key", unique = true)
+    private String emailKey;
+
     @CreationTimestamp
     @Column(updatable = false, nullable = false)
     private Date createdAt;
@@ -44,6 +53,22 @@ public class User implements UserDetails {
     @Column(nullable = false)
     private boolean isFirstLogin = true;
 
+    // Bumped whenever previously issued access tokens must stop working (password change, ban)
+    @Builder.Default
+    @Column(nullable = false, columnDefinition = "bigint default 0")
+    private long tokenVersion = 0;
+
+    @PrePersist
+    @PreUpdate
+    void normalizeLoginKeys() {
+        this.usernameKey = toLoginKey(username);
+        this.emailKey = toLoginKey(email);
+    }
+
+    public static String toLoginKey(String identifier) {
+        return identifier == null ? null : identifier.trim().toLowerCase(Locale.ROOT);
+    }
+
     @Override
     public Collection<? extends GrantedAuthority> getAuthorities() {
         return List.of(new SimpleGrantedAuthority("ROLE_" + role.name()));
@@ -0,0 +1,43 @@
+package com.drive.authservice.exception;
+
+import com.drive.authservice.dto.LoginResponse;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.authentication.InternalAuthenticationServiceException;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+
+@RestControllerAdvice
+public class GlobalExceptionHandler {
+
+    @ExceptionHandler(ServiceOverloadedException.class)
+    public ResponseEntity<LoginResponse> handleOverloaded(ServiceOverloadedException ex) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(ex.getRetryAfterSeconds()))
+                .body(LoginResponse.builder()
+                        .status("OVERLOADED")
+                        .message(ex.getMessage())
+                        .build());
+    }
+
+    @ExceptionHandler(RateLimitExceededException.class)
+    public ResponseEntity<LoginResponse> handleRateLimited(RateLimitExceededException ex) {
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(ex.getRetryAfterSeconds()))
+                .body(LoginResponse.builder()
+                        .status("RATE_LIMITED")
+                        .message(ex.getMessage())
+                        .build());
+    }
+
+    // DaoAuthenticationProvider wraps unexpected exceptions thrown while loading the user
+    @ExceptionHandler(InternalAuthenticationServiceException.class)
+    public ResponseEntity<LoginResponse> handleInternalAuthentication(InternalAuthenticationServiceException ex) {
+        if (ex.getCause() instanceof ServiceOverloadedException overloaded) {
+            return handleOverloaded(overloaded);
+        }
+        throw ex;
+    }
+}
@@ -0,0 +1,18 @@
+package com.drive.authservice.exception;
+
+import lombok.Getter;
+
+/**
+ * Thrown when a client or account has used up its attempts on a throttled endpoint.
+ * Mapped to {@code 429 Too Many Requests} with a {@code Retry-After} header.
+ */
+@Getter
+public class RateLimitExceededException extends RuntimeException {
+
+    private final long retryAfterSeconds;
+
+    public RateLimitExceededException(String message, long retryAfterSeconds) {
+        super(message);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+}
@@ -1,5 +1,9 @@
 package com.drive.authservice.filter;
 
+import com.drive.authservice.cache.TokenVersionRegistry;
+import com.drive.authservice.dto.VerifiedToken;
+import com.drive.authservice.metrics.AuthMetrics;
+import com.drive.authservice.properties.AuthProperties;
 import com.drive.authservice.service.JwtService;
 
 import jakarta.servlet.FilterChain;
@@ -11,6 +15,7 @@ import lombok.RequiredArgsConstructor;
 
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
@@ -20,6 +25,7 @@ import org.springframework.web.filter.OncePerRequestFilter;
 // import org.springframework.web.servlet.HandlerExceptionResolver;
 
 import java.io.IOException;
+import java.util.List;
 
 @Component
 @RequiredArgsConstructor
@@ -27,6 +33,9 @@ public class JwtFilter extends OncePerRequestFilter {
 
     private final JwtService jwtService;
     private final UserDetailsService userDetailsService;
+    private final TokenVersionRegistry tokenVersionRegistry;
+    private final AuthProperties authProperties;
+    private final AuthMetrics metrics;
     
     //TODO: Add global exception handler
     // private final HandlerExceptionResolver handlerExceptionResolver;
@@ -46,18 +55,34 @@ public class JwtFilter extends OncePerRequestFilter {
             return;
         }
 
+        final long start = System.nanoTime();
+        boolean timed = false;
         try {
             final String token = authHeader.substring(7);
-            final String email = jwtService.extractEmail(token);
+            // Signature is verified once here; repeated tokens are served from the cache
+            final VerifiedToken verified = jwtService.verify(token);
+            final String email = verified.getSubject();
             
             Authentication existingAuth = SecurityContextHolder.getContext().getAuthentication();
 
             // 2. If user is not authenticated yet, process the token
-            if (email != null && existingAuth == null) {
+            if (email != null && existingAuth == null && isStateless(verified)) {
+                // Stateless mode: identity comes from the token, revocation from the version table
+                if (tokenVersionRegistry.isCurrent(email, verified.getTokenVersion())) {
+                    UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
+                            email,
+                            null,
+                            List.of(new SimpleGrantedAuthority("ROLE_" + verified.getRole()))
+                    );
+
+                    authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
+                    SecurityContextHolder.getContext().setAuthentication(authToken);
+                }
+            } else if (email != null && existingAuth == null) {
                 // Fetch user from DB (Ensures user wasn't banned/deleted since token issue)
                 UserDetails userDetails = this.userDetailsService.loadUserByUsername(email);
 
-                if (jwtService.isTokenValid(token, userDetails)) {
+                if (jwtService.isTokenValid(verified, userDetails)) {
                     UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
                             userDetails,
                             null,
@@ -71,13 +96,29 @@ public class JwtFilter extends OncePerRequestFilter {
                 }
             }
 
+            // Only the authentication work is timed, not the rest of the chain
+            metrics.recordFilter(
+                    SecurityContextHolder.getContext().getAuthentication() != null ? "authenticated" : "rejected",
+                    start
+            );
+            timed = true;
+
             // 4. Continue the filter chain
             filterChain.doFilter(request, response);
             
         } catch (Exception e) {
+            if (!timed) {
+                metrics.recordFilter("error", start);
+            }
             //TODO: Handle exception globally
             // handlerExceptionResolver.resolveException(request, response, null, e);
             System.err.println("Exception in JwtFilter: " + e.getMessage());
         }
     }
+
+    private boolean isStateless(VerifiedToken verified) {
+        return authProperties.getToken().isStateless()
+                && verified.getRole() != null
+                && verified.getTokenVersion() != null;
+    }
 }
\ No newline at end of file
@@ -0,0 +1,112 @@
+package com.drive.authservice.metrics;
+
+import com.drive.authservice.exception.ServiceOverloadedException;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import lombok.RequiredArgsConstructor;
+
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.stereotype.Component;
+
+import java.util.Locale;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Timers and counters for the authentication flows, exposed through actuator:
+ * <ul>
+ *     <li>{@code auth.phase} - latency histogram per operation and phase
+ *     (e.g. login/authenticate, login/token)</li>
+ *     <li>{@code auth.outcome} - result counter per operation</li>
+ *     <li>{@code auth.filter} - JwtFilter latency per result</li>
+ * </ul>
+ * Meters are registered once per tag combination and cached, so the hot path is a
+ * map lookup plus the timer update.
+ */
+@Component
+@RequiredArgsConstructor
+public class AuthMetrics {
+
+    public enum Operation { LOGIN, ADMIN_SETUP, ACTIVATE, REFRESH }
+
+    public enum Phase { AUTHENTICATE, LOOKUP, OTP, PASSWORD_HASH, SAVE, TOKEN, REFRESH_TOKEN, ROTATE }
+
+    public enum Outcome {
+        SUCCESS, ADMIN_SETUP_REQUIRED, ACTIVATION_REQUIRED,
+        BAD_CREDENTIALS, EXPIRED_REFRESH, REFRESH_REUSE, OVERLOADED, RATE_LIMITED, ERROR
+    }
+
+    private record PhaseKey(Operation operation, Phase phase) {
+    }
+
+    private record OutcomeKey(Operation operation, Outcome outcome) {
+    }
+
+    private final MeterRegistry registry;
+
+    private final ConcurrentHashMap<PhaseKey, Timer> phaseTimers = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<OutcomeKey, Counter> outcomeCounters = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, Timer> filterTimers = new ConcurrentHashMap<>();
+
+    public <T> T time(Operation operation, Phase phase, Supplier<T> action) {
+        return phaseTimer(operation, phase).record(action);
+    }
+
+    public void time(Operation operation, Phase phase, Runnable action) {
+        phaseTimer(operation, phase).record(action);
+    }
+
+    public void outcome(Operation operation, Outcome outcome) {
+        outcomeCounters.computeIfAbsent(new OutcomeKey(operation, outcome), key ->
+                Counter.builder("auth.outcome")
+                        .tag("operation", tag(key.operation()))
+                        .tag("outcome", key.outcome().name())
+                        .register(registry)
+        ).increment();
+    }
+
+    // Classifies a failed operation by its exception and counts it
+    public void failure(Operation operation, Throwable error) {
+        outcome(operation, classify(error));
+    }
+
+    public void recordFilter(String result, long startNanos) {
+        filterTimers.computeIfAbsent(result, key ->
+                Timer.builder("auth.filter")
+                        .tag("result", key)
+                        .publishPercentileHistogram()
+                        .register(registry)
+        ).record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+    }
+
+    private Timer phaseTimer(Operation operation, Phase phase) {
+        return phaseTimers.computeIfAbsent(new PhaseKey(operation, phase), key ->
+                Timer.builder("auth.phase")
+                        .tag("operation", tag(key.operation()))
+                        .tag("phase", tag(key.phase()))
+                        .publishPercentileHistogram()
+                        .register(registry)
+        );
+    }
+
+    private static Outcome classify(Throwable error) {
+        for (Throwable cause = error; cause != null; cause = cause.getCause()) {
+            if (cause instanceof ServiceOverloadedException) {
+                return Outcome.OVERLOADED;
+            }
+        }
+        if (error instanceof BadCredentialsException || error instanceof UsernameNotFoundException) {
+            return Outcome.BAD_CREDENTIALS;
+        }
+        return Outcome.ERROR;
+    }
+
+    private static String tag(Enum<?> value) {
+        return value.name().toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,19 @@
+package com.drive.authservice.notification;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+// Development transport: prints the message instead of mailing it
+@Component
+@ConditionalOnProperty(prefix = "auth.notification", name = "sender", havingValue = "console", matchIfMissing = true)
+public class ConsoleNotificationSender implements NotificationSender {
+
+    @Override
+    public void send(Notification notification) {
+        System.out.println("\n==================================================");
+        System.out.println(" [DEV-MODE] To: " + notification.recipient());
+        System.out.println(" [DEV-MODE] " + notification.subject());
+        System.out.println(" [DEV-MODE] " + notification.body());
+        System.out.println("==================================================\n");
+    }
+}
@@ -0,0 +1,29 @@
+package com.drive.authservice.notification;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+// Test transport: keeps every delivered notification so tests can assert on it (see
+// NotificationDispatcherTests)
+@Component
+@ConditionalOnProperty(prefix = "auth.notification", name = "sender", havingValue = "memory")
+public class InMemoryNotificationSender implements NotificationSender {
+
+    private final List<Notification> sent = new CopyOnWriteArrayList<>();
+
+    @Override
+    public void send(Notification notification) {
+        sent.add(notification);
+    }
+
+    public List<Notification> getSent() {
+        return List.copyOf(sent);
+    }
+
+    public void clear() {
+        sent.clear();
+    }
+}
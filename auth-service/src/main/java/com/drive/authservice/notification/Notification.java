@@ -0,0 +1,8 @@
+package com.drive.authservice.notification;
+
+/**
+ * A single outbound message. Notifications sharing a {@code coalesceKey} replace each
+ * other while still queued, so only the newest one is delivered.
+ */
+public record Notification(String coalesceKey, String recipient, String subject, String body) {
+}
@@ -0,0 +1,221 @@
+package com.drive.authservice.notification;
+
+import com.drive.authservice.properties.AuthProperties;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Asynchronous, coalescing delivery queue for outbound notifications.
+ * <p>
+ * Submissions are keyed by {@link Notification#coalesceKey()}: while a key is still
+ * queued a newer notification simply replaces the older one. A single dispatcher
+ * thread drains ready keys in batches and hands them to the virtual-thread
+ * {@code taskExecutor}, where failed deliveries are retried with exponential backoff.
+ */
+@Slf4j
+@Component
+public class NotificationDispatcher {
+
+    // Enqueue time travels with the message so delivery latency includes queueing
+    private record Queued(Notification notification, long enqueuedAtNanos) {
+    }
+
+    private final NotificationSender sender;
+    private final TaskExecutor taskExecutor;
+    private final AuthProperties authProperties;
+
+    private final ConcurrentHashMap<String, Queued> pending = new ConcurrentHashMap<>();
+    private final LinkedBlockingQueue<String> ready = new LinkedBlockingQueue<>();
+    // Keys in pending, counted separately so the capacity check cannot be raced past
+    private final AtomicInteger queued = new AtomicInteger();
+
+    private final Timer deliveryLatency;
+    private final Counter delivered;
+    private final Counter failed;
+    private final Counter dropped;
+
+    private volatile Thread dispatcherThread;
+
+    public NotificationDispatcher(
+            NotificationSender sender,
+            TaskExecutor taskExecutor,
+            AuthProperties authProperties,
+            MeterRegistry meterRegistry
+    ) {
+        this.sender = sender;
+        this.taskExecutor = taskExecutor;
+        this.authProperties = authProperties;
+
+        Gauge.builder("auth.notification.pending", pending, ConcurrentHashMap::size)
+                .description("Notifications queued and not yet handed to the sender")
+                .register(meterRegistry);
+        this.deliveryLatency = Timer.builder("auth.notification.delivery")
+                .description("Time from enqueue to successful delivery")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.delivered = Counter.builder("auth.notification.sent").tag("result", "delivered").register(meterRegistry);
+        this.failed = Counter.builder("auth.notification.sent").tag("result", "failed").register(meterRegistry);
+        this.dropped = Counter.builder("auth.notification.sent").tag("result", "dropped").register(meterRegistry);
+    }
+
+    @PostConstruct
+    void start() {
+        dispatcherThread = Thread.ofVirtual().name("notification-dispatcher").start(this::dispatchLoop);
+    }
+
+    @PreDestroy
+    void stop() {
+        if (dispatcherThread != null) {
+            dispatcherThread.interrupt();
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onOtpIssued(OtpIssuedEvent event) {
+        submit(new Notification(
+                "otp:" + event.username(),
+                event.recipient(),
+                "Your verification code",
+                "Code: " + event.code() + " (valid until " + event.expiresAt() + ")"
+        ));
+    }
+
+    /**
+     * Queues the notification and returns immediately.
+     *
+     * @return false if the queue is full and the notification was dropped
+     */
+    public boolean submit(Notification notification) {
+        int capacity = settings().getQueueCapacity();
+        boolean[] added = new boolean[1];
+        Queued replaced = pending.compute(notification.coalesceKey(), (key, previous) -> {
+            if (previous == null) {
+                // A new key takes a slot, or is refused if none is left
+                if (queued.incrementAndGet() > capacity) {
+                    queued.decrementAndGet();
+                    return null;
+                }
+                added[0] = true;
+            }
+            return new Queued(notification, System.nanoTime());
+        });
+        if (replaced == null) {
+            log.warn("Notification queue full, dropping message for {}", notification.recipient());
+            dropped.increment();
+            return false;
+        }
+        if (added[0]) {
+            ready.offer(notification.coalesceKey());
+        }
+        return true;
+    }
+
+    public int pendingCount() {
+        return pending.size();
+    }
+
+    private void dispatchLoop() {
+        List<String> keys = new ArrayList<>();
+        while (!Thread.currentThread().isInterrupted()) {
+            try {
+                keys.add(ready.take());
+                ready.drainTo(keys, settings().getBatchSize() - 1);
+
+                List<Queued> batch = new ArrayList<>(keys.size());
+                for (String key : keys) {
+                    Queued next = pending.remove(key);
+                    if (next != null) {
+                        queued.decrementAndGet();
+                        batch.add(next);
+                    }
+                }
+                keys.clear();
+
+                if (!batch.isEmpty()) {
+                    taskExecutor.execute(() -> deliver(batch));
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private void deliver(List<Queued> batch) {
+        int delivered;
+        try {
+            sender.sendBatch(batch.stream().map(Queued::notification).toList());
+            delivered = batch.size();
+        } catch (PartialDeliveryException partial) {
+            delivered = partial.getDelivered();
+        } catch (Exception batchFailure) {
+            delivered = 0;
+        }
+        batch.subList(0, delivered).forEach(this::recordDelivered);
+        // Only what did not go out is retried, one at a time so one bad recipient cannot sink the rest
+        for (Queued queued : batch.subList(delivered, batch.size())) {
+            deliverWithRetry(queued);
+        }
+    }
+
+    private void recordDelivered(Queued queued) {
+        delivered.increment();
+        deliveryLatency.record(System.nanoTime() - queued.enqueuedAtNanos(), TimeUnit.NANOSECONDS);
+    }
+
+    private void deliverWithRetry(Queued queued) {
+        Notification notification = queued.notification();
+        AuthProperties.Notification settings = settings();
+        Duration backoff = settings.getInitialBackoff();
+
+        for (int attempt = 1; attempt <= settings.getMaxAttempts(); attempt++) {
+            // A newer message for the same key is already queued; this one is obsolete
+            if (pending.containsKey(notification.coalesceKey())) {
+                return;
+            }
+            try {
+                sender.send(notification);
+                recordDelivered(queued);
+                return;
+            } catch (Exception e) {
+                if (attempt == settings.getMaxAttempts()) {
+                    failed.increment();
+                    log.warn("Giving up on notification to {}: {}", notification.recipient(), e.getMessage());
+                    return;
+                }
+            }
+            try {
+                Thread.sleep(backoff);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            backoff = min(backoff.multipliedBy(2), settings.getMaxBackoff());
+        }
+    }
+
+    private AuthProperties.Notification settings() {
+        return authProperties.getNotification();
+    }
+
+    private static Duration min(Duration a, Duration b) {
+        return a.compareTo(b) <= 0 ? a : b;
+    }
+}
@@ -0,0 +1,28 @@
+package com.drive.authservice.notification;
+
+import java.util.List;
+
+/**
+ * Transport for outbound notifications (mail, SMS, console...). Implementations may
+ * block; they are always called from the dispatcher's virtual threads, never from a
+ * request thread. A thrown exception marks the delivery as failed and it is retried.
+ */
+public interface NotificationSender {
+
+    void send(Notification notification) throws Exception;
+
+    /**
+     * Sends the notifications in order. An implementation that knows how far it got
+     * throws {@link PartialDeliveryException}; any other exception means none of them
+     * can be assumed delivered.
+     */
+    default void sendBatch(List<Notification> notifications) throws Exception {
+        for (int i = 0; i < notifications.size(); i++) {
+            try {
+                send(notifications.get(i));
+            } catch (Exception e) {
+                throw new PartialDeliveryException(i, e);
+            }
+        }
+    }
+}
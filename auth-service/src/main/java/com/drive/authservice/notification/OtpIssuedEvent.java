@@ -0,0 +1,10 @@
+package com.drive.authservice.notification;
+
+import java.time.LocalDateTime;
+
+/**
+ * Published by {@code OtpService} inside the OTP transaction; delivered to the
+ * dispatcher only after that transaction commits.
+ */
+public record OtpIssuedEvent(String username, String recipient, String code, LocalDateTime expiresAt) {
+}
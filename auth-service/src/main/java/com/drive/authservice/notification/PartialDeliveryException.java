@@ -0,0 +1,19 @@
+package com.drive.authservice.notification;
+
+/**
+ * Thrown by {@link NotificationSender#sendBatch} when only the first {@code delivered}
+ * notifications of the batch went out; the rest are retried one at a time.
+ */
+public class PartialDeliveryException extends Exception {
+
+    private final int delivered;
+
+    public PartialDeliveryException(int delivered, Throwable cause) {
+        super(delivered + " notification(s) delivered before the batch failed", cause);
+        this.delivered = delivered;
+    }
+
+    public int getDelivered() {
+        return delivered;
+    }
+}
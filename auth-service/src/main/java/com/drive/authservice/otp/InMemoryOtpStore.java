@@ -0,0 +1,128 @@
+package com.drive.authservice.otp;
+
+import com.drive.authservice.properties.AuthProperties;
+
+import jakarta.annotation.PreDestroy;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Process-local OTP store. Verification is a single atomic {@code compute} on a
+ * concurrent map; expiry is driven by a hashed timer wheel so abandoned OTPs are
+ * removed without scanning the whole map.
+ */
+@Component
+@ConditionalOnProperty(prefix = "auth.otp", name = "store", havingValue = "memory", matchIfMissing = true)
+public class InMemoryOtpStore implements OtpStore {
+
+    private record Entry(String digest, long expiresAtMillis, int attempts) {
+        Entry withAttempts(int attempts) {
+            return new Entry(digest, expiresAtMillis, attempts);
+        }
+    }
+
+    private static final int WHEEL_SLOTS = 64;
+
+    private final ConcurrentHashMap<Long, Entry> entries = new ConcurrentHashMap<>();
+    private final ConcurrentLinkedQueue<Long>[] wheel;
+    private final long tickMillis;
+    private final ScheduledExecutorService ticker;
+
+    @SuppressWarnings("unchecked")
+    public InMemoryOtpStore(AuthProperties authProperties) {
+        this.tickMillis = authProperties.getOtp().getWheelTick().toMillis();
+        this.wheel = new ConcurrentLinkedQueue[WHEEL_SLOTS];
+        for (int i = 0; i < WHEEL_SLOTS; i++) {
+            wheel[i] = new ConcurrentLinkedQueue<>();
+        }
+        this.ticker = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "otp-expiry-wheel");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.ticker.scheduleAtFixedRate(this::tick, tickMillis, tickMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void save(Long userId, String digest, Instant expiresAt) {
+        long expiresAtMillis = expiresAt.toEpochMilli();
+        entries.put(userId, new Entry(digest, expiresAtMillis, 0));
+        wheel[slotFor(expiresAtMillis)].offer(userId);
+    }
+
+    @Override
+    public OtpVerification verify(Long userId, String candidateDigest, int maxAttempts) {
+        long now = System.currentTimeMillis();
+        OtpVerification[] result = {OtpVerification.EXPIRED};
+
+        entries.computeIfPresent(userId, (id, entry) -> {
+            if (entry.expiresAtMillis() <= now) {
+                result[0] = OtpVerification.EXPIRED;
+                return null;
+            }
+            if (OtpHasher.matches(entry.digest(), candidateDigest)) {
+                result[0] = OtpVerification.VALID;
+                return null;
+            }
+            int attempts = entry.attempts() + 1;
+            if (attempts > maxAttempts) {
+                result[0] = OtpVerification.LOCKED;
+                return null;
+            }
+            result[0] = OtpVerification.INVALID;
+            return entry.withAttempts(attempts);
+        });
+
+        return result[0];
+    }
+
+    @Override
+    public void remove(Long userId) {
+        entries.remove(userId);
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    @PreDestroy
+    void shutdown() {
+        ticker.shutdownNow();
+    }
+
+    // Sweeps the slot of the tick that just ended; entries due in a later round are re-queued
+    private void tick() {
+        long now = System.currentTimeMillis();
+        int slotIndex = slotFor(now - tickMillis);
+        ConcurrentLinkedQueue<Long> slot = wheel[slotIndex];
+
+        int due = slot.size();
+        for (int i = 0; i < due; i++) {
+            Long userId = slot.poll();
+            if (userId == null) {
+                break;
+            }
+            Entry entry = entries.get(userId);
+            if (entry == null) {
+                continue;
+            }
+            if (entry.expiresAtMillis() <= now) {
+                entries.remove(userId, entry);
+            } else if (slotFor(entry.expiresAtMillis()) == slotIndex) {
+                slot.offer(userId);
+            }
+        }
+    }
+
+    private int slotFor(long epochMillis) {
+        return (int) ((epochMillis / tickMillis) % WHEEL_SLOTS);
+    }
+}
@@ -0,0 +1,78 @@
+package com.drive.authservice.otp;
+
+import com.drive.authservice.entity.PasswordResetOTP;
+import com.drive.authservice.repository.PasswordResetOtpRepository;
+import com.drive.authservice.repository.UserRepository;
+
+import lombok.RequiredArgsConstructor;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+
+/**
+ * OTP store on the {@code otp_request} table, for deployments where the replica that
+ * verifies an OTP may not be the one that issued it.
+ */
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(prefix = "auth.otp", name = "store", havingValue = "jdbc")
+public class JpaOtpStore implements OtpStore {
+
+    private final PasswordResetOtpRepository otpRepository;
+    private final UserRepository userRepository;
+
+    @Override
+    @Transactional
+    public void save(Long userId, String digest, Instant expiresAt) {
+        PasswordResetOTP otpEntity = otpRepository.findByUser_Id(userId)
+                .orElseGet(() -> PasswordResetOTP.builder()
+                        .user(userRepository.getReferenceById(userId))
+                        .build());
+
+        otpEntity.setOtpHash(digest);
+        otpEntity.setExpiryTime(LocalDateTime.ofInstant(expiresAt, ZoneId.systemDefault()));
+        otpEntity.setAttempts(0);
+        otpEntity.setIsUsed(false);
+        otpRepository.save(otpEntity);
+    }
+
+    @Override
+    @Transactional
+    public OtpVerification verify(Long userId, String candidateDigest, int maxAttempts) {
+        // Row lock serializes concurrent attempts on the same OTP
+        var otpOptional = otpRepository.findForUpdateByUser_Id(userId);
+        if (otpOptional.isEmpty()) {
+            return OtpVerification.EXPIRED;
+        }
+
+        PasswordResetOTP otpEntity = otpOptional.get();
+        if (otpEntity.getExpiryTime().isBefore(LocalDateTime.now())) {
+            otpRepository.delete(otpEntity);
+            return OtpVerification.EXPIRED;
+        }
+
+        if (OtpHasher.matches(otpEntity.getOtpHash(), candidateDigest)) {
+            otpRepository.delete(otpEntity);
+            return OtpVerification.VALID;
+        }
+
+        otpEntity.setAttempts(otpEntity.getAttempts() + 1);
+        if (otpEntity.getAttempts() > maxAttempts) {
+            otpRepository.delete(otpEntity);
+            return OtpVerification.LOCKED;
+        }
+        otpRepository.save(otpEntity);
+        return OtpVerification.INVALID;
+    }
+
+    @Override
+    @Transactional
+    public void remove(Long userId) {
+        otpRepository.findByUser_Id(userId).ifPresent(otpRepository::delete);
+    }
+}
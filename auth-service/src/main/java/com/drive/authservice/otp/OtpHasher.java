@@ -0,0 +1,64 @@
+package com.drive.authservice.otp;
+
+import com.drive.authservice.properties.AuthProperties;
+import com.drive.authservice.security.KeyDerivation;
+
+import org.springframework.stereotype.Component;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.util.Base64;
+import java.util.HexFormat;
+
+/**
+ * Keyed HMAC-SHA256 digests of OTP codes. A short-lived 6-digit code does not need a
+ * slow hash: without the server-side key the digest cannot be brute-forced offline,
+ * and online guessing is capped by the attempt counter.
+ * <p>
+ * The key is {@code auth.otp.hmac-key} if set, otherwise a subkey derived from the token
+ * secret for this purpose only (see {@link KeyDerivation}); never the secret itself.
+ */
+@Component
+public class OtpHasher {
+
+    private final SecretKeySpec key;
+    private final ThreadLocal<Mac> macs;
+
+    public OtpHasher(AuthProperties authProperties) {
+        String encoded = authProperties.getOtp().getHmacKey();
+        byte[] keyBytes = encoded != null && !encoded.isBlank()
+                ? Base64.getDecoder().decode(encoded)
+                : KeyDerivation.derive(Base64.getDecoder().decode(authProperties.getToken().getSecretKey()),
+                        KeyDerivation.OTP_HMAC, 32);
+        this.key = new SecretKeySpec(keyBytes, "HmacSHA256");
+        this.macs = ThreadLocal.withInitial(this::newMac);
+    }
+
+    public String digest(Long userId, String code) {
+        Mac mac = macs.get();
+        // Bind the digest to the user so equal codes of different users never collide
+        mac.update(String.valueOf(userId).getBytes(StandardCharsets.UTF_8));
+        mac.update((byte) ':');
+        return HexFormat.of().formatHex(mac.doFinal(code.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    public static boolean matches(String expected, String candidate) {
+        return MessageDigest.isEqual(
+                expected.getBytes(StandardCharsets.US_ASCII),
+                candidate.getBytes(StandardCharsets.US_ASCII)
+        );
+    }
+
+    private Mac newMac() {
+        try {
+            Mac mac = Mac.getInstance("HmacSHA256");
+            mac.init(key);
+            return mac;
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("HmacSHA256 not available", e);
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package com.drive.authservice.otp;
+
+import java.time.Instant;
+
+/**
+ * Storage for one-time passwords, keyed by user id. Only digests are stored.
+ * Implementations must make {@link #verify} atomic per user: attempt counting and
+ * single use must hold under concurrent verification of the same OTP.
+ * <p>
+ * The in-process {@link InMemoryOtpStore} is the default; {@link JpaOtpStore} keeps the
+ * old {@code otp_request} table for deployments that need OTPs shared between replicas.
+ * A Redis-backed store (SET with PX expiry + a Lua compare/increment) fits the same contract.
+ */
+public interface OtpStore {
+
+    /** Stores the digest, replacing any previous OTP of the user. */
+    void save(Long userId, String digest, Instant expiresAt);
+
+    /** Checks the candidate digest, consuming the OTP on success or lockout. */
+    OtpVerification verify(Long userId, String candidateDigest, int maxAttempts);
+
+    void remove(Long userId);
+}
@@ -0,0 +1,10 @@
+package com.drive.authservice.otp;
+
+public enum OtpVerification {
+    VALID,
+    INVALID,
+    // No OTP for the user, or it expired
+    EXPIRED,
+    // Too many wrong attempts; the OTP has been discarded
+    LOCKED
+}
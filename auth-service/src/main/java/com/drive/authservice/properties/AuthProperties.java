@@ -1,10 +1,13 @@
 package com.drive.authservice.properties;
 
+import java.time.Duration;
 import java.util.List;
 
 import org.springframework.boot.context.properties.ConfigurationProperties;
 
+import lombok.AllArgsConstructor;
 import lombok.Data;
+import lombok.NoArgsConstructor;
 
 @Data
 @ConfigurationProperties(prefix = "auth")
@@ -12,12 +15,35 @@ public class AuthProperties {
     private Token token;
     private Cors cors;
     private Admin admin;
+    private UserCache userCache = new UserCache();
+    private Hashing hashing = new Hashing();
+    private Notification notification = new Notification();
+    private Otp otp = new Otp();
+    private Reaper reaper = new Reaper();
+    private RateLimit rateLimit = new RateLimit();
 
     @Data
     public static class Token {
         private String secretKey;
         private long jwtExpiration;
         private long refreshExpiration;
+        // Authenticate requests from token claims instead of loading the user on every request
+        private boolean stateless;
+        private SigningKeys keys = new SigningKeys();
+    }
+
+    @Data
+    public static class SigningKeys {
+        // Any asymmetric JWS algorithm: ES256 | ES384 | ES512 | EdDSA | RS256 | PS256 ...
+        private String algorithm = "ES256";
+        private Duration rotationPeriod = Duration.ofDays(7);
+        // Published in the JWKS this long before it signs; must exceed the consumers' JWKS cache time
+        private Duration publishAhead = Duration.ofHours(1);
+        // Extra verification time for the outgoing key beyond the access-token lifetime
+        private Duration overlap = Duration.ofMinutes(10);
+        private Duration checkInterval = Duration.ofMinutes(10);
+        // Cache-Control max-age on the JWKS endpoint
+        private Duration jwksMaxAge = Duration.ofMinutes(5);
     }
 
     @Data
@@ -33,4 +59,76 @@ public class AuthProperties {
         private String username;
         private String password;
     }
+
+    @Data
+    public static class UserCache {
+        private int maxSize = 10_000;
+        // Upper bound on staleness of cached users and token versions, e.g. after a change
+        // made on another replica
+        private Duration ttl = Duration.ofMinutes(5);
+    }
+
+    @Data
+    public static class Hashing {
+        private int bcryptStrength = 10;
+        // 0 = one thread per available core
+        private int threads = 0;
+        private int queueCapacity = 256;
+        private long retryAfterSeconds = 1;
+    }
+
+    @Data
+    public static class Notification {
+        // console | memory
+        private String sender = "console";
+        private int queueCapacity = 10_000;
+        private int batchSize = 50;
+        private int maxAttempts = 5;
+        private Duration initialBackoff = Duration.ofMillis(500);
+        private Duration maxBackoff = Duration.ofSeconds(30);
+    }
+
+    @Data
+    public static class Otp {
+        // memory | jdbc
+        private String store = "memory";
+        // Base64 HMAC key for OTP digests; when empty, a subkey of token.secret-key is derived for it
+        private String hmacKey;
+        private Duration ttl = Duration.ofMinutes(5);
+        private int maxAttempts = 3;
+        private Duration wheelTick = Duration.ofSeconds(1);
+    }
+
+    @Data
+    public static class Reaper {
+        private boolean enabled = true;
+        private Duration initialDelay = Duration.ofMinutes(1);
+        private Duration interval = Duration.ofMinutes(10);
+        private int batchSize = 500;
+        // Caps one pass at batchSize * maxBatches rows; the rest waits for the next run
+        private int maxBatches = 100;
+    }
+
+    @Data
+    public static class RateLimit {
+        private boolean enabled = true;
+        private Bucket perIp = new Bucket(20, Duration.ofMinutes(1));
+        private Bucket perIdentifier = new Bucket(5, Duration.ofMinutes(1));
+        // Token refreshes per IP, counted apart from logins so a client refreshing often
+        // does not use up its login attempts (and the reverse)
+        private Bucket refreshPerIp = new Bucket(60, Duration.ofMinutes(1));
+        // Buckets kept per scope; past this, the bucket closest to full is evicted
+        private int maxKeys = 100_000;
+        private Duration sweepInterval = Duration.ofMinutes(1);
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Bucket {
+        // Burst size: attempts allowed back to back
+        private int capacity;
+        // Time for an empty bucket to refill completely
+        private Duration refillPeriod;
+    }
 }
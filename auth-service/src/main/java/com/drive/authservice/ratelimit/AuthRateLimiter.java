@@ -0,0 +1,93 @@
+package com.drive.authservice.ratelimit;
+
+import com.drive.authservice.entity.User;
+import com.drive.authservice.exception.RateLimitExceededException;
+import com.drive.authservice.metrics.AuthMetrics;
+import com.drive.authservice.properties.AuthProperties;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+import jakarta.servlet.http.HttpServletRequest;
+
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throttles the credential-checking endpoints before any BCrypt work is done.
+ * Every attempt takes a token from the caller's IP bucket and, when the request names an
+ * account, from that account's bucket too - so neither one client spraying many accounts
+ * nor many clients hammering one account can keep the hashing pool busy.
+ */
+@Component
+public class AuthRateLimiter implements MeterBinder {
+
+    private final AuthMetrics metrics;
+    private final boolean enabled;
+    private final TokenBucketLimiter perIp;
+    private final TokenBucketLimiter perIdentifier;
+    private final TokenBucketLimiter refreshPerIp;
+
+    public AuthRateLimiter(AuthProperties authProperties, AuthMetrics metrics) {
+        AuthProperties.RateLimit config = authProperties.getRateLimit();
+        this.metrics = metrics;
+        this.enabled = config.isEnabled();
+        this.perIp = limiter(config.getPerIp(), config.getMaxKeys());
+        this.perIdentifier = limiter(config.getPerIdentifier(), config.getMaxKeys());
+        this.refreshPerIp = limiter(config.getRefreshPerIp(), config.getMaxKeys());
+    }
+
+    /**
+     * Takes a token for the client address and, if given, the account identifier.
+     *
+     * @throws RateLimitExceededException when either bucket is empty
+     */
+    public void check(AuthMetrics.Operation operation, HttpServletRequest request, String identifier) {
+        if (!enabled) {
+            return;
+        }
+
+        // 1. Per client address (the real client once forward headers are applied); refreshes
+        //    have their own buckets
+        TokenBucketLimiter byIp = operation == AuthMetrics.Operation.REFRESH ? refreshPerIp : perIp;
+        long waitNanos = byIp.tryAcquire(request.getRemoteAddr());
+
+        // 2. Per account, normalized the same way logins are matched
+        if (waitNanos == 0 && identifier != null && !identifier.isBlank()) {
+            waitNanos = perIdentifier.tryAcquire(User.toLoginKey(identifier));
+        }
+
+        if (waitNanos > 0) {
+            metrics.outcome(operation, AuthMetrics.Outcome.RATE_LIMITED);
+            long retryAfterSeconds = Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos + TimeUnit.SECONDS.toNanos(1) - 1));
+            throw new RateLimitExceededException("Too many attempts, try again later", retryAfterSeconds);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${auth.rate-limit.sweep-interval:1m}")
+    public void evictIdleBuckets() {
+        perIp.evictIdle();
+        perIdentifier.evictIdle();
+        refreshPerIp.evictIdle();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("auth.ratelimit.buckets", perIp, TokenBucketLimiter::size)
+                .tag("scope", "ip")
+                .register(registry);
+        Gauge.builder("auth.ratelimit.buckets", perIdentifier, TokenBucketLimiter::size)
+                .tag("scope", "identifier")
+                .register(registry);
+        Gauge.builder("auth.ratelimit.buckets", refreshPerIp, TokenBucketLimiter::size)
+                .tag("scope", "refresh-ip")
+                .register(registry);
+    }
+
+    private static TokenBucketLimiter limiter(AuthProperties.Bucket bucket, int maxKeys) {
+        return new TokenBucketLimiter(bucket.getCapacity(), bucket.getRefillPeriod(), maxKeys);
+    }
+}
@@ -0,0 +1,167 @@
+package com.drive.authservice.ratelimit;
+
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Keyed token buckets, one CAS per acquire.
+ * <p>
+ * Each bucket is a single {@code long}: the time at which it will be full again
+ * (GCRA form of a token bucket). Taking a token moves that time forward by one refill
+ * interval; the request is allowed while it stays within {@code capacity} intervals of
+ * now. A bucket whose full-time has passed carries no information, so idle buckets can be
+ * dropped at any moment without changing a decision.
+ * <p>
+ * Keys are spread over independent stripes, each holding at most {@code maxKeys / stripes}
+ * buckets. When a stripe is full, a few of its buckets are sampled and the one closest to
+ * full is evicted: it carries the least information, so a key that is actually being
+ * limited keeps its bucket unless the stripe is flooded with keys just as constrained,
+ * and unrelated new keys never share a bucket. Idle buckets are dropped by
+ * {@link #evictIdle}, which callers run periodically, never on the acquire path.
+ */
+public class TokenBucketLimiter {
+
+    private final Stripe[] stripes;
+    private final int mask;
+    private final long capacity;
+    private final long intervalNanos;
+    private final long burstNanos;
+    private final LongSupplier clock;
+
+    public TokenBucketLimiter(int capacity, Duration refillPeriod, int maxKeys) {
+        this(capacity, refillPeriod, maxKeys, System::nanoTime);
+    }
+
+    TokenBucketLimiter(int capacity, Duration refillPeriod, int maxKeys, LongSupplier clock) {
+        if (capacity < 1 || refillPeriod.isNegative() || refillPeriod.isZero()) {
+            throw new IllegalArgumentException("Rate limit needs capacity >= 1 and a positive refill period");
+        }
+        this.capacity = capacity;
+        this.intervalNanos = Math.max(1, refillPeriod.toNanos() / capacity);
+        this.burstNanos = intervalNanos * capacity;
+        this.clock = clock;
+
+        int count = Integer.highestOneBit(Math.max(1, Runtime.getRuntime().availableProcessors() * 4) - 1) << 1;
+        this.stripes = new Stripe[count];
+        this.mask = count - 1;
+        int perStripe = Math.max(1, maxKeys / count);
+        for (int i = 0; i < count; i++) {
+            stripes[i] = new Stripe(perStripe);
+        }
+    }
+
+    /**
+     * Takes one token for {@code key}.
+     *
+     * @return 0 if the request is allowed, otherwise the nanoseconds until a token is available
+     */
+    public long tryAcquire(String key) {
+        long now = clock.getAsLong();
+        Stripe stripe = stripes[spread(key.hashCode()) & mask];
+        AtomicLong bucket = stripe.buckets.get(key);
+        if (bucket == null) {
+            bucket = stripe.bucketFor(key);
+        }
+
+        while (true) {
+            long fullAt = bucket.get();
+            long next = Math.max(fullAt, now) + intervalNanos;
+            long excess = next - now - burstNanos;
+            if (excess > 0) {
+                return excess;
+            }
+            if (bucket.compareAndSet(fullAt, next)) {
+                return 0;
+            }
+        }
+    }
+
+    /**
+     * Drops every bucket that has refilled completely.
+     *
+     * @return the number of buckets removed
+     */
+    public int evictIdle() {
+        long now = clock.getAsLong();
+        int removed = 0;
+        for (Stripe stripe : stripes) {
+            removed += stripe.evictIdle(now);
+        }
+        return removed;
+    }
+
+    public int size() {
+        int size = 0;
+        for (Stripe stripe : stripes) {
+            size += stripe.buckets.size();
+        }
+        return size;
+    }
+
+    public long capacity() {
+        return capacity;
+    }
+
+    private static int spread(int hash) {
+        return hash ^ (hash >>> 16);
+    }
+
+    private static final class Stripe {
+        // Buckets looked at to pick one to evict from a full stripe
+        private static final int EVICTION_SAMPLE = 8;
+
+        private final ConcurrentHashMap<String, AtomicLong> buckets = new ConcurrentHashMap<>();
+        private final int maxKeys;
+
+        private Stripe(int maxKeys) {
+            this.maxKeys = maxKeys;
+        }
+
+        private AtomicLong bucketFor(String key) {
+            if (buckets.size() >= maxKeys) {
+                synchronized (this) {
+                    while (buckets.size() >= maxKeys) {
+                        evictClosestToFull();
+                    }
+                }
+            }
+            // A bucket created by a racing thread wins; ours is simply discarded
+            return buckets.computeIfAbsent(key, k -> new AtomicLong(Long.MIN_VALUE));
+        }
+
+        // Of a sample, the bucket that refills first (an idle one if the sweep has not run)
+        private void evictClosestToFull() {
+            String victim = null;
+            long earliest = Long.MAX_VALUE;
+            int sampled = 0;
+            for (var entry : buckets.entrySet()) {
+                long fullAt = entry.getValue().get();
+                if (victim == null || fullAt < earliest) {
+                    victim = entry.getKey();
+                    earliest = fullAt;
+                }
+                if (++sampled == EVICTION_SAMPLE) {
+                    break;
+                }
+            }
+            if (victim != null) {
+                buckets.remove(victim);
+            }
+        }
+
+        // A concurrent acquire on a bucket being removed loses at most that one token
+        private int evictIdle(long now) {
+            int removed = 0;
+            for (Iterator<AtomicLong> it = buckets.values().iterator(); it.hasNext(); ) {
+                if (it.next().get() <= now) {
+                    it.remove();
+                    removed++;
+                }
+            }
+            return removed;
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package com.drive.authservice.repository;
+
+import com.drive.authservice.entity.JwtSigningKey;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.List;
+
+public interface JwtSigningKeyRepository extends JpaRepository<JwtSigningKey, String> {
+
+    @Query("select k from JwtSigningKey k where k.expiresAt is null or k.expiresAt > :now order by k.activatesAt desc")
+    List<JwtSigningKey> findUsable(@Param("now") Instant now);
+
+    @Transactional
+    @Modifying
+    @Query("delete from JwtSigningKey k where k.expiresAt <= :now")
+    int deleteExpired(@Param("now") Instant now);
+}
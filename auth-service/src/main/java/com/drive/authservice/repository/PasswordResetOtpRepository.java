@@ -2,13 +2,36 @@ package com.drive.authservice.repository;
 
 import com.drive.authservice.entity.PasswordResetOTP;
 import com.drive.authservice.entity.User;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Optional;
 
 public interface PasswordResetOtpRepository extends JpaRepository<PasswordResetOTP, Long> {
     
     Optional<PasswordResetOTP> findByUser(User user);
 
+    Optional<PasswordResetOTP> findByUser_Id(Long userId);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    Optional<PasswordResetOTP> findForUpdateByUser_Id(Long userId);
+
     // This tells Spring: "Go into the 'User' field, and match the 'Email' property inside it"
     Optional<PasswordResetOTP> findByUser_Email(String email);
-}
\ No newline at end of file
+
+    @Query("select o.id from PasswordResetOTP o where o.expiryTime < :now and o.id > :afterId order by o.id")
+    List<Long> findExpiredIds(@Param("now") LocalDateTime now, @Param("afterId") long afterId, Limit limit);
+
+    // Re-checks expiry: an OTP re-issued in place since it was selected must survive
+    @Transactional
+    @Modifying
+    @Query("delete from PasswordResetOTP o where o.id in :ids and o.expiryTime < :now")
+    int deleteExpiredByIdIn(@Param("ids") List<Long> ids, @Param("now") LocalDateTime now);
+}
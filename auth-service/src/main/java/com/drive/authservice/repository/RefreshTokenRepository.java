@@ -1,12 +1,35 @@
 package com.drive.authservice.repository;
 
 import com.drive.authservice.entity.RefreshToken;
-import com.drive.authservice.entity.User;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
-import java.util.Optional;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.List;
 
 public interface RefreshTokenRepository extends JpaRepository<RefreshToken, Long> {
-    Optional<RefreshToken> findByToken(String token); 
 
-    Optional<RefreshToken> findByUser(User user);
-}
\ No newline at end of file
+    @Transactional
+    @Modifying
+    @Query("delete from RefreshToken t where t.tokenHash = :hash")
+    int deleteByTokenHash(@Param("hash") String tokenHash);
+
+    // Revokes the family an already-rotated token belonged to (reuse detection)
+    @Transactional
+    @Modifying
+    @Query("delete from RefreshToken t where t.previousHash = :hash")
+    int deleteByPreviousHash(@Param("hash") String previousHash);
+
+    @Query("select t.id from RefreshToken t where t.expiryDate < :now and t.id > :afterId order by t.id")
+    List<Long> findExpiredIds(@Param("now") Instant now, @Param("afterId") long afterId, Limit limit);
+
+    // Re-checks expiry: a row re-issued since it was selected must survive
+    @Transactional
+    @Modifying
+    @Query("delete from RefreshToken t where t.id in :ids and t.expiryDate < :now")
+    int deleteExpiredByIdIn(@Param("ids") List<Long> ids, @Param("now") Instant now);
+}
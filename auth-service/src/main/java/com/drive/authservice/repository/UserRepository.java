@@ -1,12 +1,64 @@
 package com.drive.authservice.repository;
 
+import java.time.Instant;
+import java.util.List;
 import java.util.Optional;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
 import com.drive.authservice.entity.User;
 
 public interface UserRepository extends JpaRepository<User, Long> {
     Optional<User> findByEmail(String email);
     Optional<User> findByUsername(String username);
+
+    // Email match wins over username match, same precedence as the old two-query chain
+    @Query("""
+            select u from User u
+            where u.emailKey = :key or u.usernameKey = :key
+            order by case when u.emailKey = :key then 0 else 1 end
+            """)
+    List<User> findAllByLoginKey(@Param("key") String key);
+
+    /**
+     * Resolves an email or username, case-insensitively, in a single indexed query.
+     */
+    default Optional<User> findByLoginIdentifier(String identifier) {
+        if (identifier == null || identifier.isBlank()) {
+            return Optional.empty();
+        }
+        return findAllByLoginKey(User.toLoginKey(identifier)).stream().findFirst();
+    }
+
+    // Fills the lookup columns for rows created before they existed
+    @Transactional
+    @Modifying
+    @Query("update User u set u.usernameKey = lower(trim(u.username)), u.emailKey = lower(trim(u.email)) where u.usernameKey is null")
+    int backfillLoginKeys();
+
+    /**
+     * Rotates a refresh token in one statement: swaps the hash of the matching,
+     * unexpired family and returns its owner. Empty if the token is unknown, already
+     * rotated or expired. Declared here because the statement returns a {@link User}.
+     */
+    @Transactional
+    @Query(value = """
+            WITH rotated AS (
+                UPDATE refresh_token_families
+                SET previous_hash = token_hash, token_hash = :newHash, expiry_date = :newExpiry
+                WHERE token_hash = :oldHash AND expiry_date > :now
+                RETURNING user_id
+            )
+            SELECT u.* FROM users u JOIN rotated r ON u.id = r.user_id
+            """, nativeQuery = true)
+    Optional<User> rotateRefreshToken(
+            @Param("oldHash") String oldHash,
+            @Param("newHash") String newHash,
+            @Param("newExpiry") Instant newExpiry,
+            @Param("now") Instant now
+    );
 }
@@ -0,0 +1,53 @@
+package com.drive.authservice.scheduling;
+
+import lombok.RequiredArgsConstructor;
+
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * Cluster-wide mutual exclusion on a Postgres session-level advisory lock. The lock is
+ * held on a dedicated connection for the duration of the task, so the task itself may
+ * use any number of ordinary (pooled) transactions.
+ */
+@Component
+@RequiredArgsConstructor
+public class AdvisoryLock {
+
+    private final DataSource dataSource;
+
+    /**
+     * Runs the task if no other instance currently holds {@code lockKey}.
+     *
+     * @return false if the lock was held elsewhere and the task was skipped
+     */
+    public boolean runExclusively(long lockKey, Runnable task) {
+        try (Connection connection = dataSource.getConnection()) {
+            if (!call(connection, "select pg_try_advisory_lock(?)", lockKey)) {
+                return false;
+            }
+            try {
+                task.run();
+                return true;
+            } finally {
+                call(connection, "select pg_advisory_unlock(?)", lockKey);
+            }
+        } catch (SQLException e) {
+            throw new IllegalStateException("Advisory lock " + lockKey + " failed", e);
+        }
+    }
+
+    private static boolean call(Connection connection, String sql, long lockKey) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(sql)) {
+            statement.setLong(1, lockKey);
+            try (ResultSet resultSet = statement.executeQuery()) {
+                return resultSet.next() && resultSet.getBoolean(1);
+            }
+        }
+    }
+}
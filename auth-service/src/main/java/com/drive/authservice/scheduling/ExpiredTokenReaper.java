@@ -0,0 +1,105 @@
+package com.drive.authservice.scheduling;
+
+import com.drive.authservice.properties.AuthProperties;
+import com.drive.authservice.repository.PasswordResetOtpRepository;
+import com.drive.authservice.repository.RefreshTokenRepository;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.function.Function;
+import java.util.function.ToIntFunction;
+
+/**
+ * Periodically deletes expired refresh token families and OTP rows in bounded chunks.
+ * Ids are walked with keyset iteration ({@code id > lastId}) so each batch starts right
+ * after the previous one instead of rescanning rows that were just deleted. Only one
+ * replica runs a pass at a time (Postgres advisory lock).
+ */
+@Component
+@ConditionalOnProperty(prefix = "auth.reaper", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class ExpiredTokenReaper {
+
+    // Arbitrary, but must be unique among the advisory locks used by auth-service
+    static final long LOCK_KEY = 0x5348_5542_0001L;
+
+    private final RefreshTokenRepository refreshTokenRepository;
+    private final PasswordResetOtpRepository otpRepository;
+    private final AdvisoryLock advisoryLock;
+    private final AuthProperties authProperties;
+
+    private final Counter refreshTokensPurged;
+    private final Counter otpsPurged;
+    private final Timer refreshTokenTimer;
+    private final Timer otpTimer;
+
+    public ExpiredTokenReaper(
+            RefreshTokenRepository refreshTokenRepository,
+            PasswordResetOtpRepository otpRepository,
+            AdvisoryLock advisoryLock,
+            AuthProperties authProperties,
+            MeterRegistry meterRegistry
+    ) {
+        this.refreshTokenRepository = refreshTokenRepository;
+        this.otpRepository = otpRepository;
+        this.advisoryLock = advisoryLock;
+        this.authProperties = authProperties;
+
+        this.refreshTokensPurged = Counter.builder("auth.reaper.purged").tag("table", "refresh_token_families").register(meterRegistry);
+        this.otpsPurged = Counter.builder("auth.reaper.purged").tag("table", "otp_request").register(meterRegistry);
+        this.refreshTokenTimer = Timer.builder("auth.reaper.duration").tag("table", "refresh_token_families").register(meterRegistry);
+        this.otpTimer = Timer.builder("auth.reaper.duration").tag("table", "otp_request").register(meterRegistry);
+    }
+
+    @Scheduled(
+            initialDelayString = "${auth.reaper.initial-delay:1m}",
+            fixedDelayString = "${auth.reaper.interval:10m}"
+    )
+    public void purgeExpired() {
+        advisoryLock.runExclusively(LOCK_KEY, () -> {
+            Instant now = Instant.now();
+            LocalDateTime localNow = LocalDateTime.now();
+
+            refreshTokenTimer.record(() -> refreshTokensPurged.increment(purge(
+                    afterId -> refreshTokenRepository.findExpiredIds(now, afterId, Limit.of(batchSize())),
+                    ids -> refreshTokenRepository.deleteExpiredByIdIn(ids, now)
+            )));
+
+            otpTimer.record(() -> otpsPurged.increment(purge(
+                    afterId -> otpRepository.findExpiredIds(localNow, afterId, Limit.of(batchSize())),
+                    ids -> otpRepository.deleteExpiredByIdIn(ids, localNow)
+            )));
+        });
+    }
+
+    private long purge(Function<Long, List<Long>> nextBatch, ToIntFunction<List<Long>> delete) {
+        long purged = 0;
+        long afterId = 0;
+
+        for (int batch = 0; batch < authProperties.getReaper().getMaxBatches(); batch++) {
+            List<Long> ids = nextBatch.apply(afterId);
+            if (ids.isEmpty()) {
+                break;
+            }
+            purged += delete.applyAsInt(ids);
+            afterId = ids.getLast();
+            if (ids.size() < batchSize()) {
+                break;
+            }
+        }
+        return purged;
+    }
+
+    private int batchSize() {
+        return authProperties.getReaper().getBatchSize();
+    }
+}
@@ -0,0 +1,112 @@
+package com.drive.authservice.security;
+
+import io.jsonwebtoken.JwsHeader;
+import io.jsonwebtoken.LocatorAdapter;
+import io.jsonwebtoken.security.Jwks;
+import io.jsonwebtoken.security.SignatureAlgorithm;
+
+import org.springframework.stereotype.Component;
+
+import java.security.Key;
+import java.security.KeyPair;
+import java.security.PrivateKey;
+import java.security.PublicKey;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * The access-token keys currently in use: the key that signs new tokens, every public
+ * key that may still verify one (looked up by the JWS {@code kid} header), and the
+ * matching JWKS document. Keys are swapped in as one immutable snapshot by
+ * {@link SigningKeyRotator}, so readers never lock.
+ */
+@Component
+public class JwtKeyRing extends LocatorAdapter<Key> {
+
+    public record SigningKey(
+            String kid,
+            SignatureAlgorithm algorithm,
+            PrivateKey privateKey,
+            PublicKey publicKey,
+            Instant activatesAt,
+            Instant expiresAt
+    ) {
+        public static SigningKey generate(SignatureAlgorithm algorithm, Instant activatesAt) {
+            KeyPair pair = algorithm.keyPair().build();
+            return new SigningKey(UUID.randomUUID().toString(), algorithm, pair.getPrivate(), pair.getPublic(), activatesAt, null);
+        }
+
+        boolean isExpired(Instant now) {
+            return expiresAt != null && !now.isBefore(expiresAt);
+        }
+    }
+
+    // keys: newest activation first
+    private record Snapshot(List<SigningKey> keys, Map<String, SigningKey> byKid, String jwks) {
+    }
+
+    private volatile Snapshot snapshot = new Snapshot(List.of(), Map.of(), "{\"keys\":[]}");
+
+    public void replace(Collection<SigningKey> keys) {
+        List<SigningKey> ordered = keys.stream()
+                .sorted(Comparator.comparing(SigningKey::activatesAt).reversed())
+                .toList();
+        Map<String, SigningKey> byKid = ordered.stream()
+                .collect(Collectors.toUnmodifiableMap(SigningKey::kid, Function.identity()));
+        String jwks = ordered.stream()
+                .map(JwtKeyRing::toJwk)
+                .collect(Collectors.joining(",", "{\"keys\":[", "]}"));
+
+        this.snapshot = new Snapshot(ordered, byKid, jwks);
+    }
+
+    /**
+     * The newest key whose activation time has passed. A key published ahead of its
+     * activation is only verified against until then, giving JWKS consumers time to fetch it.
+     */
+    public SigningKey signingKey() {
+        Instant now = Instant.now();
+        for (SigningKey key : snapshot.keys()) {
+            if (!key.activatesAt().isAfter(now)) {
+                return key;
+            }
+        }
+        throw new IllegalStateException("No active JWT signing key");
+    }
+
+    public boolean hasSigningKey() {
+        Instant now = Instant.now();
+        return snapshot.keys().stream().anyMatch(key -> !key.activatesAt().isAfter(now));
+    }
+
+    // Pre-rendered JSON Web Key Set of every published public key
+    public String jwks() {
+        return snapshot.jwks();
+    }
+
+    // Unknown or expired kid: the parser rejects the token as unverifiable
+    @Override
+    protected Key locate(JwsHeader header) {
+        String kid = header.getKeyId();
+        SigningKey key = kid != null ? snapshot.byKid().get(kid) : null;
+        if (key == null || key.isExpired(Instant.now())) {
+            return null;
+        }
+        return key.publicKey();
+    }
+
+    private static String toJwk(SigningKey key) {
+        return Jwks.json(Jwks.builder()
+                .key(key.publicKey())
+                .id(key.kid())
+                .algorithm(key.algorithm().getId())
+                .publicKeyUse("sig")
+                .build());
+    }
+}
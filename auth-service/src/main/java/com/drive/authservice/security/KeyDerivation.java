@@ -0,0 +1,54 @@
+package com.drive.authservice.security;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.util.Arrays;
+
+/**
+ * HKDF-SHA256 (RFC 5869) subkeys of {@code auth.token.secret-key}. Each use of the secret
+ * gets its own label, so no two purposes ever share key material and one subkey says
+ * nothing about another or about the secret.
+ */
+public final class KeyDerivation {
+
+    public static final String OTP_HMAC = "shubhdrive/otp-hmac/v1";
+    public static final String SIGNING_KEY_WRAP = "shubhdrive/signing-key-wrap/v1";
+
+    private static final int HASH_LENGTH = 32;
+
+    private KeyDerivation() {
+    }
+
+    public static byte[] derive(byte[] secret, String label, int length) {
+        if (length > 255 * HASH_LENGTH) {
+            throw new IllegalArgumentException("HKDF output too long");
+        }
+        try {
+            // 1. Extract, with the default all-zero salt
+            Mac mac = Mac.getInstance("HmacSHA256");
+            mac.init(new SecretKeySpec(new byte[HASH_LENGTH], "HmacSHA256"));
+            byte[] prk = mac.doFinal(secret);
+
+            // 2. Expand with the label as info
+            mac.init(new SecretKeySpec(prk, "HmacSHA256"));
+            byte[] info = label.getBytes(StandardCharsets.UTF_8);
+            byte[] okm = new byte[length];
+            byte[] block = new byte[0];
+            for (int offset = 0, counter = 1; offset < length; counter++) {
+                mac.update(block);
+                mac.update(info);
+                mac.update((byte) counter);
+                block = mac.doFinal();
+                int n = Math.min(block.length, length - offset);
+                System.arraycopy(block, 0, okm, offset, n);
+                offset += n;
+            }
+            Arrays.fill(prk, (byte) 0);
+            return okm;
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("HmacSHA256 not available", e);
+        }
+    }
+}
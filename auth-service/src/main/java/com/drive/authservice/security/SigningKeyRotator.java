@@ -0,0 +1,233 @@
+package com.drive.authservice.security;
+
+import com.drive.authservice.entity.JwtSigningKey;
+import com.drive.authservice.properties.AuthProperties;
+import com.drive.authservice.repository.JwtSigningKeyRepository;
+import com.drive.authservice.scheduling.AdvisoryLock;
+
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.security.SecureDigestAlgorithm;
+import io.jsonwebtoken.security.SignatureAlgorithm;
+
+import jakarta.annotation.PostConstruct;
+
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.AEADBadTagException;
+import javax.crypto.Cipher;
+import javax.crypto.SecretKey;
+import javax.crypto.spec.GCMParameterSpec;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.KeyFactory;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.security.spec.PKCS8EncodedKeySpec;
+import java.security.spec.X509EncodedKeySpec;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.List;
+
+/**
+ * Creates, rotates and loads the access-token signing keys.
+ * <p>
+ * Keys live in {@code jwt_signing_keys} so all replicas sign with the same key and serve
+ * the same JWKS. One replica at a time (Postgres advisory lock) decides whether a new key
+ * is due; every replica then reloads the table into {@link JwtKeyRing}.
+ * <p>
+ * Rotation timeline for a key K2 replacing K1:
+ * <ol>
+ *     <li>K2 is created {@code publish-ahead} before it activates and appears in the JWKS,
+ *     so consumers have it cached before the first token signed with it.</li>
+ *     <li>At activation K2 starts signing; K1 stops signing but still verifies.</li>
+ *     <li>K1 is dropped once every token it signed has expired, plus {@code overlap}.</li>
+ * </ol>
+ * Private keys are stored AES-GCM encrypted under a subkey of {@code auth.token.secret-key}
+ * ({@link KeyDerivation}). Keys wrapped by earlier versions, under a plain SHA-256 of the
+ * secret, still load until rotation retires them.
+ */
+@Component
+public class SigningKeyRotator {
+
+    static final long LOCK_KEY = 0x5348_5542_0002L;
+
+    private static final int STARTUP_ATTEMPTS = 10;
+    private static final int GCM_IV_BYTES = 12;
+
+    private final JwtSigningKeyRepository repository;
+    private final AdvisoryLock advisoryLock;
+    private final JwtKeyRing keyRing;
+    private final AuthProperties authProperties;
+    private final SignatureAlgorithm algorithm;
+    private final SecretKey wrappingKey;
+    private final SecretKey legacyWrappingKey;
+    private final SecureRandom random = new SecureRandom();
+
+    public SigningKeyRotator(
+            JwtSigningKeyRepository repository,
+            AdvisoryLock advisoryLock,
+            JwtKeyRing keyRing,
+            AuthProperties authProperties
+    ) {
+        this.repository = repository;
+        this.advisoryLock = advisoryLock;
+        this.keyRing = keyRing;
+        this.authProperties = authProperties;
+        this.algorithm = signatureAlgorithm(authProperties.getToken().getKeys().getAlgorithm());
+        byte[] secret = Decoders.BASE64.decode(authProperties.getToken().getSecretKey());
+        this.wrappingKey = new SecretKeySpec(KeyDerivation.derive(secret, KeyDerivation.SIGNING_KEY_WRAP, 32), "AES");
+        this.legacyWrappingKey = legacyWrappingKey(secret);
+    }
+
+    // Another replica may be creating the very first key; wait for it to commit
+    @PostConstruct
+    void init() throws InterruptedException {
+        for (int attempt = 0; attempt < STARTUP_ATTEMPTS; attempt++) {
+            rotate();
+            if (keyRing.hasSigningKey()) {
+                return;
+            }
+            Thread.sleep(500);
+        }
+        throw new IllegalStateException("No JWT signing key available after startup");
+    }
+
+    @Scheduled(
+            initialDelayString = "${auth.token.keys.check-interval:10m}",
+            fixedDelayString = "${auth.token.keys.check-interval:10m}"
+    )
+    public void rotate() {
+        advisoryLock.runExclusively(LOCK_KEY, this::rotateIfDue);
+        reload();
+    }
+
+    private void rotateIfDue() {
+        AuthProperties.SigningKeys config = authProperties.getToken().getKeys();
+        Instant now = Instant.now();
+
+        // 1. Drop keys no unexpired token can reference any more
+        repository.deleteExpired(now);
+
+        // 2. First start: sign right away
+        List<JwtSigningKey> keys = repository.findUsable(now);
+        if (keys.isEmpty()) {
+            repository.save(toEntity(JwtKeyRing.SigningKey.generate(algorithm, now)));
+            return;
+        }
+
+        // 3. Publish the successor of the newest key ahead of its activation
+        JwtSigningKey newest = keys.getFirst();
+        Instant dueAt = newest.getActivatesAt().plus(config.getRotationPeriod());
+        if (now.isBefore(dueAt.minus(config.getPublishAhead()))) {
+            return;
+        }
+        Instant activatesAt = dueAt.isAfter(now.plus(config.getPublishAhead())) ? dueAt : now.plus(config.getPublishAhead());
+
+        // 4. The outgoing key verifies what it signed until those tokens have expired
+        Duration tokenLifetime = Duration.ofMillis(authProperties.getToken().getJwtExpiration());
+        newest.setExpiresAt(activatesAt.plus(tokenLifetime).plus(config.getOverlap()));
+        repository.saveAll(List.of(newest, toEntity(JwtKeyRing.SigningKey.generate(algorithm, activatesAt))));
+    }
+
+    private void reload() {
+        keyRing.replace(repository.findUsable(Instant.now()).stream()
+                .map(this::toSigningKey)
+                .toList());
+    }
+
+    private JwtSigningKey toEntity(JwtKeyRing.SigningKey key) {
+        return JwtSigningKey.builder()
+                .kid(key.kid())
+                .algorithm(key.algorithm().getId())
+                .publicKey(Base64.getEncoder().encodeToString(key.publicKey().getEncoded()))
+                .privateKey(encrypt(key.kid(), key.privateKey().getEncoded()))
+                .createdAt(Instant.now())
+                .activatesAt(key.activatesAt())
+                .build();
+    }
+
+    private JwtKeyRing.SigningKey toSigningKey(JwtSigningKey entity) {
+        SignatureAlgorithm keyAlgorithm = signatureAlgorithm(entity.getAlgorithm());
+        try {
+            KeyFactory factory = KeyFactory.getInstance(keyFactoryAlgorithm(keyAlgorithm));
+            return new JwtKeyRing.SigningKey(
+                    entity.getKid(),
+                    keyAlgorithm,
+                    factory.generatePrivate(new PKCS8EncodedKeySpec(decrypt(entity.getKid(), entity.getPrivateKey()))),
+                    factory.generatePublic(new X509EncodedKeySpec(Base64.getDecoder().decode(entity.getPublicKey()))),
+                    entity.getActivatesAt(),
+                    entity.getExpiresAt()
+            );
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Cannot load JWT signing key " + entity.getKid(), e);
+        }
+    }
+
+    // Stored as base64(iv || ciphertext); the kid is bound in as associated data
+    private String encrypt(String kid, byte[] plaintext) {
+        try {
+            byte[] iv = new byte[GCM_IV_BYTES];
+            random.nextBytes(iv);
+            Cipher cipher = Cipher.getInstance("AES/GCM/NoPadding");
+            cipher.init(Cipher.ENCRYPT_MODE, wrappingKey, new GCMParameterSpec(128, iv));
+            cipher.updateAAD(kid.getBytes(StandardCharsets.UTF_8));
+            byte[] ciphertext = cipher.doFinal(plaintext);
+            return Base64.getEncoder().encodeToString(ByteBuffer.allocate(iv.length + ciphertext.length)
+                    .put(iv)
+                    .put(ciphertext)
+                    .array());
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Cannot encrypt JWT signing key", e);
+        }
+    }
+
+    private byte[] decrypt(String kid, String stored) throws GeneralSecurityException {
+        byte[] data = Base64.getDecoder().decode(stored);
+        try {
+            return decrypt(wrappingKey, kid, data);
+        } catch (AEADBadTagException e) {
+            return decrypt(legacyWrappingKey, kid, data);
+        }
+    }
+
+    private static byte[] decrypt(SecretKey key, String kid, byte[] data) throws GeneralSecurityException {
+        Cipher cipher = Cipher.getInstance("AES/GCM/NoPadding");
+        cipher.init(Cipher.DECRYPT_MODE, key, new GCMParameterSpec(128, data, 0, GCM_IV_BYTES));
+        cipher.updateAAD(kid.getBytes(StandardCharsets.UTF_8));
+        return cipher.doFinal(data, GCM_IV_BYTES, data.length - GCM_IV_BYTES);
+    }
+
+    private static SecretKey legacyWrappingKey(byte[] secret) {
+        try {
+            MessageDigest sha256 = MessageDigest.getInstance("SHA-256");
+            sha256.update("jwt-signing-key".getBytes(StandardCharsets.UTF_8));
+            return new SecretKeySpec(sha256.digest(secret), "AES");
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    private static SignatureAlgorithm signatureAlgorithm(String id) {
+        SecureDigestAlgorithm<?, ?> candidate = Jwts.SIG.get().get(id);
+        if (candidate instanceof SignatureAlgorithm signatureAlgorithm) {
+            return signatureAlgorithm;
+        }
+        throw new IllegalArgumentException("auth.token.keys.algorithm must be an asymmetric JWS algorithm (ES256, EdDSA, ...), got " + id);
+    }
+
+    private static String keyFactoryAlgorithm(SignatureAlgorithm algorithm) {
+        String id = algorithm.getId();
+        if (id.startsWith("ES")) {
+            return "EC";
+        }
+        if (id.equals("EdDSA")) {
+            return "EdDSA";
+        }
+        return "RSA";
+    }
+}
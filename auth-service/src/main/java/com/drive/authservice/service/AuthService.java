@@ -11,11 +11,17 @@ import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.beans.factory.annotation.Value;
 
+import com.drive.authservice.cache.TokenVersionRegistry;
+import com.drive.authservice.cache.UserDetailsCache;
 import com.drive.authservice.repository.UserRepository;
 import com.drive.authservice.dto.*;
 import com.drive.authservice.entity.RefreshToken;
 import com.drive.authservice.entity.Role;
 import com.drive.authservice.entity.User;
+import com.drive.authservice.metrics.AuthMetrics;
+import com.drive.authservice.metrics.AuthMetrics.Operation;
+import com.drive.authservice.metrics.AuthMetrics.Outcome;
+import com.drive.authservice.metrics.AuthMetrics.Phase;
 
 @Service
 @RequiredArgsConstructor
@@ -26,23 +32,35 @@ public class AuthService {
     private final RefreshTokenService refreshTokenService;
     private final OtpService otpService;
     private final PasswordEncoder passwordEncoder;
+    private final TokenVersionRegistry tokenVersionRegistry;
+    private final UserDetailsCache userDetailsCache;
+    private final AuthMetrics metrics;
     
     @Value("${auth.token.refresh-expiration}")
     private long REFRESH_EXPIRATION;
 
     public LoginResponse login(LoginRequest request, HttpServletResponse httpResponse) {
-        authenticationManager.authenticate(
+        try {
+            return doLogin(request, httpResponse);
+        } catch (RuntimeException e) {
+            metrics.failure(Operation.LOGIN, e);
+            throw e;
+        }
+    }
+
+    private LoginResponse doLogin(LoginRequest request, HttpServletResponse httpResponse) {
+        metrics.time(Operation.LOGIN, Phase.AUTHENTICATE, () -> authenticationManager.authenticate(
                 new UsernamePasswordAuthenticationToken(
                         request.getEmail(),
                         request.getPassword()
                 )
-        );
+        ));
 
-        User user = userRepository.findByEmail(request.getEmail())
-                .or(() -> userRepository.findByUsername(request.getEmail()))
-                .orElseThrow(() -> new RuntimeException("User not found"));
+        User user = metrics.time(Operation.LOGIN, Phase.LOOKUP, () -> userRepository.findByLoginIdentifier(request.getEmail())
+                .orElseThrow(() -> new RuntimeException("User not found")));
         
         if(user.getRole().equals(Role.ADMIN) && user.isFirstLogin()) {
+            metrics.outcome(Operation.LOGIN, Outcome.ADMIN_SETUP_REQUIRED);
             return LoginResponse.builder()
                     .status("ADMIN_SETUP_REQUIRED")
                     .message("Default admin detected. Please complete setup (Set Email & Password).")
@@ -50,14 +68,15 @@ public class AuthService {
         }
 
         if(user.getRole().equals(Role.USER) && user.isFirstLogin()) {
-            otpService.generateAndSendOtp(user);
+            metrics.time(Operation.LOGIN, Phase.OTP, () -> otpService.generateAndSendOtp(user));
+            metrics.outcome(Operation.LOGIN, Outcome.ACTIVATION_REQUIRED);
             return LoginResponse.builder()
                     .status("ACTIVATION_REQUIRED")
                     .message("Account valid. OTP sent to registered email.")
                     .build();
         }
 
-        return generateTokensAndResponse(user, httpResponse, "Login successful");
+        return generateTokensAndResponse(Operation.LOGIN, user, httpResponse, "Login successful");
     }
 
     /**
@@ -66,14 +85,23 @@ public class AuthService {
      */
     @Transactional
     public LoginResponse setupAdmin(AdminSetupRequest request, HttpServletResponse httpResponse) {
+        try {
+            return doSetupAdmin(request, httpResponse);
+        } catch (RuntimeException e) {
+            metrics.failure(Operation.ADMIN_SETUP, e);
+            throw e;
+        }
+    }
+
+    private LoginResponse doSetupAdmin(AdminSetupRequest request, HttpServletResponse httpResponse) {
         // 1. Verify credentials (admin/admin)
-        authenticationManager.authenticate(
+        metrics.time(Operation.ADMIN_SETUP, Phase.AUTHENTICATE, () -> authenticationManager.authenticate(
             new UsernamePasswordAuthenticationToken(request.getUsername(), request.getCurrentPassword())
-        );
+        ));
 
         // 2. Find the admin user
-        User user = userRepository.findByUsername(request.getUsername())
-                .orElseThrow(() -> new RuntimeException("Admin user not found"));
+        User user = metrics.time(Operation.ADMIN_SETUP, Phase.LOOKUP, () -> userRepository.findByUsername(request.getUsername())
+                .orElseThrow(() -> new RuntimeException("Admin user not found")));
 
         // 3. Security Guard: Prevent re-running setup if email is already set
         if (user.getEmail() != null && !user.getEmail().isEmpty()) {
@@ -82,13 +110,16 @@ public class AuthService {
 
         // 4. Update Admin Credentials
         user.setEmail(request.getNewEmail());
-        user.setPassword(passwordEncoder.encode(request.getNewPassword()));
+        user.setPassword(metrics.time(Operation.ADMIN_SETUP, Phase.PASSWORD_HASH, () -> passwordEncoder.encode(request.getNewPassword())));
         user.setFirstLogin(false); // Mark setup as complete
+        user.setTokenVersion(user.getTokenVersion() + 1); // Revoke tokens issued before setup
         
-        userRepository.save(user);
+        metrics.time(Operation.ADMIN_SETUP, Phase.SAVE, () -> userRepository.save(user));
+        tokenVersionRegistry.invalidate(user);
+        userDetailsCache.invalidate(user);
 
         // 5. Generate Tokens (Auto-login)
-        return generateTokensAndResponse(user, httpResponse, "Admin setup complete. You are now logged in.");
+        return generateTokensAndResponse(Operation.ADMIN_SETUP, user, httpResponse, "Admin setup complete. You are now logged in.");
     }
 
     /**
@@ -97,34 +128,45 @@ public class AuthService {
      */
     @Transactional
     public LoginResponse activateAccount(UserActivationRequest request, HttpServletResponse httpResponse) {
+        try {
+            return doActivateAccount(request, httpResponse);
+        } catch (RuntimeException e) {
+            metrics.failure(Operation.ACTIVATE, e);
+            throw e;
+        }
+    }
+
+    private LoginResponse doActivateAccount(UserActivationRequest request, HttpServletResponse httpResponse) {
         // 1. Re-verify temporary credentials to ensure it's the right user
-        authenticationManager.authenticate(
+        metrics.time(Operation.ACTIVATE, Phase.AUTHENTICATE, () -> authenticationManager.authenticate(
             new UsernamePasswordAuthenticationToken(request.getUsername(), request.getTempPassword())
-        );
+        ));
 
-        User user = userRepository.findByUsername(request.getUsername())
-                .or(() -> userRepository.findByEmail(request.getUsername()))
-                .orElseThrow(() -> new RuntimeException("User not found"));
+        User user = metrics.time(Operation.ACTIVATE, Phase.LOOKUP, () -> userRepository.findByLoginIdentifier(request.getUsername())
+                .orElseThrow(() -> new RuntimeException("User not found")));
 
         // 2. Verify OTP using the OtpService
-        switch(otpService.validateOtp(user, request.getOtp())) {
+        switch(metrics.time(Operation.ACTIVATE, Phase.OTP, () -> otpService.validateOtp(user, request.getOtp()))) {
             case 0: break; // Valid OTP
             case 1: throw new RuntimeException("Invalid or Expired OTP");
             case 2: throw new RuntimeException("Too many failed attempts. Please request a new OTP.");
         }
 
         // 3. Update Password & Activate
-        user.setPassword(passwordEncoder.encode(request.getNewPassword()));
+        user.setPassword(metrics.time(Operation.ACTIVATE, Phase.PASSWORD_HASH, () -> passwordEncoder.encode(request.getNewPassword())));
         user.setFirstLogin(false); // Mark as active
-        userRepository.save(user);
+        user.setTokenVersion(user.getTokenVersion() + 1);
+        metrics.time(Operation.ACTIVATE, Phase.SAVE, () -> userRepository.save(user));
+        tokenVersionRegistry.invalidate(user);
+        userDetailsCache.invalidate(user);
 
         // 4. Generate Tokens (Auto-login)
-        return generateTokensAndResponse(user, httpResponse, "Account activated successfully.");
+        return generateTokensAndResponse(Operation.ACTIVATE, user, httpResponse, "Account activated successfully.");
     }
 
-    private LoginResponse generateTokensAndResponse(User user, HttpServletResponse httpResponse, String message) {
-        String accessToken = jwtService.generateToken(user);
-        RefreshToken refreshToken = refreshTokenService.createRefreshToken(user.getEmail());
+    private LoginResponse generateTokensAndResponse(Operation operation, User user, HttpServletResponse httpResponse, String message) {
+        String accessToken = metrics.time(operation, Phase.TOKEN, () -> jwtService.generateToken(user));
+        RefreshToken refreshToken = metrics.time(operation, Phase.REFRESH_TOKEN, () -> refreshTokenService.createRefreshToken(user));
 
         // Create HttpOnly Cookie for Refresh Token
         Cookie refreshCookie = new Cookie("refreshToken", refreshToken.getToken());
@@ -135,6 +177,7 @@ public class AuthService {
         refreshCookie.setMaxAge((int) REFRESH_EXPIRATION / 1000); // 7 days
         httpResponse.addCookie(refreshCookie);
 
+        metrics.outcome(operation, Outcome.SUCCESS);
         return LoginResponse.builder()
                 .status("SUCCESS")
                 .message(message)
@@ -1,31 +1,50 @@
 package com.drive.authservice.service;
 
+import com.drive.authservice.cache.VerifiedTokenCache;
+import com.drive.authservice.dto.VerifiedToken;
+import com.drive.authservice.entity.User;
+import com.drive.authservice.security.JwtKeyRing;
+
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
-import io.jsonwebtoken.io.Decoders;
-import io.jsonwebtoken.security.Keys;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Service;
 
-import javax.crypto.SecretKey;
+import java.time.Instant;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.function.Function;
 
 @Service
+@RequiredArgsConstructor
 public class JwtService {
 
-    @Value("${auth.token.secret-key}")
-    private String secretKey;
+    public static final String CLAIM_USER_ID = "uid";
+    public static final String CLAIM_ROLE = "role";
+    public static final String CLAIM_TOKEN_VERSION = "ver";
 
     @Value("${auth.token.jwt-expiration}")
     private long jwtExpiration;
 
+    private final VerifiedTokenCache verifiedTokenCache;
+    private final JwtKeyRing keyRing;
+
+    // Built once and thread-safe; the verification key is picked per token by its kid
+    private JwtParser parser;
+
+    @PostConstruct
+    void init() {
+        this.parser = Jwts.parser().keyLocator(keyRing).build();
+    }
+
     // 1. Extract Username (Email) from a RAW Token
     public String extractEmail(String token) {
-        return extractClaim(token, Claims::getSubject);
+        return verify(token).getSubject();
     }
 
     // 2. Extract a specific claim
@@ -36,7 +55,14 @@ public class JwtService {
 
     // 3. Generate Token (Default)
     public String generateToken(UserDetails userDetails) {
-        return generateToken(new HashMap<>(), userDetails);
+        Map<String, Object> claims = new HashMap<>();
+        // Identity claims let the filter authenticate without a users table lookup
+        if (userDetails instanceof User user) {
+            claims.put(CLAIM_USER_ID, user.getId());
+            claims.put(CLAIM_ROLE, user.getRole().name());
+            claims.put(CLAIM_TOKEN_VERSION, user.getTokenVersion());
+        }
+        return generateToken(claims, userDetails);
     }
 
     // 4. Generate Token (With Extra Claims)
@@ -50,49 +76,66 @@ public class JwtService {
             UserDetails userDetails,
             long expiration
     ) {
+        long now = System.currentTimeMillis();
+        JwtKeyRing.SigningKey signingKey = keyRing.signingKey();
         return Jwts.builder()
+                .header().keyId(signingKey.kid()).and()
                 .claims(extraClaims)
                 .subject(userDetails.getUsername())
-                .issuedAt(new Date(System.currentTimeMillis()))
-                .expiration(new Date(System.currentTimeMillis() + expiration))
-                .signWith(getSigningKey(), Jwts.SIG.HS256)
+                .issuedAt(new Date(now))
+                .expiration(new Date(now + expiration))
+                .signWith(signingKey.privateKey(), signingKey.algorithm())
                 .compact();
     }
 
-    // 6. Validate Token
-    public boolean isTokenValid(String token, UserDetails userDetails) {
-        final String email = extractEmail(token);
-        return (email.equals(userDetails.getUsername())) && !isTokenExpired(token);
+    /**
+     * Parses and verifies the token exactly once. Tokens that were already verified
+     * are served from {@link VerifiedTokenCache} until they expire.
+     *
+     * @throws io.jsonwebtoken.JwtException if the signature is invalid or the token is expired
+     */
+    public VerifiedToken verify(String token) {
+        VerifiedToken cached = verifiedTokenCache.get(token);
+        if (cached != null) {
+            return cached;
+        }
+
+        Claims claims = extractAllClaims(token);
+        VerifiedToken verified = VerifiedToken.builder()
+                .subject(claims.getSubject())
+                .issuedAt(claims.getIssuedAt() != null ? claims.getIssuedAt().toInstant() : null)
+                .expiresAt(claims.getExpiration() != null ? claims.getExpiration().toInstant() : null)
+                .type(claims.get("type", String.class))
+                .userId(claims.get(CLAIM_USER_ID, Long.class))
+                .role(claims.get(CLAIM_ROLE, String.class))
+                .tokenVersion(claims.get(CLAIM_TOKEN_VERSION, Long.class))
+                .build();
+
+        verifiedTokenCache.put(token, verified);
+        return verified;
     }
 
-    private boolean isTokenExpired(String token) {
-        return extractExpiration(token).before(new Date());
+    // 6. Validate Token
+    public boolean isTokenValid(String token, UserDetails userDetails) {
+        return isTokenValid(verify(token), userDetails);
     }
 
-    private Date extractExpiration(String token) {
-        return extractClaim(token, Claims::getExpiration);
+    public boolean isTokenValid(VerifiedToken token, UserDetails userDetails) {
+        return token.getSubject() != null
+                && token.getSubject().equals(userDetails.getUsername())
+                && !token.isExpired(Instant.now());
     }
 
     // 7. Parse all claims (Internal)
     private Claims extractAllClaims(String token) {
-        return Jwts.parser()
-                .verifyWith(getSigningKey())
-                .build()
-                .parseSignedClaims(token)
-                .getPayload();
-    }
-
-    // 8. Decode Secret Key
-    private SecretKey getSigningKey() {
-        byte[] keyBytes = Decoders.BASE64.decode(secretKey);
-        return Keys.hmacShaKeyFor(keyBytes);
+        return parser.parseSignedClaims(token).getPayload();
     }
 
-    // 9. Extract Email from Token or Bearer Header
+    // 8. Extract Email from Token or Bearer Header
     public String getEmailFromToken(String tokenOrHeader) {
         if (tokenOrHeader != null && tokenOrHeader.startsWith("Bearer ")) {
             return extractEmail(tokenOrHeader.substring(7));
         }
         return extractEmail(tokenOrHeader);
     }
-}
\ No newline at end of file
+}
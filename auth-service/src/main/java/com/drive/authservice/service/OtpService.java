@@ -1,93 +1,72 @@
 package com.drive.authservice.service;
 
-import com.drive.authservice.entity.PasswordResetOTP;
 import com.drive.authservice.entity.User;
-import com.drive.authservice.repository.PasswordResetOtpRepository;
+import com.drive.authservice.notification.OtpIssuedEvent;
+import com.drive.authservice.otp.OtpHasher;
+import com.drive.authservice.otp.OtpStore;
+import com.drive.authservice.otp.OtpVerification;
+import com.drive.authservice.properties.AuthProperties;
 
 import lombok.RequiredArgsConstructor;
 
-import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 
 import java.security.SecureRandom;
+import java.time.Instant;
 import java.time.LocalDateTime;
+import java.time.ZoneId;
 
 @Service
 @RequiredArgsConstructor
 public class OtpService {
 
-    private final PasswordResetOtpRepository otpRepository;
-    private final PasswordEncoder passwordEncoder;
+    private static final SecureRandom RANDOM = new SecureRandom();
 
-    @Transactional
-    public void generateAndSendOtp(User user) {
-        // 1. Clean up any existing OTP for this user to prevent clutter
-        otpRepository.findByUser(user).ifPresent(otpRepository::delete);
+    private final OtpStore otpStore;
+    private final OtpHasher otpHasher;
+    private final AuthProperties authProperties;
+    private final ApplicationEventPublisher eventPublisher;
 
-        // 2. Generate 6-digit Code
+    public void generateAndSendOtp(User user) {
+        // 1. Generate 6-digit Code
         String rawOtp = generateRandomOtp();
 
-        // 3. Create Entity (Hash the OTP for security, even in test mode)
-        PasswordResetOTP otpEntity = PasswordResetOTP.builder()
-                .user(user)
-                .otpHash(passwordEncoder.encode(rawOtp)) // Securely hashed
-                .expiryTime(LocalDateTime.now().plusMinutes(5)) // Valid for 5 mins
-                .attempts(0)
-                .isUsed(false)
-                .build();
-
-        // 4. Save to DB
-        otpRepository.save(otpEntity);
+        // 2. Store only the keyed digest; this replaces any previous OTP of the user
+        Instant expiresAt = Instant.now().plus(authProperties.getOtp().getTtl());
+        otpStore.save(user.getId(), otpHasher.digest(user.getId(), rawOtp), expiresAt);
 
-        // 5. "Send" (Console Print)
-        // TODO: Replace with real email service in production
-        System.out.println("\n==================================================");
-        System.out.println(" [DEV-MODE] OTP for User: " + user.getUsername());
-        System.out.println(" [DEV-MODE] Code: " + rawOtp);
-        System.out.println("==================================================\n");
+        // 3. Send asynchronously once any surrounding transaction commits (see NotificationDispatcher)
+        String recipient = user.getEmail() != null ? user.getEmail() : user.getUsername();
+        eventPublisher.publishEvent(new OtpIssuedEvent(
+                user.getUsername(), recipient, rawOtp, LocalDateTime.ofInstant(expiresAt, ZoneId.systemDefault())));
     }
 
     /**
-     * Validates the OTP. Returns true if valid, false otherwise.
-     * Manages attempt counting.
+     * Validates the OTP and manages attempt counting.
+     * Returns 0 if valid, 1 if invalid or expired, 2 if too many failed attempts.
      */
     public int validateOtp(User user, String inputOtp) {
-        var otpOptional = otpRepository.findByUser(user);
-
-        // 1. Check if exists
-        if (otpOptional.isEmpty()) {
-            return 1;
-        }
-
-        PasswordResetOTP otpEntity = otpOptional.get();
-
-        // 2. Check Expiry
-        if (otpEntity.getExpiryTime().isBefore(LocalDateTime.now())) {
-            otpRepository.delete(otpEntity);
-            return 1;
-        }
+        return switch (verify(user, inputOtp)) {
+            case VALID -> 0;
+            case INVALID, EXPIRED -> 1;
+            case LOCKED -> 2;
+        };
+    }
 
-        // 3. Check Match
-        if (passwordEncoder.matches(inputOtp, otpEntity.getOtpHash())) {
-            // Success: Clean up and return true
-            otpRepository.delete(otpEntity);
-            return 0;
-        } else {
-            otpEntity.setAttempts(otpEntity.getAttempts() + 1);
-            if (otpEntity.getAttempts() > 3) {
-                otpRepository.delete(otpEntity);
-                return 2;
-            } else {
-                otpRepository.save(otpEntity);
-            }
-            return 1;
+    public OtpVerification verify(User user, String inputOtp) {
+        if (inputOtp == null) {
+            return OtpVerification.INVALID;
         }
+        return otpStore.verify(
+                user.getId(),
+                otpHasher.digest(user.getId(), inputOtp),
+                authProperties.getOtp().getMaxAttempts()
+        );
     }
 
     private String generateRandomOtp() {
-        SecureRandom random = new SecureRandom();
-        int otp = 100000 + random.nextInt(900000);
+        int otp = 100000 + RANDOM.nextInt(900000);
         return String.valueOf(otp);
     }
-}
\ No newline at end of file
+}
@@ -1,8 +1,8 @@
 package com.drive.authservice.service;
 
-import com.drive.authservice.entity.PasswordResetOTP;
+import com.drive.authservice.cache.TokenVersionRegistry;
+import com.drive.authservice.cache.UserDetailsCache;
 import com.drive.authservice.entity.User;
-import com.drive.authservice.repository.PasswordResetOtpRepository;
 import com.drive.authservice.repository.UserRepository;
 
 import lombok.RequiredArgsConstructor;
@@ -10,7 +10,6 @@ import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 
 import java.security.SecureRandom;
-import java.time.LocalDateTime;
 import java.util.Map;
 
 //TODO: Fix Password Reset Service
@@ -18,42 +17,28 @@ import java.util.Map;
 @RequiredArgsConstructor
 public class PasswordResetService {
 
-    private final PasswordResetOtpRepository otpRepository;
+    private final OtpService otpService;
     private final UserRepository userRepository;
     private final PasswordEncoder passwordEncoder;
     private final JwtService jwtService;
+    private final TokenVersionRegistry tokenVersionRegistry;
+    private final UserDetailsCache userDetailsCache;
 
     // 1. Verify OTP
     public String verifyOtp(String email, String rawOtp) {
-        // FIX: Changed method name to findByUser_Email to match Repository
-        PasswordResetOTP otpEntity = otpRepository.findByUser_Email(email)
+        User user = userRepository.findByEmail(email)
             .orElseThrow(() -> new RuntimeException("Invalid Request"));
 
-        // Check Expiry
-        if (otpEntity.getExpiryTime().isBefore(LocalDateTime.now())) {
-            otpRepository.delete(otpEntity); 
-            throw new RuntimeException("OTP Expired");
-        }
-
-        // Check attempts limit
-        if (otpEntity.getAttempts() >= 3) {
-            otpRepository.delete(otpEntity); 
-            throw new RuntimeException("Too many failed attempts. Request a new OTP.");
-        }
-
-        // Check Match
-        if (!passwordEncoder.matches(rawOtp, otpEntity.getOtpHash())) {
-            incrementAttempts(otpEntity);
-            throw new RuntimeException("Invalid OTP");
+        // Expiry, attempt limit and single use are enforced atomically by the OTP store
+        switch (otpService.verify(user, rawOtp)) {
+            case VALID -> { }
+            case EXPIRED -> throw new RuntimeException("OTP Expired");
+            case LOCKED -> throw new RuntimeException("Too many failed attempts. Request a new OTP.");
+            case INVALID -> throw new RuntimeException("Invalid OTP");
         }
 
         // SUCCESS
-        User user = userRepository.findByEmail(email).orElseThrow();
-        String resetToken = jwtService.generateToken(Map.of("type", "RESET"), user);
-        
-        otpRepository.delete(otpEntity);
-        
-        return resetToken;
+        return jwtService.generateToken(Map.of("type", "RESET"), user);
     }
 
     // 2. Reset Password
@@ -67,7 +52,10 @@ public class PasswordResetService {
         }
         
         user.setPassword(passwordEncoder.encode(newPassword));
+        user.setTokenVersion(user.getTokenVersion() + 1); // Log out every other session
         userRepository.save(user);
+        tokenVersionRegistry.invalidate(user);
+        userDetailsCache.invalidate(user);
     }
     
     public String generateOtp() {
@@ -75,9 +63,4 @@ public class PasswordResetService {
         int otp = 100000 + random.nextInt(900000);
         return String.valueOf(otp);
     }
-
-    private void incrementAttempts(PasswordResetOTP otpEntity) {
-        otpEntity.setAttempts(otpEntity.getAttempts() + 1);
-        otpRepository.save(otpEntity);
-    }
 }
\ No newline at end of file
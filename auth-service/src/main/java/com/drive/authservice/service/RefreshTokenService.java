@@ -3,6 +3,10 @@ package com.drive.authservice.service;
 import com.drive.authservice.dto.LoginResponse;
 import com.drive.authservice.entity.RefreshToken;
 import com.drive.authservice.entity.User;
+import com.drive.authservice.metrics.AuthMetrics;
+import com.drive.authservice.metrics.AuthMetrics.Operation;
+import com.drive.authservice.metrics.AuthMetrics.Outcome;
+import com.drive.authservice.metrics.AuthMetrics.Phase;
 import com.drive.authservice.repository.RefreshTokenRepository;
 import com.drive.authservice.repository.UserRepository;
 
@@ -12,57 +16,53 @@ import lombok.RequiredArgsConstructor;
 
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
 import java.time.Instant;
-import java.util.UUID;
+import java.util.Base64;
+import java.util.HexFormat;
 
-//TODO: Fix Refresh Token Service
 @Service
 @RequiredArgsConstructor
 public class RefreshTokenService {
 
+    private static final SecureRandom RANDOM = new SecureRandom();
+
     @Value("${auth.token.refresh-expiration}")
     private long REFRESH_EXPIRATION;
 
     private final RefreshTokenRepository refreshTokenRepository;
     private final UserRepository userRepository;
     private final JwtService jwtService;
+    private final AuthMetrics metrics;
 
-    public RefreshToken createRefreshToken(String username) {
-        User user = userRepository.findByEmail(username)
-                .orElseThrow(() -> new RuntimeException("User not found: " + username));
-
-        // 1. Check if a token already exists for this user
-        RefreshToken refreshToken = refreshTokenRepository.findByUser(user)
-                .orElse(
-                    // 2. If NOT exists, create a new builder
-                    RefreshToken.builder()
-                        .user(user)
-                        .build()
-                );
-
-        // 3. Update the existing (or new) token with a fresh UUID and Expiry
-        refreshToken.setToken(UUID.randomUUID().toString());
-        refreshToken.setExpiryDate(Instant.now().plusMillis(REFRESH_EXPIRATION));
-
-        return refreshTokenRepository.save(refreshToken);
-    }
+    /**
+     * Starts a new token family (one per device) for the user. A single INSERT.
+     */
+    public RefreshToken createRefreshToken(User user) {
+        String rawToken = newRawToken();
+        Instant now = Instant.now();
+
+        RefreshToken refreshToken = RefreshToken.builder()
+                .user(user)
+                .tokenHash(hash(rawToken))
+                .createdAt(now)
+                .expiryDate(now.plusMillis(REFRESH_EXPIRATION))
+                .build();
 
-    public RefreshToken verifyExpiration(RefreshToken token) {
-        if (token.getExpiryDate().compareTo(Instant.now()) < 0) {
-            refreshTokenRepository.delete(token);
-            throw new RuntimeException("Refresh token was expired. Please make a new login request");
-        }
-        return token;
+        refreshTokenRepository.save(refreshToken);
+        refreshToken.setToken(rawToken);
+        return refreshToken;
     }
 
     /**
      * Revokes a refresh token (Used for Logout).
      */
     public void revokeToken(String token, HttpServletResponse httpResponse) {
-        refreshTokenRepository.findByToken(token)
-                .ifPresent(refreshTokenRepository::delete);
+        refreshTokenRepository.deleteByTokenHash(hash(token));
 
         // B. Clear the Cookie (Overwrite with null and 0 maxAge)
         Cookie cookie = new Cookie("refreshToken", null);
@@ -74,36 +74,61 @@ public class RefreshTokenService {
         httpResponse.addCookie(cookie);
     }
 
-    @Transactional // Ensure delete and save happen in one transaction
+    // Deliberately not @Transactional: the rotation is atomic on its own, and the family
+    // revocation in rejectRefresh must not be rolled back by the exception that follows it
     public LoginResponse processRefreshToken(String requestToken, HttpServletResponse httpResponse) {
-        // 1. Find and Verify (Unwrap the Optional first)
-        RefreshToken token = refreshTokenRepository.findByToken(requestToken)
-                .map(this::verifyExpiration)
-                .orElseThrow(() -> new RuntimeException("Refresh token is not in database!"));
-        
-        // 2. Extract User
-        User user = token.getUser();
-
-        // 3. ROTATION: Delete Old Token
-        refreshTokenRepository.delete(token);
-
-        // 4. Generate New Tokens
-        String newAccess = jwtService.generateToken(user);
-        RefreshToken newRefresh = createRefreshToken(user.getEmail());
-
-        Cookie refreshCookie = new Cookie("refreshToken", newRefresh.getToken());
+        String oldHash = hash(requestToken);
+        String newToken = newRawToken();
+        Instant now = Instant.now();
+
+        // 1. ROTATION: one conditional UPDATE ... RETURNING the owner
+        User user = metrics.time(Operation.REFRESH, Phase.ROTATE, () ->
+                userRepository.rotateRefreshToken(oldHash, hash(newToken), now.plusMillis(REFRESH_EXPIRATION), now))
+                .orElseThrow(() -> rejectRefresh(oldHash));
+
+        // 2. Generate New Access Token
+        String newAccess = metrics.time(Operation.REFRESH, Phase.TOKEN, () -> jwtService.generateToken(user));
+
+        Cookie refreshCookie = new Cookie("refreshToken", newToken);
         refreshCookie.setHttpOnly(true);
         // TODO: Set to true in production
         refreshCookie.setSecure(false);
         refreshCookie.setPath("/");
-        refreshCookie.setMaxAge((int) REFRESH_EXPIRATION / 1000); // 7 days
+        refreshCookie.setMaxAge((int) (REFRESH_EXPIRATION / 1000)); // 7 days
         httpResponse.addCookie(refreshCookie);
 
-        // 5. Return Response
+        // 3. Return Response
+        metrics.outcome(Operation.REFRESH, Outcome.SUCCESS);
         return LoginResponse.builder()
                 .accessToken(newAccess)
                 .status("SUCCESS")
                 .message("Token refreshed successfully")
                 .build();
     }
-}
\ No newline at end of file
+
+    // Only reached on failure: a token that was already rotated means it leaked, so revoke its family
+    private RuntimeException rejectRefresh(String oldHash) {
+        if (refreshTokenRepository.deleteByPreviousHash(oldHash) > 0) {
+            metrics.outcome(Operation.REFRESH, Outcome.REFRESH_REUSE);
+            return new RuntimeException("Refresh token reuse detected. Please make a new login request");
+        }
+        metrics.outcome(Operation.REFRESH, Outcome.EXPIRED_REFRESH);
+        return new RuntimeException("Refresh token is invalid or expired. Please make a new login request");
+    }
+
+    private static String newRawToken() {
+        byte[] bytes = new byte[32];
+        RANDOM.nextBytes(bytes);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+    }
+
+    static String hash(String rawToken) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256")
+                    .digest(rawToken.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
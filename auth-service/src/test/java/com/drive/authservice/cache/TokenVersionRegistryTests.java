@@ -0,0 +1,126 @@
+package com.drive.authservice.cache;
+
+import com.drive.authservice.entity.Role;
+import com.drive.authservice.entity.User;
+import com.drive.authservice.repository.UserRepository;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Token versions changed on another replica, which never calls {@code invalidate} here:
+ * newer tokens reload the row, revocations arrive within the TTL. On a fake clock.
+ */
+class TokenVersionRegistryTests {
+
+    private static final Duration TTL = Duration.ofMinutes(5);
+
+    private final UserRepository userRepository = mock(UserRepository.class);
+    private final AtomicLong clock = new AtomicLong();
+    private final TokenVersionRegistry registry = new TokenVersionRegistry(userRepository, 8, TTL, clock::get);
+
+    @Test
+    void versionIsReadOnce() {
+        stored("alice", 0);
+
+        assertTrue(registry.isCurrent("alice", 0));
+        assertTrue(registry.isCurrent("alice", 0));
+        verify(userRepository, times(1)).findByUsername("alice");
+    }
+
+    @Test
+    void newerTokenReloadsTheRow() {
+        stored("alice", 0);
+        registry.isCurrent("alice", 0);
+        clock.addAndGet(Duration.ofSeconds(2).toNanos());
+
+        // Password changed on another replica
+        stored("alice", 1);
+
+        assertTrue(registry.isCurrent("alice", 1));
+        assertFalse(registry.isCurrent("alice", 0));
+    }
+
+    @Test
+    void olderTokenIsRejectedWithoutAQuery() {
+        stored("alice", 3);
+        registry.isCurrent("alice", 3);
+
+        assertFalse(registry.isCurrent("alice", 2));
+        verify(userRepository, times(1)).findByUsername("alice");
+    }
+
+    @Test
+    void revocationElsewhereArrivesWithinTheTtl() {
+        stored("alice", 0);
+        registry.isCurrent("alice", 0);
+        stored("alice", 1);
+
+        assertTrue(registry.isCurrent("alice", 0), "still cached");
+        clock.addAndGet(TTL.toNanos());
+        assertFalse(registry.isCurrent("alice", 0));
+    }
+
+    @Test
+    void deletedUserReloadsAtMostOncePerInterval() {
+        when(userRepository.findByUsername("ghost")).thenReturn(Optional.empty());
+
+        for (int i = 0; i < 10; i++) {
+            assertFalse(registry.isCurrent("ghost", 0));
+        }
+        clock.addAndGet(Duration.ofSeconds(1).toNanos());
+        assertFalse(registry.isCurrent("ghost", 0));
+
+        verify(userRepository, times(2)).findByUsername("ghost");
+    }
+
+    @Test
+    void invalidateDropsTheEntry() {
+        stored("alice", 0);
+        registry.isCurrent("alice", 0);
+        stored("alice", 1);
+
+        registry.invalidate(user("alice", 1));
+
+        assertFalse(registry.isCurrent("alice", 0));
+    }
+
+    @Test
+    void sizeIsCapped() {
+        when(userRepository.findByUsername(anyString())).thenReturn(Optional.of(user("any", 0)));
+
+        for (int i = 0; i < 100; i++) {
+            clock.incrementAndGet();
+            assertTrue(registry.isCurrent("user-" + i, 0));
+        }
+
+        assertEquals(8, registry.size());
+    }
+
+    private void stored(String username, long tokenVersion) {
+        when(userRepository.findByUsername(username)).thenReturn(Optional.of(user(username, tokenVersion)));
+    }
+
+    private static User user(String username, long tokenVersion) {
+        return User.builder()
+                .id(1L)
+                .username(username)
+                .email(username + "@example.com")
+                .password("unused")
+                .role(Role.USER)
+                .tokenVersion(tokenVersion)
+                .build();
+    }
+}
@@ -0,0 +1,146 @@
+package com.drive.authservice.notification;
+
+import com.drive.authservice.properties.AuthProperties;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.task.SyncTaskExecutor;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Dispatcher behaviour against the in-memory transport. Notifications are submitted
+ * before the dispatcher thread starts, so they reach the sender as one batch.
+ */
+class NotificationDispatcherTests {
+
+    private final AuthProperties properties = new AuthProperties();
+    private final FlakySender sender = new FlakySender();
+    private NotificationDispatcher dispatcher;
+
+    // Fails the first send to each recipient listed in failOnce
+    private static class FlakySender extends InMemoryNotificationSender {
+        final Set<String> failOnce = ConcurrentHashMap.newKeySet();
+        final AtomicInteger batches = new AtomicInteger();
+
+        @Override
+        public void send(Notification notification) {
+            if (failOnce.remove(notification.recipient())) {
+                throw new IllegalStateException("Mailbox unavailable");
+            }
+            super.send(notification);
+        }
+
+        @Override
+        public void sendBatch(List<Notification> notifications) throws Exception {
+            batches.incrementAndGet();
+            super.sendBatch(notifications);
+        }
+    }
+
+    @BeforeEach
+    void setUp() {
+        properties.getNotification().setInitialBackoff(Duration.ofMillis(1));
+        properties.getNotification().setMaxBackoff(Duration.ofMillis(1));
+        dispatcher = new NotificationDispatcher(sender, new SyncTaskExecutor(), properties, new SimpleMeterRegistry());
+    }
+
+    @AfterEach
+    void tearDown() {
+        dispatcher.stop();
+    }
+
+    @Test
+    void retriesOnlyTheUndeliveredPartOfAFailedBatch() throws InterruptedException {
+        sender.failOnce.add("b@example.com");
+        dispatcher.submit(notification("a"));
+        dispatcher.submit(notification("b"));
+        dispatcher.submit(notification("c"));
+
+        dispatcher.start();
+        awaitSent(3);
+
+        assertEquals(1, sender.batches.get());
+        assertEquals(List.of("a@example.com", "b@example.com", "c@example.com"), recipients());
+    }
+
+    @Test
+    void deliversOnlyTheNewestNotificationPerKey() throws InterruptedException {
+        dispatcher.submit(new Notification("otp:a", "a@example.com", "Code", "111111"));
+        dispatcher.submit(new Notification("otp:a", "a@example.com", "Code", "222222"));
+        assertEquals(1, dispatcher.pendingCount());
+
+        dispatcher.start();
+        awaitSent(1);
+
+        assertEquals("222222", sender.getSent().getFirst().body());
+    }
+
+    @Test
+    void dropsNewKeysWhenFullButStillReplacesQueuedOnes() {
+        properties.getNotification().setQueueCapacity(2);
+        assertTrue(dispatcher.submit(notification("a")));
+        assertTrue(dispatcher.submit(notification("b")));
+
+        assertFalse(dispatcher.submit(notification("c")));
+        assertTrue(dispatcher.submit(notification("a")));
+        assertEquals(2, dispatcher.pendingCount());
+    }
+
+    @Test
+    void concurrentSubmissionsNeverExceedCapacity() throws Exception {
+        int capacity = 100;
+        properties.getNotification().setQueueCapacity(capacity);
+        AtomicInteger accepted = new AtomicInteger();
+        List<Future<?>> futures = new ArrayList<>();
+        try (ExecutorService pool = Executors.newFixedThreadPool(8)) {
+            for (int thread = 0; thread < 8; thread++) {
+                int offset = thread * 1000;
+                futures.add(pool.submit(() -> {
+                    for (int i = 0; i < 200; i++) {
+                        if (dispatcher.submit(notification("user" + (offset + i)))) {
+                            accepted.incrementAndGet();
+                        }
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        }
+
+        assertEquals(capacity, accepted.get());
+        assertEquals(capacity, dispatcher.pendingCount());
+    }
+
+    private static Notification notification(String user) {
+        return new Notification("otp:" + user, user + "@example.com", "Your verification code", "Code: 123456");
+    }
+
+    private List<String> recipients() {
+        return sender.getSent().stream().map(Notification::recipient).toList();
+    }
+
+    private void awaitSent(int count) throws InterruptedException {
+        long deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+        while (sender.getSent().size() < count && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+        assertEquals(count, sender.getSent().size());
+    }
+}
@@ -0,0 +1,129 @@
+package com.drive.authservice.otp;
+
+import com.drive.authservice.properties.AuthProperties;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Single use, attempt counting and expiry of the in-process OTP store, including the
+ * timer wheel removing OTPs nobody comes back for.
+ */
+class InMemoryOtpStoreTests {
+
+    private static final long USER = 7L;
+    private static final int MAX_ATTEMPTS = 3;
+
+    private final InMemoryOtpStore store = new InMemoryOtpStore(properties(Duration.ofMillis(10)));
+
+    @AfterEach
+    void tearDown() {
+        store.shutdown();
+    }
+
+    @Test
+    void validOtpIsConsumed() {
+        store.save(USER, "digest", Instant.now().plusSeconds(60));
+
+        assertEquals(OtpVerification.VALID, store.verify(USER, "digest", MAX_ATTEMPTS));
+        assertEquals(OtpVerification.EXPIRED, store.verify(USER, "digest", MAX_ATTEMPTS));
+        assertEquals(0, store.size());
+    }
+
+    @Test
+    void locksAfterMaxAttempts() {
+        store.save(USER, "digest", Instant.now().plusSeconds(60));
+
+        for (int i = 0; i < MAX_ATTEMPTS; i++) {
+            assertEquals(OtpVerification.INVALID, store.verify(USER, "wrong", MAX_ATTEMPTS));
+        }
+        assertEquals(OtpVerification.LOCKED, store.verify(USER, "wrong", MAX_ATTEMPTS));
+        // Locked out for good, even with the right code
+        assertEquals(OtpVerification.EXPIRED, store.verify(USER, "digest", MAX_ATTEMPTS));
+    }
+
+    @Test
+    void saveReplacesOtpAndResetsAttempts() {
+        store.save(USER, "first", Instant.now().plusSeconds(60));
+        for (int i = 0; i < MAX_ATTEMPTS; i++) {
+            store.verify(USER, "wrong", MAX_ATTEMPTS);
+        }
+
+        store.save(USER, "second", Instant.now().plusSeconds(60));
+
+        assertEquals(OtpVerification.INVALID, store.verify(USER, "first", MAX_ATTEMPTS));
+        assertEquals(OtpVerification.VALID, store.verify(USER, "second", MAX_ATTEMPTS));
+    }
+
+    @Test
+    void expiredOtpIsRejected() {
+        store.save(USER, "digest", Instant.now().minusMillis(1));
+
+        assertEquals(OtpVerification.EXPIRED, store.verify(USER, "digest", MAX_ATTEMPTS));
+        assertEquals(0, store.size());
+    }
+
+    @Test
+    void unknownUserIsExpired() {
+        assertEquals(OtpVerification.EXPIRED, store.verify(USER, "digest", MAX_ATTEMPTS));
+    }
+
+    @Test
+    void wheelRemovesAbandonedOtps() throws InterruptedException {
+        for (long user = 0; user < 100; user++) {
+            store.save(user, "digest", Instant.now().plusMillis(30));
+        }
+        // Beyond one turn of the wheel, so this one is re-queued rather than removed
+        store.save(1_000L, "digest", Instant.now().plusSeconds(60));
+
+        long deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+        while (store.size() > 1 && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+
+        assertEquals(1, store.size());
+        assertEquals(OtpVerification.VALID, store.verify(1_000L, "digest", MAX_ATTEMPTS));
+    }
+
+    @Test
+    void concurrentVerificationSucceedsOnce() throws Exception {
+        store.save(USER, "digest", Instant.now().plusSeconds(60));
+        int threads = 16;
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<OtpVerification>> results = new ArrayList<>();
+        try (ExecutorService executor = Executors.newFixedThreadPool(threads)) {
+            for (int i = 0; i < threads; i++) {
+                results.add(executor.submit(() -> {
+                    start.await();
+                    return store.verify(USER, "digest", MAX_ATTEMPTS);
+                }));
+            }
+            start.countDown();
+        }
+
+        int valid = 0;
+        for (Future<OtpVerification> result : results) {
+            if (result.get() == OtpVerification.VALID) {
+                valid++;
+            }
+        }
+        assertEquals(1, valid);
+    }
+
+    private static AuthProperties properties(Duration wheelTick) {
+        AuthProperties properties = new AuthProperties();
+        properties.getOtp().setWheelTick(wheelTick);
+        return properties;
+    }
+}
@@ -0,0 +1,107 @@
+package com.drive.authservice.ratelimit;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * GCRA arithmetic on a fake clock: 5 tokens per 5 seconds, so one token every second.
+ */
+class TokenBucketLimiterTests {
+
+    private static final long SECOND = Duration.ofSeconds(1).toNanos();
+
+    private final AtomicLong clock = new AtomicLong(42 * SECOND);
+    private final TokenBucketLimiter limiter = new TokenBucketLimiter(5, Duration.ofSeconds(5), 1_000, clock::get);
+
+    @Test
+    void allowsABurstOfCapacityThenReportsTheWait() {
+        for (int i = 0; i < 5; i++) {
+            assertEquals(0, limiter.tryAcquire("a"), "token " + i);
+        }
+        assertEquals(SECOND, limiter.tryAcquire("a"));
+
+        clock.addAndGet(SECOND / 4);
+        assertEquals(3 * SECOND / 4, limiter.tryAcquire("a"));
+    }
+
+    @Test
+    void refillsOneTokenPerInterval() {
+        for (int i = 0; i < 5; i++) {
+            limiter.tryAcquire("a");
+        }
+
+        clock.addAndGet(SECOND);
+        assertEquals(0, limiter.tryAcquire("a"));
+        assertTrue(limiter.tryAcquire("a") > 0);
+    }
+
+    @Test
+    void idleTimeDoesNotAccumulateBeyondCapacity() {
+        clock.addAndGet(Duration.ofHours(1).toNanos());
+
+        for (int i = 0; i < 5; i++) {
+            assertEquals(0, limiter.tryAcquire("a"));
+        }
+        assertEquals(SECOND, limiter.tryAcquire("a"));
+    }
+
+    @Test
+    void rejectedAttemptsDoNotTakeTokens() {
+        for (int i = 0; i < 5; i++) {
+            limiter.tryAcquire("a");
+        }
+        for (int i = 0; i < 100; i++) {
+            limiter.tryAcquire("a");
+        }
+
+        clock.addAndGet(SECOND);
+        assertEquals(0, limiter.tryAcquire("a"));
+    }
+
+    @Test
+    void keysAreLimitedIndependently() {
+        for (int i = 0; i < 5; i++) {
+            limiter.tryAcquire("a");
+        }
+
+        assertTrue(limiter.tryAcquire("a") > 0);
+        assertEquals(0, limiter.tryAcquire("b"));
+    }
+
+    @Test
+    void evictIdleDropsOnlyRefilledBucketsWithoutChangingDecisions() {
+        limiter.tryAcquire("idle");
+        for (int i = 0; i < 5; i++) {
+            limiter.tryAcquire("busy");
+        }
+        clock.addAndGet(2 * SECOND);
+
+        assertEquals(1, limiter.evictIdle());
+        assertEquals(1, limiter.size());
+        // Still 3 seconds from full: two tokens back, the third one is not
+        assertEquals(0, limiter.tryAcquire("busy"));
+        assertEquals(0, limiter.tryAcquire("busy"));
+        assertEquals(SECOND, limiter.tryAcquire("busy"));
+    }
+
+    @Test
+    void keyCountStaysBounded() {
+        for (int i = 0; i < 10_000; i++) {
+            limiter.tryAcquire("key-" + i);
+        }
+
+        assertTrue(limiter.size() <= 1_000, "size " + limiter.size());
+    }
+
+    @Test
+    void rejectsInvalidConfiguration() {
+        assertThrows(IllegalArgumentException.class, () -> new TokenBucketLimiter(0, Duration.ofSeconds(1), 10));
+        assertThrows(IllegalArgumentException.class, () -> new TokenBucketLimiter(1, Duration.ZERO, 10));
+    }
+}
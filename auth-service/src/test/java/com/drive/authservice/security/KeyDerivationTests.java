@@ -0,0 +1,37 @@
+package com.drive.authservice.security;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.HexFormat;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+/**
+ * HKDF output against RFC 5869 test case 3 (no salt, no info), and label separation.
+ */
+class KeyDerivationTests {
+
+    @Test
+    void matchesRfc5869TestVector() {
+        byte[] ikm = new byte[22];
+        Arrays.fill(ikm, (byte) 0x0b);
+
+        byte[] okm = KeyDerivation.derive(ikm, "", 42);
+
+        assertArrayEquals(HexFormat.of().parseHex(
+                "8da4e775a563c18f715f802a063c5a31b8a11f5c5ee1879ec3454e5f3c738d2d9d201395faa4b61a96c8"), okm);
+    }
+
+    @Test
+    void labelsGiveUnrelatedKeys() {
+        byte[] secret = "the token secret".getBytes();
+
+        byte[] otp = KeyDerivation.derive(secret, KeyDerivation.OTP_HMAC, 32);
+        byte[] wrap = KeyDerivation.derive(secret, KeyDerivation.SIGNING_KEY_WRAP, 32);
+
+        assertFalse(Arrays.equals(otp, wrap));
+        assertFalse(Arrays.equals(otp, Arrays.copyOf(secret, 32)));
+    }
+}
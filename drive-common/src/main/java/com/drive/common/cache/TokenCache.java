@@ -0,0 +1,123 @@
+package com.drive.common.cache;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * Bounded cache of already-verified tokens, keyed by the SHA-256 digest of the raw token
+ * so the token itself is never kept in memory. Entries are dropped once seen past their
+ * expiry. A put into a full cache costs a bounded amount of work: expired entries are
+ * swept at most once per sweep interval, and otherwise the entry closest to expiry out of
+ * a small sample makes room.
+ *
+ * @param <V> what is kept of a verified token; {@code expiresAt} gives its expiry
+ */
+public class TokenCache<V> {
+
+    private static final int EVICTION_SAMPLE = 8;
+    private static final Duration SWEEP_INTERVAL = Duration.ofSeconds(1);
+
+    private final ConcurrentHashMap<String, V> entries = new ConcurrentHashMap<>();
+    private final int maxSize;
+    private final Function<V, Instant> expiresAt;
+    private final Clock clock;
+    private final AtomicLong nextSweep = new AtomicLong();
+
+    public TokenCache(int maxSize, Function<V, Instant> expiresAt) {
+        this(maxSize, expiresAt, Clock.systemUTC());
+    }
+
+    TokenCache(int maxSize, Function<V, Instant> expiresAt, Clock clock) {
+        this.maxSize = maxSize;
+        this.expiresAt = expiresAt;
+        this.clock = clock;
+    }
+
+    public V get(String token) {
+        if (maxSize <= 0) {
+            return null;
+        }
+        String key = digest(token);
+        V cached = entries.get(key);
+        if (cached != null && expired(cached, clock.instant())) {
+            entries.remove(key, cached);
+            return null;
+        }
+        return cached;
+    }
+
+    // Entries without an expiry are not cached
+    public void put(String token, V verified) {
+        if (maxSize <= 0 || expiresAt.apply(verified) == null) {
+            return;
+        }
+        String key = digest(token);
+        if (entries.size() >= maxSize && !entries.containsKey(key)) {
+            makeRoom(clock.instant());
+        }
+        entries.put(key, verified);
+    }
+
+    public void invalidate(String token) {
+        entries.remove(digest(token));
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    // One thread per sweep interval sweeps; every put into a full cache evicts one entry
+    private void makeRoom(Instant now) {
+        long millis = now.toEpochMilli();
+        long due = nextSweep.get();
+        if (millis >= due && nextSweep.compareAndSet(due, millis + SWEEP_INTERVAL.toMillis())) {
+            entries.values().removeIf(entry -> expired(entry, now));
+        }
+        if (entries.size() >= maxSize) {
+            evictClosestToExpiry();
+        }
+    }
+
+    // Of a sample, the entry that expires first
+    private void evictClosestToExpiry() {
+        String victim = null;
+        Instant earliest = null;
+        int sampled = 0;
+        for (Map.Entry<String, V> entry : entries.entrySet()) {
+            Instant expiry = expiresAt.apply(entry.getValue());
+            if (victim == null || expiry.isBefore(earliest)) {
+                victim = entry.getKey();
+                earliest = expiry;
+            }
+            if (++sampled == EVICTION_SAMPLE) {
+                break;
+            }
+        }
+        if (victim != null) {
+            entries.remove(victim);
+        }
+    }
+
+    private boolean expired(V entry, Instant now) {
+        return !expiresAt.apply(entry).isAfter(now);
+    }
+
+    private static String digest(String token) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256")
+                    .digest(token.getBytes(StandardCharsets.US_ASCII));
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(hash);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
@@ -0,0 +1,135 @@
+package com.drive.common.cache;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * Expiry and bounded eviction on a fake clock. Values are their own expiry.
+ */
+class TokenCacheTests {
+
+    private static final Instant START = Instant.parse("2026-03-01T12:00:00Z");
+
+    private final MutableClock clock = new MutableClock();
+
+    private static final class MutableClock extends Clock {
+        Instant now = START;
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+    }
+
+    @Test
+    void expiredEntryIsDroppedOnRead() {
+        TokenCache<Instant> cache = cache(10);
+        cache.put("token", START.plusSeconds(1));
+
+        assertEquals(START.plusSeconds(1), cache.get("token"));
+        clock.now = START.plusSeconds(1);
+        assertNull(cache.get("token"));
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    void putIntoFullCacheEvictsOneEntry() {
+        TokenCache<Instant> cache = cache(1000);
+        for (int i = 0; i < 1000; i++) {
+            cache.put("token-" + i, START.plusSeconds(3600 + i));
+        }
+
+        cache.put("new", START.plusSeconds(10_000));
+
+        assertEquals(1000, cache.size());
+        assertEquals(START.plusSeconds(10_000), cache.get("new"));
+    }
+
+    @Test
+    void evictsTheSampledEntryClosestToExpiry() {
+        TokenCache<Instant> cache = cache(8);
+        for (int i = 0; i < 8; i++) {
+            // token-3 expires first
+            cache.put("token-" + i, START.plusSeconds(i == 3 ? 60 : 3600 + i));
+        }
+
+        cache.put("new", START.plusSeconds(7200));
+
+        assertNull(cache.get("token-3"));
+        assertEquals(8, cache.size());
+    }
+
+    @Test
+    void replacingAnEntryOfAFullCacheEvictsNothing() {
+        TokenCache<Instant> cache = cache(8);
+        for (int i = 0; i < 8; i++) {
+            cache.put("token-" + i, START.plusSeconds(3600));
+        }
+
+        cache.put("token-0", START.plusSeconds(7200));
+
+        assertEquals(8, cache.size());
+        for (int i = 1; i < 8; i++) {
+            assertEquals(START.plusSeconds(3600), cache.get("token-" + i));
+        }
+    }
+
+    @Test
+    void expiredEntriesAreSweptAtMostOncePerInterval() {
+        TokenCache<Instant> cache = cache(100);
+        for (int i = 0; i < 100; i++) {
+            cache.put("token-" + i, START.plusMillis(i < 50 ? 200 : 60_000));
+        }
+        // Sweeps (nothing has expired yet) and evicts one
+        cache.put("first", START.plusSeconds(3600));
+        assertEquals(100, cache.size());
+
+        // Half the entries are now expired, but the last sweep was too recent
+        clock.now = START.plus(Duration.ofMillis(500));
+        cache.put("second", START.plusSeconds(3600));
+        assertEquals(100, cache.size());
+
+        clock.now = START.plus(Duration.ofMillis(1500));
+        cache.put("third", START.plusSeconds(3600));
+        assertEquals(53, cache.size(), "expired entries swept");
+    }
+
+    @Test
+    void entriesWithoutExpiryAreNotCached() {
+        TokenCache<Instant> cache = cache(10);
+        cache.put("token", null);
+
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    void zeroSizeDisablesTheCache() {
+        TokenCache<Instant> cache = cache(0);
+        cache.put("token", START.plusSeconds(60));
+
+        assertNull(cache.get("token"));
+        assertEquals(0, cache.size());
+    }
+
+    private TokenCache<Instant> cache(int maxSize) {
+        return new TokenCache<>(maxSize, expiry -> expiry, clock);
+    }
+}
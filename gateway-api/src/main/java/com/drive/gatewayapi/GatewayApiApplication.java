@@ -2,8 +2,22 @@ package com.drive.gatewayapi;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+import com.drive.gatewayapi.properties.ConcurrencyProperties;
+import com.drive.gatewayapi.properties.GatewaySecurityProperties;
+import com.drive.gatewayapi.properties.LoadBalancingProperties;
+import com.drive.gatewayapi.properties.StreamingProxyProperties;
 
 @SpringBootApplication
+@EnableScheduling
+@EnableConfigurationProperties({
+        GatewaySecurityProperties.class,
+        LoadBalancingProperties.class,
+        ConcurrencyProperties.class,
+        StreamingProxyProperties.class
+})
 public class GatewayApiApplication {
 
     public static void main(String[] args) {
@@ -0,0 +1,33 @@
+package com.drive.gatewayapi.cache;
+
+import com.drive.common.cache.TokenCache;
+import com.drive.gatewayapi.dto.VerifiedIdentity;
+import com.drive.gatewayapi.properties.GatewaySecurityProperties;
+
+import org.springframework.stereotype.Component;
+
+/**
+ * Already-verified access tokens, up to {@code gateway.security.token-cache-max-size} of
+ * them, kept until they expire. See {@link TokenCache} for keying and eviction.
+ */
+@Component
+public class VerifiedTokenCache {
+
+    private final TokenCache<VerifiedIdentity> cache;
+
+    public VerifiedTokenCache(GatewaySecurityProperties properties) {
+        this.cache = new TokenCache<>(properties.getTokenCacheMaxSize(), VerifiedIdentity::getExpiresAt);
+    }
+
+    public VerifiedIdentity get(String token) {
+        return cache.get(token);
+    }
+
+    public void put(String token, VerifiedIdentity verified) {
+        cache.put(token, verified);
+    }
+
+    public int size() {
+        return cache.size();
+    }
+}
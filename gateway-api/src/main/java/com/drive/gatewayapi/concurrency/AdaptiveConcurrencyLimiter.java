@@ -0,0 +1,119 @@
+package com.drive.gatewayapi.concurrency;
+
+import com.drive.gatewayapi.properties.ConcurrencyProperties;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Concurrency limit that follows the backend's latency (gradient algorithm, as in
+ * Netflix's Gradient2). A long-term latency average is compared with each new sample:
+ * <pre>
+ *   gradient = clamp(tolerance * longRtt / rtt, 0.5, 1.0)
+ *   newLimit = limit * gradient + sqrt(limit)
+ * </pre>
+ * While latency stays flat the {@code sqrt(limit)} headroom lets the limit grow; once
+ * requests start queueing at the backend the gradient drops below one and the limit
+ * shrinks toward what the backend actually completes. Errors and timeouts back the
+ * limit off by 10%. Acquiring is a single CAS; only samples take the lock.
+ */
+public class AdaptiveConcurrencyLimiter {
+
+    private static final double DROP_BACKOFF = 0.9;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final int minLimit;
+    private final int maxLimit;
+    private final double tolerance;
+    private final double smoothing;
+    private final double longAlpha;
+
+    private volatile int limit;
+
+    // guarded by this
+    private double estimatedLimit;
+    private double longRttNanos;
+
+    public AdaptiveConcurrencyLimiter(ConcurrencyProperties.Route config) {
+        this.minLimit = config.getMinLimit();
+        this.maxLimit = config.getMaxLimit();
+        this.tolerance = config.getRttTolerance();
+        this.smoothing = config.getSmoothing();
+        this.longAlpha = 2.0 / (config.getLongWindow() + 1);
+        this.estimatedLimit = Math.clamp(config.getInitialLimit(), minLimit, maxLimit);
+        this.limit = (int) estimatedLimit;
+    }
+
+    /**
+     * @return false if the route is at its limit; the caller must not proceed and must not
+     * call {@link #release}
+     */
+    public boolean tryAcquire() {
+        while (true) {
+            int current = inFlight.get();
+            if (current >= limit) {
+                return false;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Ends an acquired request and feeds its latency into the limit.
+     *
+     * @param rttNanos backend latency (until the response started)
+     * @param dropped  the backend failed or timed out
+     */
+    public void release(long rttNanos, boolean dropped) {
+        int outstanding = inFlight.getAndDecrement();
+        synchronized (this) {
+            double next;
+            if (dropped) {
+                next = estimatedLimit * DROP_BACKOFF;
+            } else {
+                longRttNanos = longRttNanos == 0 ? rttNanos : longRttNanos + longAlpha * (rttNanos - longRttNanos);
+
+                // After a latency spike the long average lags far behind; let it catch up faster
+                if (longRttNanos / rttNanos > 2) {
+                    longRttNanos *= 0.95;
+                }
+
+                // Not using half the limit: the samples say nothing about where the limit should be
+                if (outstanding < estimatedLimit / 2) {
+                    return;
+                }
+
+                double gradient = Math.clamp(tolerance * longRttNanos / Math.max(1, rttNanos), 0.5, 1.0);
+                double target = estimatedLimit * gradient + Math.sqrt(estimatedLimit);
+                next = estimatedLimit * (1 - smoothing) + target * smoothing;
+            }
+            estimatedLimit = Math.clamp(next, minLimit, maxLimit);
+            limit = (int) estimatedLimit;
+        }
+    }
+
+    /**
+     * Ends an acquired request whose latency says nothing about the backend (e.g. an upload
+     * paced by the client). Only a failure moves the limit.
+     *
+     * @param dropped the backend failed or timed out
+     */
+    public void release(boolean dropped) {
+        inFlight.decrementAndGet();
+        if (dropped) {
+            synchronized (this) {
+                estimatedLimit = Math.clamp(estimatedLimit * DROP_BACKOFF, minLimit, maxLimit);
+                limit = (int) estimatedLimit;
+            }
+        }
+    }
+
+    public int limit() {
+        return limit;
+    }
+
+    public int inFlight() {
+        return inFlight.get();
+    }
+}
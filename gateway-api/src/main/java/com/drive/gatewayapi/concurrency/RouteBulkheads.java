@@ -0,0 +1,75 @@
+package com.drive.gatewayapi.concurrency;
+
+import com.drive.gatewayapi.properties.ConcurrencyProperties;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import org.springframework.http.server.PathContainer;
+import org.springframework.stereotype.Component;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * One {@link AdaptiveConcurrencyLimiter} per configured route group, so a saturated
+ * backend can only use up its own share of the gateway's capacity. Exposes
+ * {@code gateway.concurrency.limit}, {@code gateway.concurrency.inflight} and
+ * {@code gateway.concurrency.rejected}, tagged by {@code route}.
+ */
+@Component
+public class RouteBulkheads {
+
+    public record Bulkhead(
+            String name,
+            ConcurrencyProperties.Route config,
+            List<PathPattern> patterns,
+            AdaptiveConcurrencyLimiter limiter,
+            Counter rejected
+    ) {
+    }
+
+    private final List<Bulkhead> bulkheads = new ArrayList<>();
+
+    public RouteBulkheads(ConcurrencyProperties properties, MeterRegistry registry) {
+        for (Map.Entry<String, ConcurrencyProperties.Route> entry : properties.getRoutes().entrySet()) {
+            String name = entry.getKey();
+            AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(entry.getValue());
+            List<PathPattern> patterns = entry.getValue().getPaths().stream()
+                    .map(PathPatternParser.defaultInstance::parse)
+                    .toList();
+
+            Gauge.builder("gateway.concurrency.limit", limiter, AdaptiveConcurrencyLimiter::limit)
+                    .tag("route", name)
+                    .register(registry);
+            Gauge.builder("gateway.concurrency.inflight", limiter, AdaptiveConcurrencyLimiter::inFlight)
+                    .tag("route", name)
+                    .register(registry);
+            Counter rejected = Counter.builder("gateway.concurrency.rejected")
+                    .tag("route", name)
+                    .register(registry);
+
+            bulkheads.add(new Bulkhead(name, entry.getValue(), patterns, limiter, rejected));
+        }
+    }
+
+    // First route group whose patterns match, or null if the path is not limited
+    public Bulkhead match(String path) {
+        if (bulkheads.isEmpty()) {
+            return null;
+        }
+        PathContainer container = PathContainer.parsePath(path);
+        for (Bulkhead bulkhead : bulkheads) {
+            for (PathPattern pattern : bulkhead.patterns()) {
+                if (pattern.matches(container)) {
+                    return bulkhead;
+                }
+            }
+        }
+        return null;
+    }
+}
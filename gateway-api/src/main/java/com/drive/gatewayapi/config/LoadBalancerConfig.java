@@ -0,0 +1,12 @@
+package com.drive.gatewayapi.config;
+
+import com.drive.gatewayapi.loadbalancer.LeastLoadedLoadBalancerConfiguration;
+
+import org.springframework.cloud.loadbalancer.annotation.LoadBalancerClients;
+import org.springframework.context.annotation.Configuration;
+
+// Every lb:// route (and the JWKS lookup) picks instances by in-flight load and latency
+@Configuration
+@LoadBalancerClients(defaultConfiguration = LeastLoadedLoadBalancerConfiguration.class)
+public class LoadBalancerConfig {
+}
@@ -0,0 +1,61 @@
+package com.drive.gatewayapi.config;
+
+import com.drive.gatewayapi.properties.StreamingProxyProperties;
+import com.drive.gatewayapi.proxy.StreamingProxyExchange;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
+import org.springframework.cloud.gateway.server.mvc.config.GatewayMvcProperties;
+import org.springframework.cloud.gateway.server.mvc.handler.RestClientProxyExchange;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.client.RestClient;
+
+// Replaces the gateway's proxy exchange; non-streaming routes still use the default one
+@Configuration
+public class StreamingProxyConfig {
+
+    @Bean
+    public CloseableHttpClient streamingProxyHttpClient(StreamingProxyProperties properties) {
+        ConnectionConfig connectionConfig = ConnectionConfig.custom()
+                .setConnectTimeout(Timeout.of(properties.getConnectTimeout()))
+                .setSocketTimeout(Timeout.of(properties.getReadTimeout()))
+                .build();
+
+        return HttpClients.custom()
+                .setConnectionManager(PoolingHttpClientConnectionManagerBuilder.create()
+                        .setMaxConnTotal(properties.getMaxConnections())
+                        .setMaxConnPerRoute(properties.getMaxConnectionsPerRoute())
+                        .setDefaultConnectionConfig(connectionConfig)
+                        .build())
+                .setDefaultRequestConfig(RequestConfig.custom()
+                        .setResponseTimeout(Timeout.of(properties.getReadTimeout()))
+                        .build())
+                // A proxy passes bodies, redirects and cookies through untouched and never replays a request
+                .disableContentCompression()
+                .disableRedirectHandling()
+                .disableCookieManagement()
+                .disableAutomaticRetries()
+                .evictIdleConnections(TimeValue.of(properties.getIdleConnectionTimeout()))
+                .build();
+    }
+
+    @Bean
+    public StreamingProxyExchange streamingProxyExchange(
+            CloseableHttpClient streamingProxyHttpClient,
+            RestClient.Builder restClientBuilder,
+            GatewayMvcProperties gatewayMvcProperties,
+            StreamingProxyProperties properties,
+            MeterRegistry registry
+    ) {
+        RestClientProxyExchange fallback = new RestClientProxyExchange(restClientBuilder.build(), gatewayMvcProperties);
+        return new StreamingProxyExchange(streamingProxyHttpClient, fallback, properties, registry);
+    }
+}
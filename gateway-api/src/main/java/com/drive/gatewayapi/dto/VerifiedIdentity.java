@@ -0,0 +1,24 @@
+package com.drive.gatewayapi.dto;
+
+import lombok.Builder;
+import lombok.Value;
+
+import java.time.Instant;
+
+/**
+ * What the gateway keeps of an access token once its signature has been checked:
+ * the identity claims and the signed identity header forwarded to backends.
+ */
+@Value
+@Builder
+public class VerifiedIdentity {
+    String subject;
+    Long userId;
+    String role;
+    Instant expiresAt;
+    String identityHeader;
+
+    public boolean isExpired(Instant now) {
+        return expiresAt == null || !now.isBefore(expiresAt);
+    }
+}
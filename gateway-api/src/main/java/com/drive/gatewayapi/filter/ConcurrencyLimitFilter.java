@@ -0,0 +1,149 @@
+package com.drive.gatewayapi.filter;
+
+import com.drive.gatewayapi.concurrency.RouteBulkheads;
+import com.drive.gatewayapi.properties.ConcurrencyProperties;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+
+import lombok.RequiredArgsConstructor;
+
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+
+/**
+ * Per-route bulkhead in front of the proxy. A request over its route's adaptive limit is
+ * answered 503 + Retry-After straight away instead of occupying a gateway thread while it
+ * waits on a backend that is already saturated. Runs after Spring Security (order -100),
+ * so rejected-as-unauthenticated requests never take a slot.
+ * <p>
+ * The latency fed to the limiter is time until the backend's response starts (first body
+ * write or commit), so long downloads do not read as a slow backend; the slot itself is
+ * held until the response is complete. Requests with a body above the route's
+ * {@code max-sampled-body-bytes} (chunk uploads) give no sample at all: the backend only
+ * answers once it has read the whole body, so that time is the client's upload bandwidth,
+ * and feeding it in would shrink the limit toward its minimum.
+ */
+@Component
+@Order(0)
+@RequiredArgsConstructor
+public class ConcurrencyLimitFilter extends OncePerRequestFilter {
+
+    private final RouteBulkheads bulkheads;
+    private final ConcurrencyProperties properties;
+
+    @Override
+    protected void doFilterInternal(
+            HttpServletRequest request,
+            HttpServletResponse response,
+            FilterChain filterChain
+    ) throws ServletException, IOException {
+
+        RouteBulkheads.Bulkhead bulkhead = properties.isEnabled() ? bulkheads.match(request.getRequestURI()) : null;
+        if (bulkhead == null) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        // 1. Shed immediately when the route is at its limit
+        if (!bulkhead.limiter().tryAcquire()) {
+            bulkhead.rejected().increment();
+            reject(response);
+            return;
+        }
+
+        // 2. Proxy, then report latency and outcome to the limiter
+        boolean sampled = hasSmallBody(request, bulkhead.config().getMaxSampledBodyBytes());
+        long start = System.nanoTime();
+        FirstByteResponse timed = new FirstByteResponse(response, start);
+        boolean dropped = true;
+        try {
+            filterChain.doFilter(request, timed);
+            dropped = timed.getStatus() >= 500;
+        } finally {
+            if (sampled) {
+                bulkhead.limiter().release(timed.responseStartedNanos() - start, dropped);
+            } else {
+                bulkhead.limiter().release(dropped);
+            }
+        }
+    }
+
+    // A chunked body has no declared length and is treated as large
+    private static boolean hasSmallBody(HttpServletRequest request, long maxBytes) {
+        long length = request.getContentLengthLong();
+        if (length < 0) {
+            return request.getHeader(HttpHeaders.TRANSFER_ENCODING) == null;
+        }
+        return length <= maxBytes;
+    }
+
+    private void reject(HttpServletResponse response) throws IOException {
+        response.setStatus(HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+        response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(properties.getRetryAfterSeconds()));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.getWriter().write("{\"status\":\"OVERLOADED\",\"message\":\"Service is busy, try again later\"}");
+    }
+
+    // Records when the backend's response starts being written
+    private static final class FirstByteResponse extends HttpServletResponseWrapper {
+
+        private final long requestStartNanos;
+        private long responseStartedNanos;
+
+        FirstByteResponse(HttpServletResponse response, long requestStartNanos) {
+            super(response);
+            this.requestStartNanos = requestStartNanos;
+        }
+
+        long responseStartedNanos() {
+            return responseStartedNanos != 0 ? responseStartedNanos : System.nanoTime();
+        }
+
+        private void mark() {
+            if (responseStartedNanos == 0) {
+                responseStartedNanos = Math.max(System.nanoTime(), requestStartNanos + 1);
+            }
+        }
+
+        @Override
+        public ServletOutputStream getOutputStream() throws IOException {
+            mark();
+            return super.getOutputStream();
+        }
+
+        @Override
+        public PrintWriter getWriter() throws IOException {
+            mark();
+            return super.getWriter();
+        }
+
+        @Override
+        public void flushBuffer() throws IOException {
+            mark();
+            super.flushBuffer();
+        }
+
+        @Override
+        public void sendError(int sc, String msg) throws IOException {
+            mark();
+            super.sendError(sc, msg);
+        }
+
+        @Override
+        public void sendError(int sc) throws IOException {
+            mark();
+            super.sendError(sc);
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package com.drive.gatewayapi.filter;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * Request seen by the proxy: whatever the client sent under the identity header is
+ * hidden, and the gateway's own signed value (if any) is exposed in its place.
+ */
+class IdentityHeaderRequest extends HttpServletRequestWrapper {
+
+    private final String headerName;
+    private final String value;
+
+    IdentityHeaderRequest(HttpServletRequest request, String headerName, String value) {
+        super(request);
+        this.headerName = headerName;
+        this.value = value;
+    }
+
+    @Override
+    public String getHeader(String name) {
+        return headerName.equalsIgnoreCase(name) ? value : super.getHeader(name);
+    }
+
+    @Override
+    public Enumeration<String> getHeaders(String name) {
+        if (!headerName.equalsIgnoreCase(name)) {
+            return super.getHeaders(name);
+        }
+        return value != null ? Collections.enumeration(Set.of(value)) : Collections.emptyEnumeration();
+    }
+
+    @Override
+    public Enumeration<String> getHeaderNames() {
+        Set<String> names = new LinkedHashSet<>();
+        for (Enumeration<String> e = super.getHeaderNames(); e.hasMoreElements(); ) {
+            String name = e.nextElement();
+            if (!headerName.equalsIgnoreCase(name)) {
+                names.add(name);
+            }
+        }
+        if (value != null) {
+            names.add(headerName);
+        }
+        return Collections.enumeration(names);
+    }
+}
@@ -0,0 +1,80 @@
+package com.drive.gatewayapi.filter;
+
+import com.drive.gatewayapi.dto.VerifiedIdentity;
+import com.drive.gatewayapi.properties.GatewaySecurityProperties;
+import com.drive.gatewayapi.security.TokenVerifier;
+
+import io.jsonwebtoken.JwtException;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+import lombok.RequiredArgsConstructor;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Verifies the bearer token at the edge and replaces it, for the backends, with the
+ * signed identity header. A missing or bad token leaves the request anonymous, so
+ * protected routes answer 401 here and never reach a backend. A client-supplied
+ * identity header is always stripped.
+ * <p>
+ * Only signature and expiry are checked here, not the token version ({@code ver}) that
+ * auth-service bumps on a password change or ban: the gateway has no view of current
+ * versions. A revoked access token therefore keeps reaching the backends until it
+ * expires, at most {@code auth.token.jwt-expiration} (3 hours) after it was issued.
+ * auth-service itself rejects such a token as soon as the version changes.
+ */
+@Component
+@RequiredArgsConstructor
+public class JwtAuthenticationFilter extends OncePerRequestFilter {
+
+    private final TokenVerifier tokenVerifier;
+    private final GatewaySecurityProperties properties;
+
+    @Override
+    protected void doFilterInternal(
+            HttpServletRequest request,
+            HttpServletResponse response,
+            FilterChain filterChain
+    ) throws ServletException, IOException {
+
+        final String identityHeader = properties.getIdentity().getHeader();
+        final String authHeader = request.getHeader(HttpHeaders.AUTHORIZATION);
+        String forwardedIdentity = null;
+
+        // 1. Verify the token (cached after the first time it is seen)
+        if (authHeader != null && authHeader.startsWith("Bearer ")) {
+            try {
+                VerifiedIdentity identity = tokenVerifier.verify(authHeader.substring(7));
+
+                UsernamePasswordAuthenticationToken authentication = UsernamePasswordAuthenticationToken.authenticated(
+                        identity.getSubject(),
+                        null,
+                        List.of(new SimpleGrantedAuthority("ROLE_" + identity.getRole()))
+                );
+                SecurityContextHolder.getContext().setAuthentication(authentication);
+                forwardedIdentity = identity.getIdentityHeader();
+            } catch (JwtException | IllegalArgumentException e) {
+                // Stays anonymous; authorization rejects it unless the path is public
+            }
+        }
+
+        // 2. Forward only the identity the gateway vouches for
+        if (forwardedIdentity != null || request.getHeader(identityHeader) != null) {
+            filterChain.doFilter(new IdentityHeaderRequest(request, identityHeader, forwardedIdentity), response);
+            return;
+        }
+        filterChain.doFilter(request, response);
+    }
+}
@@ -0,0 +1,167 @@
+package com.drive.gatewayapi.loadbalancer;
+
+import com.drive.gatewayapi.properties.LoadBalancingProperties;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.loadbalancer.CompletionContext;
+import org.springframework.cloud.client.loadbalancer.LoadBalancerLifecycle;
+import org.springframework.cloud.client.loadbalancer.Request;
+import org.springframework.cloud.client.loadbalancer.Response;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.function.ServerResponse;
+
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongSupplier;
+
+/**
+ * Feeds {@link InstanceStats} from the gateway's load-balanced calls. Gateway routes
+ * report every proxied request through this lifecycle (start, then completion with the
+ * backend response), and {@link LeastLoadedLoadBalancer} reads the resulting cost.
+ * <p>
+ * Per instance, tagged {@code service} and {@code instance}:
+ * {@code gateway.lb.inflight}, {@code gateway.lb.latency} (EWMA, ms) and
+ * {@code gateway.lb.requests{outcome}}.
+ */
+@Component
+public class InstanceLoadTracker implements LoadBalancerLifecycle<Object, Object, ServiceInstance> {
+
+    private record Tracked(InstanceStats stats, List<Meter> meters, Counter success, Counter failure) {
+    }
+
+    // Identity of one load-balanced call, from onStartRequest to onComplete
+    private record CallKey(Object request) {
+        @Override
+        public boolean equals(Object other) {
+            return other instanceof CallKey key && key.request == request;
+        }
+
+        @Override
+        public int hashCode() {
+            return System.identityHashCode(request);
+        }
+    }
+
+    private final ConcurrentHashMap<String, Tracked> instances = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<CallKey, Long> startedAt = new ConcurrentHashMap<>();
+    private final MeterRegistry registry;
+    private final long decayNanos;
+    private final long failureLatencyNanos;
+    private final long idleTimeoutNanos;
+    // System.nanoTime, or a fake one in tests
+    private final LongSupplier clock;
+
+    @Autowired
+    public InstanceLoadTracker(MeterRegistry registry, LoadBalancingProperties properties) {
+        this(registry, properties, System::nanoTime);
+    }
+
+    InstanceLoadTracker(MeterRegistry registry, LoadBalancingProperties properties, LongSupplier clock) {
+        this.registry = registry;
+        this.clock = clock;
+        this.decayNanos = properties.getDecay().toNanos();
+        this.failureLatencyNanos = properties.getFailureLatency().toNanos();
+        this.idleTimeoutNanos = properties.getIdleTimeout().toNanos();
+    }
+
+    public InstanceStats stats(ServiceInstance instance) {
+        return tracked(instance).stats();
+    }
+
+    long now() {
+        return clock.getAsLong();
+    }
+
+    @Override
+    public void onStart(Request<Object> request) {
+    }
+
+    @Override
+    public void onStartRequest(Request<Object> request, Response<ServiceInstance> lbResponse) {
+        if (!lbResponse.hasServer()) {
+            return;
+        }
+        long now = clock.getAsLong();
+        tracked(lbResponse.getServer()).stats().start(now);
+        startedAt.put(new CallKey(request), now);
+    }
+
+    @Override
+    public void onComplete(CompletionContext<Object, ServiceInstance, Object> context) {
+        Long start = startedAt.remove(new CallKey(context.getLoadBalancerRequest()));
+        Response<ServiceInstance> lbResponse = context.getLoadBalancerResponse();
+        if (start == null || lbResponse == null || !lbResponse.hasServer()) {
+            return;
+        }
+
+        long now = clock.getAsLong();
+        long latency = now - start;
+        Tracked tracked = tracked(lbResponse.getServer());
+        if (isFailure(context)) {
+            tracked.stats().complete(Math.max(latency, failureLatencyNanos), now);
+            tracked.failure().increment();
+        } else {
+            tracked.stats().complete(latency, now);
+            tracked.success().increment();
+        }
+    }
+
+    // Instances that left the registry stop being chosen; drop their stats and meters eventually
+    @Scheduled(fixedDelayString = "${gateway.load-balancer.idle-timeout:10m}")
+    public void evictIdle() {
+        long now = clock.getAsLong();
+        instances.entrySet().removeIf(entry -> {
+            InstanceStats stats = entry.getValue().stats();
+            boolean idle = stats.inFlight() == 0 && now - stats.lastUsedNanos() > idleTimeoutNanos;
+            if (idle) {
+                entry.getValue().meters().forEach(registry::remove);
+            }
+            return idle;
+        });
+    }
+
+    private static boolean isFailure(CompletionContext<Object, ServiceInstance, Object> context) {
+        if (context.status() != CompletionContext.Status.SUCCESS) {
+            return true;
+        }
+        if (context.getClientResponse() instanceof ServerResponse response) {
+            HttpStatusCode status = response.statusCode();
+            return status.is5xxServerError();
+        }
+        return false;
+    }
+
+    private Tracked tracked(ServiceInstance instance) {
+        return instances.computeIfAbsent(key(instance), key -> register(instance));
+    }
+
+    private Tracked register(ServiceInstance instance) {
+        InstanceStats stats = new InstanceStats(decayNanos, clock.getAsLong());
+        Tags tags = Tags.of("service", instance.getServiceId(), "instance", instance.getHost() + ":" + instance.getPort());
+
+        Gauge inFlight = Gauge.builder("gateway.lb.inflight", stats, InstanceStats::inFlight)
+                .tags(tags)
+                .register(registry);
+        Gauge latency = Gauge.builder("gateway.lb.latency", stats, s -> s.latencyMillis(clock.getAsLong()))
+                .tags(tags)
+                .baseUnit("milliseconds")
+                .register(registry);
+        Counter success = Counter.builder("gateway.lb.requests").tags(tags).tag("outcome", "success").register(registry);
+        Counter failure = Counter.builder("gateway.lb.requests").tags(tags).tag("outcome", "failure").register(registry);
+
+        return new Tracked(stats, List.of(inFlight, latency, success, failure), success, failure);
+    }
+
+    private static String key(ServiceInstance instance) {
+        return instance.getServiceId() + "/" + instance.getHost() + ":" + instance.getPort();
+    }
+}
@@ -0,0 +1,80 @@
+package com.drive.gatewayapi.loadbalancer;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Load of one backend instance: requests in flight and a peak-sensitive EWMA of latency.
+ * A slower sample replaces the average immediately; faster samples pull it down with a
+ * weight that depends on the time since the previous sample, as does idleness, so an
+ * instance that was slow gets probed again once it has been left alone for a while.
+ */
+public class InstanceStats {
+
+    // Charged to an instance with requests in flight but no completed sample yet
+    static final double UNSAMPLED_PENALTY_NANOS = 1e12;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final double decayNanos;
+
+    // guarded by this
+    private double latencyNanos;
+    private long lastSampleNanos;
+    private boolean sampled;
+    private volatile long lastUsedNanos;
+
+    InstanceStats(long decayNanos, long now) {
+        this.decayNanos = decayNanos;
+        this.lastUsedNanos = now;
+    }
+
+    void start(long now) {
+        inFlight.incrementAndGet();
+        lastUsedNanos = now;
+    }
+
+    void complete(long latency, long now) {
+        inFlight.decrementAndGet();
+        synchronized (this) {
+            if (!sampled || latency > latencyNanos) {
+                latencyNanos = latency;
+            } else {
+                double weight = Math.exp(-(now - lastSampleNanos) / decayNanos);
+                latencyNanos = latencyNanos * weight + latency * (1 - weight);
+            }
+            lastSampleNanos = now;
+            sampled = true;
+        }
+        lastUsedNanos = now;
+    }
+
+    /**
+     * Expected cost of sending one more request here: latency times queue depth.
+     * Lower is better.
+     */
+    double cost(long now) {
+        int outstanding = inFlight.get();
+        synchronized (this) {
+            if (!sampled) {
+                return outstanding == 0 ? 0 : UNSAMPLED_PENALTY_NANOS * outstanding;
+            }
+            return latency(now) * (outstanding + 1);
+        }
+    }
+
+    public int inFlight() {
+        return inFlight.get();
+    }
+
+    public synchronized double latencyMillis(long now) {
+        return sampled ? latency(now) / 1_000_000.0 : 0;
+    }
+
+    long lastUsedNanos() {
+        return lastUsedNanos;
+    }
+
+    // Caller holds the lock
+    private double latency(long now) {
+        return latencyNanos * Math.exp(-Math.max(0, now - lastSampleNanos) / decayNanos);
+    }
+}
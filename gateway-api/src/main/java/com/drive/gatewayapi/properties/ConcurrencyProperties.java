@@ -0,0 +1,35 @@
+package com.drive.gatewayapi.properties;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import lombok.Data;
+
+@Data
+@ConfigurationProperties(prefix = "gateway.concurrency")
+public class ConcurrencyProperties {
+    private boolean enabled = true;
+    private long retryAfterSeconds = 1;
+    // One bulkhead per entry, matched in declaration order; unmatched paths are not limited
+    private Map<String, Route> routes = new LinkedHashMap<>();
+
+    @Data
+    public static class Route {
+        private List<String> paths = List.of();
+        private int initialLimit = 20;
+        private int minLimit = 4;
+        private int maxLimit = 200;
+        // Latency may grow up to this factor over the long-term average before the limit shrinks
+        private double rttTolerance = 1.5;
+        // Weight of each new limit estimate
+        private double smoothing = 0.2;
+        // Samples in the long-term latency average
+        private int longWindow = 600;
+        // Requests with a larger or unknown-length body hold a slot but give no latency sample:
+        // their response only starts once the client finished sending, so it times the upload
+        private long maxSampledBodyBytes = 64 * 1024;
+    }
+}
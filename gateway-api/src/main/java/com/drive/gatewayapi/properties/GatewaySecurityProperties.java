@@ -0,0 +1,31 @@
+package com.drive.gatewayapi.properties;
+
+import java.time.Duration;
+import java.util.List;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import lombok.Data;
+
+@Data
+@ConfigurationProperties(prefix = "gateway.security")
+public class GatewaySecurityProperties {
+    // lb://<service-id>/... is resolved through the load balancer
+    private String jwksUri = "lb://auth-service/api/v1/auth/.well-known/jwks.json";
+    private Duration jwksRefreshInterval = Duration.ofMinutes(5);
+    // Unknown kids trigger an immediate refetch, at most this often
+    private Duration jwksMinRefetchInterval = Duration.ofSeconds(30);
+    private Duration jwksTimeout = Duration.ofSeconds(2);
+    // Verified tokens kept until they expire
+    private int tokenCacheMaxSize = 10_000;
+    // Reachable without a token; everything else needs a valid access token
+    private List<String> publicPaths = List.of("/api/v1/auth/**", "/api/auth/**", "/actuator/health");
+    private Identity identity = new Identity();
+
+    @Data
+    public static class Identity {
+        private String header = "X-Auth-Identity";
+        // Base64 HMAC key shared with the backend services
+        private String secret;
+    }
+}
@@ -0,0 +1,18 @@
+package com.drive.gatewayapi.properties;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import lombok.Data;
+
+@Data
+@ConfigurationProperties(prefix = "gateway.load-balancer")
+public class LoadBalancingProperties {
+    // Time constant of the latency EWMA; also how fast an idle instance's latency is forgotten
+    private Duration decay = Duration.ofSeconds(10);
+    // Latency charged for a failed call or 5xx, so fast failures do not attract traffic
+    private Duration failureLatency = Duration.ofSeconds(1);
+    // Stats (and meters) of instances not used for this long are dropped
+    private Duration idleTimeout = Duration.ofMinutes(10);
+}
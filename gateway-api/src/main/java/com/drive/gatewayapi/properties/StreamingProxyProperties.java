@@ -0,0 +1,25 @@
+package com.drive.gatewayapi.properties;
+
+import java.time.Duration;
+import java.util.List;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import lombok.Data;
+
+@Data
+@ConfigurationProperties(prefix = "gateway.streaming")
+public class StreamingProxyProperties {
+    // Gateway route ids proxied by the streaming exchange; all other routes use the default one
+    private List<String> routeIds = List.of();
+    // Size of each pooled copy buffer; one is held per direction of an active transfer
+    private int bufferSize = 64 * 1024;
+    // Idle buffers kept for reuse; more are allocated under load and dropped when released
+    private int maxPooledBuffers = 256;
+    private int maxConnections = 500;
+    private int maxConnectionsPerRoute = 200;
+    private Duration connectTimeout = Duration.ofSeconds(5);
+    // Longest silence from the backend (while waiting for headers or between body reads)
+    private Duration readTimeout = Duration.ofSeconds(60);
+    private Duration idleConnectionTimeout = Duration.ofSeconds(30);
+}
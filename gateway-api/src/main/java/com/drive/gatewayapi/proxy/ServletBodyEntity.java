@@ -0,0 +1,81 @@
+package com.drive.gatewayapi.proxy;
+
+import org.apache.hc.core5.http.io.entity.AbstractHttpEntity;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+/**
+ * The client's request body, copied to the backend connection as it arrives. Reads from
+ * the client block until it sends more and writes to the backend block until the backend
+ * reads, so a slow side throttles the other instead of piling bytes up in the gateway.
+ */
+class ServletBodyEntity extends AbstractHttpEntity {
+
+    private final InputStream body;
+    private final long contentLength;
+    private final BufferPool bufferPool;
+
+    // Set when reading from the client failed, as opposed to writing to the backend
+    private volatile boolean clientFailed;
+
+    ServletBodyEntity(InputStream body, long contentLength, BufferPool bufferPool) {
+        // Content-Type travels with the copied request headers
+        super((String) null, null, contentLength < 0);
+        this.body = body;
+        this.contentLength = contentLength;
+        this.bufferPool = bufferPool;
+    }
+
+    boolean clientFailed() {
+        return clientFailed;
+    }
+
+    @Override
+    public void writeTo(OutputStream out) throws IOException {
+        byte[] buffer = bufferPool.acquire();
+        try {
+            while (true) {
+                int read;
+                try {
+                    read = body.read(buffer);
+                } catch (IOException e) {
+                    clientFailed = true;
+                    throw e;
+                }
+                if (read == -1) {
+                    break;
+                }
+                out.write(buffer, 0, read);
+            }
+        } finally {
+            bufferPool.release(buffer);
+        }
+    }
+
+    @Override
+    public InputStream getContent() {
+        return body;
+    }
+
+    @Override
+    public long getContentLength() {
+        return contentLength;
+    }
+
+    @Override
+    public boolean isRepeatable() {
+        return false;
+    }
+
+    @Override
+    public boolean isStreaming() {
+        return true;
+    }
+
+    @Override
+    public void close() {
+        // The servlet container owns the request stream
+    }
+}
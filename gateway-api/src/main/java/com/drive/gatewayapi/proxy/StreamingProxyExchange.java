@@ -0,0 +1,220 @@
+package com.drive.gatewayapi.proxy;
+
+import com.drive.gatewayapi.properties.StreamingProxyProperties;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+import org.apache.hc.client5.http.classic.methods.HttpUriRequestBase;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.core5.http.ClassicHttpResponse;
+import org.apache.hc.core5.http.Header;
+import org.apache.hc.core5.http.HttpEntity;
+import org.apache.hc.core5.http.HttpHost;
+import org.springframework.cloud.gateway.server.mvc.common.MvcUtils;
+import org.springframework.cloud.gateway.server.mvc.handler.GatewayServerResponse;
+import org.springframework.cloud.gateway.server.mvc.handler.ProxyExchange;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.servlet.function.ServerResponse;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.SocketTimeoutException;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Proxy exchange for large bodies (the storage routes). Request and response bodies are
+ * copied between the client and the backend through pooled fixed-size buffers with
+ * blocking I/O, so backpressure is plain TCP flow control and heap use does not depend
+ * on the file size. Routes not listed in {@code gateway.streaming.route-ids} go to the
+ * gateway's default exchange.
+ * <p>
+ * Aborts propagate both ways: if the client drops an upload or a download, the backend
+ * connection is closed mid-transfer (never drained or returned to the pool), so the
+ * backend sees the failure too; if the backend fails, the client's connection is cut
+ * instead of ending a truncated body as if it were complete.
+ */
+public class StreamingProxyExchange implements ProxyExchange {
+
+    // Set by the HTTP client from the entity; copying them would clash
+    private static final Set<String> ENTITY_HEADERS = Set.of(
+            HttpHeaders.CONTENT_LENGTH.toLowerCase(),
+            HttpHeaders.TRANSFER_ENCODING.toLowerCase()
+    );
+
+    private static final String UNWRITTEN_RESPONSE_ATTR = StreamingProxyExchange.class.getName() + ".unwrittenResponse";
+
+    private final CloseableHttpClient httpClient;
+    private final ProxyExchange fallback;
+    private final Set<String> routeIds;
+    private final BufferPool bufferPool;
+    private final Counter uploadAborts;
+    private final Counter downloadAborts;
+
+    public StreamingProxyExchange(
+            CloseableHttpClient httpClient,
+            ProxyExchange fallback,
+            StreamingProxyProperties properties,
+            MeterRegistry registry
+    ) {
+        this.httpClient = httpClient;
+        this.fallback = fallback;
+        this.routeIds = Set.copyOf(properties.getRouteIds());
+        this.bufferPool = new BufferPool(properties.getBufferSize(), properties.getMaxPooledBuffers());
+
+        Gauge.builder("gateway.proxy.buffers.idle", bufferPool, BufferPool::idle).register(registry);
+        this.uploadAborts = Counter.builder("gateway.proxy.aborted").tag("direction", "upload").register(registry);
+        this.downloadAborts = Counter.builder("gateway.proxy.aborted").tag("direction", "download").register(registry);
+    }
+
+    @Override
+    public ServerResponse exchange(Request request) {
+        String routeId = MvcUtils.getAttribute(request.getServerRequest(), MvcUtils.GATEWAY_ROUTE_ID_ATTR);
+        if (routeId == null || !routeIds.contains(routeId)) {
+            return fallback.exchange(request);
+        }
+
+        HttpServletRequest servletRequest = request.getServerRequest().servletRequest();
+
+        // 1. Same method, URI and (already filtered) headers towards the backend
+        HttpUriRequestBase upstream = new HttpUriRequestBase(request.getMethod().name(), request.getUri());
+        request.getHeaders().forEach((name, values) -> {
+            if (!ENTITY_HEADERS.contains(name.toLowerCase())) {
+                values.forEach(value -> upstream.addHeader(name, value));
+            }
+        });
+
+        // 2. Request body is streamed while the backend reads it
+        ServletBodyEntity body = null;
+        try {
+            if (hasBody(servletRequest)) {
+                body = new ServletBodyEntity(
+                        servletRequest.getInputStream(), servletRequest.getContentLengthLong(), bufferPool);
+                upstream.setEntity(body);
+            }
+
+            ClassicHttpResponse response = httpClient.executeOpen(HttpHost.create(request.getUri()), upstream, null);
+            return respond(request, upstream, response);
+        } catch (IOException e) {
+            upstream.cancel();
+            if (body != null && body.clientFailed()) {
+                uploadAborts.increment();
+                throw new UncheckedIOException(e);
+            }
+            if (body != null) {
+                uploadAborts.increment();
+            }
+            HttpStatus status = e instanceof SocketTimeoutException ? HttpStatus.GATEWAY_TIMEOUT : HttpStatus.BAD_GATEWAY;
+            return GatewayServerResponse.status(status).build();
+        }
+    }
+
+    // 3. Status and headers go through the gateway's response filters; the body is copied on write
+    private ServerResponse respond(Request request, HttpUriRequestBase upstream, ClassicHttpResponse response) {
+        // The pooled backend response is closed by the write; if the response is never
+        // written (a filter failed, the request errored out), it is closed when the request ends
+        AtomicBoolean written = new AtomicBoolean();
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes != null) {
+            attributes.registerDestructionCallback(UNWRITTEN_RESPONSE_ATTR, () -> {
+                if (!written.get()) {
+                    upstream.cancel();
+                    closeQuietly(response);
+                }
+            }, RequestAttributes.SCOPE_REQUEST);
+        }
+
+        HttpHeaders headers = new HttpHeaders();
+        for (Header header : response.getHeaders()) {
+            headers.add(header.getName(), header.getValue());
+        }
+        HttpStatusCode status = HttpStatusCode.valueOf(response.getCode());
+
+        ServerResponse serverResponse = GatewayServerResponse.status(status)
+                .build((servletRequest, servletResponse) -> {
+                    written.set(true);
+                    copyResponseBody(upstream, response, servletResponse);
+                    return null;
+                });
+
+        Response proxied = new Response() {
+            @Override
+            public HttpStatusCode getStatusCode() {
+                return status;
+            }
+
+            @Override
+            public HttpHeaders getHeaders() {
+                return headers;
+            }
+        };
+        try {
+            request.getResponseConsumers().forEach(consumer -> consumer.accept(proxied, serverResponse));
+        } catch (RuntimeException e) {
+            written.set(true);
+            upstream.cancel();
+            closeQuietly(response);
+            throw e;
+        }
+        return serverResponse;
+    }
+
+    private void copyResponseBody(
+            HttpUriRequestBase upstream,
+            ClassicHttpResponse response,
+            HttpServletResponse servletResponse
+    ) throws IOException {
+        HttpEntity entity = response.getEntity();
+        if (entity == null) {
+            closeQuietly(response);
+            return;
+        }
+
+        byte[] buffer = bufferPool.acquire();
+        boolean complete = false;
+        try {
+            InputStream in = entity.getContent();
+            OutputStream out = servletResponse.getOutputStream();
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                out.write(buffer, 0, read);
+                // Nothing more buffered from the backend: push what we have to the client
+                if (in.available() == 0) {
+                    out.flush();
+                }
+            }
+            complete = true;
+        } finally {
+            bufferPool.release(buffer);
+            if (!complete) {
+                // Drop the backend connection instead of draining the rest of the body
+                upstream.cancel();
+                downloadAborts.increment();
+            }
+            closeQuietly(response);
+        }
+    }
+
+    private static boolean hasBody(HttpServletRequest request) {
+        return request.getContentLengthLong() > 0 || request.getHeader(HttpHeaders.TRANSFER_ENCODING) != null;
+    }
+
+    private static void closeQuietly(ClassicHttpResponse response) {
+        try {
+            response.close();
+        } catch (IOException e) {
+            // Connection is discarded either way
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package com.drive.gatewayapi.security;
+
+import com.drive.gatewayapi.properties.GatewaySecurityProperties;
+
+import org.springframework.stereotype.Component;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.time.Instant;
+import java.util.Base64;
+
+/**
+ * Signs the identity forwarded to backend services once a token is verified:
+ * {@code <userId>:<role>:<expiresAtEpochSecond>:<base64url HMAC-SHA256 of the first three>}.
+ * Backends check the HMAC with the shared key and never see or parse the JWT.
+ * The header expires with the token it was derived from.
+ */
+@Component
+public class IdentityHeaderSigner {
+
+    private final SecretKeySpec key;
+
+    public IdentityHeaderSigner(GatewaySecurityProperties properties) {
+        String encoded = properties.getIdentity().getSecret();
+        if (encoded == null || encoded.isBlank()) {
+            throw new IllegalStateException("gateway.security.identity.secret must be set");
+        }
+        this.key = new SecretKeySpec(Base64.getDecoder().decode(encoded), "HmacSHA256");
+    }
+
+    public String sign(long userId, String role, Instant expiresAt) {
+        String payload = userId + ":" + role + ":" + expiresAt.getEpochSecond();
+        return payload + ":" + Base64.getUrlEncoder().withoutPadding().encodeToString(hmac(payload));
+    }
+
+    // Only called once per token (the result is cached with it), so no Mac pooling
+    private byte[] hmac(String payload) {
+        try {
+            Mac mac = Mac.getInstance("HmacSHA256");
+            mac.init(key);
+            return mac.doFinal(payload.getBytes(StandardCharsets.UTF_8));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("HmacSHA256 not available", e);
+        }
+    }
+}
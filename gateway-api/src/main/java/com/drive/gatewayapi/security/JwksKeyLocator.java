@@ -0,0 +1,114 @@
+package com.drive.gatewayapi.security;
+
+import com.drive.gatewayapi.properties.GatewaySecurityProperties;
+
+import io.jsonwebtoken.JwsHeader;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.LocatorAdapter;
+import io.jsonwebtoken.security.Jwk;
+import io.jsonwebtoken.security.JwkSet;
+import io.jsonwebtoken.security.Jwks;
+
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.loadbalancer.LoadBalancerClient;
+import org.springframework.http.client.SimpleClientHttpRequestFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestClient;
+import org.springframework.web.client.RestClientException;
+
+import java.net.URI;
+import java.security.Key;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Verification keys from auth-service's JWKS, cached in memory and looked up by the
+ * token's {@code kid}. The set is refreshed on a schedule; a kid not seen yet (a key
+ * published since the last refresh) triggers one immediate refetch, rate limited so
+ * tokens with made-up kids cannot turn into a request storm against auth-service.
+ */
+@Component
+public class JwksKeyLocator extends LocatorAdapter<Key> {
+
+    private final GatewaySecurityProperties properties;
+    private final LoadBalancerClient loadBalancerClient;
+    private final RestClient restClient;
+    private final AtomicLong lastFetchNanos;
+
+    private volatile Map<String, Key> keys = Map.of();
+
+    public JwksKeyLocator(GatewaySecurityProperties properties, LoadBalancerClient loadBalancerClient) {
+        this.properties = properties;
+        this.loadBalancerClient = loadBalancerClient;
+        // The first token may fetch right away
+        this.lastFetchNanos = new AtomicLong(System.nanoTime() - properties.getJwksMinRefetchInterval().toNanos());
+
+        SimpleClientHttpRequestFactory requestFactory = new SimpleClientHttpRequestFactory();
+        requestFactory.setConnectTimeout(properties.getJwksTimeout());
+        requestFactory.setReadTimeout(properties.getJwksTimeout());
+        this.restClient = RestClient.builder().requestFactory(requestFactory).build();
+    }
+
+    @Override
+    protected Key locate(JwsHeader header) {
+        String kid = header.getKeyId();
+        if (kid == null) {
+            return null;
+        }
+        Key key = keys.get(kid);
+        if (key == null && mayRefetch()) {
+            refreshQuietly();
+            key = keys.get(kid);
+        }
+        return key;
+    }
+
+    @Scheduled(fixedDelayString = "${gateway.security.jwks-refresh-interval:5m}")
+    public void scheduledRefresh() {
+        refreshQuietly();
+    }
+
+    // Keeps the last good key set if auth-service is unreachable
+    private void refreshQuietly() {
+        try {
+            refresh();
+        } catch (RestClientException | IllegalStateException | JwtException e) {
+            // Tokens signed with keys we already have keep working; unknown kids fail verification
+        }
+    }
+
+    private synchronized void refresh() {
+        lastFetchNanos.set(System.nanoTime());
+        String json = restClient.get().uri(resolve(properties.getJwksUri())).retrieve().body(String.class);
+        JwkSet set = Jwks.setParser().build().parse(json);
+
+        Map<String, Key> loaded = new HashMap<>();
+        for (Jwk<?> jwk : set.getKeys()) {
+            if (jwk.getId() != null) {
+                loaded.put(jwk.getId(), jwk.toKey());
+            }
+        }
+        this.keys = Map.copyOf(loaded);
+    }
+
+    private boolean mayRefetch() {
+        long last = lastFetchNanos.get();
+        long now = System.nanoTime();
+        return now - last >= properties.getJwksMinRefetchInterval().toNanos()
+                && lastFetchNanos.compareAndSet(last, now);
+    }
+
+    private URI resolve(String uri) {
+        URI target = URI.create(uri);
+        if (!"lb".equals(target.getScheme())) {
+            return target;
+        }
+        ServiceInstance instance = loadBalancerClient.choose(target.getHost());
+        if (instance == null) {
+            throw new IllegalStateException("No instance of " + target.getHost() + " available for the JWKS");
+        }
+        return loadBalancerClient.reconstructURI(instance, target);
+    }
+}
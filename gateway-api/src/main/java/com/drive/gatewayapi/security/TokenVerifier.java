@@ -0,0 +1,63 @@
+package com.drive.gatewayapi.security;
+
+import com.drive.gatewayapi.cache.VerifiedTokenCache;
+import com.drive.gatewayapi.dto.VerifiedIdentity;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
+import io.jsonwebtoken.Jwts;
+
+import org.springframework.stereotype.Component;
+
+/**
+ * Verifies auth-service access tokens locally against the cached JWKS. Each distinct
+ * token is parsed and signature-checked once; after that it is a cache lookup until
+ * the token expires.
+ */
+@Component
+public class TokenVerifier {
+
+    // Claim names written by auth-service's JwtService
+    static final String CLAIM_USER_ID = "uid";
+    static final String CLAIM_ROLE = "role";
+
+    private final VerifiedTokenCache cache;
+    private final IdentityHeaderSigner signer;
+    private final JwtParser parser;
+
+    public TokenVerifier(VerifiedTokenCache cache, IdentityHeaderSigner signer, JwksKeyLocator keyLocator) {
+        this.cache = cache;
+        this.signer = signer;
+        this.parser = Jwts.parser().keyLocator(keyLocator).build();
+    }
+
+    /**
+     * @throws JwtException if the token is malformed, expired, signed with an unknown key
+     *                      or lacks the identity claims
+     */
+    public VerifiedIdentity verify(String token) {
+        VerifiedIdentity cached = cache.get(token);
+        if (cached != null) {
+            return cached;
+        }
+
+        Claims claims = parser.parseSignedClaims(token).getPayload();
+        Long userId = claims.get(CLAIM_USER_ID, Long.class);
+        String role = claims.get(CLAIM_ROLE, String.class);
+        if (userId == null || role == null || claims.getExpiration() == null) {
+            throw new JwtException("Access token has no identity claims");
+        }
+
+        VerifiedIdentity verified = VerifiedIdentity.builder()
+                .subject(claims.getSubject())
+                .userId(userId)
+                .role(role)
+                .expiresAt(claims.getExpiration().toInstant())
+                .identityHeader(signer.sign(userId, role, claims.getExpiration().toInstant()))
+                .build();
+
+        cache.put(token, verified);
+        return verified;
+    }
+}
@@ -3,7 +3,7 @@ package com.drive.gatewayapi;
 import org.junit.jupiter.api.Test;
 import org.springframework.boot.test.context.SpringBootTest;
 
-@SpringBootTest
+@SpringBootTest(properties = "gateway.security.identity.secret=Z2F0ZXdheS1jb250ZXh0LXRlc3Qta2V5LTAxMjM0NTY3")
 class GatewayApiApplicationTests {
 
     @Test
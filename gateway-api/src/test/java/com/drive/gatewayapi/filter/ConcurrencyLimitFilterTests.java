@@ -0,0 +1,117 @@
+package com.drive.gatewayapi.filter;
+
+import com.drive.gatewayapi.concurrency.AdaptiveConcurrencyLimiter;
+import com.drive.gatewayapi.concurrency.RouteBulkheads;
+import com.drive.gatewayapi.properties.ConcurrencyProperties;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.http.HttpServletResponse;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Chunk uploads on the storage bulkhead: the backend answers only after reading the whole
+ * chunk, so their time must not reach the gradient, while they still occupy a slot.
+ */
+class ConcurrencyLimitFilterTests {
+
+    private static final String CHUNK_PATH = "/api/v1/storage/uploads/u1/chunks/0";
+    private static final int CHUNK_BYTES = 4 * 1024 * 1024;
+
+    private final ConcurrencyProperties properties = new ConcurrencyProperties();
+    private final ConcurrencyProperties.Route route = new ConcurrencyProperties.Route();
+    private final AdaptiveConcurrencyLimiter limiter = mock(AdaptiveConcurrencyLimiter.class);
+    private final RouteBulkheads bulkheads = mock(RouteBulkheads.class);
+    private final ConcurrencyLimitFilter filter = new ConcurrencyLimitFilter(bulkheads, properties);
+
+    ConcurrencyLimitFilterTests() {
+        when(limiter.tryAcquire()).thenReturn(true);
+        when(bulkheads.match(CHUNK_PATH)).thenReturn(new RouteBulkheads.Bulkhead(
+                "storage", route, List.of(), limiter, new SimpleMeterRegistry().counter("rejected")));
+    }
+
+    @Test
+    void largeUploadHoldsASlotWithoutASample() throws Exception {
+        MockHttpServletRequest request = put();
+        request.setContent(new byte[CHUNK_BYTES]);
+
+        filter.doFilter(request, new MockHttpServletResponse(), respond(HttpServletResponse.SC_OK));
+
+        verify(limiter).release(false);
+        verify(limiter, never()).release(anyLong(), anyBoolean());
+    }
+
+    @Test
+    void chunkedUploadIsNotSampled() throws Exception {
+        MockHttpServletRequest request = put();
+        request.addHeader(HttpHeaders.TRANSFER_ENCODING, "chunked");
+
+        filter.doFilter(request, new MockHttpServletResponse(), respond(HttpServletResponse.SC_OK));
+
+        verify(limiter).release(false);
+        verify(limiter, never()).release(anyLong(), anyBoolean());
+    }
+
+    @Test
+    void failedUploadStillCountsAsDropped() throws Exception {
+        MockHttpServletRequest request = put();
+        request.setContent(new byte[CHUNK_BYTES]);
+
+        filter.doFilter(request, new MockHttpServletResponse(), respond(HttpServletResponse.SC_BAD_GATEWAY));
+
+        verify(limiter).release(true);
+    }
+
+    @Test
+    void smallRequestIsSampled() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", CHUNK_PATH);
+
+        filter.doFilter(request, new MockHttpServletResponse(), respond(HttpServletResponse.SC_OK));
+
+        verify(limiter).release(anyLong(), eq(false));
+        verify(limiter, never()).release(anyBoolean());
+    }
+
+    @Test
+    void unsampledReleaseFreesTheSlotAndKeepsTheLimit() {
+        route.setInitialLimit(20);
+        AdaptiveConcurrencyLimiter real = new AdaptiveConcurrencyLimiter(route);
+
+        for (int i = 0; i < 20; i++) {
+            real.tryAcquire();
+        }
+        for (int i = 0; i < 20; i++) {
+            real.release(false);
+        }
+
+        assertEquals(0, real.inFlight());
+        assertEquals(20, real.limit());
+    }
+
+    private static MockHttpServletRequest put() {
+        return new MockHttpServletRequest("PUT", CHUNK_PATH);
+    }
+
+    private static FilterChain respond(int status) {
+        return (request, response) -> {
+            ((HttpServletResponse) response).setStatus(status);
+            response.getOutputStream().write('{');
+        };
+    }
+}
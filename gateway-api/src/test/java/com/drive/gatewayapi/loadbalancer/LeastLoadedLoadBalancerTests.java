@@ -0,0 +1,148 @@
+package com.drive.gatewayapi.loadbalancer;
+
+import com.drive.gatewayapi.properties.LoadBalancingProperties;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.client.DefaultServiceInstance;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.loadbalancer.CompletionContext;
+import org.springframework.cloud.client.loadbalancer.DefaultRequest;
+import org.springframework.cloud.client.loadbalancer.DefaultResponse;
+import org.springframework.cloud.client.loadbalancer.Request;
+import org.springframework.cloud.client.loadbalancer.Response;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Skewed load across three instances, one of them much slower (like an auth-service
+ * replica busy hashing passwords). Latencies are fed through the tracker's lifecycle on
+ * a fake clock, so the balancer's choices are deterministic: whenever the slow instance
+ * is one of the two candidates it must lose, until it has been left alone long enough to
+ * be probed again.
+ */
+class LeastLoadedLoadBalancerTests {
+
+    private static final String SERVICE_ID = "stub-service";
+    private static final int CHOICES = 1_000;
+    private static final Duration FAST = Duration.ofMillis(2);
+    private static final Duration SLOW = Duration.ofMillis(150);
+
+    private final AtomicLong clock = new AtomicLong(1_000_000_000L);
+    private final LoadBalancingProperties properties = new LoadBalancingProperties();
+
+    private final ServiceInstance fast1 = instance("fast-1", 8081);
+    private final ServiceInstance fast2 = instance("fast-2", 8082);
+    private final ServiceInstance slow = instance("slow", 8083);
+    private final List<ServiceInstance> instances = List.of(fast1, slow, fast2);
+
+    private InstanceLoadTracker tracker;
+    private LeastLoadedLoadBalancer balancer;
+
+    @BeforeEach
+    void setUp() {
+        tracker = new InstanceLoadTracker(new SimpleMeterRegistry(), properties, clock::get);
+        balancer = new LeastLoadedLoadBalancer(null, tracker);
+    }
+
+    @Test
+    void slowInstanceLosesEveryComparison() {
+        call(fast1, FAST);
+        call(fast2, FAST);
+        call(slow, SLOW);
+
+        Map<ServiceInstance, Integer> chosen = chooseMany();
+
+        assertEquals(0, chosen.getOrDefault(slow, 0), "slow instance should never win");
+        assertEquals(CHOICES, chosen.getOrDefault(fast1, 0) + chosen.getOrDefault(fast2, 0));
+    }
+
+    @Test
+    void queueDepthOutweighsLowLatency() {
+        call(fast1, FAST);
+        call(fast2, FAST);
+        call(slow, SLOW);
+        // 2 ms x 101 outstanding costs more than 150 ms x 1
+        for (int i = 0; i < 100; i++) {
+            start(fast1);
+        }
+
+        Map<ServiceInstance, Integer> chosen = chooseMany();
+
+        assertEquals(0, chosen.getOrDefault(fast1, 0), "saturated instance should never win");
+        assertTrue(chosen.getOrDefault(slow, 0) > 0, "slow instance should win against the saturated one");
+    }
+
+    @Test
+    void unsampledInstanceWithRequestsInFlightIsAvoided() {
+        call(fast1, FAST);
+        call(fast2, FAST);
+        start(slow);
+
+        Map<ServiceInstance, Integer> chosen = chooseMany();
+
+        assertEquals(0, chosen.getOrDefault(slow, 0));
+    }
+
+    @Test
+    void slowInstanceIsProbedAgainAfterIdling() {
+        call(slow, SLOW);
+        clock.addAndGet(properties.getDecay().multipliedBy(10).toNanos());
+        call(fast1, FAST);
+        call(fast2, FAST);
+
+        Map<ServiceInstance, Integer> chosen = chooseMany();
+
+        // Its latency has decayed below the fast instances' fresh samples, so it wins
+        // whenever it is drawn, which is two choices in three
+        assertTrue(chosen.getOrDefault(slow, 0) > CHOICES / 2, "idle slow instance should win when drawn");
+    }
+
+    @Test
+    void failureCountsAsAtLeastTheFailureLatency() {
+        call(fast1, FAST);
+        call(fast2, FAST);
+        Request<Object> request = new DefaultRequest<>();
+        Response<ServiceInstance> response = new DefaultResponse(slow);
+        tracker.onStartRequest(request, response);
+        clock.addAndGet(FAST.toNanos());
+        tracker.onComplete(new CompletionContext<>(CompletionContext.Status.FAILED, request, response));
+
+        assertEquals(properties.getFailureLatency().toMillis(), tracker.stats(slow).latencyMillis(clock.get()), 1.0);
+        assertEquals(0, chooseMany().getOrDefault(slow, 0));
+    }
+
+    private Map<ServiceInstance, Integer> chooseMany() {
+        Map<ServiceInstance, Integer> chosen = new HashMap<>();
+        for (int i = 0; i < CHOICES; i++) {
+            chosen.merge(balancer.choose(instances).getServer(), 1, Integer::sum);
+        }
+        return chosen;
+    }
+
+    // One completed call of the given latency, as the gateway's lb() filter reports it
+    private void call(ServiceInstance instance, Duration latency) {
+        Request<Object> request = new DefaultRequest<>();
+        Response<ServiceInstance> response = new DefaultResponse(instance);
+        tracker.onStartRequest(request, response);
+        clock.addAndGet(latency.toNanos());
+        tracker.onComplete(new CompletionContext<>(CompletionContext.Status.SUCCESS, request, response));
+    }
+
+    private void start(ServiceInstance instance) {
+        tracker.onStartRequest(new DefaultRequest<>(), new DefaultResponse(instance));
+    }
+
+    private static ServiceInstance instance(String name, int port) {
+        return new DefaultServiceInstance(name, SERVICE_ID, "127.0.0.1", port, false);
+    }
+}
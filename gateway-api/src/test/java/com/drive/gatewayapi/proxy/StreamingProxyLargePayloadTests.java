@@ -0,0 +1,254 @@
+package com.drive.gatewayapi.proxy;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.CRC32;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Pushes multi-GB bodies through the storage route to a local stub backend. Runs only with
+ * {@code -Plarge-payload}, in its own surefire execution with a small heap
+ * ({@code -Xmx128m}), so any buffering of a body in the gateway fails the build with an
+ * OutOfMemoryError.
+ */
+@Tag("large-payload")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+class StreamingProxyLargePayloadTests {
+
+    private static final long PAYLOAD_BYTES = Long.getLong("largePayload.bytes", 2L * 1024 * 1024 * 1024);
+    private static final int CHUNK = 64 * 1024;
+
+    private static final long PAYLOAD_CRC = PatternStream.crc(PAYLOAD_BYTES);
+
+    private static final HttpServer backend = startBackend();
+    private static final CountDownLatch downloadAborted = new CountDownLatch(1);
+    private static final CountDownLatch uploadTruncated = new CountDownLatch(1);
+
+    @LocalServerPort
+    private int port;
+
+    private final HttpClient client = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .build();
+
+    @DynamicPropertySource
+    static void routeStorageToStub(DynamicPropertyRegistry registry) {
+        // A list property is replaced as a whole, so the storage route is declared in full
+        registry.add("spring.cloud.gateway.server.webmvc.routes[0].id", () -> "storag-service");
+        registry.add("spring.cloud.gateway.server.webmvc.routes[0].uri",
+                () -> "http://localhost:" + backend.getAddress().getPort());
+        registry.add("spring.cloud.gateway.server.webmvc.routes[0].predicates[0]", () -> "Path=/api/v1/storage/**");
+        registry.add("gateway.security.public-paths", () -> "/api/v1/storage/**");
+        registry.add("gateway.security.identity.secret", () -> "dGVzdC1pZGVudGl0eS1zZWNyZXQtZm9yLWxhcmdlLXBheWxvYWQ=");
+        registry.add("eureka.client.enabled", () -> "false");
+    }
+
+    @AfterAll
+    static void stopBackend() {
+        backend.stop(0);
+    }
+
+    @Test
+    void uploadIsStreamedToBackend() throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(uri("/api/v1/storage/upload"))
+                .POST(HttpRequest.BodyPublishers.fromPublisher(
+                        HttpRequest.BodyPublishers.ofInputStream(() -> new PatternStream(PAYLOAD_BYTES, -1)),
+                        PAYLOAD_BYTES))
+                .build();
+
+        HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+
+        assertEquals(200, response.statusCode());
+        assertEquals(PAYLOAD_BYTES + ":" + PAYLOAD_CRC, response.body());
+    }
+
+    @Test
+    void downloadIsStreamedToClient() throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(uri("/api/v1/storage/download?size=" + PAYLOAD_BYTES)).build();
+
+        HttpResponse<InputStream> response = client.send(request, HttpResponse.BodyHandlers.ofInputStream());
+
+        assertEquals(200, response.statusCode());
+        CRC32 crc = new CRC32();
+        long received = 0;
+        byte[] buffer = new byte[CHUNK];
+        try (InputStream body = response.body()) {
+            int read;
+            while ((read = body.read(buffer)) != -1) {
+                crc.update(buffer, 0, read);
+                received += read;
+            }
+        }
+        assertEquals(PAYLOAD_BYTES, received);
+        assertEquals(PAYLOAD_CRC, crc.getValue());
+    }
+
+    @Test
+    void clientAbortOfDownloadReachesBackend() throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(uri("/api/v1/storage/download?size=" + PAYLOAD_BYTES)).build();
+
+        HttpResponse<InputStream> response = client.send(request, HttpResponse.BodyHandlers.ofInputStream());
+        try (InputStream body = response.body()) {
+            body.readNBytes(8 * 1024 * 1024);
+        }
+
+        assertTrue(downloadAborted.await(30, TimeUnit.SECONDS), "backend should see the download abort");
+    }
+
+    @Test
+    void clientAbortOfUploadReachesBackend() {
+        HttpRequest request = HttpRequest.newBuilder(uri("/api/v1/storage/upload"))
+                .POST(HttpRequest.BodyPublishers.fromPublisher(
+                        HttpRequest.BodyPublishers.ofInputStream(() -> new PatternStream(PAYLOAD_BYTES, 8L * 1024 * 1024)),
+                        PAYLOAD_BYTES))
+                .build();
+
+        assertThrows(IOException.class, () -> client.send(request, HttpResponse.BodyHandlers.ofString()));
+        assertTrue(await(uploadTruncated), "backend should see the upload end early");
+    }
+
+    private URI uri(String path) {
+        return URI.create("http://localhost:" + port + path);
+    }
+
+    private static boolean await(CountDownLatch latch) {
+        try {
+            return latch.await(30, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    // Counts and checksums uploads; serves deterministic downloads of any size
+    private static HttpServer startBackend() {
+        try {
+            HttpServer server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+            server.createContext("/api/v1/storage/upload", StreamingProxyLargePayloadTests::upload);
+            server.createContext("/api/v1/storage/download", StreamingProxyLargePayloadTests::download);
+            // Platform threads: long request bodies read on virtual threads can stall in the JDK server
+            server.setExecutor(Executors.newCachedThreadPool());
+            server.start();
+            return server;
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static void upload(HttpExchange exchange) throws IOException {
+        long declared = Long.parseLong(exchange.getRequestHeaders().getFirst("Content-Length"));
+        CRC32 crc = new CRC32();
+        AtomicLong received = new AtomicLong();
+        byte[] buffer = new byte[CHUNK];
+        try (InputStream body = exchange.getRequestBody()) {
+            int read;
+            while ((read = body.read(buffer)) != -1) {
+                crc.update(buffer, 0, read);
+                received.addAndGet(read);
+            }
+        } catch (IOException e) {
+            // Connection dropped mid-body
+        }
+        if (received.get() < declared) {
+            uploadTruncated.countDown();
+            exchange.close();
+            return;
+        }
+        byte[] result = (received.get() + ":" + crc.getValue()).getBytes(StandardCharsets.US_ASCII);
+        exchange.sendResponseHeaders(200, result.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(result);
+        }
+    }
+
+    private static void download(HttpExchange exchange) throws IOException {
+        long size = Long.parseLong(exchange.getRequestURI().getQuery().substring("size=".length()));
+        exchange.sendResponseHeaders(200, size);
+        try (InputStream source = new PatternStream(size, -1); OutputStream out = exchange.getResponseBody()) {
+            source.transferTo(out);
+        } catch (IOException e) {
+            downloadAborted.countDown();
+            exchange.close();
+        }
+    }
+
+    // Deterministic bytes without holding them; optionally fails after some bytes, like a dropped client
+    private static final class PatternStream extends InputStream {
+
+        private final long size;
+        private final long failAfter;
+        private long position;
+
+        PatternStream(long size, long failAfter) {
+            this.size = size;
+            this.failAfter = failAfter;
+        }
+
+        static long crc(long size) {
+            PatternStream stream = new PatternStream(size, -1);
+            CRC32 crc = new CRC32();
+            byte[] buffer = new byte[CHUNK];
+            int read;
+            while ((read = stream.next(buffer, 0, buffer.length)) != -1) {
+                crc.update(buffer, 0, read);
+            }
+            return crc.getValue();
+        }
+
+        @Override
+        public int read() throws IOException {
+            byte[] one = new byte[1];
+            return read(one, 0, 1) == -1 ? -1 : one[0] & 0xff;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            if (failAfter >= 0 && position >= failAfter) {
+                throw new IOException("client gave up");
+            }
+            return next(b, off, len);
+        }
+
+        private int next(byte[] b, int off, int len) {
+            if (position >= size) {
+                return -1;
+            }
+            int n = (int) Math.min(len, size - position);
+            for (int i = 0; i < n; i++) {
+                long p = position + i;
+                b[off + i] = (byte) (p ^ (p >>> 11));
+            }
+            position += n;
+            return n;
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
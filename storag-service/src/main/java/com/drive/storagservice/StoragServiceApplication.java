@@ -2,8 +2,14 @@ package com.drive.storagservice;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+import com.drive.storagservice.properties.StorageProperties;
 
 @SpringBootApplication
+@EnableScheduling
+@EnableConfigurationProperties(StorageProperties.class)
 public class StoragServiceApplication {
 
     public static void main(String[] args) {
@@ -0,0 +1,68 @@
+package com.drive.storagservice.controller;
+
+import com.drive.storagservice.dto.FileResponse;
+import com.drive.storagservice.dto.RenameFileRequest;
+import com.drive.storagservice.security.AuthenticatedUser;
+import com.drive.storagservice.service.DownloadService;
+import com.drive.storagservice.service.FileService;
+import com.drive.storagservice.service.PreviewService;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.validation.Valid;
+
+import lombok.RequiredArgsConstructor;
+
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.IOException;
+import java.util.UUID;
+
+@RestController
+@RequestMapping("/api/v1/storage/files")
+@RequiredArgsConstructor
+public class FileController {
+    private final DownloadService downloadService;
+    private final FileService fileService;
+    private final PreviewService previewService;
+
+    // GET and HEAD; supports Range/If-Range and conditional requests
+    @GetMapping("/{fileId}/content")
+    public void content(
+            AuthenticatedUser user,
+            @PathVariable UUID fileId,
+            @RequestParam(defaultValue = "false") boolean download,
+            HttpServletRequest request,
+            HttpServletResponse response
+    ) throws IOException {
+        downloadService.download(user, fileId, download, request, response);
+    }
+
+    // JPEG, longest edge at least size (up to the largest configured); a placeholder while pending
+    @GetMapping("/{fileId}/thumbnail")
+    public void thumbnail(
+            AuthenticatedUser user,
+            @PathVariable UUID fileId,
+            @RequestParam(defaultValue = "256") int size,
+            HttpServletRequest request,
+            HttpServletResponse response
+    ) throws IOException {
+        previewService.thumbnail(user, fileId, size, request, response);
+    }
+
+    @PatchMapping("/{fileId}")
+    public ResponseEntity<FileResponse> rename(
+            AuthenticatedUser user,
+            @PathVariable UUID fileId,
+            @RequestBody @Valid RenameFileRequest request
+    ) {
+        return ResponseEntity.ok(fileService.rename(user, fileId, request));
+    }
+
+    @DeleteMapping("/{fileId}")
+    public ResponseEntity<Void> delete(AuthenticatedUser user, @PathVariable UUID fileId) {
+        fileService.delete(user, fileId);
+        return ResponseEntity.noContent().build();
+    }
+}
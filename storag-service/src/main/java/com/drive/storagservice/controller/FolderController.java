@@ -0,0 +1,76 @@
+package com.drive.storagservice.controller;
+
+import com.drive.storagservice.dto.CreateFolderRequest;
+import com.drive.storagservice.dto.FolderResponse;
+import com.drive.storagservice.dto.FolderSummaryResponse;
+import com.drive.storagservice.dto.UpdateFolderRequest;
+import com.drive.storagservice.security.AuthenticatedUser;
+import com.drive.storagservice.service.FolderService;
+
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.validation.Valid;
+
+import lombok.RequiredArgsConstructor;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.IOException;
+import java.util.UUID;
+
+@RestController
+@RequestMapping("/api/v1/storage/folders")
+@RequiredArgsConstructor
+public class FolderController {
+    private final FolderService folderService;
+
+    // The caller's root, created on first use
+    @GetMapping("/root")
+    public ResponseEntity<FolderResponse> root(AuthenticatedUser user) {
+        return ResponseEntity.ok(folderService.root(user));
+    }
+
+    @PostMapping
+    public ResponseEntity<FolderResponse> create(
+            AuthenticatedUser user,
+            @RequestBody @Valid CreateFolderRequest request
+    ) {
+        return ResponseEntity.status(HttpStatus.CREATED).body(folderService.create(user, request));
+    }
+
+    // One page per call; pass the returned nextCursor to get the next one
+    @GetMapping("/{folderId}/children")
+    public void children(
+            AuthenticatedUser user,
+            @PathVariable UUID folderId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit,
+            HttpServletResponse response
+    ) throws IOException {
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        folderService.list(user, folderId, cursor, limit, response.getOutputStream());
+    }
+
+    @GetMapping("/{folderId}/summary")
+    public ResponseEntity<FolderSummaryResponse> summary(AuthenticatedUser user, @PathVariable UUID folderId) {
+        return ResponseEntity.ok(folderService.summary(user, folderId));
+    }
+
+    // Rename and/or move
+    @PatchMapping("/{folderId}")
+    public ResponseEntity<FolderResponse> update(
+            AuthenticatedUser user,
+            @PathVariable UUID folderId,
+            @RequestBody @Valid UpdateFolderRequest request
+    ) {
+        return ResponseEntity.ok(folderService.update(user, folderId, request));
+    }
+
+    @DeleteMapping("/{folderId}")
+    public ResponseEntity<Void> delete(AuthenticatedUser user, @PathVariable UUID folderId) {
+        folderService.delete(user, folderId);
+        return ResponseEntity.noContent().build();
+    }
+}
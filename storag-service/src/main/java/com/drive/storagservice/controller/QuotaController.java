@@ -0,0 +1,25 @@
+package com.drive.storagservice.controller;
+
+import com.drive.storagservice.dto.QuotaResponse;
+import com.drive.storagservice.security.AuthenticatedUser;
+import com.drive.storagservice.service.QuotaService;
+
+import lombok.RequiredArgsConstructor;
+
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/api/v1/storage/quota")
+@RequiredArgsConstructor
+public class QuotaController {
+    private final QuotaService quotaService;
+
+    // From the ledger; deltas of the last few seconds may not be included yet
+    @GetMapping
+    public ResponseEntity<QuotaResponse> usage(AuthenticatedUser user) {
+        return ResponseEntity.ok(quotaService.usage(user));
+    }
+}
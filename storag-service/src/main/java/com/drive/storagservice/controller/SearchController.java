@@ -0,0 +1,28 @@
+package com.drive.storagservice.controller;
+
+import com.drive.storagservice.dto.SearchResponse;
+import com.drive.storagservice.security.AuthenticatedUser;
+import com.drive.storagservice.service.SearchService;
+
+import lombok.RequiredArgsConstructor;
+
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/v1/storage/search")
+@RequiredArgsConstructor
+public class SearchController {
+    private final SearchService searchService;
+
+    // Files whose name contains q, best match first; pass the returned nextOffset for the next page
+    @GetMapping
+    public ResponseEntity<SearchResponse> search(
+            AuthenticatedUser user,
+            @RequestParam String q,
+            @RequestParam(defaultValue = "0") int offset,
+            @RequestParam(required = false) Integer limit
+    ) {
+        return ResponseEntity.ok(searchService.search(user, q, offset, limit));
+    }
+}
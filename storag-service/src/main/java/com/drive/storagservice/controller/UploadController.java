@@ -0,0 +1,67 @@
+package com.drive.storagservice.controller;
+
+import com.drive.storagservice.dto.CreateUploadRequest;
+import com.drive.storagservice.dto.FileResponse;
+import com.drive.storagservice.dto.UploadSessionResponse;
+import com.drive.storagservice.security.AuthenticatedUser;
+import com.drive.storagservice.service.UploadService;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.validation.Valid;
+
+import lombok.RequiredArgsConstructor;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.IOException;
+import java.util.UUID;
+
+/**
+ * Resumable uploads: create a session, PUT each chunk (offset = index * chunkSize, any
+ * order, in parallel), GET the session to see which byte ranges are stored, then commit.
+ */
+@RestController
+@RequestMapping("/api/v1/storage/uploads")
+@RequiredArgsConstructor
+public class UploadController {
+    private final UploadService uploadService;
+
+    @PostMapping
+    public ResponseEntity<UploadSessionResponse> create(
+            AuthenticatedUser user,
+            @RequestBody @Valid CreateUploadRequest request
+    ) {
+        return ResponseEntity.status(HttpStatus.CREATED).body(uploadService.create(user, request));
+    }
+
+    // Raw chunk bytes as the body; read straight from the request stream
+    @PutMapping("/{uploadId}/chunks/{index}")
+    public ResponseEntity<Void> putChunk(
+            AuthenticatedUser user,
+            @PathVariable UUID uploadId,
+            @PathVariable int index,
+            @RequestHeader(name = "X-Chunk-SHA256", required = false) String sha256,
+            HttpServletRequest request
+    ) throws IOException {
+        uploadService.writeChunk(user, uploadId, index, request.getInputStream(), sha256);
+        return ResponseEntity.noContent().build();
+    }
+
+    @GetMapping("/{uploadId}")
+    public ResponseEntity<UploadSessionResponse> status(AuthenticatedUser user, @PathVariable UUID uploadId) {
+        return ResponseEntity.ok(uploadService.status(user, uploadId));
+    }
+
+    @PostMapping("/{uploadId}/commit")
+    public ResponseEntity<FileResponse> commit(AuthenticatedUser user, @PathVariable UUID uploadId) {
+        return ResponseEntity.status(HttpStatus.CREATED).body(uploadService.commit(user, uploadId));
+    }
+
+    @DeleteMapping("/{uploadId}")
+    public ResponseEntity<Void> abort(AuthenticatedUser user, @PathVariable UUID uploadId) {
+        uploadService.abort(user, uploadId);
+        return ResponseEntity.noContent().build();
+    }
+}
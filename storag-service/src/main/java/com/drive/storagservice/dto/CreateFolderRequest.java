@@ -0,0 +1,20 @@
+package com.drive.storagservice.dto;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Size;
+import lombok.*;
+
+import java.util.UUID;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CreateFolderRequest {
+    @NotBlank(message = "Folder name cannot be blank")
+    @Size(max = 255, message = "Folder name is too long")
+    private String name;
+
+    // Optional; the caller's root when absent
+    private UUID parentId;
+}
@@ -0,0 +1,37 @@
+package com.drive.storagservice.dto;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Pattern;
+import jakarta.validation.constraints.Positive;
+import jakarta.validation.constraints.PositiveOrZero;
+import jakarta.validation.constraints.Size;
+import lombok.*;
+
+import java.util.UUID;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CreateUploadRequest {
+    @NotBlank(message = "File name cannot be blank")
+    @Size(max = 255, message = "File name is too long")
+    private String fileName;
+
+    @PositiveOrZero(message = "Size cannot be negative")
+    private long size;
+
+    private String contentType;
+
+    // Optional; the caller's root when absent
+    private UUID folderId;
+
+    // Optional; the server default is used when absent
+    @Positive(message = "Chunk size must be positive")
+    private Integer chunkSize;
+
+    // Optional hex SHA-256 of the whole file; if this user already stored the same
+    // content the file is created at once and nothing has to be uploaded
+    @Pattern(regexp = "[0-9a-fA-F]{64}", message = "SHA-256 must be 64 hex characters")
+    private String sha256;
+}
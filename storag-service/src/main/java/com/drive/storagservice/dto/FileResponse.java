@@ -0,0 +1,22 @@
+package com.drive.storagservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+import java.util.UUID;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class FileResponse {
+    private UUID id;
+    private UUID folderId;
+    private String name;
+    private long size;
+    private String contentType;
+    private Instant createdAt;
+}
@@ -0,0 +1,28 @@
+package com.drive.storagservice.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+import java.util.UUID;
+
+// One line of a folder listing; size and contentType only for files
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class FolderEntryResponse {
+    public enum Type { FOLDER, FILE }
+
+    private Type type;
+    private UUID id;
+    private String name;
+    private Long size;
+    private String contentType;
+    private Instant createdAt;
+}
@@ -0,0 +1,20 @@
+package com.drive.storagservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+import java.util.UUID;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class FolderResponse {
+    private UUID id;
+    private UUID parentId;
+    private String name;
+    private Instant createdAt;
+}
@@ -0,0 +1,20 @@
+package com.drive.storagservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.UUID;
+
+// Totals over the whole subtree, not just direct children
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class FolderSummaryResponse {
+    private UUID id;
+    private long folderCount;
+    private long fileCount;
+    private long totalSize;
+}
@@ -0,0 +1,18 @@
+package com.drive.storagservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// Bytes; reserved is held by uploads in progress
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class QuotaResponse {
+    private long limit;
+    private long used;
+    private long reserved;
+    private long available;
+}
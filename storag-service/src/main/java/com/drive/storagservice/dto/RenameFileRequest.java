@@ -0,0 +1,15 @@
+package com.drive.storagservice.dto;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Size;
+import lombok.*;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class RenameFileRequest {
+    @NotBlank(message = "File name cannot be blank")
+    @Size(max = 255, message = "File name is too long")
+    private String name;
+}
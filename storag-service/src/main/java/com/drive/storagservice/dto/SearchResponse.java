@@ -0,0 +1,20 @@
+package com.drive.storagservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SearchResponse {
+    private String query;
+    // Best match first
+    private List<FileResponse> results;
+    // Offset of the next page; null on the last one
+    private Integer nextOffset;
+}
@@ -0,0 +1,20 @@
+package com.drive.storagservice.dto;
+
+import jakarta.validation.constraints.Pattern;
+import jakarta.validation.constraints.Size;
+import lombok.*;
+
+import java.util.UUID;
+
+// Rename, move, or both; absent fields stay as they are
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class UpdateFolderRequest {
+    @Size(min = 1, max = 255, message = "Folder name must be 1 to 255 characters")
+    @Pattern(regexp = ".*\\S.*", message = "Folder name cannot be blank")
+    private String name;
+
+    private UUID parentId;
+}
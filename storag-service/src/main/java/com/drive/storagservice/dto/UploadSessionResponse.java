@@ -0,0 +1,36 @@
+package com.drive.storagservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class UploadSessionResponse {
+    private UUID uploadId;
+    private String fileName;
+    private long size;
+    private int chunkSize;
+    private int chunkCount;
+    // Byte ranges already stored, merged and sorted; everything else still has to be sent
+    private List<ByteRange> receivedRanges;
+    private Instant expiresAt;
+    // Set instead of a session when the content was already stored (see CreateUploadRequest.sha256)
+    private FileResponse file;
+
+    // [start, end) in bytes
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class ByteRange {
+        private long start;
+        private long end;
+    }
+}
@@ -0,0 +1,34 @@
+package com.drive.storagservice.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.Instant;
+
+/**
+ * A content-addressed chunk on disk, shared by every file (of any user) that contains
+ * the same bytes. {@code refCount} is the number of manifest entries pointing at it;
+ * chunks at zero are removed by the garbage collector.
+ */
+@Entity
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(name = "content_chunks")
+public class ContentChunk {
+
+    // SHA-256 of the chunk, hex
+    @Id
+    @Column(length = 64)
+    private String hash;
+
+    @Column(nullable = false)
+    private int size;
+
+    @Column(name = "ref_count", nullable = false)
+    private long refCount;
+
+    @Column(nullable = false, updatable = false)
+    private Instant createdAt;
+}
@@ -0,0 +1,41 @@
+package com.drive.storagservice.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.io.Serializable;
+import java.util.UUID;
+
+/**
+ * One manifest entry: chunk {@code seq} of a file, covering bytes
+ * {@code [seq * chunkSize, seq * chunkSize + size)} of its content.
+ */
+@Entity
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@IdClass(FileChunk.Key.class)
+@Table(name = "file_chunks")
+public class FileChunk {
+
+    @Id
+    @Column(name = "file_id")
+    private UUID fileId;
+
+    @Id
+    private int seq;
+
+    @Column(name = "chunk_hash", nullable = false, length = 64)
+    private String chunkHash;
+
+    @Column(nullable = false)
+    private int size;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+        private UUID fileId;
+        private int seq;
+    }
+}
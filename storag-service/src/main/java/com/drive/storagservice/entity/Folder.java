@@ -0,0 +1,61 @@
+package com.drive.storagservice.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * A folder. {@code path} is the materialized path of folder ids from the owner's root down
+ * to this folder ({@code /root/.../id/}), so a subtree is the path range
+ * [{@code path}, {@link #subtreeEnd()}) and needs no recursive query. The column uses
+ * the "C" collation so that range is bytewise and served by the plain b-tree index.
+ */
+@Entity
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(
+        name = "folders",
+        uniqueConstraints = @UniqueConstraint(name = "uk_folder_parent_name", columnNames = {"parent_id", "name"}),
+        indexes = {
+                @Index(name = "idx_folder_parent_name", columnList = "parent_id, name, id"),
+                @Index(name = "idx_folder_path", columnList = "path")
+        }
+)
+public class Folder {
+
+    @Id
+    private UUID id;
+
+    @Column(name = "owner_id", nullable = false)
+    private Long ownerId;
+
+    // Null only for the owner's root
+    @Column(name = "parent_id")
+    private UUID parentId;
+
+    @Column(nullable = false)
+    private String name;
+
+    @Column(nullable = false, columnDefinition = "text collate \"C\"")
+    private String path;
+
+    @Column(nullable = false, updatable = false)
+    private Instant createdAt;
+
+    public boolean isRoot() {
+        return parentId == null;
+    }
+
+    // Exclusive upper bound of the subtree's paths: '0' is the character after '/'
+    public String subtreeEnd() {
+        return path.substring(0, path.length() - 1) + '0';
+    }
+
+    public String childPath(UUID childId) {
+        return path + childId + "/";
+    }
+}
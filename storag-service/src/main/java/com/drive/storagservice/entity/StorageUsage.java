@@ -0,0 +1,38 @@
+package com.drive.storagservice.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.Instant;
+
+/**
+ * Per-user quota ledger: bytes in committed files and bytes reserved by open upload
+ * sessions, maintained incrementally so a quota check is a primary-key update instead of
+ * a SUM over the user's files. Usage deltas reach this row in batches (see
+ * {@code QuotaService}); drift is repaired by a periodic reconciliation.
+ */
+@Entity
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(name = "storage_usage")
+public class StorageUsage {
+
+    @Id
+    @Column(name = "owner_id")
+    private Long ownerId;
+
+    @Column(name = "used_bytes", nullable = false)
+    private long usedBytes;
+
+    @Column(name = "reserved_bytes", nullable = false)
+    private long reservedBytes;
+
+    // Per-user override of storage.quota.default-limit
+    @Column(name = "quota_bytes")
+    private Long quotaBytes;
+
+    @Column(name = "updated_at", nullable = false)
+    private Instant updatedAt;
+}
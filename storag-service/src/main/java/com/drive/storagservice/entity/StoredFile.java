@@ -0,0 +1,60 @@
+package com.drive.storagservice.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * A committed file. Its content is the concatenation of the chunks in its manifest
+ * ({@link FileChunk}), each {@code chunkSize} bytes except the last.
+ */
+@Entity
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(
+        name = "files",
+        indexes = {
+                @Index(name = "idx_file_owner_content", columnList = "owner_id, content_hash"),
+                @Index(name = "idx_file_folder_name", columnList = "folder_id, name, id"),
+                @Index(name = "idx_file_owner_updated", columnList = "owner_id, updated_at")
+        }
+)
+public class StoredFile {
+
+    @Id
+    private UUID id;
+
+    @Column(name = "owner_id", nullable = false)
+    private Long ownerId;
+
+    // Nullable in the schema only because rows committed before folders existed have none
+    @Column(name = "folder_id")
+    private UUID folderId;
+
+    @Column(nullable = false)
+    private String name;
+
+    private String contentType;
+
+    @Column(nullable = false)
+    private long size;
+
+    // SHA-256 of the whole content, hex
+    @Column(name = "content_hash", nullable = false, length = 64)
+    private String contentHash;
+
+    @Column(nullable = false)
+    private int chunkSize;
+
+    @Column(nullable = false, updatable = false)
+    private Instant createdAt;
+
+    // Last change to the name; lets the search index catch up with other instances.
+    // Null on rows committed before it existed
+    @Column(name = "updated_at")
+    private Instant updatedAt;
+}
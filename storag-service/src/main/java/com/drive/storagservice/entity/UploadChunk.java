@@ -0,0 +1,45 @@
+package com.drive.storagservice.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.io.Serializable;
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * One row per chunk of a session that a request has claimed. {@code sha256} is null while
+ * the chunk is being written and set once all of its bytes are on disk (and, if the client
+ * sent a digest, verified). Rows are inserted independently, so parallel chunk uploads of
+ * the same session never contend on a shared row.
+ */
+@Entity
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@IdClass(UploadChunk.Key.class)
+@Table(name = "upload_chunks")
+public class UploadChunk {
+
+    @Id
+    @Column(name = "session_id")
+    private UUID sessionId;
+
+    @Id
+    @Column(name = "chunk_index")
+    private int chunkIndex;
+
+    @Column(length = 64)
+    private String sha256;
+
+    @Column(name = "claimed_at")
+    private Instant claimedAt;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+        private UUID sessionId;
+        private int chunkIndex;
+    }
+}
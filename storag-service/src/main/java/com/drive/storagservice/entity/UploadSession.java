@@ -0,0 +1,70 @@
+package com.drive.storagservice.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * A chunked upload in progress. The file is preallocated at {@code totalSize} when the
+ * session is created and chunks are written into it at {@code index * chunkSize}; which
+ * chunks have arrived is tracked in {@link UploadChunk}, so an interrupted upload resumes
+ * by sending only the missing ones.
+ */
+@Entity
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(
+        name = "upload_sessions",
+        indexes = {
+                @Index(name = "idx_upload_session_owner", columnList = "owner_id"),
+                @Index(name = "idx_upload_session_expires", columnList = "expires_at")
+        }
+)
+public class UploadSession {
+
+    @Id
+    private UUID id;
+
+    @Column(name = "owner_id", nullable = false)
+    private Long ownerId;
+
+    // Folder the file is committed into
+    private UUID folderId;
+
+    @Column(nullable = false)
+    private String fileName;
+
+    private String contentType;
+
+    // Whole-file SHA-256 announced by the client, checked on commit
+    @Column(length = 64)
+    private String sha256;
+
+    @Column(nullable = false)
+    private long totalSize;
+
+    @Column(nullable = false)
+    private int chunkSize;
+
+    @Column(nullable = false)
+    private int chunkCount;
+
+    @Column(nullable = false, updatable = false)
+    private Instant createdAt;
+
+    @Column(name = "expires_at", nullable = false)
+    private Instant expiresAt;
+
+    public long chunkOffset(int index) {
+        return (long) index * chunkSize;
+    }
+
+    // Every chunk is chunkSize bytes except possibly the last one
+    public long chunkLength(int index) {
+        return Math.min(chunkSize, totalSize - chunkOffset(index));
+    }
+}
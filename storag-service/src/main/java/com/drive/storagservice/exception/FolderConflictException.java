@@ -0,0 +1,11 @@
+package com.drive.storagservice.exception;
+
+/**
+ * A folder with that name already exists in the target. Mapped to {@code 409 Conflict}.
+ */
+public class FolderConflictException extends RuntimeException {
+
+    public FolderConflictException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,11 @@
+package com.drive.storagservice.exception;
+
+/**
+ * The folder does not exist or belongs to another user. Mapped to {@code 404 Not Found}.
+ */
+public class FolderNotFoundException extends RuntimeException {
+
+    public FolderNotFoundException(String message) {
+        super(message);
+    }
+}
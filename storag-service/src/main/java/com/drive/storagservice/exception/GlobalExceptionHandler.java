@@ -0,0 +1,75 @@
+package com.drive.storagservice.exception;
+
+import com.drive.storagservice.dto.ErrorResponse;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+
+@RestControllerAdvice
+public class GlobalExceptionHandler {
+
+    @ExceptionHandler(UploadNotFoundException.class)
+    public ResponseEntity<ErrorResponse> handleNotFound(UploadNotFoundException ex) {
+        return error(HttpStatus.NOT_FOUND, "NOT_FOUND", ex.getMessage());
+    }
+
+    @ExceptionHandler(StoredFileNotFoundException.class)
+    public ResponseEntity<ErrorResponse> handleFileNotFound(StoredFileNotFoundException ex) {
+        return error(HttpStatus.NOT_FOUND, "NOT_FOUND", ex.getMessage());
+    }
+
+    @ExceptionHandler(PreviewUnavailableException.class)
+    public ResponseEntity<ErrorResponse> handlePreviewUnavailable(PreviewUnavailableException ex) {
+        return error(HttpStatus.NOT_FOUND, "NOT_FOUND", ex.getMessage());
+    }
+
+    @ExceptionHandler(FolderNotFoundException.class)
+    public ResponseEntity<ErrorResponse> handleFolderNotFound(FolderNotFoundException ex) {
+        return error(HttpStatus.NOT_FOUND, "NOT_FOUND", ex.getMessage());
+    }
+
+    @ExceptionHandler(FolderConflictException.class)
+    public ResponseEntity<ErrorResponse> handleFolderConflict(FolderConflictException ex) {
+        return error(HttpStatus.CONFLICT, "CONFLICT", ex.getMessage());
+    }
+
+    @ExceptionHandler(InvalidFolderOperationException.class)
+    public ResponseEntity<ErrorResponse> handleInvalidFolderOperation(InvalidFolderOperationException ex) {
+        return error(HttpStatus.BAD_REQUEST, "INVALID", ex.getMessage());
+    }
+
+    @ExceptionHandler(InvalidSearchException.class)
+    public ResponseEntity<ErrorResponse> handleInvalidSearch(InvalidSearchException ex) {
+        return error(HttpStatus.BAD_REQUEST, "INVALID", ex.getMessage());
+    }
+
+    @ExceptionHandler(QuotaExceededException.class)
+    public ResponseEntity<ErrorResponse> handleQuotaExceeded(QuotaExceededException ex) {
+        return error(HttpStatus.INSUFFICIENT_STORAGE, "QUOTA_EXCEEDED", ex.getMessage());
+    }
+
+    @ExceptionHandler(InvalidUploadException.class)
+    public ResponseEntity<ErrorResponse> handleInvalid(InvalidUploadException ex) {
+        return error(HttpStatus.BAD_REQUEST, "INVALID", ex.getMessage());
+    }
+
+    @ExceptionHandler(UploadConflictException.class)
+    public ResponseEntity<ErrorResponse> handleUploadConflict(UploadConflictException ex) {
+        return error(HttpStatus.CONFLICT, "CONFLICT", ex.getMessage());
+    }
+
+    @ExceptionHandler(UploadIncompleteException.class)
+    public ResponseEntity<ErrorResponse> handleIncomplete(UploadIncompleteException ex) {
+        return error(HttpStatus.CONFLICT, "INCOMPLETE", ex.getMessage());
+    }
+
+    private static ResponseEntity<ErrorResponse> error(HttpStatus status, String code, String message) {
+        return ResponseEntity.status(status)
+                .body(ErrorResponse.builder()
+                        .status(code)
+                        .message(message)
+                        .build());
+    }
+}
@@ -0,0 +1,12 @@
+package com.drive.storagservice.exception;
+
+/**
+ * A folder request that can never succeed as sent: moving a folder into its own subtree,
+ * touching the root, or a malformed cursor. Mapped to {@code 400 Bad Request}.
+ */
+public class InvalidFolderOperationException extends RuntimeException {
+
+    public InvalidFolderOperationException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,11 @@
+package com.drive.storagservice.exception;
+
+/**
+ * A search query that is empty or too long. Mapped to {@code 400 Bad Request}.
+ */
+public class InvalidSearchException extends RuntimeException {
+
+    public InvalidSearchException(String message) {
+        super(message);
+    }
+}
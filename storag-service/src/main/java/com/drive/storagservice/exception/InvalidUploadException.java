@@ -0,0 +1,12 @@
+package com.drive.storagservice.exception;
+
+/**
+ * The upload request or chunk is malformed (bad size, index, length or digest). Mapped to
+ * {@code 400 Bad Request}; a rejected chunk is not recorded and can be sent again.
+ */
+public class InvalidUploadException extends RuntimeException {
+
+    public InvalidUploadException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,12 @@
+package com.drive.storagservice.exception;
+
+/**
+ * The file is not an image that can be previewed (unsupported type, too large, or failed
+ * to decode). Mapped to {@code 404 Not Found}.
+ */
+public class PreviewUnavailableException extends RuntimeException {
+
+    public PreviewUnavailableException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,12 @@
+package com.drive.storagservice.exception;
+
+/**
+ * The upload does not fit into the user's remaining quota. Mapped to
+ * {@code 507 Insufficient Storage}.
+ */
+public class QuotaExceededException extends RuntimeException {
+
+    public QuotaExceededException(String message) {
+        super(message);
+    }
+}
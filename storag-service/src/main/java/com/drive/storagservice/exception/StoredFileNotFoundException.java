@@ -0,0 +1,11 @@
+package com.drive.storagservice.exception;
+
+/**
+ * The file does not exist or belongs to another user. Mapped to {@code 404 Not Found}.
+ */
+public class StoredFileNotFoundException extends RuntimeException {
+
+    public StoredFileNotFoundException(String message) {
+        super(message);
+    }
+}
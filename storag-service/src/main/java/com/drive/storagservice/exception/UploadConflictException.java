@@ -0,0 +1,12 @@
+package com.drive.storagservice.exception;
+
+/**
+ * A chunk is being written by another request, or was already received with different
+ * content. Mapped to {@code 409 Conflict}.
+ */
+public class UploadConflictException extends RuntimeException {
+
+    public UploadConflictException(String message) {
+        super(message);
+    }
+}
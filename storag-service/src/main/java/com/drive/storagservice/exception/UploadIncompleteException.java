@@ -0,0 +1,17 @@
+package com.drive.storagservice.exception;
+
+import lombok.Getter;
+
+/**
+ * Commit was requested before every chunk arrived. Mapped to {@code 409 Conflict}.
+ */
+@Getter
+public class UploadIncompleteException extends RuntimeException {
+
+    private final long missingChunks;
+
+    public UploadIncompleteException(String message, long missingChunks) {
+        super(message);
+        this.missingChunks = missingChunks;
+    }
+}
@@ -0,0 +1,12 @@
+package com.drive.storagservice.exception;
+
+/**
+ * The upload session does not exist, has expired, was already committed or aborted, or
+ * belongs to another user. Mapped to {@code 404 Not Found}.
+ */
+public class UploadNotFoundException extends RuntimeException {
+
+    public UploadNotFoundException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,115 @@
+package com.drive.storagservice.preview;
+
+import com.drive.storagservice.properties.StorageProperties;
+
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+/**
+ * Derived assets on local disk under {@code previews/}, named {@code <contentHash>-<variant>}
+ * so files with equal content share them. Bounded by a disk budget: the index is kept in
+ * access order and the least recently used entries are deleted when a new one would not
+ * fit. On startup the index is rebuilt from the directory, oldest modification first.
+ */
+@Component
+public class PreviewCache {
+
+    private final Path directory;
+    private final long budget;
+    // Name -> size in bytes, least recently used first
+    private final LinkedHashMap<String, Long> entries = new LinkedHashMap<>(1024, 0.75f, true);
+    private long totalBytes;
+
+    public PreviewCache(StorageProperties properties) {
+        this.directory = properties.getRoot().toAbsolutePath().normalize().resolve("previews");
+        this.budget = properties.getPreview().getDiskBudget().toBytes();
+        try {
+            Files.createDirectories(directory);
+            load();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot open preview cache " + directory, e);
+        }
+    }
+
+    // The cached file, marked as just used, or null
+    public synchronized Path find(String contentHash, String variant) {
+        String name = name(contentHash, variant);
+        return entries.get(name) != null ? directory.resolve(name) : null;
+    }
+
+    public synchronized boolean contains(String contentHash, String variant) {
+        return entries.containsKey(name(contentHash, variant));
+    }
+
+    /**
+     * Stores an asset (written to a temporary file first, so readers never see a partial
+     * one) and evicts older entries until the cache is within budget again.
+     */
+    public void put(String contentHash, String variant, byte[] content) throws IOException {
+        String name = name(contentHash, variant);
+        Path temp = directory.resolve(name + ".tmp-" + UUID.randomUUID());
+        Files.write(temp, content);
+        Files.move(temp, directory.resolve(name), StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+
+        List<String> evicted = new ArrayList<>();
+        synchronized (this) {
+            Long previous = entries.put(name, (long) content.length);
+            totalBytes += content.length - (previous != null ? previous : 0);
+            Iterator<Map.Entry<String, Long>> eldest = entries.entrySet().iterator();
+            while (totalBytes > budget && eldest.hasNext()) {
+                Map.Entry<String, Long> entry = eldest.next();
+                if (entry.getKey().equals(name)) {
+                    continue;
+                }
+                totalBytes -= entry.getValue();
+                evicted.add(entry.getKey());
+                eldest.remove();
+            }
+        }
+        for (String stale : evicted) {
+            // A reader that found it a moment ago may still be sending it; on POSIX that
+            // download completes from the unlinked file
+            Files.deleteIfExists(directory.resolve(stale));
+        }
+    }
+
+    private void load() throws IOException {
+        record Existing(String name, long size, long modified) {
+        }
+        List<Existing> existing = new ArrayList<>();
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path file : (Iterable<Path>) files::iterator) {
+                String name = file.getFileName().toString();
+                if (name.contains(".tmp-")) {
+                    Files.deleteIfExists(file);
+                    continue;
+                }
+                BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class);
+                existing.add(new Existing(name, attributes.size(), attributes.lastModifiedTime().toMillis()));
+            }
+        }
+        existing.sort(Comparator.comparingLong(Existing::modified));
+        for (Existing entry : existing) {
+            entries.put(entry.name(), entry.size());
+            totalBytes += entry.size();
+        }
+    }
+
+    private static String name(String contentHash, String variant) {
+        return contentHash + "-" + variant;
+    }
+}
@@ -0,0 +1,144 @@
+package com.drive.storagservice.properties;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+import lombok.Data;
+
+@Data
+@ConfigurationProperties(prefix = "storage")
+public class StorageProperties {
+    // Root of the on-disk store; uploads in progress and content chunks live below it
+    private Path root = Path.of("data");
+    private Identity identity = new Identity();
+    private Upload upload = new Upload();
+    private Content content = new Content();
+    private Listing listing = new Listing();
+    private Quota quota = new Quota();
+    private Preview preview = new Preview();
+    private Search search = new Search();
+    private Compression compression = new Compression();
+
+    @Data
+    public static class Identity {
+        // Set by gateway-api after it verified the access token
+        private String header = "X-Auth-Identity";
+        // Base64 HMAC key, same as gateway.security.identity.secret
+        private String secret;
+        // Tolerated clock difference between gateway and this service
+        private Duration clockSkew = Duration.ofSeconds(30);
+    }
+
+    @Data
+    public static class Upload {
+        // Used when the client does not ask for a chunk size
+        private DataSize defaultChunkSize = DataSize.ofMegabytes(8);
+        private DataSize minChunkSize = DataSize.ofMegabytes(1);
+        private DataSize maxChunkSize = DataSize.ofMegabytes(64);
+        private DataSize maxFileSize = DataSize.ofGigabytes(100);
+        // Copy buffer between the request stream and the file (direct, pooled)
+        private DataSize bufferSize = DataSize.ofKilobytes(256);
+        // Sessions not committed within this time are deleted with their partial file
+        private Duration sessionTtl = Duration.ofHours(24);
+        private Duration cleanupInterval = Duration.ofMinutes(30);
+        // A chunk still not written this long after its request claimed it is given up, and
+        // another request may write it
+        private Duration chunkClaimTimeout = Duration.ofMinutes(10);
+    }
+
+    @Data
+    public static class Content {
+        // Fixed-size content chunks, independent of the upload chunk size; changing it
+        // only affects files committed afterwards
+        private DataSize chunkSize = DataSize.ofMegabytes(4);
+        // Chunks whose last reference went away are deleted by a background pass
+        private Duration gcInterval = Duration.ofMinutes(10);
+        private int gcBatchSize = 500;
+        // New chunks are written before their commit references them; the collector leaves
+        // them alone for this long, which must exceed the longest commit
+        private Duration gcGracePeriod = Duration.ofHours(1);
+    }
+
+    @Data
+    public static class Listing {
+        private int defaultPageSize = 100;
+        private int maxPageSize = 1000;
+    }
+
+    @Data
+    public static class Quota {
+        // For users without a per-user quota in their ledger row
+        private DataSize defaultLimit = DataSize.ofGigabytes(15);
+        // Usage deltas are kept in memory for at most this long before being written
+        private Duration flushInterval = Duration.ofSeconds(2);
+        private int stripes = 16;
+        private Duration reconcileInterval = Duration.ofHours(6);
+        // Only rows unchanged for this long are recomputed; must be well above flushInterval
+        private Duration reconcileQuietPeriod = Duration.ofMinutes(10);
+        private int reconcileBatchSize = 500;
+    }
+
+    @Data
+    public static class Preview {
+        // Longest edge of each generated thumbnail, in pixels
+        private List<Integer> sizes = List.of(128, 256, 1024);
+        // Generation threads; 0 means one per CPU core
+        private int workers = 0;
+        // Jobs waiting for a worker; beyond this new jobs are dropped and generated on demand
+        private int queueCapacity = 1000;
+        // Disk space for generated previews, evicted least recently used first
+        private DataSize diskBudget = DataSize.ofGigabytes(2);
+        // Larger sources are not decoded at all
+        private DataSize maxSourceSize = DataSize.ofMegabytes(64);
+        private long maxSourcePixels = 100_000_000;
+        // How long a thumbnail request waits for an in-flight job before getting a placeholder
+        private Duration waitTimeout = Duration.ofSeconds(1);
+        private float jpegQuality = 0.8f;
+    }
+
+    @Data
+    public static class Search {
+        // Per-user indexes kept in memory; the least recently searched beyond this are unloaded
+        private int maxLoadedUsers = 10_000;
+        // Indexes not searched for this long are snapshotted and unloaded
+        private Duration idleTimeout = Duration.ofMinutes(30);
+        // How often a search catches up with name changes made by other instances
+        private Duration syncInterval = Duration.ofSeconds(15);
+        // Look-back of each catch-up; must exceed the time between setting a file's
+        // updated_at and committing it
+        private Duration syncOverlap = Duration.ofMinutes(1);
+        // Snapshots changed indexes, compacts and unloads
+        private Duration maintenanceInterval = Duration.ofMinutes(5);
+        private int defaultPageSize = 20;
+        private int maxPageSize = 100;
+        // Hits beyond this rank are not paged to
+        private int maxResults = 1000;
+        private int maxQueryLength = 100;
+    }
+
+    @Data
+    public static class Compression {
+        private boolean enabled = true;
+        // Compressed at rest and sent gzip-encoded to clients that accept it
+        private List<String> contentTypes = List.of(
+                "text/*", "application/json", "application/*+json", "application/x-ndjson",
+                "application/xml", "application/*+xml", "application/javascript",
+                "application/x-yaml", "application/yaml", "application/sql", "image/svg+xml");
+        // Never compressed; any other type is tried unless its first bytes are those of a
+        // compressed format
+        private List<String> skipContentTypes = List.of(
+                "image/*", "video/*", "audio/*", "font/woff", "font/woff2", "application/pdf",
+                "application/zip", "application/gzip", "application/zstd", "application/x-xz",
+                "application/x-bzip2", "application/x-7z-compressed", "application/vnd.rar",
+                "application/vnd.openxmlformats-officedocument.*", "application/vnd.oasis.opendocument.*");
+        // Content per independently inflatable frame; the unit of range reads
+        private DataSize frameSize = DataSize.ofKilobytes(64);
+        private int level = 6;
+        // A chunk is stored compressed only if that saves at least this fraction of it
+        private double minSavings = 0.1;
+    }
+}
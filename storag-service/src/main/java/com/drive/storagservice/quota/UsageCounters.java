@@ -0,0 +1,82 @@
+package com.drive.storagservice.quota;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Pending usage deltas per user, striped by thread so concurrent commits (even of one
+ * user) rarely touch the same lock. {@link #drain()} swaps each stripe's map out under
+ * its lock, so a delta is either in the drained batch or stays for the next one.
+ */
+public class UsageCounters {
+
+    private final Stripe[] stripes;
+    private final int mask;
+
+    // [used, reserved]
+    private static final class Stripe {
+        Map<Long, long[]> deltas = new HashMap<>();
+    }
+
+    public UsageCounters(int stripes) {
+        int size = Integer.highestOneBit(Math.max(1, stripes - 1)) << 1;
+        this.stripes = new Stripe[size];
+        this.mask = size - 1;
+        for (int i = 0; i < size; i++) {
+            this.stripes[i] = new Stripe();
+        }
+    }
+
+    public void add(long ownerId, long usedDelta, long reservedDelta) {
+        Stripe stripe = stripes[(int) Thread.currentThread().threadId() & mask];
+        synchronized (stripe) {
+            long[] delta = stripe.deltas.computeIfAbsent(ownerId, k -> new long[2]);
+            delta[0] += usedDelta;
+            delta[1] += reservedDelta;
+        }
+    }
+
+    /**
+     * Takes everything recorded so far, merged per user and sorted by owner id (the order
+     * rows are updated in). Entries that cancelled out are dropped.
+     */
+    public Map<Long, long[]> drain() {
+        Map<Long, long[]> merged = new TreeMap<>();
+        for (Stripe stripe : stripes) {
+            Map<Long, long[]> deltas;
+            synchronized (stripe) {
+                if (stripe.deltas.isEmpty()) {
+                    continue;
+                }
+                deltas = stripe.deltas;
+                stripe.deltas = new HashMap<>();
+            }
+            deltas.forEach((ownerId, delta) -> merged.merge(ownerId, delta, (a, b) -> {
+                a[0] += b[0];
+                a[1] += b[1];
+                return a;
+            }));
+        }
+        merged.values().removeIf(delta -> delta[0] == 0 && delta[1] == 0);
+        return merged;
+    }
+
+    // Users with deltas not yet drained
+    public Set<Long> pendingOwners() {
+        Set<Long> owners = new HashSet<>();
+        for (Stripe stripe : stripes) {
+            synchronized (stripe) {
+                owners.addAll(stripe.deltas.keySet());
+            }
+        }
+        return owners;
+    }
+
+    // Puts a batch that could not be written back, to go out with the next one
+    public void restore(Map<Long, long[]> deltas) {
+        deltas.forEach((ownerId, delta) -> add(ownerId, delta[0], delta[1]));
+    }
+}
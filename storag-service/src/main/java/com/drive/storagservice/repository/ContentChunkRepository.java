@@ -0,0 +1,58 @@
+package com.drive.storagservice.repository;
+
+import com.drive.storagservice.entity.ContentChunk;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+
+public interface ContentChunkRepository extends JpaRepository<ContentChunk, String> {
+
+    // Creates the chunk or adds to its count; the row stays locked until the caller commits
+    @Modifying
+    @Query(value = """
+            insert into content_chunks (hash, size, ref_count, created_at)
+            values (:hash, :size, :references, :now)
+            on conflict (hash) do update set ref_count = content_chunks.ref_count + excluded.ref_count
+            """, nativeQuery = true)
+    int addReferences(
+            @Param("hash") String hash,
+            @Param("size") int size,
+            @Param("references") long references,
+            @Param("now") Instant now
+    );
+
+    // A chunk about to be written ahead of its commit; an unreferenced row lets the collector
+    // reclaim the file if the commit never happens. An existing unreferenced row is renewed
+    // so the grace period starts again
+    @Modifying
+    @Query(value = """
+            insert into content_chunks (hash, size, ref_count, created_at)
+            values (:hash, :size, 0, :now)
+            on conflict (hash) do update set created_at = excluded.created_at
+            where content_chunks.ref_count <= 0
+            """, nativeQuery = true)
+    int register(@Param("hash") String hash, @Param("size") int size, @Param("now") Instant now);
+
+    @Modifying
+    @Query("update ContentChunk c set c.refCount = c.refCount - :references where c.hash = :hash")
+    int releaseReferences(@Param("hash") String hash, @Param("references") long references);
+
+    // Locks unreferenced chunks; ones a concurrent commit is re-referencing are skipped, and
+    // so are ones created after createdBefore, which may be staged for a running commit
+    @Query(value = """
+            select hash from content_chunks
+            where ref_count <= 0 and created_at < :createdBefore
+            order by hash limit :limit for update skip locked
+            """, nativeQuery = true)
+    List<String> lockUnreferenced(@Param("createdBefore") Instant createdBefore, @Param("limit") int limit);
+
+    @Modifying
+    @Query("delete from ContentChunk c where c.hash in :hashes and c.refCount <= 0")
+    int deleteUnreferenced(@Param("hashes") Collection<String> hashes);
+}
@@ -0,0 +1,77 @@
+package com.drive.storagservice.repository;
+
+import com.drive.storagservice.entity.FileChunk;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.List;
+import java.util.UUID;
+
+public interface FileChunkRepository extends JpaRepository<FileChunk, FileChunk.Key> {
+
+    interface ChunkReferences {
+        String getHash();
+
+        int getSize();
+
+        long getRefs();
+    }
+
+    // Manifest entries covering chunks first..last of a file (a download range)
+    @Query("""
+            select c from FileChunk c
+            where c.fileId = :fileId and c.seq between :first and :last
+            order by c.seq
+            """)
+    List<FileChunk> findRange(@Param("fileId") UUID fileId, @Param("first") int first, @Param("last") int last);
+
+    @Query("select c.chunkHash from FileChunk c where c.fileId = :fileId order by c.seq")
+    List<String> findChunkHashes(@Param("fileId") UUID fileId);
+
+    @Modifying
+    @Query(value = "insert into file_chunks (file_id, seq, chunk_hash, size) values (:fileId, :seq, :hash, :size)",
+            nativeQuery = true)
+    int insertEntry(@Param("fileId") UUID fileId, @Param("seq") int seq, @Param("hash") String hash, @Param("size") int size);
+
+    // A deduplicated upload: the new file gets the same manifest in one statement
+    @Modifying
+    @Query(value = """
+            insert into file_chunks (file_id, seq, chunk_hash, size)
+            select :targetId, seq, chunk_hash, size from file_chunks where file_id = :sourceId
+            """, nativeQuery = true)
+    int copyManifest(@Param("sourceId") UUID sourceId, @Param("targetId") UUID targetId);
+
+    // How often each chunk occurs in a file, sorted by hash (the order chunk rows are locked in)
+    @Query("""
+            select c.chunkHash as hash, max(c.size) as size, count(c) as refs
+            from FileChunk c where c.fileId = :fileId
+            group by c.chunkHash order by c.chunkHash
+            """)
+    List<ChunkReferences> countReferences(@Param("fileId") UUID fileId);
+
+    // Same as countReferences, for every file in a folder subtree
+    @Query(value = """
+            select c.chunk_hash as hash, max(c.size) as size, count(*) as refs
+            from file_chunks c
+            join files f on f.id = c.file_id
+            join folders d on d.id = f.folder_id
+            where d.path >= :from and d.path < :to
+            group by c.chunk_hash order by c.chunk_hash
+            """, nativeQuery = true)
+    List<ChunkReferences> countSubtreeReferences(@Param("from") String from, @Param("to") String to);
+
+    @Modifying
+    @Query(value = """
+            delete from file_chunks where file_id in (
+                select f.id from files f join folders d on d.id = f.folder_id
+                where d.path >= :from and d.path < :to)
+            """, nativeQuery = true)
+    int deleteSubtree(@Param("from") String from, @Param("to") String to);
+
+    @Modifying
+    @Query("delete from FileChunk c where c.fileId = :fileId")
+    int deleteByFileId(@Param("fileId") UUID fileId);
+}
@@ -0,0 +1,79 @@
+package com.drive.storagservice.repository;
+
+import com.drive.storagservice.entity.Folder;
+
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+public interface FolderRepository extends JpaRepository<Folder, UUID> {
+
+    Optional<Folder> findByIdAndOwnerId(UUID id, Long ownerId);
+
+    // For share: adding a child must not interleave with a move or delete of the folder
+    @Lock(LockModeType.PESSIMISTIC_READ)
+    Optional<Folder> findForShareByIdAndOwnerId(UUID id, Long ownerId);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    Optional<Folder> findForUpdateByIdAndOwnerId(UUID id, Long ownerId);
+
+    boolean existsByParentIdAndName(UUID parentId, String name);
+
+    // Roots have a deterministic id, so concurrent first requests converge on one row
+    @Modifying
+    @Query(value = """
+            insert into folders (id, owner_id, parent_id, name, path, created_at)
+            values (:id, :ownerId, null, '', :path, :now)
+            on conflict (id) do nothing
+            """, nativeQuery = true)
+    int insertRoot(@Param("id") UUID id, @Param("ownerId") Long ownerId, @Param("path") String path, @Param("now") Instant now);
+
+    // Keyset page of subfolders after (name, id): an index range scan whatever the position
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "256"))
+    @Query(value = """
+            select * from folders
+            where parent_id = :parentId and (name, id) > (:name, :id)
+            order by name, id
+            limit :limit
+            """, nativeQuery = true)
+    Stream<Folder> streamChildren(
+            @Param("parentId") UUID parentId,
+            @Param("name") String afterName,
+            @Param("id") UUID afterId,
+            @Param("limit") int limit
+    );
+
+    // Locks a whole subtree, parents first, before it is moved or deleted
+    @Query(value = "select id from folders where path >= :from and path < :to order by path for update",
+            nativeQuery = true)
+    List<UUID> lockSubtree(@Param("from") String from, @Param("to") String to);
+
+    // Folders below the subtree root, the root itself excluded
+    @Query(value = "select count(*) - 1 from folders where path >= :from and path < :to", nativeQuery = true)
+    long countDescendants(@Param("from") String from, @Param("to") String to);
+
+    // Re-roots every path of a moved subtree in one statement
+    @Modifying
+    @Query(value = """
+            update folders set path = :newPrefix || substr(path, length(:oldPrefix) + 1)
+            where path >= :oldPrefix and path < :to
+            """, nativeQuery = true)
+    int movePaths(@Param("oldPrefix") String oldPrefix, @Param("to") String to, @Param("newPrefix") String newPrefix);
+
+    @Modifying
+    @Query(value = "delete from folders where path >= :from and path < :to", nativeQuery = true)
+    int deleteSubtree(@Param("from") String from, @Param("to") String to);
+}
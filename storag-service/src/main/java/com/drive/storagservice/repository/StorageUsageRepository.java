@@ -0,0 +1,82 @@
+package com.drive.storagservice.repository;
+
+import com.drive.storagservice.entity.StorageUsage;
+
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+
+public interface StorageUsageRepository extends JpaRepository<StorageUsage, Long> {
+
+    // Admission: reserves only if the result stays within the quota, in one row update
+    @Modifying
+    @Query(value = """
+            update storage_usage
+            set reserved_bytes = reserved_bytes + :bytes, updated_at = :now
+            where owner_id = :ownerId
+              and used_bytes + reserved_bytes + :bytes <= coalesce(quota_bytes, :defaultLimit)
+            """, nativeQuery = true)
+    int reserve(
+            @Param("ownerId") Long ownerId,
+            @Param("bytes") long bytes,
+            @Param("defaultLimit") long defaultLimit,
+            @Param("now") Instant now
+    );
+
+    // A user's first row starts from what they already store (a one-time indexed sum)
+    @Modifying
+    @Query(value = """
+            insert into storage_usage (owner_id, used_bytes, reserved_bytes, updated_at)
+            select :ownerId,
+                   coalesce((select sum(size) from files where owner_id = :ownerId), 0),
+                   coalesce((select sum(total_size) from upload_sessions where owner_id = :ownerId), 0),
+                   :now
+            on conflict (owner_id) do nothing
+            """, nativeQuery = true)
+    int createIfAbsent(@Param("ownerId") Long ownerId, @Param("now") Instant now);
+
+    // Users with no ledger change since the cutoff, in owner id order after the given one
+    @Query("select u.ownerId from StorageUsage u where u.ownerId > :after and u.updatedAt < :cutoff order by u.ownerId")
+    List<Long> findQuietOwners(@Param("after") Long after, @Param("cutoff") Instant cutoff, Limit limit);
+
+    interface Drift {
+        Long getOwnerId();
+
+        long getUsedDrift();
+
+        long getReservedDrift();
+    }
+
+    // How far each row is from the files and sessions tables, for rows that differ at all
+    @Query(value = """
+            select d.owner_id as ownerId, d.used_drift as usedDrift, d.reserved_drift as reservedDrift
+            from (select u.owner_id,
+                         u.used_bytes - coalesce((select sum(f.size) from files f where f.owner_id = u.owner_id), 0) as used_drift,
+                         u.reserved_bytes - coalesce((select sum(s.total_size) from upload_sessions s where s.owner_id = u.owner_id), 0) as reserved_drift
+                  from storage_usage u where u.owner_id in (:ownerIds)) d
+            where d.used_drift <> 0 or d.reserved_drift <> 0
+            """, nativeQuery = true)
+    List<Drift> findDrift(@Param("ownerIds") Collection<Long> ownerIds);
+
+    // Removes a confirmed drift, only if the row is still off by exactly that much
+    @Modifying
+    @Query(value = """
+            update storage_usage u
+            set used_bytes = u.used_bytes - :usedDrift, reserved_bytes = u.reserved_bytes - :reservedDrift, updated_at = :now
+            where u.owner_id = :ownerId
+              and u.used_bytes - coalesce((select sum(f.size) from files f where f.owner_id = u.owner_id), 0) = :usedDrift
+              and u.reserved_bytes - coalesce((select sum(s.total_size) from upload_sessions s where s.owner_id = u.owner_id), 0) = :reservedDrift
+            """, nativeQuery = true)
+    int correct(
+            @Param("ownerId") Long ownerId,
+            @Param("usedDrift") long usedDrift,
+            @Param("reservedDrift") long reservedDrift,
+            @Param("now") Instant now
+    );
+}
@@ -0,0 +1,92 @@
+package com.drive.storagservice.repository;
+
+import com.drive.storagservice.entity.StoredFile;
+
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+public interface StoredFileRepository extends JpaRepository<StoredFile, UUID> {
+
+    Optional<StoredFile> findByIdAndOwnerId(UUID id, Long ownerId);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    Optional<StoredFile> findForUpdateByIdAndOwnerId(UUID id, Long ownerId);
+
+    // For share: a file whose manifest is being copied cannot be deleted meanwhile
+    @Query(value = "select id from files where id = :id for share", nativeQuery = true)
+    Optional<UUID> lockForShare(@Param("id") UUID id);
+
+    // Same content already owned by this user: a re-upload can be completed from metadata
+    Optional<StoredFile> findFirstByOwnerIdAndContentHashAndSize(Long ownerId, String contentHash, long size);
+
+    interface NameEntry {
+        UUID getId();
+
+        String getName();
+    }
+
+    // Every file name of a user, to build their search index
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("select f.id as id, f.name as name from StoredFile f where f.ownerId = :ownerId")
+    Stream<NameEntry> streamNames(@Param("ownerId") Long ownerId);
+
+    @Query("select f.id as id, f.name as name from StoredFile f where f.ownerId = :ownerId and f.updatedAt >= :since")
+    List<NameEntry> findNamesUpdatedSince(@Param("ownerId") Long ownerId, @Param("since") Instant since);
+
+    interface SubtreeTotals {
+        long getFileCount();
+
+        long getTotalSize();
+    }
+
+    // Keyset page of a folder's files after (name, id), see FolderRepository.streamChildren
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "256"))
+    @Query(value = """
+            select * from files
+            where folder_id = :folderId and (name, id) > (:name, :id)
+            order by name, id
+            limit :limit
+            """, nativeQuery = true)
+    Stream<StoredFile> streamInFolder(
+            @Param("folderId") UUID folderId,
+            @Param("name") String afterName,
+            @Param("id") UUID afterId,
+            @Param("limit") int limit
+    );
+
+    @Query(value = """
+            select count(*) as fileCount, coalesce(sum(f.size), 0) as totalSize
+            from files f join folders d on d.id = f.folder_id
+            where d.path >= :from and d.path < :to
+            """, nativeQuery = true)
+    SubtreeTotals sumSubtree(@Param("from") String from, @Param("to") String to);
+
+    // Locks the files of a subtree before their references are released (same order as delete)
+    @Query(value = """
+            select f.id from files f
+            where f.folder_id in (select id from folders where path >= :from and path < :to)
+            order by f.id for update
+            """, nativeQuery = true)
+    List<UUID> lockSubtree(@Param("from") String from, @Param("to") String to);
+
+    @Modifying
+    @Query(value = """
+            delete from files
+            where folder_id in (select id from folders where path >= :from and path < :to)
+            """, nativeQuery = true)
+    int deleteSubtree(@Param("from") String from, @Param("to") String to);
+}
@@ -0,0 +1,74 @@
+package com.drive.storagservice.repository;
+
+import com.drive.storagservice.entity.UploadChunk;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+public interface UploadChunkRepository extends JpaRepository<UploadChunk, UploadChunk.Key> {
+
+    // Claims a chunk for writing: 1 if it was free or its last writer gave up before
+    // staleBefore, 0 if it is received or another request is writing it
+    @Transactional
+    @Modifying
+    @Query(value = """
+            insert into upload_chunks (session_id, chunk_index, sha256, claimed_at)
+            values (:sessionId, :index, null, :now)
+            on conflict (session_id, chunk_index) do update set claimed_at = excluded.claimed_at
+            where upload_chunks.sha256 is null and upload_chunks.claimed_at < :staleBefore
+            """, nativeQuery = true)
+    int claim(
+            @Param("sessionId") UUID sessionId,
+            @Param("index") int index,
+            @Param("now") Instant now,
+            @Param("staleBefore") Instant staleBefore
+    );
+
+    // Only the claim that is still current can complete the chunk
+    @Transactional
+    @Modifying
+    @Query("""
+            update UploadChunk c set c.sha256 = :sha256
+            where c.sessionId = :sessionId and c.chunkIndex = :index and c.sha256 is null and c.claimedAt = :claimedAt
+            """)
+    int markReceived(
+            @Param("sessionId") UUID sessionId,
+            @Param("index") int index,
+            @Param("claimedAt") Instant claimedAt,
+            @Param("sha256") String sha256
+    );
+
+    // A failed write gives its claim back so the chunk can be resent at once
+    @Transactional
+    @Modifying
+    @Query("""
+            delete from UploadChunk c
+            where c.sessionId = :sessionId and c.chunkIndex = :index and c.sha256 is null and c.claimedAt = :claimedAt
+            """)
+    int releaseClaim(@Param("sessionId") UUID sessionId, @Param("index") int index, @Param("claimedAt") Instant claimedAt);
+
+    @Query("select c.sha256 from UploadChunk c where c.sessionId = :sessionId and c.chunkIndex = :index and c.sha256 is not null")
+    Optional<String> findReceivedSha256(@Param("sessionId") UUID sessionId, @Param("index") int index);
+
+    @Query("""
+            select c.chunkIndex from UploadChunk c
+            where c.sessionId = :sessionId and c.sha256 is not null order by c.chunkIndex
+            """)
+    List<Integer> findReceivedIndexes(@Param("sessionId") UUID sessionId);
+
+    @Query("select count(c) from UploadChunk c where c.sessionId = :sessionId and c.sha256 is not null")
+    long countReceived(@Param("sessionId") UUID sessionId);
+
+    @Transactional
+    @Modifying
+    @Query("delete from UploadChunk c where c.sessionId = :sessionId")
+    int deleteBySessionId(@Param("sessionId") UUID sessionId);
+}
@@ -0,0 +1,29 @@
+package com.drive.storagservice.repository;
+
+import com.drive.storagservice.entity.UploadSession;
+
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+public interface UploadSessionRepository extends JpaRepository<UploadSession, UUID> {
+
+    Optional<UploadSession> findByIdAndOwnerId(UUID id, Long ownerId);
+
+    // Claims the session for commit/abort; of two concurrent callers only one gets 1
+    @Transactional
+    @Modifying
+    @Query("delete from UploadSession s where s.id = :id")
+    int deleteAndCount(@Param("id") UUID id);
+
+    @Query("select s from UploadSession s where s.expiresAt < :now order by s.expiresAt")
+    List<UploadSession> findExpired(@Param("now") Instant now, Limit limit);
+}
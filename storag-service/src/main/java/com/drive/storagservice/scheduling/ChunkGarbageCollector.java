@@ -0,0 +1,32 @@
+package com.drive.storagservice.scheduling;
+
+import com.drive.storagservice.properties.StorageProperties;
+import com.drive.storagservice.service.ContentService;
+
+import lombok.RequiredArgsConstructor;
+
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Deletes content chunks no file references any more. Safe to run on several replicas
+ * at once: rows are locked with {@code skip locked}, so each chunk is handled by one.
+ */
+@Component
+@RequiredArgsConstructor
+public class ChunkGarbageCollector {
+
+    private final ContentService contentService;
+    private final StorageProperties properties;
+
+    @Scheduled(
+            initialDelayString = "${storage.content.gc-initial-delay:2m}",
+            fixedDelayString = "${storage.content.gc-interval:10m}"
+    )
+    public void collect() {
+        int batchSize = properties.getContent().getGcBatchSize();
+        while (contentService.collectGarbage(batchSize) == batchSize) {
+            // Next batch, each in its own transaction
+        }
+    }
+}
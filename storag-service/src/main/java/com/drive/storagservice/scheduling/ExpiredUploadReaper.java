@@ -0,0 +1,41 @@
+package com.drive.storagservice.scheduling;
+
+import com.drive.storagservice.entity.UploadSession;
+import com.drive.storagservice.repository.UploadSessionRepository;
+import com.drive.storagservice.service.UploadService;
+
+import lombok.RequiredArgsConstructor;
+
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Deletes upload sessions that were never committed, together with their partial files.
+ * Safe to run on several replicas at once: each session is discarded by whichever
+ * instance deletes its row first.
+ */
+@Component
+@RequiredArgsConstructor
+public class ExpiredUploadReaper {
+
+    private static final int BATCH_SIZE = 100;
+
+    private final UploadSessionRepository sessionRepository;
+    private final UploadService uploadService;
+
+    @Scheduled(
+            initialDelayString = "${storage.upload.cleanup-initial-delay:1m}",
+            fixedDelayString = "${storage.upload.cleanup-interval:30m}"
+    )
+    public void purgeExpired() {
+        List<UploadSession> expired;
+        do {
+            expired = sessionRepository.findExpired(Instant.now(), Limit.of(BATCH_SIZE));
+            expired.forEach(uploadService::discard);
+        } while (expired.size() == BATCH_SIZE);
+    }
+}
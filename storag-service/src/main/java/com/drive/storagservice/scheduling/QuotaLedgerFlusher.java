@@ -0,0 +1,21 @@
+package com.drive.storagservice.scheduling;
+
+import com.drive.storagservice.service.QuotaService;
+
+import lombok.RequiredArgsConstructor;
+
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+// Writes usage deltas collected in memory to the quota ledger
+@Component
+@RequiredArgsConstructor
+public class QuotaLedgerFlusher {
+
+    private final QuotaService quotaService;
+
+    @Scheduled(fixedDelayString = "${storage.quota.flush-interval:2s}")
+    public void flush() {
+        quotaService.flush();
+    }
+}
@@ -0,0 +1,36 @@
+package com.drive.storagservice.scheduling;
+
+import com.drive.storagservice.properties.StorageProperties;
+import com.drive.storagservice.service.QuotaService;
+
+import lombok.RequiredArgsConstructor;
+
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Repairs quota ledger drift (deltas lost when an instance died before flushing) by
+ * checking quiet users' rows, one batch per transaction; a drift is corrected on the pass
+ * after the one that first saw it. Running it on several replicas at once is wasted work
+ * but harmless, since a correction only applies while the row is still off by that much.
+ */
+@Component
+@RequiredArgsConstructor
+public class QuotaReconciler {
+
+    private final QuotaService quotaService;
+    private final StorageProperties properties;
+
+    @Scheduled(
+            initialDelayString = "${storage.quota.reconcile-initial-delay:5m}",
+            fixedDelayString = "${storage.quota.reconcile-interval:6h}"
+    )
+    public void reconcile() {
+        quotaService.flushBeforeReconcile();
+        int batchSize = properties.getQuota().getReconcileBatchSize();
+        Long after = Long.MIN_VALUE;
+        while ((after = quotaService.reconcile(after, batchSize)) != null) {
+            // Next batch of owners
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package com.drive.storagservice.scheduling;
+
+import com.drive.storagservice.service.SearchService;
+
+import lombok.RequiredArgsConstructor;
+
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+// Snapshots, compacts and unloads the in-memory search indexes
+@Component
+@RequiredArgsConstructor
+public class SearchIndexMaintainer {
+
+    private final SearchService searchService;
+
+    @Scheduled(fixedDelayString = "${storage.search.maintenance-interval:5m}")
+    public void maintain() {
+        searchService.maintain();
+    }
+}
@@ -0,0 +1,23 @@
+package com.drive.storagservice.search;
+
+import java.util.UUID;
+
+/**
+ * Changes to file names, published inside the transaction that makes them and applied to
+ * the search index once it commits.
+ */
+public sealed interface FileIndexEvent {
+
+    long ownerId();
+
+    // Created or renamed
+    record Named(long ownerId, UUID fileId, String name) implements FileIndexEvent {
+    }
+
+    record Removed(long ownerId, UUID fileId) implements FileIndexEvent {
+    }
+
+    // A folder was deleted with an unknown number of files below it
+    record SubtreeRemoved(long ownerId) implements FileIndexEvent {
+    }
+}
@@ -0,0 +1,363 @@
+package com.drive.storagservice.search;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.UUID;
+import java.util.function.LongConsumer;
+
+/**
+ * Inverted index over one user's file names. Names are case- and accent-folded; every
+ * trigram of a name and the one- and two-character prefixes of each word in it map to a
+ * posting list of document ordinals in a growable {@code int[]}. Ordinals are assigned in
+ * insertion order, so postings stay sorted without any work and intersect by merging.
+ * A query of three or more characters intersects its trigrams' postings and verifies the
+ * survivors with a substring test; shorter queries use the word-prefix postings.
+ * <p>
+ * Renames and deletes only mark the old ordinal removed; {@link #compact()} rebuilds the
+ * index once removed ordinals dominate. Not thread-safe: callers guard it with a lock.
+ */
+public class FilenameIndex {
+
+    private static final long PREFIX_1 = 1L << 48;
+    private static final long PREFIX_2 = 2L << 48;
+    private static final int SNAPSHOT_VERSION = 1;
+
+    private long[] idHigh = new long[64];
+    private long[] idLow = new long[64];
+    private String[] names = new String[64];
+    private int size;
+    private final BitSet removed = new BitSet();
+    private final Map<UUID, Integer> ordinals = new HashMap<>();
+    private final Map<Long, Postings> postings = new HashMap<>();
+
+    public record Hit(UUID id, int score) {
+    }
+
+    private static final class Postings {
+        int[] docs;
+        int size;
+
+        Postings(int capacity) {
+            docs = new int[capacity];
+        }
+
+        void add(int doc) {
+            // A name repeating a trigram yields it twice in a row
+            if (size > 0 && docs[size - 1] == doc) {
+                return;
+            }
+            if (size == docs.length) {
+                docs = Arrays.copyOf(docs, size * 2);
+            }
+            docs[size++] = doc;
+        }
+    }
+
+    // Adds a file or, if it is already indexed under another name, renames it
+    public void put(UUID id, String name) {
+        String normalized = normalize(name);
+        Integer existing = ordinals.get(id);
+        if (existing != null) {
+            if (names[existing].equals(normalized)) {
+                return;
+            }
+            removed.set(existing);
+        }
+        add(id, normalized);
+    }
+
+    public void remove(UUID id) {
+        Integer doc = ordinals.remove(id);
+        if (doc != null) {
+            removed.set(doc);
+        }
+    }
+
+    public int liveCount() {
+        return ordinals.size();
+    }
+
+    public boolean needsCompaction() {
+        return size > 1024 && size - ordinals.size() > size / 2;
+    }
+
+    // A copy without removed ordinals
+    public FilenameIndex compact() {
+        FilenameIndex compacted = new FilenameIndex();
+        for (int doc = 0; doc < size; doc++) {
+            if (!removed.get(doc)) {
+                compacted.add(new UUID(idHigh[doc], idLow[doc]), names[doc]);
+            }
+        }
+        return compacted;
+    }
+
+    /**
+     * The best {@code limit} matches, best first: whole name (with or without extension),
+     * then name prefix, then word prefix, then any substring; shorter names first within
+     * a rank, then alphabetical.
+     */
+    public List<Hit> search(String query, int limit) {
+        String term = normalize(query).strip();
+        if (term.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+
+        // 1. Candidates from postings
+        int[] candidates;
+        int count;
+        if (term.length() < 3) {
+            Postings words = postings.get(term.length() == 1
+                    ? prefixKey(term.charAt(0))
+                    : prefixKey(term.charAt(0), term.charAt(1)));
+            if (words == null) {
+                return List.of();
+            }
+            candidates = words.docs;
+            count = words.size;
+        } else {
+            List<Postings> lists = new ArrayList<>(term.length() - 2);
+            for (int i = 0; i + 2 < term.length(); i++) {
+                Postings list = postings.get(trigramKey(term.charAt(i), term.charAt(i + 1), term.charAt(i + 2)));
+                if (list == null) {
+                    return List.of();
+                }
+                if (!lists.contains(list)) {
+                    lists.add(list);
+                }
+            }
+            lists.sort(Comparator.comparingInt(list -> list.size));
+            candidates = Arrays.copyOf(lists.getFirst().docs, lists.getFirst().size);
+            count = candidates.length;
+            for (int i = 1; i < lists.size() && count > 0; i++) {
+                count = intersect(candidates, count, lists.get(i));
+            }
+        }
+
+        // 2. Verify and keep the best limit in a heap whose head is the worst kept; most
+        //    candidates of a broad query lose to the head and cost one comparison
+        PriorityQueue<long[]> top = new PriorityQueue<>(Math.min(limit, count) + 1, (a, b) -> compare(b, a));
+        long[] worst = null;
+        for (int i = 0; i < count; i++) {
+            int doc = candidates[i];
+            if (removed.get(doc)) {
+                continue;
+            }
+            int score = score(names[doc], term);
+            if (score == 0) {
+                continue;
+            }
+            long[] hit = {doc, score};
+            if (worst != null && top.size() == limit && compare(hit, worst) >= 0) {
+                continue;
+            }
+            top.offer(hit);
+            if (top.size() > limit) {
+                top.poll();
+            }
+            worst = top.peek();
+        }
+
+        Hit[] hits = new Hit[top.size()];
+        for (int i = hits.length - 1; i >= 0; i--) {
+            int doc = (int) top.poll()[0];
+            hits[i] = new Hit(new UUID(idHigh[doc], idLow[doc]), score(names[doc], term));
+        }
+        return List.of(hits);
+    }
+
+    // Negative if a ranks before b: higher score, then shorter name, then alphabetical
+    private int compare(long[] a, long[] b) {
+        if (a[1] != b[1]) {
+            return Long.compare(b[1], a[1]);
+        }
+        String nameA = names[(int) a[0]];
+        String nameB = names[(int) b[0]];
+        if (nameA.length() != nameB.length()) {
+            return Integer.compare(nameA.length(), nameB.length());
+        }
+        return nameA.compareTo(nameB);
+    }
+
+    // Whether a (database) name still matches the query, for verifying hits
+    public static boolean matches(String name, String query) {
+        return score(normalize(name), normalize(query).strip()) > 0;
+    }
+
+    /**
+     * Live documents and postings, laid out for a memory-mapped snapshot. Call on a
+     * compacted index: removed ordinals are not written, postings are written as they are.
+     */
+    public long snapshotSize() {
+        long bytes = 4 + 4 + 4;
+        for (int doc = 0; doc < size; doc++) {
+            bytes += 16 + 4 + names[doc].getBytes(StandardCharsets.UTF_8).length;
+        }
+        for (Postings list : postings.values()) {
+            bytes += 8 + 4 + 4L * list.size;
+        }
+        return bytes;
+    }
+
+    public void writeSnapshot(ByteBuffer out) {
+        if (size != ordinals.size()) {
+            throw new IllegalStateException("Compact the index before writing a snapshot");
+        }
+        out.putInt(SNAPSHOT_VERSION);
+        out.putInt(size);
+        for (int doc = 0; doc < size; doc++) {
+            byte[] name = names[doc].getBytes(StandardCharsets.UTF_8);
+            out.putLong(idHigh[doc]).putLong(idLow[doc]).putInt(name.length).put(name);
+        }
+        out.putInt(postings.size());
+        for (Map.Entry<Long, Postings> entry : postings.entrySet()) {
+            out.putLong(entry.getKey()).putInt(entry.getValue().size);
+            out.asIntBuffer().put(entry.getValue().docs, 0, entry.getValue().size);
+            out.position(out.position() + 4 * entry.getValue().size);
+        }
+    }
+
+    public static FilenameIndex readSnapshot(ByteBuffer in) {
+        if (in.getInt() != SNAPSHOT_VERSION) {
+            throw new IllegalArgumentException("Unknown snapshot version");
+        }
+        FilenameIndex index = new FilenameIndex();
+        int documents = in.getInt();
+        index.ensureCapacity(documents);
+        for (int doc = 0; doc < documents; doc++) {
+            long high = in.getLong();
+            long low = in.getLong();
+            byte[] name = new byte[in.getInt()];
+            in.get(name);
+            index.idHigh[doc] = high;
+            index.idLow[doc] = low;
+            index.names[doc] = new String(name, StandardCharsets.UTF_8);
+            index.ordinals.put(new UUID(high, low), doc);
+        }
+        index.size = documents;
+        int keys = in.getInt();
+        for (int i = 0; i < keys; i++) {
+            long key = in.getLong();
+            int count = in.getInt();
+            Postings list = new Postings(Math.max(1, count));
+            in.asIntBuffer().get(list.docs, 0, count);
+            in.position(in.position() + 4 * count);
+            list.size = count;
+            index.postings.put(key, list);
+        }
+        return index;
+    }
+
+    private void add(UUID id, String normalized) {
+        int doc = size;
+        ensureCapacity(doc + 1);
+        idHigh[doc] = id.getMostSignificantBits();
+        idLow[doc] = id.getLeastSignificantBits();
+        names[doc] = normalized;
+        size++;
+        ordinals.put(id, doc);
+        forEachKey(normalized, key -> postings.computeIfAbsent(key, k -> new Postings(4)).add(doc));
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity > names.length) {
+            int grown = Math.max(capacity, names.length * 2);
+            idHigh = Arrays.copyOf(idHigh, grown);
+            idLow = Arrays.copyOf(idLow, grown);
+            names = Arrays.copyOf(names, grown);
+        }
+    }
+
+    // Keeps the first count entries of docs that also occur in list; returns the new count
+    private static int intersect(int[] docs, int count, Postings list) {
+        int kept = 0;
+        int j = 0;
+        for (int i = 0; i < count && j < list.size; i++) {
+            int doc = docs[i];
+            while (j < list.size && list.docs[j] < doc) {
+                j++;
+            }
+            if (j < list.size && list.docs[j] == doc) {
+                docs[kept++] = doc;
+            }
+        }
+        return kept;
+    }
+
+    private static void forEachKey(String name, LongConsumer consumer) {
+        for (int i = 0; i < name.length(); i++) {
+            char c = name.charAt(i);
+            if (i + 2 < name.length()) {
+                consumer.accept(trigramKey(c, name.charAt(i + 1), name.charAt(i + 2)));
+            }
+            if (Character.isLetterOrDigit(c) && (i == 0 || !Character.isLetterOrDigit(name.charAt(i - 1)))) {
+                consumer.accept(prefixKey(c));
+                if (i + 1 < name.length()) {
+                    consumer.accept(prefixKey(c, name.charAt(i + 1)));
+                }
+            }
+        }
+    }
+
+    private static int score(String name, String term) {
+        int at = name.indexOf(term);
+        if (at < 0) {
+            return 0;
+        }
+        int dot = name.lastIndexOf('.');
+        if (name.equals(term) || (dot > 0 && dot == term.length() && name.startsWith(term))) {
+            return 4;
+        }
+        if (at == 0) {
+            return 3;
+        }
+        for (; at > 0; at = name.indexOf(term, at + 1)) {
+            if (!Character.isLetterOrDigit(name.charAt(at - 1))) {
+                return 2;
+            }
+        }
+        return 1;
+    }
+
+    private static long trigramKey(char a, char b, char c) {
+        return ((long) a << 32) | ((long) b << 16) | c;
+    }
+
+    private static long prefixKey(char a) {
+        return PREFIX_1 | a;
+    }
+
+    private static long prefixKey(char a, char b) {
+        return PREFIX_2 | ((long) a << 16) | b;
+    }
+
+    // Lower case without accents, so "Résumé" is found by "resume"
+    static String normalize(String name) {
+        boolean ascii = true;
+        for (int i = 0; i < name.length() && ascii; i++) {
+            ascii = name.charAt(i) < 0x80;
+        }
+        if (ascii) {
+            return name.toLowerCase(Locale.ROOT);
+        }
+        String decomposed = Normalizer.normalize(name, Normalizer.Form.NFKD);
+        StringBuilder folded = new StringBuilder(decomposed.length());
+        for (int i = 0; i < decomposed.length(); i++) {
+            char c = decomposed.charAt(i);
+            if (Character.getType(c) != Character.NON_SPACING_MARK) {
+                folded.append(Character.toLowerCase(c));
+            }
+        }
+        return folded.toString();
+    }
+}
@@ -0,0 +1,88 @@
+package com.drive.storagservice.search;
+
+import com.drive.storagservice.properties.StorageProperties;
+
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+
+/**
+ * Per-user search index snapshots under {@code root/search}, written and read through
+ * memory-mapped files so a restart loads an index with bulk copies instead of rebuilding
+ * it from every file name in the database. A snapshot records when the index was last in
+ * sync; changes after that are caught up from the database on load.
+ */
+@Component
+public class SearchSnapshotStore {
+
+    private static final int MAGIC = 0x53494458;
+
+    private final Path directory;
+
+    public record Snapshot(FilenameIndex index, Instant syncedAt) {
+    }
+
+    public SearchSnapshotStore(StorageProperties properties) {
+        this.directory = properties.getRoot().resolve("search");
+        try {
+            Files.createDirectories(directory);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot create search index directory", e);
+        }
+    }
+
+    // Null if there is none or it cannot be read
+    public Snapshot read(long ownerId) {
+        Path path = path(ownerId);
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            MappedByteBuffer in = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (in.getInt() != MAGIC || in.getLong() != ownerId) {
+                return null;
+            }
+            Instant syncedAt = Instant.ofEpochMilli(in.getLong());
+            return new Snapshot(FilenameIndex.readSnapshot(in), syncedAt);
+        } catch (NoSuchFileException e) {
+            return null;
+        } catch (IOException | RuntimeException e) {
+            // Truncated or from another version; the index is rebuilt from the database
+            delete(ownerId);
+            return null;
+        }
+    }
+
+    // The index must be compacted; replaces the previous snapshot atomically
+    public void write(long ownerId, FilenameIndex index, Instant syncedAt) throws IOException {
+        Path temporary = directory.resolve(ownerId + ".idx.tmp");
+        long size = 4 + 8 + 8 + index.snapshotSize();
+        try (FileChannel channel = FileChannel.open(temporary,
+                StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            MappedByteBuffer out = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+            out.putInt(MAGIC).putLong(ownerId).putLong(syncedAt.toEpochMilli());
+            index.writeSnapshot(out);
+            out.force();
+        }
+        Files.move(temporary, path(ownerId), StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    public void delete(long ownerId) {
+        try {
+            Files.deleteIfExists(path(ownerId));
+        } catch (IOException e) {
+            // A stale snapshot only costs dropped hits: search results are checked against the database
+        }
+    }
+
+    private Path path(long ownerId) {
+        return directory.resolve(ownerId + ".idx");
+    }
+}
@@ -0,0 +1,14 @@
+package com.drive.storagservice.security;
+
+/**
+ * The caller, as vouched for by the gateway's signed identity header. Declare it as a
+ * controller method parameter to receive it.
+ */
+public record AuthenticatedUser(long userId, String role) {
+
+    static final String ATTRIBUTE = AuthenticatedUser.class.getName();
+
+    public boolean isAdmin() {
+        return "ADMIN".equals(role);
+    }
+}
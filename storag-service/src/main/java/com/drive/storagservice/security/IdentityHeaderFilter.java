@@ -0,0 +1,50 @@
+package com.drive.storagservice.security;
+
+import com.drive.storagservice.properties.StorageProperties;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+import lombok.RequiredArgsConstructor;
+
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * Admits only requests carrying a valid gateway identity header; the verified caller is
+ * stored as a request attribute for {@link AuthenticatedUserArgumentResolver}.
+ */
+@Component
+@RequiredArgsConstructor
+public class IdentityHeaderFilter extends OncePerRequestFilter {
+
+    private final IdentityVerifier identityVerifier;
+    private final StorageProperties properties;
+
+    @Override
+    protected void doFilterInternal(
+            HttpServletRequest request,
+            HttpServletResponse response,
+            FilterChain filterChain
+    ) throws ServletException, IOException {
+
+        AuthenticatedUser user = identityVerifier.verify(request.getHeader(properties.getIdentity().getHeader()));
+        if (user == null) {
+            response.sendError(HttpServletResponse.SC_UNAUTHORIZED);
+            return;
+        }
+
+        request.setAttribute(AuthenticatedUser.ATTRIBUTE, user);
+        filterChain.doFilter(request, response);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        String path = request.getRequestURI();
+        return path.equals("/error") || path.startsWith("/actuator/");
+    }
+}
@@ -0,0 +1,86 @@
+package com.drive.storagservice.security;
+
+import com.drive.storagservice.properties.StorageProperties;
+
+import org.springframework.stereotype.Component;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.time.Instant;
+import java.util.Base64;
+
+/**
+ * Checks the identity header signed by gateway-api:
+ * {@code <userId>:<role>:<expiresAtEpochSecond>:<base64url HMAC-SHA256 of the first three>}.
+ * One HMAC per request replaces JWT parsing and any user lookup.
+ */
+@Component
+public class IdentityVerifier {
+
+    private final SecretKeySpec key;
+    private final long clockSkewSeconds;
+
+    public IdentityVerifier(StorageProperties properties) {
+        String encoded = properties.getIdentity().getSecret();
+        if (encoded == null || encoded.isBlank()) {
+            throw new IllegalStateException("storage.identity.secret must be set");
+        }
+        this.key = new SecretKeySpec(Base64.getDecoder().decode(encoded), "HmacSHA256");
+        this.clockSkewSeconds = properties.getIdentity().getClockSkew().toSeconds();
+    }
+
+    /**
+     * @return the caller, or null if the header is malformed, forged or expired
+     */
+    public AuthenticatedUser verify(String header) {
+        if (header == null) {
+            return null;
+        }
+        int signatureStart = header.lastIndexOf(':');
+        if (signatureStart < 0) {
+            return null;
+        }
+        String payload = header.substring(0, signatureStart);
+        String[] parts = payload.split(":");
+        if (parts.length != 3) {
+            return null;
+        }
+
+        // 1. Signature first, so nothing unauthenticated gets parsed further
+        byte[] expected = hmac(payload);
+        byte[] actual;
+        try {
+            actual = Base64.getUrlDecoder().decode(header.substring(signatureStart + 1));
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+        if (!MessageDigest.isEqual(expected, actual)) {
+            return null;
+        }
+
+        // 2. Expiry of the token the header was derived from
+        try {
+            long userId = Long.parseLong(parts[0]);
+            long expiresAt = Long.parseLong(parts[2]);
+            if (Instant.now().getEpochSecond() >= expiresAt + clockSkewSeconds) {
+                return null;
+            }
+            return new AuthenticatedUser(userId, parts[1]);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private byte[] hmac(String payload) {
+        try {
+            Mac mac = Mac.getInstance("HmacSHA256");
+            mac.init(key);
+            return mac.doFinal(payload.getBytes(StandardCharsets.UTF_8));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("HmacSHA256 not available", e);
+        }
+    }
+}
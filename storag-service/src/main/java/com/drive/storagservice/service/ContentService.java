@@ -0,0 +1,234 @@
+package com.drive.storagservice.service;
+
+import com.drive.storagservice.properties.StorageProperties;
+import com.drive.storagservice.repository.ContentChunkRepository;
+import com.drive.storagservice.repository.FileChunkRepository;
+import com.drive.storagservice.repository.FileChunkRepository.ChunkReferences;
+import com.drive.storagservice.repository.StoredFileRepository;
+import com.drive.storagservice.storage.ChunkCodec;
+import com.drive.storagservice.storage.FileStore;
+
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.security.MessageDigest;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
+
+/**
+ * Content-addressed storage: file content is cut into fixed-size chunks named by their
+ * SHA-256, each stored once no matter how many files (or users) contain it, and a file
+ * is a manifest of chunk references. Chunk rows are reference counted in Postgres.
+ * Chunks of compressible files are stored compressed ({@link ChunkCodec}); the hash is
+ * always that of the uncompressed bytes.
+ * <p>
+ * Commits work in two steps so no transaction spans the disk work: {@link #stage} writes
+ * the chunk files the store lacks, outside any transaction, under unreferenced rows the
+ * collector leaves alone for a grace period; {@link #ingest} then adds the references and
+ * the manifest in the caller's short transaction.
+ * <p>
+ * Locking: ingest adds references first (which locks the chunk rows, always in hash order
+ * so concurrent commits cannot deadlock) and only then checks the chunk files. The garbage
+ * collector locks unreferenced rows with {@code skip locked} and deletes file and row under
+ * that lock, so a chunk is never deleted while a commit is counting on it, and ingest
+ * re-creates any chunk file the collector removed after staging. Anything that removes
+ * references locks the file rows first, then the chunk rows, the order copy uses too.
+ */
+@Service
+public class ContentService {
+
+    // Enough for the signatures ChunkCodec recognizes
+    private static final int SNIFF_LENGTH = 16;
+
+    private final ContentChunkRepository chunkRepository;
+    private final FileChunkRepository manifestRepository;
+    private final FileStore fileStore;
+    private final ChunkCodec codec;
+    private final StoredFileRepository fileRepository;
+    private final StorageProperties properties;
+    private final TransactionTemplate transactionTemplate;
+
+    public record Content(String contentHash, List<String> chunkHashes) {
+    }
+
+    public ContentService(
+            ContentChunkRepository chunkRepository,
+            FileChunkRepository manifestRepository,
+            FileStore fileStore,
+            ChunkCodec codec,
+            StoredFileRepository fileRepository,
+            StorageProperties properties,
+            PlatformTransactionManager transactionManager
+    ) {
+        this.chunkRepository = chunkRepository;
+        this.manifestRepository = manifestRepository;
+        this.fileStore = fileStore;
+        this.codec = codec;
+        this.fileRepository = fileRepository;
+        this.properties = properties;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    // One sequential read of the assembled upload; no locks are held meanwhile
+    public Content hash(UUID sessionId, long size, int chunkSize) throws IOException {
+        MessageDigest contentDigest = FileStore.sha256();
+        List<String> chunkHashes = fileStore.hashUpload(sessionId, size, chunkSize, contentDigest);
+        return new Content(HexFormat.of().formatHex(contentDigest.digest()), chunkHashes);
+    }
+
+    /**
+     * Writes the upload's chunks the store does not have yet, each verified against its
+     * hash while it is written. Runs outside any transaction; the rows registered first
+     * keep the files from being collected until {@link #ingest} references them, and let
+     * the collector reclaim them if it never does. Returns whether chunks are compressed,
+     * to be passed on to ingest.
+     */
+    public boolean stage(UUID sessionId, long size, int chunkSize, List<String> chunkHashes, String contentType)
+            throws IOException {
+        if (chunkHashes.isEmpty()) {
+            return false;
+        }
+        boolean compress = codec.shouldCompress(contentType, fileStore.readUploadHead(sessionId, SNIFF_LENGTH));
+
+        // 1. Rows, in hash order; committed at once so no lock is held while writing
+        Map<String, Integer> firstSeq = firstSeq(chunkHashes);
+        Instant now = Instant.now();
+        transactionTemplate.executeWithoutResult(status -> firstSeq.forEach((hash, seq) ->
+                chunkRepository.register(hash, chunkLength(size, chunkSize, seq), now)));
+
+        // 2. Files
+        for (Map.Entry<String, Integer> entry : firstSeq.entrySet()) {
+            store(sessionId, size, chunkSize, entry.getKey(), entry.getValue(), compress);
+        }
+        return compress;
+    }
+
+    /**
+     * Records staged content as {@code fileId}'s manifest. Runs in the caller's
+     * transaction; only a chunk the collector removed since staging is written here.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void ingest(
+            UUID sessionId,
+            UUID fileId,
+            long size,
+            int chunkSize,
+            List<String> chunkHashes,
+            boolean compress
+    ) throws IOException {
+        // 1. References per distinct chunk, and where in the upload its bytes are
+        Map<String, Integer> references = new TreeMap<>();
+        for (String hash : chunkHashes) {
+            references.merge(hash, 1, Integer::sum);
+        }
+        Map<String, Integer> firstSeq = firstSeq(chunkHashes);
+
+        // 2. Count (and lock) before looking at the disk
+        Instant now = Instant.now();
+        for (Map.Entry<String, Integer> entry : references.entrySet()) {
+            int seq = firstSeq.get(entry.getKey());
+            chunkRepository.addReferences(entry.getKey(), chunkLength(size, chunkSize, seq), entry.getValue(), now);
+        }
+
+        // 3. Normally a no-op: staged files are there unless the collector raced us
+        for (Map.Entry<String, Integer> entry : firstSeq.entrySet()) {
+            store(sessionId, size, chunkSize, entry.getKey(), entry.getValue(), compress);
+        }
+
+        // 4. Manifest
+        for (int seq = 0; seq < chunkHashes.size(); seq++) {
+            manifestRepository.insertEntry(fileId, seq, chunkHashes.get(seq), chunkLength(size, chunkSize, seq));
+        }
+    }
+
+    /**
+     * Gives targetFileId the same content as sourceFileId without touching the disk. The
+     * source row is share-locked first, so it cannot be deleted (and its chunks collected)
+     * before this transaction ends. Returns false if the source is already gone.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public boolean copy(UUID sourceFileId, UUID targetFileId) {
+        if (fileRepository.lockForShare(sourceFileId).isEmpty()) {
+            return false;
+        }
+        Instant now = Instant.now();
+        for (ChunkReferences chunk : manifestRepository.countReferences(sourceFileId)) {
+            chunkRepository.addReferences(chunk.getHash(), chunk.getSize(), chunk.getRefs(), now);
+        }
+        manifestRepository.copyManifest(sourceFileId, targetFileId);
+        return true;
+    }
+
+    // Drops a file's manifest; chunks no longer referenced are left to the collector. The
+    // caller holds the file row for update
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void release(UUID fileId) {
+        for (ChunkReferences chunk : manifestRepository.countReferences(fileId)) {
+            chunkRepository.releaseReferences(chunk.getHash(), chunk.getRefs());
+        }
+        manifestRepository.deleteByFileId(fileId);
+    }
+
+    // Drops the manifests of every file in a folder subtree (path range, see Folder); the
+    // caller holds the file rows for update
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void releaseSubtree(String from, String to) {
+        for (ChunkReferences chunk : manifestRepository.countSubtreeReferences(from, to)) {
+            chunkRepository.releaseReferences(chunk.getHash(), chunk.getRefs());
+        }
+        manifestRepository.deleteSubtree(from, to);
+    }
+
+    /**
+     * Deletes up to {@code limit} unreferenced chunks, files first.
+     *
+     * @return number of chunks examined; less than {@code limit} means nothing is left
+     */
+    @Transactional
+    public int collectGarbage(int limit) {
+        List<String> unreferenced = chunkRepository.lockUnreferenced(
+                Instant.now().minus(properties.getContent().getGcGracePeriod()), limit);
+        List<String> deleted = new ArrayList<>(unreferenced.size());
+        for (String hash : unreferenced) {
+            try {
+                fileStore.deleteChunk(hash);
+                deleted.add(hash);
+            } catch (IOException e) {
+                // Keep the row so the next pass retries the file
+            }
+        }
+        if (!deleted.isEmpty()) {
+            chunkRepository.deleteUnreferenced(deleted);
+        }
+        return unreferenced.size();
+    }
+
+    private void store(UUID sessionId, long size, int chunkSize, String hash, int seq, boolean compress)
+            throws IOException {
+        if (!fileStore.hasChunk(hash)) {
+            fileStore.storeChunk(hash, sessionId, (long) seq * chunkSize, chunkLength(size, chunkSize, seq), compress);
+        }
+    }
+
+    // Where each distinct chunk first occurs, in hash order
+    private static Map<String, Integer> firstSeq(List<String> chunkHashes) {
+        Map<String, Integer> firstSeq = new TreeMap<>();
+        for (int seq = 0; seq < chunkHashes.size(); seq++) {
+            firstSeq.putIfAbsent(chunkHashes.get(seq), seq);
+        }
+        return firstSeq;
+    }
+
+    private static int chunkLength(long size, int chunkSize, int seq) {
+        return (int) Math.min(chunkSize, size - (long) seq * chunkSize);
+    }
+}
@@ -0,0 +1,345 @@
+package com.drive.storagservice.service;
+
+import com.drive.storagservice.entity.FileChunk;
+import com.drive.storagservice.entity.StoredFile;
+import com.drive.storagservice.exception.StoredFileNotFoundException;
+import com.drive.storagservice.repository.FileChunkRepository;
+import com.drive.storagservice.repository.StoredFileRepository;
+import com.drive.storagservice.security.AuthenticatedUser;
+import com.drive.storagservice.storage.ByteRange;
+import com.drive.storagservice.storage.ChunkCodec;
+import com.drive.storagservice.storage.FileStore;
+import com.drive.storagservice.storage.StoredChunk;
+
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+import lombok.RequiredArgsConstructor;
+
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * File downloads with HTTP range and conditional request support. Validators come from
+ * the file's metadata row, so a revalidation ({@code If-None-Match}, {@code If-Modified-Since})
+ * is answered with 304 without touching the disk. Raw chunks never pass through heap
+ * arrays: a region inside one is handed to Tomcat's sendfile, anything spanning chunks
+ * (and multi-range parts and small bodies) is copied chunk by chunk with
+ * {@link FileChannel#transferTo}. Compressed chunks inflate only the frames a range
+ * overlaps, unless the client accepts gzip for a whole compressible file: then the stored
+ * frames go out as they are, in a gzip member (see {@link #sendGzip}). Fixed-size chunks
+ * map a byte range to its manifest entries by division, so a range costs one indexed
+ * query however large the file is.
+ */
+@Service
+@RequiredArgsConstructor
+public class DownloadService {
+
+    // Tomcat's DefaultServlet threshold: below it a plain copy is cheaper than sendfile
+    private static final long SENDFILE_THRESHOLD = 48 * 1024;
+
+    private static final String SENDFILE_SUPPORTED = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+
+    // Deflate, no flags, no mtime, unknown OS
+    private static final byte[] GZIP_HEADER = {0x1f, (byte) 0x8b, 8, 0, 0, 0, 0, 0, 0, (byte) 0xff};
+    // An empty final block, ending the deflate stream the chunks' frames leave open
+    private static final byte[] DEFLATE_END = {0x03, 0x00};
+
+    private final StoredFileRepository fileRepository;
+    private final FileChunkRepository manifestRepository;
+    private final FileStore fileStore;
+    private final ChunkCodec codec;
+
+    public void download(
+            AuthenticatedUser user,
+            UUID fileId,
+            boolean attachment,
+            HttpServletRequest request,
+            HttpServletResponse response
+    ) throws IOException {
+        StoredFile file = fileRepository.findByIdAndOwnerId(fileId, user.userId())
+                .orElseThrow(() -> new StoredFileNotFoundException("File not found"));
+
+        // Whole compressible files go gzip-encoded where accepted; ranges are of the identity
+        String contentType = file.getContentType() != null ? file.getContentType() : MediaType.APPLICATION_OCTET_STREAM_VALUE;
+        boolean compressible = codec.compressibleType(contentType);
+        boolean gzip = compressible && request.getHeader(HttpHeaders.RANGE) == null && acceptsGzip(request);
+
+        String etag = etag(file, gzip);
+        // HTTP dates have second precision
+        long lastModified = file.getCreatedAt().getEpochSecond() * 1000;
+        if (compressible) {
+            response.setHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        }
+        response.setHeader(HttpHeaders.ETAG, etag);
+        response.setDateHeader(HttpHeaders.LAST_MODIFIED, lastModified);
+        response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+        response.setHeader(HttpHeaders.CACHE_CONTROL, "private, no-cache");
+
+        // 1. Conditional GET, answered from metadata alone
+        if (notModified(request, etag, lastModified)) {
+            response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            return;
+        }
+
+        // 2. Ranges apply only while the client's partial copy is still current (If-Range)
+        long size = file.getSize();
+        List<ByteRange> ranges = rangeStillValid(request, etag, lastModified)
+                ? ByteRange.parse(request.getHeader(HttpHeaders.RANGE), size)
+                : null;
+        if (ranges != null && ranges.isEmpty()) {
+            response.setStatus(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE);
+            response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + size);
+            return;
+        }
+
+        // 3. Body: gzip-encoded file, whole file, one range, or multipart/byteranges
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION,
+                ContentDisposition.builder(attachment ? "attachment" : "inline")
+                        .filename(file.getName(), StandardCharsets.UTF_8)
+                        .build()
+                        .toString());
+        boolean head = "HEAD".equals(request.getMethod());
+
+        if (gzip) {
+            // Length unknown up front; sent chunked
+            response.setStatus(HttpServletResponse.SC_OK);
+            response.setContentType(contentType);
+            response.setHeader(HttpHeaders.CONTENT_ENCODING, "gzip");
+            if (!head) {
+                sendGzip(response, file);
+            }
+        } else if (ranges == null) {
+            response.setStatus(HttpServletResponse.SC_OK);
+            response.setContentType(contentType);
+            sendRegion(request, response, file, 0, size, head);
+        } else if (ranges.size() == 1) {
+            ByteRange range = ranges.getFirst();
+            response.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+            response.setContentType(contentType);
+            response.setHeader(HttpHeaders.CONTENT_RANGE, contentRange(range, size));
+            sendRegion(request, response, file, range.start(), range.length(), head);
+        } else {
+            response.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+            sendMultipart(response, file, ranges, contentType, head);
+        }
+    }
+
+    private void sendRegion(
+            HttpServletRequest request,
+            HttpServletResponse response,
+            StoredFile file,
+            long start,
+            long length,
+            boolean head
+    ) throws IOException {
+        response.setContentLengthLong(length);
+        if (head || length == 0) {
+            return;
+        }
+
+        List<FileChunk> chunks = findChunks(file, start, length);
+
+        // Within one raw chunk the connector sends it with sendfile(2) once this request returns
+        if (chunks.size() == 1 && length >= SENDFILE_THRESHOLD
+                && Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORTED))
+                && fileStore.hasRawChunk(chunks.getFirst().getChunkHash())) {
+            long offset = start - chunkStart(file, chunks.getFirst());
+            request.setAttribute(SENDFILE_FILENAME, fileStore.chunkPath(chunks.getFirst().getChunkHash()).toString());
+            request.setAttribute(SENDFILE_START, offset);
+            request.setAttribute(SENDFILE_END, offset + length);
+            return;
+        }
+
+        writeRegion(file, chunks, start, length, Channels.newChannel(response.getOutputStream()));
+    }
+
+    private void sendMultipart(
+            HttpServletResponse response,
+            StoredFile file,
+            List<ByteRange> ranges,
+            String contentType,
+            boolean head
+    ) throws IOException {
+        String boundary = HexFormat.of().toHexDigits(ThreadLocalRandom.current().nextLong());
+
+        // Part headers are built up front so Content-Length can be exact
+        List<byte[]> partHeaders = new ArrayList<>(ranges.size());
+        long contentLength = 0;
+        for (ByteRange range : ranges) {
+            byte[] header = ("\r\n--" + boundary + "\r\n"
+                    + HttpHeaders.CONTENT_TYPE + ": " + contentType + "\r\n"
+                    + HttpHeaders.CONTENT_RANGE + ": " + contentRange(range, file.getSize()) + "\r\n\r\n")
+                    .getBytes(StandardCharsets.US_ASCII);
+            partHeaders.add(header);
+            contentLength += header.length + range.length();
+        }
+        byte[] closing = ("\r\n--" + boundary + "--\r\n").getBytes(StandardCharsets.US_ASCII);
+        contentLength += closing.length;
+
+        response.setContentType("multipart/byteranges; boundary=" + boundary);
+        response.setContentLengthLong(contentLength);
+        if (head) {
+            return;
+        }
+
+        ServletOutputStream out = response.getOutputStream();
+        WritableByteChannel target = Channels.newChannel(out);
+        for (int i = 0; i < ranges.size(); i++) {
+            ByteRange range = ranges.get(i);
+            out.write(partHeaders.get(i));
+            writeRegion(file, findChunks(file, range.start(), range.length()), range.start(), range.length(), target);
+        }
+        out.write(closing);
+    }
+
+    // Manifest entries covering [start, start + length)
+    private List<FileChunk> findChunks(StoredFile file, long start, long length) throws IOException {
+        int first = (int) (start / file.getChunkSize());
+        int last = (int) ((start + length - 1) / file.getChunkSize());
+        List<FileChunk> chunks = manifestRepository.findRange(file.getId(), first, last);
+        if (chunks.size() != last - first + 1) {
+            throw new EOFException("File manifest is incomplete");
+        }
+        return chunks;
+    }
+
+    private void writeRegion(StoredFile file, List<FileChunk> chunks, long start, long length, WritableByteChannel target)
+            throws IOException {
+        long end = start + length;
+        for (FileChunk chunk : chunks) {
+            long chunkStart = chunkStart(file, chunk);
+            long from = Math.max(start, chunkStart) - chunkStart;
+            long to = Math.min(end, chunkStart + chunk.getSize()) - chunkStart;
+            try (StoredChunk stored = fileStore.openChunk(chunk.getChunkHash())) {
+                stored.transferTo(from, to - from, target);
+            }
+        }
+    }
+
+    /**
+     * The file as one gzip member: the chunks' deflate blocks back to back (stored frames of
+     * compressed chunks, copied without inflating; stored blocks for raw ones), an empty
+     * final block, and a trailer whose CRC-32 is combined from the chunks' CRCs.
+     */
+    private void sendGzip(HttpServletResponse response, StoredFile file) throws IOException {
+        ServletOutputStream out = response.getOutputStream();
+        WritableByteChannel target = Channels.newChannel(out);
+        out.write(GZIP_HEADER);
+        long crc = 0;
+        if (file.getSize() > 0) {
+            for (FileChunk chunk : findChunks(file, 0, file.getSize())) {
+                try (StoredChunk stored = fileStore.openChunk(chunk.getChunkHash())) {
+                    crc = ChunkCodec.crc32Combine(crc, stored.transferDeflated(target), stored.length());
+                }
+            }
+        }
+        out.write(DEFLATE_END);
+        out.write(ByteBuffer.allocate(8).order(ByteOrder.LITTLE_ENDIAN)
+                .putInt((int) crc)
+                .putInt((int) file.getSize())
+                .array());
+    }
+
+    private static long chunkStart(StoredFile file, FileChunk chunk) {
+        return (long) chunk.getSeq() * file.getChunkSize();
+    }
+
+    // Committed files never change; equal content gives an equal (strong) validator,
+    // distinct per encoding
+    private static String etag(StoredFile file, boolean gzip) {
+        return "\"" + file.getContentHash() + (gzip ? "-gzip" : "") + "\"";
+    }
+
+    // gzip listed with a non-zero quality (or by omission of q)
+    private static boolean acceptsGzip(HttpServletRequest request) {
+        String acceptEncoding = request.getHeader(HttpHeaders.ACCEPT_ENCODING);
+        if (acceptEncoding == null) {
+            return false;
+        }
+        for (String candidate : acceptEncoding.split(",")) {
+            String[] parts = candidate.split(";");
+            if (!parts[0].trim().equalsIgnoreCase("gzip")) {
+                continue;
+            }
+            for (int i = 1; i < parts.length; i++) {
+                String parameter = parts[i].trim();
+                if (parameter.startsWith("q=")) {
+                    try {
+                        return Double.parseDouble(parameter.substring(2)) > 0;
+                    } catch (NumberFormatException e) {
+                        return false;
+                    }
+                }
+            }
+            return true;
+        }
+        return false;
+    }
+
+    private static String contentRange(ByteRange range, long size) {
+        return "bytes " + range.start() + "-" + range.end() + "/" + size;
+    }
+
+    private static boolean notModified(HttpServletRequest request, String etag, long lastModified) {
+        String ifNoneMatch = request.getHeader(HttpHeaders.IF_NONE_MATCH);
+        if (ifNoneMatch != null) {
+            // Weak comparison, as RFC 9110 prescribes for If-None-Match
+            for (String candidate : ifNoneMatch.split(",")) {
+                String tag = candidate.trim();
+                if (tag.equals("*") || stripWeak(tag).equals(etag)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+        long ifModifiedSince = dateHeader(request, HttpHeaders.IF_MODIFIED_SINCE);
+        return ifModifiedSince != -1 && lastModified <= ifModifiedSince;
+    }
+
+    static boolean rangeStillValid(HttpServletRequest request, String etag, long lastModified) {
+        String ifRange = request.getHeader(HttpHeaders.IF_RANGE);
+        if (ifRange == null) {
+            return true;
+        }
+        String value = ifRange.trim();
+        if (value.startsWith("\"") || value.startsWith("W/")) {
+            // Strong comparison: a weak tag never matches
+            return value.equals(etag);
+        }
+        return dateHeader(request, HttpHeaders.IF_RANGE) == lastModified;
+    }
+
+    private static String stripWeak(String tag) {
+        return tag.startsWith("W/") ? tag.substring(2) : tag;
+    }
+
+    // -1 if absent or not a valid HTTP date
+    private static long dateHeader(HttpServletRequest request, String name) {
+        try {
+            return request.getDateHeader(name);
+        } catch (IllegalArgumentException e) {
+            return -1;
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package com.drive.storagservice.service;
+
+import com.drive.storagservice.dto.FileResponse;
+import com.drive.storagservice.dto.RenameFileRequest;
+import com.drive.storagservice.entity.StoredFile;
+import com.drive.storagservice.exception.StoredFileNotFoundException;
+import com.drive.storagservice.repository.StoredFileRepository;
+import com.drive.storagservice.search.FileIndexEvent;
+import com.drive.storagservice.security.AuthenticatedUser;
+
+import lombok.RequiredArgsConstructor;
+
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.UUID;
+
+@Service
+@RequiredArgsConstructor
+public class FileService {
+
+    private final StoredFileRepository fileRepository;
+    private final ContentService contentService;
+    private final QuotaService quotaService;
+    private final ApplicationEventPublisher events;
+
+    @Transactional
+    public FileResponse rename(AuthenticatedUser user, UUID fileId, RenameFileRequest request) {
+        StoredFile file = fileRepository.findByIdAndOwnerId(fileId, user.userId())
+                .orElseThrow(() -> new StoredFileNotFoundException("File not found"));
+        String name = request.getName().strip();
+        if (!name.equals(file.getName())) {
+            file.setName(name);
+            file.setUpdatedAt(Instant.now());
+            events.publishEvent(new FileIndexEvent.Named(file.getOwnerId(), file.getId(), name));
+        }
+        return toResponse(file);
+    }
+
+    // Content shared with other files stays; the rest is reclaimed by the chunk collector
+    @Transactional
+    public void delete(AuthenticatedUser user, UUID fileId) {
+        // Locked before its chunks, as copy does, and so a concurrent copy finishes first
+        StoredFile file = fileRepository.findForUpdateByIdAndOwnerId(fileId, user.userId())
+                .orElseThrow(() -> new StoredFileNotFoundException("File not found"));
+        contentService.release(file.getId());
+        fileRepository.delete(file);
+        quotaService.record(file.getOwnerId(), -file.getSize(), 0);
+        events.publishEvent(new FileIndexEvent.Removed(file.getOwnerId(), file.getId()));
+    }
+
+    static FileResponse toResponse(StoredFile file) {
+        return FileResponse.builder()
+                .id(file.getId())
+                .folderId(file.getFolderId())
+                .name(file.getName())
+                .size(file.getSize())
+                .contentType(file.getContentType())
+                .createdAt(file.getCreatedAt())
+                .build();
+    }
+}
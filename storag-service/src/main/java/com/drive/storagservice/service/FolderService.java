@@ -0,0 +1,332 @@
+package com.drive.storagservice.service;
+
+import com.drive.storagservice.dto.CreateFolderRequest;
+import com.drive.storagservice.dto.FolderEntryResponse;
+import com.drive.storagservice.dto.FolderResponse;
+import com.drive.storagservice.dto.FolderSummaryResponse;
+import com.drive.storagservice.dto.UpdateFolderRequest;
+import com.drive.storagservice.entity.Folder;
+import com.drive.storagservice.entity.StoredFile;
+import com.drive.storagservice.exception.FolderConflictException;
+import com.drive.storagservice.exception.FolderNotFoundException;
+import com.drive.storagservice.exception.InvalidFolderOperationException;
+import com.drive.storagservice.properties.StorageProperties;
+import com.drive.storagservice.repository.FolderRepository;
+import com.drive.storagservice.repository.StoredFileRepository;
+import com.drive.storagservice.search.FileIndexEvent;
+import com.drive.storagservice.security.AuthenticatedUser;
+
+import lombok.RequiredArgsConstructor;
+
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import tools.jackson.core.JsonGenerator;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+/**
+ * Folder tree operations. Listings are keyset pages over (name, id), subfolders before
+ * files, so page 1000 of a 100k-entry folder costs the same as page 1. Subtree totals,
+ * moves and deletes work on the materialized path range (see {@link Folder}) with a
+ * fixed number of statements however deep the tree is.
+ * <p>
+ * Locking: anything that adds to a folder takes a share lock on it, moves and deletes
+ * lock the whole subtree for update first, so a child is never created under a path
+ * that is being rewritten or removed.
+ */
+@Service
+@RequiredArgsConstructor
+public class FolderService {
+
+    // Smallest (name, id) key, for starting a listing or its file section
+    private static final UUID MIN_ID = new UUID(0, 0);
+
+    private final FolderRepository folderRepository;
+    private final StoredFileRepository fileRepository;
+    private final ContentService contentService;
+    private final QuotaService quotaService;
+    private final StorageProperties properties;
+    private final JsonMapper jsonMapper;
+    private final ApplicationEventPublisher events;
+
+    @Transactional
+    public FolderResponse root(AuthenticatedUser user) {
+        return toResponse(ensureRoot(user.userId()));
+    }
+
+    @Transactional
+    public FolderResponse create(AuthenticatedUser user, CreateFolderRequest request) {
+        Folder parent = lockFolder(user.userId(), request.getParentId());
+        if (folderRepository.existsByParentIdAndName(parent.getId(), request.getName())) {
+            throw new FolderConflictException("A folder named '" + request.getName() + "' already exists here");
+        }
+
+        UUID id = UUID.randomUUID();
+        Folder folder = Folder.builder()
+                .id(id)
+                .ownerId(user.userId())
+                .parentId(parent.getId())
+                .name(request.getName())
+                .path(parent.childPath(id))
+                .createdAt(Instant.now())
+                .build();
+        return toResponse(saveUnique(folder));
+    }
+
+    /**
+     * Writes one page of the folder's entries to {@code out} as it reads them:
+     * {@code {"folderId":..,"entries":[..],"nextCursor":..}}. Rows are streamed from the
+     * database and serialized one by one; a page is never held as a list.
+     *
+     * @param cursor {@code nextCursor} of the previous page, or null for the first page
+     */
+    @Transactional(readOnly = true)
+    public void list(AuthenticatedUser user, UUID folderId, String cursor, Integer limit, OutputStream out) {
+        Folder folder = findFolder(user, folderId);
+        Cursor after = cursor != null ? Cursor.decode(cursor) : Cursor.START;
+        StorageProperties.Listing config = properties.getListing();
+        int pageSize = limit != null
+                ? Math.clamp(limit, 1, config.getMaxPageSize())
+                : config.getDefaultPageSize();
+
+        try (JsonGenerator json = jsonMapper.createGenerator(out)) {
+            json.writeStartObject();
+            json.writeStringProperty("folderId", folder.getId().toString());
+            json.writeArrayPropertyStart("entries");
+            Page page = new Page(json, pageSize);
+
+            // 1. Subfolders (unless the cursor is already past them); one extra row tells
+            //    whether another page follows
+            if (after.type() == FolderEntryResponse.Type.FOLDER) {
+                try (Stream<Folder> folders = folderRepository.streamChildren(
+                        folder.getId(), after.name(), after.id(), pageSize + 1)) {
+                    folders.forEach(child -> page.add(toEntry(child)));
+                }
+            }
+
+            // 2. Files fill the rest of the page
+            if (!page.hasMore()) {
+                boolean inFiles = after.type() == FolderEntryResponse.Type.FILE;
+                try (Stream<StoredFile> files = fileRepository.streamInFolder(
+                        folder.getId(),
+                        inFiles ? after.name() : "",
+                        inFiles ? after.id() : MIN_ID,
+                        pageSize - page.written() + 1)) {
+                    files.forEach(file -> page.add(toEntry(file)));
+                }
+            }
+
+            json.writeEndArray();
+            if (page.hasMore()) {
+                json.writeStringProperty("nextCursor", page.last().encode());
+            } else {
+                json.writeNullProperty("nextCursor");
+            }
+            json.writeEndObject();
+        }
+    }
+
+    @Transactional(readOnly = true)
+    public FolderSummaryResponse summary(AuthenticatedUser user, UUID folderId) {
+        Folder folder = findFolder(user, folderId);
+        StoredFileRepository.SubtreeTotals totals = fileRepository.sumSubtree(folder.getPath(), folder.subtreeEnd());
+        return FolderSummaryResponse.builder()
+                .id(folder.getId())
+                .folderCount(folderRepository.countDescendants(folder.getPath(), folder.subtreeEnd()))
+                .fileCount(totals.getFileCount())
+                .totalSize(totals.getTotalSize())
+                .build();
+    }
+
+    // Rename and/or move; a move rewrites the paths of the whole subtree in one statement
+    @Transactional
+    public FolderResponse update(AuthenticatedUser user, UUID folderId, UpdateFolderRequest request) {
+        Folder folder = folderRepository.findForUpdateByIdAndOwnerId(folderId, user.userId())
+                .orElseThrow(() -> new FolderNotFoundException("Folder not found"));
+        if (folder.isRoot()) {
+            throw new InvalidFolderOperationException("The root folder cannot be renamed or moved");
+        }
+        String name = request.getName() != null ? request.getName() : folder.getName();
+        UUID parentId = request.getParentId() != null ? request.getParentId() : folder.getParentId();
+        boolean moved = !parentId.equals(folder.getParentId());
+        if (!moved && name.equals(folder.getName())) {
+            return toResponse(folder);
+        }
+
+        // 1. Validate the target
+        Folder parent = lockFolder(user.userId(), parentId);
+        if (parent.getPath().startsWith(folder.getPath())) {
+            throw new InvalidFolderOperationException("A folder cannot be moved into itself");
+        }
+        if (folderRepository.existsByParentIdAndName(parentId, name)) {
+            throw new FolderConflictException("A folder named '" + name + "' already exists there");
+        }
+
+        // 2. Re-root the subtree, then update the folder itself
+        if (moved) {
+            String newPath = parent.childPath(folder.getId());
+            folderRepository.lockSubtree(folder.getPath(), folder.subtreeEnd());
+            folderRepository.movePaths(folder.getPath(), folder.subtreeEnd(), newPath);
+            folder.setPath(newPath);
+            folder.setParentId(parentId);
+        }
+        folder.setName(name);
+        return toResponse(saveUnique(folder));
+    }
+
+    // Deletes the folder with everything below it; shared content stays for other files
+    @Transactional
+    public void delete(AuthenticatedUser user, UUID folderId) {
+        Folder folder = folderRepository.findForUpdateByIdAndOwnerId(folderId, user.userId())
+                .orElseThrow(() -> new FolderNotFoundException("Folder not found"));
+        if (folder.isRoot()) {
+            throw new InvalidFolderOperationException("The root folder cannot be deleted");
+        }
+        String from = folder.getPath();
+        String to = folder.subtreeEnd();
+
+        // Folders, then files, then (in releaseSubtree) chunks: the order copy locks in
+        folderRepository.lockSubtree(from, to);
+        fileRepository.lockSubtree(from, to);
+        long freed = fileRepository.sumSubtree(from, to).getTotalSize();
+        contentService.releaseSubtree(from, to);
+        fileRepository.deleteSubtree(from, to);
+        folderRepository.deleteSubtree(from, to);
+        quotaService.record(user.userId(), -freed, 0);
+        events.publishEvent(new FileIndexEvent.SubtreeRemoved(user.userId()));
+    }
+
+    /**
+     * Share-locks the folder something is about to be added to, for the rest of the
+     * caller's transaction. {@code folderId} null means the owner's root.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public Folder lockFolder(long ownerId, UUID folderId) {
+        UUID id = folderId != null ? folderId : ensureRoot(ownerId).getId();
+        return folderRepository.findForShareByIdAndOwnerId(id, ownerId)
+                .orElseThrow(() -> new FolderNotFoundException("Folder not found"));
+    }
+
+    private Folder findFolder(AuthenticatedUser user, UUID folderId) {
+        return folderRepository.findByIdAndOwnerId(folderId, user.userId())
+                .orElseThrow(() -> new FolderNotFoundException("Folder not found"));
+    }
+
+    // Created on first use; the id is derived from the owner so no lookup table is needed
+    private Folder ensureRoot(long ownerId) {
+        UUID id = UUID.nameUUIDFromBytes(("root:" + ownerId).getBytes(StandardCharsets.UTF_8));
+        return folderRepository.findById(id).orElseGet(() -> {
+            folderRepository.insertRoot(id, ownerId, "/" + id + "/", Instant.now());
+            return folderRepository.findById(id).orElseThrow();
+        });
+    }
+
+    // The unique (parent, name) constraint settles races the exists() check cannot see
+    private Folder saveUnique(Folder folder) {
+        try {
+            return folderRepository.saveAndFlush(folder);
+        } catch (DataIntegrityViolationException e) {
+            throw new FolderConflictException("A folder named '" + folder.getName() + "' already exists there");
+        }
+    }
+
+    private static FolderResponse toResponse(Folder folder) {
+        return FolderResponse.builder()
+                .id(folder.getId())
+                .parentId(folder.getParentId())
+                .name(folder.getName())
+                .createdAt(folder.getCreatedAt())
+                .build();
+    }
+
+    private static FolderEntryResponse toEntry(Folder folder) {
+        return FolderEntryResponse.builder()
+                .type(FolderEntryResponse.Type.FOLDER)
+                .id(folder.getId())
+                .name(folder.getName())
+                .createdAt(folder.getCreatedAt())
+                .build();
+    }
+
+    private static FolderEntryResponse toEntry(StoredFile file) {
+        return FolderEntryResponse.builder()
+                .type(FolderEntryResponse.Type.FILE)
+                .id(file.getId())
+                .name(file.getName())
+                .size(file.getSize())
+                .contentType(file.getContentType())
+                .createdAt(file.getCreatedAt())
+                .build();
+    }
+
+    // Writes entries until the page is full; one more entry only marks that more exist
+    private static final class Page {
+        private final JsonGenerator json;
+        private final int size;
+        private int written;
+        private boolean more;
+        private Cursor last;
+
+        Page(JsonGenerator json, int size) {
+            this.json = json;
+            this.size = size;
+        }
+
+        void add(FolderEntryResponse entry) {
+            if (written == size) {
+                more = true;
+                return;
+            }
+            json.writePOJO(entry);
+            written++;
+            last = new Cursor(entry.getType(), entry.getName(), entry.getId());
+        }
+
+        int written() {
+            return written;
+        }
+
+        boolean hasMore() {
+            return more;
+        }
+
+        Cursor last() {
+            return last;
+        }
+    }
+
+    // Opaque to clients: base64url of type letter + id + name
+    private record Cursor(FolderEntryResponse.Type type, String name, UUID id) {
+
+        static final Cursor START = new Cursor(FolderEntryResponse.Type.FOLDER, "", MIN_ID);
+
+        String encode() {
+            String raw = (type == FolderEntryResponse.Type.FOLDER ? "d" : "f") + id + name;
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+        }
+
+        static Cursor decode(String cursor) {
+            try {
+                String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+                FolderEntryResponse.Type type = switch (raw.charAt(0)) {
+                    case 'd' -> FolderEntryResponse.Type.FOLDER;
+                    case 'f' -> FolderEntryResponse.Type.FILE;
+                    default -> throw new IllegalArgumentException("Unknown entry type");
+                };
+                return new Cursor(type, raw.substring(37), UUID.fromString(raw.substring(1, 37)));
+            } catch (IllegalArgumentException | IndexOutOfBoundsException e) {
+                throw new InvalidFolderOperationException("Invalid cursor");
+            }
+        }
+    }
+}
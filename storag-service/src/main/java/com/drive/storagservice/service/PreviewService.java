@@ -0,0 +1,241 @@
+package com.drive.storagservice.service;
+
+import com.drive.storagservice.entity.StoredFile;
+import com.drive.storagservice.exception.PreviewUnavailableException;
+import com.drive.storagservice.exception.StoredFileNotFoundException;
+import com.drive.storagservice.preview.PreviewCache;
+import com.drive.storagservice.preview.ThumbnailRenderer;
+import com.drive.storagservice.properties.StorageProperties;
+import com.drive.storagservice.repository.FileChunkRepository;
+import com.drive.storagservice.repository.StoredFileRepository;
+import com.drive.storagservice.security.AuthenticatedUser;
+import com.drive.storagservice.storage.FileStore;
+
+import jakarta.annotation.PreDestroy;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Thumbnails, generated off the request path. Committing an image enqueues a job on a
+ * bounded pool of CPU-sized workers; a job decodes the image once and stores every
+ * configured size in the {@link PreviewCache}, keyed by content hash so duplicates share
+ * thumbnails. At most one job per content runs at a time: a thumbnail request for content
+ * that is still being processed joins the in-flight job, and gets a placeholder if the
+ * job does not finish within a short wait. A full queue drops the job; the thumbnail is
+ * then generated when it is first requested.
+ */
+@Service
+public class PreviewService {
+
+    private static final String FAILED = "failed";
+
+    private final StoredFileRepository fileRepository;
+    private final FileChunkRepository manifestRepository;
+    private final FileStore fileStore;
+    private final PreviewCache cache;
+    private final StorageProperties.Preview config;
+    private final ThumbnailRenderer renderer;
+    private final ThreadPoolExecutor workers;
+    private final Map<String, CompletableFuture<Void>> inFlight = new ConcurrentHashMap<>();
+    private final Map<Integer, byte[]> placeholders = new ConcurrentHashMap<>();
+
+    public PreviewService(
+            StoredFileRepository fileRepository,
+            FileChunkRepository manifestRepository,
+            FileStore fileStore,
+            PreviewCache cache,
+            StorageProperties properties
+    ) {
+        this.fileRepository = fileRepository;
+        this.manifestRepository = manifestRepository;
+        this.fileStore = fileStore;
+        this.cache = cache;
+        this.config = properties.getPreview();
+        this.renderer = new ThumbnailRenderer(config.getSizes(), config.getMaxSourcePixels(), config.getJpegQuality());
+
+        int threads = config.getWorkers() > 0 ? config.getWorkers() : Runtime.getRuntime().availableProcessors();
+        this.workers = new ThreadPoolExecutor(
+                threads, threads, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(config.getQueueCapacity()),
+                Thread.ofPlatform().name("preview-", 0).daemon(true).factory(),
+                new ThreadPoolExecutor.AbortPolicy()
+        );
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        workers.shutdownNow();
+    }
+
+    // Called once a file is committed; a no-op for content that cannot or need not be previewed
+    public void schedule(StoredFile file) {
+        if (previewable(file) && !isDone(file.getContentHash())) {
+            submit(file);
+        }
+    }
+
+    /**
+     * Sends the thumbnail whose longest edge is the smallest configured size of at least
+     * {@code size} (the largest one if none is). Immutable per content, so it is cacheable
+     * by the client for as long as it likes.
+     */
+    public void thumbnail(
+            AuthenticatedUser user,
+            UUID fileId,
+            int size,
+            HttpServletRequest request,
+            HttpServletResponse response
+    ) throws IOException {
+        StoredFile file = fileRepository.findByIdAndOwnerId(fileId, user.userId())
+                .orElseThrow(() -> new StoredFileNotFoundException("File not found"));
+        if (!previewable(file) || cache.contains(file.getContentHash(), FAILED)) {
+            throw new PreviewUnavailableException("No preview for this file");
+        }
+        int variant = config.getSizes().stream()
+                .filter(candidate -> candidate >= size)
+                .min(Integer::compare)
+                .orElseGet(() -> config.getSizes().stream().max(Integer::compare).orElseThrow());
+
+        // 1. Already generated, or join (or start) the job and wait for it briefly
+        Path thumbnail = cache.find(file.getContentHash(), String.valueOf(variant));
+        if (thumbnail == null) {
+            CompletableFuture<Void> job = submit(file);
+            if (job != null) {
+                try {
+                    job.get(config.getWaitTimeout().toMillis(), TimeUnit.MILLISECONDS);
+                } catch (ExecutionException | TimeoutException e) {
+                    // Placeholder below
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            thumbnail = cache.find(file.getContentHash(), String.valueOf(variant));
+        }
+
+        // 2. Placeholder, not to be cached, while the job is still running
+        if (thumbnail == null) {
+            if (cache.contains(file.getContentHash(), FAILED)) {
+                throw new PreviewUnavailableException("No preview for this file");
+            }
+            byte[] placeholder = placeholders.computeIfAbsent(variant, this::renderPlaceholder);
+            response.setContentType(MediaType.IMAGE_JPEG_VALUE);
+            response.setHeader(HttpHeaders.CACHE_CONTROL, "no-store");
+            response.setHeader(HttpHeaders.RETRY_AFTER, "1");
+            response.setContentLength(placeholder.length);
+            response.getOutputStream().write(placeholder);
+            return;
+        }
+
+        // 3. The thumbnail
+        String etag = "\"" + file.getContentHash() + "-" + variant + "\"";
+        response.setHeader(HttpHeaders.ETAG, etag);
+        response.setHeader(HttpHeaders.CACHE_CONTROL, "private, max-age=31536000, immutable");
+        if (etag.equals(request.getHeader(HttpHeaders.IF_NONE_MATCH))) {
+            response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            return;
+        }
+        response.setContentType(MediaType.IMAGE_JPEG_VALUE);
+        response.setContentLengthLong(Files.size(thumbnail));
+        Files.copy(thumbnail, response.getOutputStream());
+    }
+
+    /**
+     * The job for this content, started if none is running. Null if the queue is full.
+     */
+    private CompletableFuture<Void> submit(StoredFile file) {
+        String contentHash = file.getContentHash();
+        CompletableFuture<Void> created = new CompletableFuture<>();
+        CompletableFuture<Void> running = inFlight.putIfAbsent(contentHash, created);
+        if (running != null) {
+            return running;
+        }
+        try {
+            workers.execute(() -> {
+                try {
+                    generate(file);
+                    created.complete(null);
+                } catch (Throwable e) {
+                    created.completeExceptionally(e);
+                } finally {
+                    inFlight.remove(contentHash, created);
+                }
+            });
+            return created;
+        } catch (RejectedExecutionException e) {
+            inFlight.remove(contentHash, created);
+            created.completeExceptionally(e);
+            return null;
+        }
+    }
+
+    private void generate(StoredFile file) throws IOException {
+        // Done by an earlier job while this one was queued
+        if (isDone(file.getContentHash())) {
+            return;
+        }
+        List<String> chunks = manifestRepository.findChunkHashes(file.getId());
+        if (chunks.isEmpty()) {
+            // Deleted while queued
+            return;
+        }
+        Map<Integer, byte[]> thumbnails;
+        try (InputStream content = fileStore.openContent(chunks)) {
+            thumbnails = renderer.render(content);
+        } catch (IOException | RuntimeException e) {
+            if (e instanceof NoSuchFileException || e.getCause() instanceof NoSuchFileException) {
+                // Content collected after the file was deleted; nothing to remember
+                return;
+            }
+            // Corrupt or unsupported (image decoders fail in many ways); remembered so it
+            // is not decoded again on every request
+            cache.put(file.getContentHash(), FAILED, new byte[0]);
+            return;
+        }
+        for (Map.Entry<Integer, byte[]> thumbnail : thumbnails.entrySet()) {
+            cache.put(file.getContentHash(), String.valueOf(thumbnail.getKey()), thumbnail.getValue());
+        }
+    }
+
+    private boolean isDone(String contentHash) {
+        if (cache.contains(contentHash, FAILED)) {
+            return true;
+        }
+        return config.getSizes().stream().allMatch(size -> cache.contains(contentHash, String.valueOf(size)));
+    }
+
+    private boolean previewable(StoredFile file) {
+        return file.getSize() > 0
+                && file.getSize() <= config.getMaxSourceSize().toBytes()
+                && ThumbnailRenderer.canDecode(file.getContentType());
+    }
+
+    private byte[] renderPlaceholder(int size) {
+        try {
+            return renderer.placeholder(size);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,243 @@
+package com.drive.storagservice.service;
+
+import com.drive.storagservice.dto.QuotaResponse;
+import com.drive.storagservice.entity.StorageUsage;
+import com.drive.storagservice.exception.QuotaExceededException;
+import com.drive.storagservice.properties.StorageProperties;
+import com.drive.storagservice.quota.UsageCounters;
+import com.drive.storagservice.repository.StorageUsageRepository;
+import com.drive.storagservice.security.AuthenticatedUser;
+
+import jakarta.annotation.PreDestroy;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.Clock;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Quota accounting. Admission is exact: an upload reserves its full size with one
+ * conditional update of the user's ledger row when the session is created. Everything
+ * after that (commit turning the reservation into usage, abort and expiry releasing it,
+ * deletes) only ever lowers the row's total, so those deltas are collected in memory and
+ * written in batches; until a batch is flushed the ledger errs on the side of too much
+ * usage, never too little. Content-deduplicated uploads still reserve first.
+ * <p>
+ * Deltas lost in a crash are repaired by {@link #reconcile}, which compares quiet users'
+ * rows with the files and sessions tables and corrects a difference only once two passes
+ * have seen the same one.
+ */
+@Service
+public class QuotaService {
+
+    private static final String APPLY_DELTA = """
+            update storage_usage
+            set used_bytes = used_bytes + ?, reserved_bytes = reserved_bytes + ?, updated_at = ?
+            where owner_id = ?
+            """;
+
+    private final StorageUsageRepository usageRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final StorageProperties properties;
+    private final UsageCounters counters;
+    private final Clock clock;
+
+    // Drift seen by an earlier reconcile pass, not yet confirmed
+    private record Suspect(long usedDrift, long reservedDrift, Instant seenAt) {
+    }
+
+    private final Map<Long, Suspect> suspects = new ConcurrentHashMap<>();
+
+    @Autowired
+    public QuotaService(
+            StorageUsageRepository usageRepository,
+            JdbcTemplate jdbcTemplate,
+            PlatformTransactionManager transactionManager,
+            StorageProperties properties
+    ) {
+        this(usageRepository, jdbcTemplate, transactionManager, properties, Clock.systemUTC());
+    }
+
+    QuotaService(
+            StorageUsageRepository usageRepository,
+            JdbcTemplate jdbcTemplate,
+            PlatformTransactionManager transactionManager,
+            StorageProperties properties,
+            Clock clock
+    ) {
+        this.usageRepository = usageRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.properties = properties;
+        this.counters = new UsageCounters(properties.getQuota().getStripes());
+        this.clock = clock;
+    }
+
+    /**
+     * Reserves {@code bytes} for an upload, held by the caller's transaction.
+     *
+     * @throws QuotaExceededException if the reservation would exceed the user's quota
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void reserve(long ownerId, long bytes) {
+        long defaultLimit = properties.getQuota().getDefaultLimit().toBytes();
+        Instant now = clock.instant();
+        if (usageRepository.reserve(ownerId, bytes, defaultLimit, now) == 1) {
+            return;
+        }
+        // No row yet, or really over quota
+        if (!usageRepository.existsById(ownerId)) {
+            usageRepository.createIfAbsent(ownerId, now);
+            if (usageRepository.reserve(ownerId, bytes, defaultLimit, now) == 1) {
+                return;
+            }
+        }
+        throw new QuotaExceededException("Storage quota exceeded");
+    }
+
+    /**
+     * Records a usage change. Inside a transaction it counts only once that transaction
+     * has committed.
+     */
+    public void record(long ownerId, long usedDelta, long reservedDelta) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            counters.add(ownerId, usedDelta, reservedDelta);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                counters.add(ownerId, usedDelta, reservedDelta);
+            }
+        });
+    }
+
+    /**
+     * Writes pending deltas in one batch and transaction; on failure they are kept for the
+     * next flush. A user without a ledger row gets one seeded from the files and sessions
+     * tables, which already include every change that was recorded (deltas are only
+     * recorded once committed), so the delta itself is not added on top.
+     */
+    @PreDestroy
+    public void flush() {
+        Map<Long, long[]> deltas = counters.drain();
+        if (deltas.isEmpty()) {
+            return;
+        }
+        Instant now = clock.instant();
+        Timestamp timestamp = Timestamp.from(now);
+        List<Long> owners = new ArrayList<>(deltas.keySet());
+        List<Object[]> rows = new ArrayList<>(deltas.size());
+        deltas.forEach((ownerId, delta) -> rows.add(new Object[]{delta[0], delta[1], timestamp, ownerId}));
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                int[] updated = jdbcTemplate.batchUpdate(APPLY_DELTA, rows);
+                for (int i = 0; i < updated.length; i++) {
+                    if (updated[i] == 0) {
+                        usageRepository.createIfAbsent(owners.get(i), now);
+                    }
+                }
+            });
+        } catch (RuntimeException e) {
+            counters.restore(deltas);
+            throw e;
+        }
+    }
+
+    /**
+     * Checks up to {@code batchSize} ledger rows after {@code afterOwnerId} against the
+     * files and sessions tables. A difference can be a delta that is committed but not yet
+     * flushed, here or on another instance, so it is only corrected once a later pass, more
+     * than one flush interval after the first, finds the row off by exactly the same amount;
+     * a delta that was merely in flight has landed by then and changed the difference. Only
+     * rows untouched for the quiet period, and none with deltas waiting in this instance's
+     * memory, are looked at; callers flush first (see {@link #flushBeforeReconcile}) to keep
+     * that set small.
+     *
+     * @return the last owner id examined, or null when there are no more
+     */
+    @Transactional
+    public Long reconcile(Long afterOwnerId, int batchSize) {
+        Instant now = clock.instant();
+        Instant cutoff = now.minus(properties.getQuota().getReconcileQuietPeriod());
+        List<Long> owners = usageRepository.findQuietOwners(afterOwnerId, cutoff, Limit.of(batchSize));
+        if (owners.isEmpty()) {
+            return null;
+        }
+        Set<Long> unflushed = counters.pendingOwners();
+        List<Long> quiet = owners.stream().filter(ownerId -> !unflushed.contains(ownerId)).toList();
+        if (!quiet.isEmpty()) {
+            correctConfirmedDrift(quiet, now);
+        }
+        return owners.size() == batchSize ? owners.getLast() : null;
+    }
+
+    private void correctConfirmedDrift(List<Long> owners, Instant now) {
+        Map<Long, StorageUsageRepository.Drift> drifts = new HashMap<>();
+        for (StorageUsageRepository.Drift drift : usageRepository.findDrift(owners)) {
+            drifts.put(drift.getOwnerId(), drift);
+        }
+        Instant confirmBefore = now.minus(properties.getQuota().getFlushInterval());
+        for (Long ownerId : owners) {
+            StorageUsageRepository.Drift drift = drifts.get(ownerId);
+            if (drift == null) {
+                suspects.remove(ownerId);
+                continue;
+            }
+            // 1. Same difference as a pass at least one flush interval ago: nothing was in flight
+            Suspect suspect = suspects.get(ownerId);
+            boolean same = suspect != null
+                    && suspect.usedDrift() == drift.getUsedDrift()
+                    && suspect.reservedDrift() == drift.getReservedDrift();
+            if (same && suspect.seenAt().isBefore(confirmBefore)) {
+                usageRepository.correct(ownerId, drift.getUsedDrift(), drift.getReservedDrift(), now);
+                suspects.remove(ownerId);
+            } else if (!same) {
+                // 2. New or changed difference: remember it for the next pass
+                suspects.put(ownerId, new Suspect(drift.getUsedDrift(), drift.getReservedDrift(), now));
+            }
+        }
+    }
+
+    // A failed flush leaves its deltas pending, which reconcile then skips
+    public void flushBeforeReconcile() {
+        try {
+            flush();
+        } catch (RuntimeException e) {
+            // Those owners wait for the next pass
+        }
+    }
+
+    @Transactional(readOnly = true)
+    public QuotaResponse usage(AuthenticatedUser user) {
+        StorageUsage usage = usageRepository.findById(user.userId()).orElse(null);
+        long limit = usage != null && usage.getQuotaBytes() != null
+                ? usage.getQuotaBytes()
+                : properties.getQuota().getDefaultLimit().toBytes();
+        long used = usage != null ? usage.getUsedBytes() : 0;
+        long reserved = usage != null ? usage.getReservedBytes() : 0;
+        return QuotaResponse.builder()
+                .limit(limit)
+                .used(used)
+                .reserved(reserved)
+                .available(Math.max(0, limit - used - reserved))
+                .build();
+    }
+}
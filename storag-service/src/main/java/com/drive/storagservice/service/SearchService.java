@@ -0,0 +1,269 @@
+package com.drive.storagservice.service;
+
+import com.drive.storagservice.dto.FileResponse;
+import com.drive.storagservice.dto.SearchResponse;
+import com.drive.storagservice.entity.StoredFile;
+import com.drive.storagservice.exception.InvalidSearchException;
+import com.drive.storagservice.properties.StorageProperties;
+import com.drive.storagservice.repository.StoredFileRepository;
+import com.drive.storagservice.search.FileIndexEvent;
+import com.drive.storagservice.search.FilenameIndex;
+import com.drive.storagservice.search.SearchSnapshotStore;
+import com.drive.storagservice.security.AuthenticatedUser;
+
+import jakarta.annotation.PreDestroy;
+
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Search-as-you-type over file names, answered from an in-memory {@link FilenameIndex}
+ * per user instead of a {@code like '%term%'} scan. An index is loaded on the user's first
+ * search, from its snapshot if there is one and otherwise from the database, and is then
+ * kept current three ways:
+ * <ul>
+ *   <li>name changes committed by this instance are applied as {@link FileIndexEvent}s;</li>
+ *   <li>a search at most every sync interval picks up files whose {@code updated_at} moved,
+ *       which covers other instances and events missed while the index was loading;</li>
+ *   <li>each page of hits is checked against the database, so files deleted elsewhere are
+ *       never returned and are dropped from the index on the way.</li>
+ * </ul>
+ * Each index has its own read/write lock; searches share it, updates are short.
+ */
+@Service
+public class SearchService {
+
+    private final StoredFileRepository fileRepository;
+    private final SearchSnapshotStore snapshots;
+    private final StorageProperties.Search config;
+    private final Map<Long, UserIndex> indexes = new ConcurrentHashMap<>();
+
+    private static final class UserIndex {
+        final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+        FilenameIndex index;
+        // Every change committed before this (less the overlap) is in the index
+        volatile Instant syncedAt;
+        // Incremented on every change, to tell whether a snapshot is still current
+        long version;
+        volatile long snapshotVersion;
+        volatile long lastUsed = System.nanoTime();
+    }
+
+    public SearchService(
+            StoredFileRepository fileRepository,
+            SearchSnapshotStore snapshots,
+            StorageProperties properties
+    ) {
+        this.fileRepository = fileRepository;
+        this.snapshots = snapshots;
+        this.config = properties.getSearch();
+    }
+
+    @Transactional(readOnly = true)
+    public SearchResponse search(AuthenticatedUser user, String query, int offset, Integer limit) {
+        if (query == null || query.isBlank()) {
+            throw new InvalidSearchException("Search query cannot be blank");
+        }
+        if (query.length() > config.getMaxQueryLength()) {
+            throw new InvalidSearchException("Search query is too long");
+        }
+        int pageSize = limit != null
+                ? Math.clamp(limit, 1, config.getMaxPageSize())
+                : config.getDefaultPageSize();
+        int from = Math.clamp(offset, 0, config.getMaxResults());
+        int to = Math.min(from + pageSize, config.getMaxResults());
+
+        // 1. The user's index, caught up with the database if it has not been for a while
+        long ownerId = user.userId();
+        UserIndex entry = indexes.computeIfAbsent(ownerId, this::load);
+        entry.lastUsed = System.nanoTime();
+        if (entry.syncedAt.plus(config.getSyncInterval()).isBefore(Instant.now())) {
+            sync(ownerId, entry);
+        }
+
+        // 2. Ranked hits up to the end of the page, and one more to tell if there is a next page
+        List<FilenameIndex.Hit> hits;
+        entry.lock.readLock().lock();
+        try {
+            hits = entry.index.search(query, to + 1);
+        } finally {
+            entry.lock.readLock().unlock();
+        }
+        List<FilenameIndex.Hit> page = hits.subList(Math.min(from, hits.size()), Math.min(to, hits.size()));
+
+        // 3. Current metadata for the page; files deleted or renamed away since the last sync drop out
+        Map<UUID, StoredFile> files = fileRepository.findAllById(page.stream().map(FilenameIndex.Hit::id).toList())
+                .stream()
+                .filter(file -> file.getOwnerId() == ownerId)
+                .collect(Collectors.toMap(StoredFile::getId, Function.identity()));
+        List<FileResponse> results = new ArrayList<>(page.size());
+        List<UUID> gone = new ArrayList<>();
+        for (FilenameIndex.Hit hit : page) {
+            StoredFile file = files.get(hit.id());
+            if (file == null) {
+                gone.add(hit.id());
+            } else if (FilenameIndex.matches(file.getName(), query)) {
+                results.add(FileService.toResponse(file));
+            }
+        }
+        if (!gone.isEmpty()) {
+            update(entry, index -> gone.forEach(index::remove));
+        }
+
+        return SearchResponse.builder()
+                .query(query)
+                .results(results)
+                .nextOffset(hits.size() > to && to < config.getMaxResults() ? to : null)
+                .build();
+    }
+
+    @TransactionalEventListener
+    public void on(FileIndexEvent event) {
+        UserIndex entry = indexes.get(event.ownerId());
+        if (entry == null) {
+            // Not loaded; a later load reads the committed state
+            return;
+        }
+        switch (event) {
+            case FileIndexEvent.Named named -> update(entry, index -> index.put(named.fileId(), named.name()));
+            case FileIndexEvent.Removed removed -> update(entry, index -> index.remove(removed.fileId()));
+            case FileIndexEvent.SubtreeRemoved subtree -> {
+                // Which files were below the folder is no longer known; rebuilt on the next search
+                indexes.remove(subtree.ownerId(), entry);
+                snapshots.delete(subtree.ownerId());
+            }
+        }
+    }
+
+    /**
+     * Snapshots indexes changed since their last snapshot, compacting them first where
+     * renames and deletes left too many dead entries, and unloads idle indexes and the
+     * least recently used ones beyond the configured number.
+     */
+    public void maintain() {
+        long now = System.nanoTime();
+        record Loaded(long ownerId, UserIndex entry, long lastUsed) {
+        }
+        List<Loaded> loaded = new ArrayList<>(indexes.size());
+        indexes.forEach((ownerId, entry) -> loaded.add(new Loaded(ownerId, entry, entry.lastUsed)));
+        loaded.sort(Comparator.comparingLong(Loaded::lastUsed).reversed());
+        for (int i = 0; i < loaded.size(); i++) {
+            Loaded candidate = loaded.get(i);
+            snapshot(candidate.ownerId(), candidate.entry());
+            if (i >= config.getMaxLoadedUsers() || now - candidate.lastUsed() > config.getIdleTimeout().toNanos()) {
+                indexes.remove(candidate.ownerId(), candidate.entry());
+            }
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        indexes.forEach(this::snapshot);
+    }
+
+    private UserIndex load(long ownerId) {
+        UserIndex entry = new UserIndex();
+
+        // 1. The snapshot, if any; the next step of search catches it up
+        SearchSnapshotStore.Snapshot snapshot = snapshots.read(ownerId);
+        if (snapshot != null) {
+            entry.index = snapshot.index();
+            entry.syncedAt = snapshot.syncedAt();
+            return entry;
+        }
+
+        // 2. Every name from the database; changes committed while this runs are caught
+        //    up by the overlap of the next sync
+        Instant started = Instant.now();
+        FilenameIndex index = new FilenameIndex();
+        try (Stream<StoredFileRepository.NameEntry> names = fileRepository.streamNames(ownerId)) {
+            names.forEach(name -> index.put(name.getId(), name.getName()));
+        }
+        entry.index = index;
+        entry.syncedAt = started;
+        entry.version = 1;
+        return entry;
+    }
+
+    private void sync(long ownerId, UserIndex entry) {
+        entry.lock.writeLock().lock();
+        try {
+            Instant now = Instant.now();
+            // Another search got here first
+            if (!entry.syncedAt.plus(config.getSyncInterval()).isBefore(now)) {
+                return;
+            }
+            List<StoredFileRepository.NameEntry> changed =
+                    fileRepository.findNamesUpdatedSince(ownerId, entry.syncedAt.minus(config.getSyncOverlap()));
+            for (StoredFileRepository.NameEntry name : changed) {
+                entry.index.put(name.getId(), name.getName());
+            }
+            if (!changed.isEmpty()) {
+                entry.version++;
+            }
+            entry.syncedAt = now;
+        } finally {
+            entry.lock.writeLock().unlock();
+        }
+    }
+
+    private void update(UserIndex entry, Consumer<FilenameIndex> change) {
+        entry.lock.writeLock().lock();
+        try {
+            change.accept(entry.index);
+            entry.version++;
+        } finally {
+            entry.lock.writeLock().unlock();
+        }
+    }
+
+    private void snapshot(long ownerId, UserIndex entry) {
+        // 1. A compacted copy, built while searches go on
+        FilenameIndex compacted;
+        Instant syncedAt;
+        long version;
+        entry.lock.readLock().lock();
+        try {
+            if (entry.version == entry.snapshotVersion) {
+                return;
+            }
+            compacted = entry.index.compact();
+            syncedAt = entry.syncedAt;
+            version = entry.version;
+        } finally {
+            entry.lock.readLock().unlock();
+        }
+
+        // 2. Swapped in if nothing changed meanwhile and it is worth it
+        entry.lock.writeLock().lock();
+        try {
+            if (entry.version == version && entry.index.needsCompaction()) {
+                entry.index = compacted;
+            }
+        } finally {
+            entry.lock.writeLock().unlock();
+        }
+
+        try {
+            snapshots.write(ownerId, compacted, syncedAt);
+            entry.snapshotVersion = version;
+        } catch (IOException e) {
+            // Retried on the next pass; without a snapshot the index is rebuilt from the database
+        }
+    }
+}
@@ -0,0 +1,381 @@
+package com.drive.storagservice.service;
+
+import com.drive.storagservice.dto.CreateUploadRequest;
+import com.drive.storagservice.dto.FileResponse;
+import com.drive.storagservice.dto.UploadSessionResponse;
+import com.drive.storagservice.entity.Folder;
+import com.drive.storagservice.entity.StoredFile;
+import com.drive.storagservice.entity.UploadSession;
+import com.drive.storagservice.exception.InvalidUploadException;
+import com.drive.storagservice.exception.UploadConflictException;
+import com.drive.storagservice.exception.UploadIncompleteException;
+import com.drive.storagservice.exception.UploadNotFoundException;
+import com.drive.storagservice.properties.StorageProperties;
+import com.drive.storagservice.repository.StoredFileRepository;
+import com.drive.storagservice.repository.UploadChunkRepository;
+import com.drive.storagservice.repository.UploadSessionRepository;
+import com.drive.storagservice.search.FileIndexEvent;
+import com.drive.storagservice.security.AuthenticatedUser;
+import com.drive.storagservice.storage.FileStore;
+
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.NoSuchFileException;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Session-based chunked uploads. Chunk bodies go from the request stream straight into the
+ * preallocated file; no transaction is held while a chunk streams, and a chunk is
+ * recorded as received only after all of its bytes are on disk, so a dropped connection
+ * simply leaves that chunk missing and the client resends it.
+ */
+@Service
+public class UploadService {
+
+    private final UploadSessionRepository sessionRepository;
+    private final UploadChunkRepository chunkRepository;
+    private final StoredFileRepository fileRepository;
+    private final ContentService contentService;
+    private final FolderService folderService;
+    private final QuotaService quotaService;
+    private final PreviewService previewService;
+    private final ApplicationEventPublisher events;
+    private final FileStore fileStore;
+    private final StorageProperties properties;
+    private final TransactionTemplate transactionTemplate;
+
+    public UploadService(
+            UploadSessionRepository sessionRepository,
+            UploadChunkRepository chunkRepository,
+            StoredFileRepository fileRepository,
+            ContentService contentService,
+            FolderService folderService,
+            QuotaService quotaService,
+            PreviewService previewService,
+            ApplicationEventPublisher events,
+            FileStore fileStore,
+            StorageProperties properties,
+            PlatformTransactionManager transactionManager
+    ) {
+        this.sessionRepository = sessionRepository;
+        this.chunkRepository = chunkRepository;
+        this.fileRepository = fileRepository;
+        this.contentService = contentService;
+        this.folderService = folderService;
+        this.quotaService = quotaService;
+        this.previewService = previewService;
+        this.events = events;
+        this.fileStore = fileStore;
+        this.properties = properties;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @Transactional
+    public UploadSessionResponse create(AuthenticatedUser user, CreateUploadRequest request) {
+        StorageProperties.Upload config = properties.getUpload();
+
+        // 1. Validate size and chunking
+        if (request.getSize() > config.getMaxFileSize().toBytes()) {
+            throw new InvalidUploadException("File is larger than " + config.getMaxFileSize());
+        }
+        long chunkSize = request.getChunkSize() != null
+                ? request.getChunkSize()
+                : config.getDefaultChunkSize().toBytes();
+        if (chunkSize < config.getMinChunkSize().toBytes() || chunkSize > config.getMaxChunkSize().toBytes()) {
+            throw new InvalidUploadException("Chunk size must be between "
+                    + config.getMinChunkSize() + " and " + config.getMaxChunkSize());
+        }
+
+        // 2. Target folder; locked so it cannot be deleted before this transaction ends
+        Folder folder = folderService.lockFolder(user.userId(), request.getFolderId());
+
+        // 3. Admission: the full size is reserved against the quota up front
+        quotaService.reserve(user.userId(), request.getSize());
+
+        // 4. Content this user already stored needs no upload; only the owner's own files
+        //    are considered, so the answer reveals nothing about other users' data
+        String sha256 = request.getSha256() != null ? request.getSha256().toLowerCase() : null;
+        if (sha256 != null) {
+            Optional<StoredFile> existing =
+                    fileRepository.findFirstByOwnerIdAndContentHashAndSize(user.userId(), sha256, request.getSize());
+            UUID fileId = UUID.randomUUID();
+            // The copy fails if the existing file was deleted since the lookup; then it is uploaded
+            if (existing.isPresent() && contentService.copy(existing.get().getId(), fileId)) {
+                Instant now = Instant.now();
+                StoredFile file = fileRepository.save(StoredFile.builder()
+                        .id(fileId)
+                        .ownerId(user.userId())
+                        .folderId(folder.getId())
+                        .name(request.getFileName())
+                        .contentType(request.getContentType())
+                        .size(request.getSize())
+                        .contentHash(sha256)
+                        .chunkSize(existing.get().getChunkSize())
+                        .createdAt(now)
+                        .updatedAt(now)
+                        .build());
+                quotaService.record(user.userId(), file.getSize(), -file.getSize());
+                events.publishEvent(new FileIndexEvent.Named(file.getOwnerId(), file.getId(), file.getName()));
+                return UploadSessionResponse.builder()
+                        .fileName(file.getName())
+                        .size(file.getSize())
+                        .file(FileService.toResponse(file))
+                        .build();
+            }
+        }
+
+        // 5. Preallocate the file, then persist the session
+        Instant now = Instant.now();
+        UploadSession session = UploadSession.builder()
+                .id(UUID.randomUUID())
+                .ownerId(user.userId())
+                .folderId(folder.getId())
+                .fileName(request.getFileName())
+                .contentType(request.getContentType())
+                .sha256(sha256)
+                .totalSize(request.getSize())
+                .chunkSize((int) chunkSize)
+                .chunkCount((int) ((request.getSize() + chunkSize - 1) / chunkSize))
+                .createdAt(now)
+                .expiresAt(now.plus(config.getSessionTtl()))
+                .build();
+        try {
+            fileStore.allocateUpload(session.getId(), session.getTotalSize());
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot allocate upload file", e);
+        }
+        sessionRepository.save(session);
+
+        return toResponse(session, List.of());
+    }
+
+    /**
+     * Streams one chunk into place. Chunks of a session may be sent concurrently and in
+     * any order. Each write first claims its chunk, so two requests never write the same
+     * bytes at once, and a chunk already received is never overwritten: sending it again
+     * succeeds if the content is the same and is a conflict otherwise. Commit needs every
+     * chunk received, so no write can still be running once it starts.
+     *
+     * @param sha256Hex optional digest of the chunk; on mismatch the chunk is not recorded
+     */
+    public void writeChunk(AuthenticatedUser user, UUID uploadId, int index, InputStream body, String sha256Hex)
+            throws IOException {
+        UploadSession session = findSession(user, uploadId);
+        if (index < 0 || index >= session.getChunkCount()) {
+            throw new InvalidUploadException("Chunk index must be between 0 and " + (session.getChunkCount() - 1));
+        }
+        long length = session.chunkLength(index);
+        MessageDigest digest = FileStore.sha256();
+
+        // 1. Claim the chunk; the database keeps microseconds, so the claim does too
+        Duration timeout = properties.getUpload().getChunkClaimTimeout();
+        long deadline = System.nanoTime() + timeout.toNanos();
+        Instant claimedAt = Instant.now().truncatedTo(ChronoUnit.MICROS);
+        if (chunkRepository.claim(uploadId, index, claimedAt, claimedAt.minus(timeout)) == 0) {
+            String received = chunkRepository.findReceivedSha256(uploadId, index)
+                    .orElseThrow(() -> new UploadConflictException("Chunk " + index + " is being written by another request"));
+            fileStore.digestChunk(length, body, digest);
+            if (!received.equals(HexFormat.of().formatHex(digest.digest()))) {
+                throw new UploadConflictException("Chunk " + index + " was already received with different content");
+            }
+            return;
+        }
+
+        // 2. Write it, then record it with its digest; on any failure the claim is given back
+        boolean received = false;
+        try {
+            try {
+                fileStore.writeChunk(uploadId, session.chunkOffset(index), length, body, digest, deadline);
+            } catch (NoSuchFileException e) {
+                // Committed, aborted or expired while this chunk was on its way
+                throw new UploadNotFoundException("Upload not found");
+            }
+            String actual = HexFormat.of().formatHex(digest.digest());
+            if (sha256Hex != null && !actual.equalsIgnoreCase(sha256Hex)) {
+                throw new InvalidUploadException("Chunk " + index + " does not match its SHA-256");
+            }
+            received = chunkRepository.markReceived(uploadId, index, claimedAt, actual) == 1;
+            if (!received) {
+                throw new UploadConflictException("Chunk " + index + " was claimed by another request");
+            }
+        } finally {
+            if (!received) {
+                chunkRepository.releaseClaim(uploadId, index, claimedAt);
+            }
+        }
+    }
+
+    public UploadSessionResponse status(AuthenticatedUser user, UUID uploadId) {
+        UploadSession session = findSession(user, uploadId);
+        return toResponse(session, chunkRepository.findReceivedIndexes(uploadId));
+    }
+
+    /**
+     * Turns a complete upload into a file. The session is claimed first, so nothing can
+     * write to the upload any more; the upload is then hashed in one sequential read,
+     * checked against the client's SHA-256 if one was given, and chunks the store does not
+     * already hold are copied out of it, all outside any transaction. One short transaction
+     * then records references, manifest and file. If any step fails the upload is
+     * discarded, as an abort would.
+     */
+    public FileResponse commit(AuthenticatedUser user, UUID uploadId) {
+        UploadSession session = findSession(user, uploadId);
+
+        // 1. Every chunk must be on disk
+        long missing = session.getChunkCount() - chunkRepository.countReceived(uploadId);
+        if (missing > 0) {
+            throw new UploadIncompleteException(missing + " chunk(s) still missing", missing);
+        }
+
+        // 2. Claim the session; a concurrent commit or abort loses here
+        if (sessionRepository.deleteAndCount(uploadId) == 0) {
+            throw new UploadNotFoundException("Upload not found");
+        }
+
+        StoredFile file;
+        try {
+            // 3. Hash and stage the chunks with no transaction open
+            int contentChunkSize = (int) properties.getContent().getChunkSize().toBytes();
+            ContentService.Content content;
+            boolean compress;
+            try {
+                content = contentService.hash(uploadId, session.getTotalSize(), contentChunkSize);
+                if (session.getSha256() != null && !session.getSha256().equals(content.contentHash())) {
+                    throw new InvalidUploadException("Uploaded content does not match its SHA-256");
+                }
+                compress = contentService.stage(uploadId, session.getTotalSize(), contentChunkSize,
+                        content.chunkHashes(), session.getContentType());
+            } catch (IOException e) {
+                throw new UncheckedIOException("Cannot store uploaded file", e);
+            }
+
+            // 4. References, manifest and file in one short transaction
+            file = transactionTemplate.execute(status -> record(session, content, contentChunkSize, compress));
+        } catch (RuntimeException failure) {
+            release(session);
+            throw failure;
+        }
+
+        // 5. The upload is no longer needed
+        chunkRepository.deleteBySessionId(uploadId);
+        try {
+            fileStore.deleteUpload(uploadId);
+        } catch (IOException e) {
+            // Orphaned upload file; harmless apart from the disk space
+        }
+        previewService.schedule(file);
+        return FileService.toResponse(file);
+    }
+
+    private StoredFile record(UploadSession session, ContentService.Content content, int contentChunkSize,
+                              boolean compress) {
+        // 1. The folder may have been deleted (with the file's place in it) since create
+        Folder folder = folderService.lockFolder(session.getOwnerId(), session.getFolderId());
+
+        // 2. Manifest, then the file
+        UUID fileId = UUID.randomUUID();
+        Instant committedAt = Instant.now();
+        try {
+            contentService.ingest(session.getId(), fileId, session.getTotalSize(), contentChunkSize,
+                    content.chunkHashes(), compress);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot store uploaded file", e);
+        }
+        StoredFile file = fileRepository.save(StoredFile.builder()
+                .id(fileId)
+                .ownerId(session.getOwnerId())
+                .folderId(folder.getId())
+                .name(session.getFileName())
+                .contentType(session.getContentType())
+                .size(session.getTotalSize())
+                .contentHash(content.contentHash())
+                .chunkSize(contentChunkSize)
+                .createdAt(committedAt)
+                .updatedAt(committedAt)
+                .build());
+
+        // 3. The reservation becomes usage
+        quotaService.record(session.getOwnerId(), session.getTotalSize(), -session.getTotalSize());
+        events.publishEvent(new FileIndexEvent.Named(file.getOwnerId(), file.getId(), file.getName()));
+        return file;
+    }
+
+    public void abort(AuthenticatedUser user, UUID uploadId) {
+        discard(findSession(user, uploadId));
+    }
+
+    // Also used by the reaper; whoever deletes the session row removes the file and
+    // releases the reservation
+    public boolean discard(UploadSession session) {
+        UUID uploadId = session.getId();
+        if (sessionRepository.deleteAndCount(uploadId) == 0) {
+            return false;
+        }
+        release(session);
+        return true;
+    }
+
+    // What a claimed session leaves behind when it does not become a file
+    private void release(UploadSession session) {
+        quotaService.record(session.getOwnerId(), 0, -session.getTotalSize());
+        chunkRepository.deleteBySessionId(session.getId());
+        try {
+            fileStore.deleteUpload(session.getId());
+        } catch (IOException e) {
+            // Orphaned partial file; harmless apart from the disk space
+        }
+    }
+
+    private UploadSession findSession(AuthenticatedUser user, UUID uploadId) {
+        UploadSession session = sessionRepository.findByIdAndOwnerId(uploadId, user.userId())
+                .orElseThrow(() -> new UploadNotFoundException("Upload not found"));
+        if (session.getExpiresAt().isBefore(Instant.now())) {
+            throw new UploadNotFoundException("Upload expired");
+        }
+        return session;
+    }
+
+    private static UploadSessionResponse toResponse(UploadSession session, List<Integer> receivedIndexes) {
+        return UploadSessionResponse.builder()
+                .uploadId(session.getId())
+                .fileName(session.getFileName())
+                .size(session.getTotalSize())
+                .chunkSize(session.getChunkSize())
+                .chunkCount(session.getChunkCount())
+                .receivedRanges(toRanges(session, receivedIndexes))
+                .expiresAt(session.getExpiresAt())
+                .build();
+    }
+
+    // Sorted chunk indexes -> merged byte ranges
+    private static List<UploadSessionResponse.ByteRange> toRanges(UploadSession session, List<Integer> indexes) {
+        List<UploadSessionResponse.ByteRange> ranges = new ArrayList<>();
+        UploadSessionResponse.ByteRange current = null;
+        for (int index : indexes) {
+            long start = session.chunkOffset(index);
+            long end = start + session.chunkLength(index);
+            if (current != null && current.getEnd() == start) {
+                current.setEnd(end);
+            } else {
+                current = new UploadSessionResponse.ByteRange(start, end);
+                ranges.add(current);
+            }
+        }
+        return ranges;
+    }
+}
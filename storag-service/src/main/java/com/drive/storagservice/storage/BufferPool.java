@@ -0,0 +1,29 @@
+package com.drive.storagservice.storage;
+
+import java.util.concurrent.ArrayBlockingQueue;
+
+/**
+ * Fixed-size byte buffers for streaming request and file bodies. A transfer borrows one
+ * buffer for its whole lifetime, so a large body costs the same heap as a small one and
+ * steady traffic allocates nothing.
+ */
+public class BufferPool {
+
+    private final int bufferSize;
+    private final ArrayBlockingQueue<byte[]> idle;
+
+    public BufferPool(int bufferSize, int maxIdle) {
+        this.bufferSize = bufferSize;
+        this.idle = new ArrayBlockingQueue<>(Math.max(1, maxIdle));
+    }
+
+    public byte[] acquire() {
+        byte[] buffer = idle.poll();
+        return buffer != null ? buffer : new byte[bufferSize];
+    }
+
+    public void release(byte[] buffer) {
+        // Over the cap the buffer is simply left to the GC
+        idle.offer(buffer);
+    }
+}
@@ -0,0 +1,73 @@
+package com.drive.storagservice.storage;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * An inclusive byte range of a representation, as requested with {@code Range: bytes=...}.
+ */
+public record ByteRange(long start, long end) {
+
+    // More ranges than this (or ranges adding up to more than the file) are answered with the full file
+    private static final int MAX_RANGES = 32;
+
+    public long length() {
+        return end - start + 1;
+    }
+
+    /**
+     * Parses a {@code Range} header against a representation of {@code size} bytes.
+     *
+     * @return the satisfiable ranges in request order; an empty list if none is
+     * satisfiable (416); null if the header should be ignored and the whole file sent
+     */
+    public static List<ByteRange> parse(String header, long size) {
+        if (header == null || !header.regionMatches(true, 0, "bytes=", 0, 6)) {
+            return null;
+        }
+
+        String[] specs = header.substring(6).split(",");
+        if (specs.length > MAX_RANGES) {
+            return null;
+        }
+
+        List<ByteRange> ranges = new ArrayList<>(specs.length);
+        long total = 0;
+        for (String raw : specs) {
+            String spec = raw.trim();
+            int dash = spec.indexOf('-');
+            if (dash < 0) {
+                return null;
+            }
+            try {
+                String first = spec.substring(0, dash).trim();
+                String last = spec.substring(dash + 1).trim();
+                ByteRange range;
+                if (first.isEmpty()) {
+                    // Suffix range: the last N bytes
+                    long suffix = Long.parseLong(last);
+                    if (suffix <= 0 || size == 0) {
+                        continue;
+                    }
+                    range = new ByteRange(Math.max(0, size - suffix), size - 1);
+                } else {
+                    long start = Long.parseLong(first);
+                    long end = last.isEmpty() ? Long.MAX_VALUE : Long.parseLong(last);
+                    if (start < 0 || end < start) {
+                        return null;
+                    }
+                    if (start >= size) {
+                        continue;
+                    }
+                    range = new ByteRange(start, Math.min(end, size - 1));
+                }
+                ranges.add(range);
+                total += range.length();
+            } catch (NumberFormatException e) {
+                return null;
+            }
+        }
+
+        return total > size ? null : ranges;
+    }
+}
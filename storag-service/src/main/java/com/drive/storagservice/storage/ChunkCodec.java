@@ -0,0 +1,234 @@
+package com.drive.storagservice.storage;
+
+import com.drive.storagservice.properties.StorageProperties;
+
+import org.springframework.stereotype.Component;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.util.List;
+import java.util.Locale;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+/**
+ * Compression of content chunks at rest. A compressed chunk holds its content as raw
+ * deflate frames of {@code frameSize} content bytes each, every frame ended with a full
+ * flush: no frame refers back into another, so a range read inflates only the frames it
+ * overlaps, and the frames of consecutive chunks concatenate into one valid deflate
+ * stream that is sent as-is to clients accepting gzip. Layout:
+ * <pre>
+ * int magic, int frameSize, int length, int crc32, int frameCount,
+ * int[frameCount] compressed frame lengths, frames
+ * </pre>
+ * Chunks keep the hash of their uncompressed content, so deduplication is unaffected.
+ */
+@Component
+public class ChunkCodec {
+
+    static final int MAGIC = 0x53445a31;
+    static final int FIXED_HEADER = 20;
+
+    private final StorageProperties.Compression config;
+
+    public ChunkCodec(StorageProperties properties) {
+        this.config = properties.getCompression();
+    }
+
+    // Text and structured text: compressed at rest, and sent gzip-encoded where accepted
+    public boolean compressibleType(String contentType) {
+        return config.isEnabled() && matches(config.getContentTypes(), contentType);
+    }
+
+    /**
+     * Whether to compress a file's chunks, from its content type and its first bytes.
+     * Types that say nothing about the content are tried; a chunk that does not shrink
+     * enough is stored raw anyway (see {@link #worthKeeping}).
+     */
+    public boolean shouldCompress(String contentType, byte[] head) {
+        if (!config.isEnabled() || looksCompressed(head)) {
+            return false;
+        }
+        return compressibleType(contentType) || !matches(config.getSkipContentTypes(), contentType);
+    }
+
+    public boolean worthKeeping(long storedSize, long length) {
+        return storedSize <= length * (1 - config.getMinSavings());
+    }
+
+    /**
+     * Writes {@code length} bytes of {@code source} from {@code position} to {@code target}
+     * in the compressed layout, feeding the bytes read to {@code digest}. Returns the size
+     * of what was written.
+     */
+    public long encode(FileChannel source, long position, int length, Path target, MessageDigest digest)
+            throws IOException {
+        int frameSize = (int) config.getFrameSize().toBytes();
+        int frames = (length + frameSize - 1) / frameSize;
+        int headerSize = FIXED_HEADER + 4 * frames;
+        int[] frameLengths = new int[frames];
+        byte[] input = new byte[frameSize];
+        byte[] output = new byte[frameSize];
+        CRC32 crc = new CRC32();
+        Deflater deflater = new Deflater(config.getLevel(), true);
+        try (FileChannel out = FileChannel.open(target, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE)) {
+            // 1. Frames, after room for the header
+            long written = headerSize;
+            for (int frame = 0; frame < frames; frame++) {
+                int frameLength = Math.min(frameSize, length - frame * frameSize);
+                readFully(source, ByteBuffer.wrap(input, 0, frameLength), position + (long) frame * frameSize);
+                crc.update(input, 0, frameLength);
+                digest.update(input, 0, frameLength);
+                deflater.setInput(input, 0, frameLength);
+                int produced;
+                do {
+                    produced = deflater.deflate(output, 0, output.length, Deflater.FULL_FLUSH);
+                    writeFully(out, ByteBuffer.wrap(output, 0, produced), written);
+                    written += produced;
+                    frameLengths[frame] += produced;
+                } while (produced == output.length);
+            }
+
+            // 2. Header, now that the frame lengths are known
+            ByteBuffer header = ByteBuffer.allocate(headerSize)
+                    .putInt(MAGIC).putInt(frameSize).putInt(length).putInt((int) crc.getValue()).putInt(frames);
+            for (int frameLength : frameLengths) {
+                header.putInt(frameLength);
+            }
+            writeFully(out, header.flip(), 0);
+            out.force(true);
+            return written;
+        } finally {
+            deflater.end();
+        }
+    }
+
+    /**
+     * CRC-32 of the concatenation of two blocks from their CRCs and the second block's
+     * length (zlib's crc32_combine), so a whole-file CRC follows from per-chunk ones.
+     */
+    public static long crc32Combine(long crc1, long crc2, long length2) {
+        if (length2 <= 0) {
+            return crc1;
+        }
+        long[] even = new long[32];
+        long[] odd = new long[32];
+        // Operator for one zero bit
+        odd[0] = 0xedb88320L;
+        long row = 1;
+        for (int n = 1; n < 32; n++) {
+            odd[n] = row;
+            row <<= 1;
+        }
+        // Two, then four zero bits
+        square(even, odd);
+        square(odd, even);
+        // Applies length2 zero bytes to crc1
+        long remaining = length2;
+        do {
+            square(even, odd);
+            if ((remaining & 1) != 0) {
+                crc1 = times(even, crc1);
+            }
+            remaining >>= 1;
+            if (remaining == 0) {
+                break;
+            }
+            square(odd, even);
+            if ((remaining & 1) != 0) {
+                crc1 = times(odd, crc1);
+            }
+            remaining >>= 1;
+        } while (remaining != 0);
+        return crc1 ^ crc2;
+    }
+
+    static void readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            int read = channel.read(buffer, position);
+            if (read == -1) {
+                throw new EOFException("Chunk file is truncated");
+            }
+            position += read;
+        }
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            position += channel.write(buffer, position);
+        }
+    }
+
+    private static long times(long[] matrix, long vector) {
+        long sum = 0;
+        for (int i = 0; vector != 0; i++, vector >>>= 1) {
+            if ((vector & 1) != 0) {
+                sum ^= matrix[i];
+            }
+        }
+        return sum;
+    }
+
+    private static void square(long[] square, long[] matrix) {
+        for (int n = 0; n < 32; n++) {
+            square[n] = times(matrix, matrix[n]);
+        }
+    }
+
+    // Patterns are exact types or have one '*', as in text/* or application/*+json
+    private static boolean matches(List<String> patterns, String contentType) {
+        if (contentType == null) {
+            return false;
+        }
+        int parameters = contentType.indexOf(';');
+        String type = (parameters >= 0 ? contentType.substring(0, parameters) : contentType)
+                .trim().toLowerCase(Locale.ROOT);
+        for (String pattern : patterns) {
+            int star = pattern.indexOf('*');
+            if (star < 0 ? type.equals(pattern)
+                    : type.length() >= pattern.length() - 1
+                    && type.startsWith(pattern.substring(0, star))
+                    && type.endsWith(pattern.substring(star + 1))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // Signatures of compressed formats, whatever the declared content type
+    private static boolean looksCompressed(byte[] head) {
+        return startsWith(head, 0, 0xFF, 0xD8, 0xFF)                      // JPEG
+                || startsWith(head, 0, 0x89, 'P', 'N', 'G')                // PNG
+                || startsWith(head, 0, 'G', 'I', 'F', '8')                 // GIF
+                || startsWith(head, 0, 'P', 'K', 0x03, 0x04)               // ZIP, OOXML, ODF, JAR
+                || startsWith(head, 0, 0x1F, 0x8B)                         // gzip
+                || startsWith(head, 0, 0x28, 0xB5, 0x2F, 0xFD)             // zstd
+                || startsWith(head, 0, 0xFD, '7', 'z', 'X', 'Z')           // xz
+                || startsWith(head, 0, 'B', 'Z', 'h')                      // bzip2
+                || startsWith(head, 0, '7', 'z', 0xBC, 0xAF)               // 7z
+                || startsWith(head, 0, 'R', 'a', 'r', '!')                 // RAR
+                || startsWith(head, 4, 'f', 't', 'y', 'p')                 // MP4, MOV, HEIC, AVIF
+                || startsWith(head, 0, 0x1A, 0x45, 0xDF, 0xA3)             // Matroska, WebM
+                || startsWith(head, 8, 'W', 'E', 'B', 'P')                 // WebP
+                || startsWith(head, 0, 'I', 'D', '3')                      // MP3
+                || startsWith(head, 0, 'O', 'g', 'g', 'S')                 // Ogg
+                || startsWith(head, 0, 'f', 'L', 'a', 'C');                // FLAC
+    }
+
+    private static boolean startsWith(byte[] head, int offset, int... signature) {
+        if (head.length < offset + signature.length) {
+            return false;
+        }
+        for (int i = 0; i < signature.length; i++) {
+            if ((head[offset + i] & 0xFF) != signature[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,14 @@
+package com.drive.storagservice.storage;
+
+import java.io.IOException;
+
+/**
+ * Bytes about to be stored as a content chunk do not hash to the chunk's name. The chunk
+ * is not stored.
+ */
+public class ChunkMismatchException extends IOException {
+
+    public ChunkMismatchException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,302 @@
+package com.drive.storagservice.storage;
+
+import com.drive.storagservice.exception.InvalidUploadException;
+import com.drive.storagservice.properties.StorageProperties;
+
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.io.SequenceInputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Enumeration;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * On-disk layout of the store: uploads in progress under {@code uploads/}, committed
+ * content as content-addressed chunks under {@code chunks/xx/yy/<sha256>}, or
+ * {@code <sha256>.z} for chunks stored compressed ({@link ChunkCodec}). Upload files
+ * are preallocated to their final size and chunks are written at their offset with
+ * positional {@link FileChannel#write(ByteBuffer, long)}, so chunks can arrive in any
+ * order and in parallel without a shared file position.
+ */
+@Component
+public class FileStore {
+
+    private static final int MAX_IDLE_BUFFERS = 64;
+
+    private final Path root;
+    private final Path uploads;
+    private final Path chunks;
+    private final BufferPool bufferPool;
+    private final ChunkCodec codec;
+
+    public FileStore(StorageProperties properties, ChunkCodec codec) {
+        this.root = properties.getRoot().toAbsolutePath().normalize();
+        this.uploads = root.resolve("uploads");
+        this.chunks = root.resolve("chunks");
+        this.bufferPool = new BufferPool((int) properties.getUpload().getBufferSize().toBytes(), MAX_IDLE_BUFFERS);
+        this.codec = codec;
+        try {
+            Files.createDirectories(uploads);
+            Files.createDirectories(chunks);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot create storage directories under " + root, e);
+        }
+    }
+
+    // Sparse where the filesystem supports it; blocks are allocated as chunks are written
+    public void allocateUpload(UUID sessionId, long size) throws IOException {
+        try (RandomAccessFile file = new RandomAccessFile(uploadPath(sessionId).toFile(), "rw")) {
+            file.setLength(size);
+        }
+    }
+
+    /**
+     * Copies exactly {@code length} bytes of {@code body} into the upload file at
+     * {@code position}, feeding them to {@code digest}. Nothing is written after
+     * {@code deadline} ({@link System#nanoTime}), when the caller's claim on the chunk ends.
+     *
+     * @throws InvalidUploadException if the body is shorter or longer than {@code length},
+     *                                or arrives too slowly
+     */
+    public void writeChunk(UUID sessionId, long position, long length, InputStream body, MessageDigest digest,
+                           long deadline) throws IOException {
+        byte[] buffer = bufferPool.acquire();
+        // No CREATE: a chunk arriving after commit or abort must not resurrect the file
+        try (FileChannel channel = FileChannel.open(uploadPath(sessionId), StandardOpenOption.WRITE)) {
+            long written = 0;
+            while (written < length) {
+                int read = body.read(buffer, 0, (int) Math.min(buffer.length, length - written));
+                if (read == -1) {
+                    throw new InvalidUploadException("Chunk ended after " + written + " of " + length + " bytes");
+                }
+                if (System.nanoTime() - deadline > 0) {
+                    throw new InvalidUploadException("Chunk did not arrive in time");
+                }
+                digest.update(buffer, 0, read);
+                ByteBuffer source = ByteBuffer.wrap(buffer, 0, read);
+                while (source.hasRemaining()) {
+                    written += channel.write(source, position + written);
+                }
+            }
+            if (body.read() != -1) {
+                throw new InvalidUploadException("Chunk is longer than " + length + " bytes");
+            }
+        } finally {
+            bufferPool.release(buffer);
+        }
+    }
+
+    // Reads a chunk body into digest without storing it, for a chunk that is sent again
+    public void digestChunk(long length, InputStream body, MessageDigest digest) throws IOException {
+        byte[] buffer = bufferPool.acquire();
+        try {
+            long read = 0;
+            while (read < length) {
+                int count = body.read(buffer, 0, (int) Math.min(buffer.length, length - read));
+                if (count == -1) {
+                    throw new InvalidUploadException("Chunk ended after " + read + " of " + length + " bytes");
+                }
+                digest.update(buffer, 0, count);
+                read += count;
+            }
+            if (body.read() != -1) {
+                throw new InvalidUploadException("Chunk is longer than " + length + " bytes");
+            }
+        } finally {
+            bufferPool.release(buffer);
+        }
+    }
+
+    /**
+     * Reads a completed upload once, returning the SHA-256 of each {@code chunkSize} slice
+     * and feeding every byte to {@code contentDigest} as well.
+     */
+    public List<String> hashUpload(UUID sessionId, long size, int chunkSize, MessageDigest contentDigest)
+            throws IOException {
+        MessageDigest chunkDigest = sha256();
+        HexFormat hex = HexFormat.of();
+        List<String> hashes = new ArrayList<>((int) ((size + chunkSize - 1) / chunkSize));
+        byte[] buffer = bufferPool.acquire();
+        try (FileChannel channel = FileChannel.open(uploadPath(sessionId), StandardOpenOption.READ)) {
+            long position = 0;
+            long chunkEnd = Math.min(chunkSize, size);
+            while (position < size) {
+                int read = channel.read(ByteBuffer.wrap(buffer, 0, (int) Math.min(buffer.length, chunkEnd - position)), position);
+                if (read == -1) {
+                    throw new EOFException("Upload file shorter than its session");
+                }
+                chunkDigest.update(buffer, 0, read);
+                contentDigest.update(buffer, 0, read);
+                position += read;
+                if (position == chunkEnd) {
+                    hashes.add(hex.formatHex(chunkDigest.digest()));
+                    chunkEnd = Math.min(chunkEnd + chunkSize, size);
+                }
+            }
+        } finally {
+            bufferPool.release(buffer);
+        }
+        return hashes;
+    }
+
+    // The first bytes of a completed upload (fewer if it is shorter), for content sniffing
+    public byte[] readUploadHead(UUID sessionId, int length) throws IOException {
+        try (FileChannel channel = FileChannel.open(uploadPath(sessionId), StandardOpenOption.READ)) {
+            ByteBuffer head = ByteBuffer.allocate((int) Math.min(length, channel.size()));
+            int read = 0;
+            while (head.hasRemaining() && read != -1) {
+                read = channel.read(head, head.position());
+            }
+            return Arrays.copyOf(head.array(), head.position());
+        }
+    }
+
+    public boolean hasChunk(String hash) {
+        return Files.exists(chunkPath(hash)) || Files.exists(compressedChunkPath(hash));
+    }
+
+    // Whether the chunk is stored raw, i.e. chunkPath can be sent as it is
+    public boolean hasRawChunk(String hash) {
+        return Files.exists(chunkPath(hash));
+    }
+
+    /**
+     * Copies a slice of an upload into the chunk store under its hash, compressed if asked
+     * to and if that saves enough. The bytes are hashed as they are copied and the chunk is
+     * only stored if they match {@code hash}: chunks are shared by every file with the same
+     * content, so one stored under the wrong hash would corrupt all of them. Either copy is
+     * fsynced, and only then appears under its final name, so a chunk file that exists is
+     * always complete.
+     *
+     * @throws ChunkMismatchException if the slice does not hash to {@code hash}
+     */
+    public void storeChunk(String hash, UUID sessionId, long position, int length, boolean compress)
+            throws IOException {
+        Path target = chunkPath(hash);
+        Files.createDirectories(target.getParent());
+        try (FileChannel source = FileChannel.open(uploadPath(sessionId), StandardOpenOption.READ)) {
+            // 1. Compressed, kept only if it pays off
+            if (compress) {
+                Path temp = target.resolveSibling(hash + ".z.tmp-" + UUID.randomUUID());
+                try {
+                    MessageDigest digest = sha256();
+                    long stored = codec.encode(source, position, length, temp, digest);
+                    verify(hash, digest);
+                    if (codec.worthKeeping(stored, length)) {
+                        Files.move(temp, compressedChunkPath(hash), StandardCopyOption.ATOMIC_MOVE);
+                        return;
+                    }
+                } finally {
+                    Files.deleteIfExists(temp);
+                }
+            }
+
+            // 2. Raw; read through a buffer rather than transferTo so the bytes can be hashed
+            Path temp = target.resolveSibling(hash + ".tmp-" + UUID.randomUUID());
+            MessageDigest digest = sha256();
+            byte[] buffer = bufferPool.acquire();
+            try (FileChannel out = FileChannel.open(temp, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE)) {
+                long copied = 0;
+                while (copied < length) {
+                    int read = source.read(ByteBuffer.wrap(buffer, 0, (int) Math.min(buffer.length, length - copied)),
+                            position + copied);
+                    if (read == -1) {
+                        throw new EOFException("Upload file shorter than its session");
+                    }
+                    digest.update(buffer, 0, read);
+                    ByteBuffer slice = ByteBuffer.wrap(buffer, 0, read);
+                    while (slice.hasRemaining()) {
+                        out.write(slice, copied + slice.position());
+                    }
+                    copied += read;
+                }
+                verify(hash, digest);
+                out.force(true);
+            } catch (IOException e) {
+                Files.deleteIfExists(temp);
+                throw e;
+            } finally {
+                bufferPool.release(buffer);
+            }
+            Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE);
+        }
+    }
+
+    public StoredChunk openChunk(String hash) throws IOException {
+        return StoredChunk.open(chunkPath(hash), compressedChunkPath(hash));
+    }
+
+    // The whole content of a file as one stream; chunks are opened as reading reaches them
+    public InputStream openContent(List<String> chunkHashes) {
+        Iterator<String> hashes = chunkHashes.iterator();
+        return new SequenceInputStream(new Enumeration<>() {
+            @Override
+            public boolean hasMoreElements() {
+                return hashes.hasNext();
+            }
+
+            @Override
+            public InputStream nextElement() {
+                try {
+                    return new BufferedInputStream(openChunk(hashes.next()).openStream());
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+        });
+    }
+
+    public void deleteChunk(String hash) throws IOException {
+        Files.deleteIfExists(chunkPath(hash));
+        Files.deleteIfExists(compressedChunkPath(hash));
+    }
+
+    public void deleteUpload(UUID sessionId) throws IOException {
+        Files.deleteIfExists(uploadPath(sessionId));
+    }
+
+    // chunks/ab/cd/abcd...: two levels of 256 directories keep each directory small
+    public Path chunkPath(String hash) {
+        return chunks.resolve(hash.substring(0, 2)).resolve(hash.substring(2, 4)).resolve(hash);
+    }
+
+    public static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    private static void verify(String hash, MessageDigest digest) throws ChunkMismatchException {
+        if (!HexFormat.of().formatHex(digest.digest()).equals(hash)) {
+            throw new ChunkMismatchException("Upload changed after it was hashed: chunk " + hash + " does not match");
+        }
+    }
+
+    private Path compressedChunkPath(String hash) {
+        return chunkPath(hash).resolveSibling(hash + ".z");
+    }
+
+    private Path uploadPath(UUID sessionId) {
+        return uploads.resolve(sessionId.toString());
+    }
+}
@@ -0,0 +1,231 @@
+package com.drive.storagservice.storage;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+/**
+ * An open content chunk, stored raw or compressed ({@link ChunkCodec}); either way it is
+ * read by content offsets. Compressed chunks inflate only the frames a read touches.
+ */
+public class StoredChunk implements Closeable {
+
+    // Largest stored deflate block
+    private static final int STORED_BLOCK = 65535;
+
+    private final FileChannel channel;
+    private final boolean compressed;
+    private final int length;
+    private final int frameSize;
+    private final int crc32;
+    // File position of each frame, and of the end of the last one
+    private final long[] frameOffsets;
+    private Inflater inflater;
+    private byte[] input;
+    private byte[] frame;
+
+    private StoredChunk(FileChannel channel) throws IOException {
+        this.channel = channel;
+        this.compressed = false;
+        this.length = (int) channel.size();
+        this.frameSize = 0;
+        this.crc32 = 0;
+        this.frameOffsets = null;
+    }
+
+    private StoredChunk(FileChannel channel, ByteBuffer header) throws IOException {
+        this.channel = channel;
+        this.compressed = true;
+        if (header.getInt() != ChunkCodec.MAGIC) {
+            throw new IOException("Not a compressed chunk");
+        }
+        this.frameSize = header.getInt();
+        this.length = header.getInt();
+        this.crc32 = header.getInt();
+        int frames = header.getInt();
+        ByteBuffer lengths = ByteBuffer.allocate(4 * frames);
+        ChunkCodec.readFully(channel, lengths, ChunkCodec.FIXED_HEADER);
+        lengths.flip();
+        this.frameOffsets = new long[frames + 1];
+        frameOffsets[0] = ChunkCodec.FIXED_HEADER + 4L * frames;
+        for (int i = 0; i < frames; i++) {
+            frameOffsets[i + 1] = frameOffsets[i] + lengths.getInt();
+        }
+    }
+
+    // The raw file if there is one, otherwise the compressed one
+    static StoredChunk open(Path raw, Path compressed) throws IOException {
+        try {
+            return new StoredChunk(FileChannel.open(raw, StandardOpenOption.READ));
+        } catch (NoSuchFileException e) {
+            FileChannel channel = FileChannel.open(compressed, StandardOpenOption.READ);
+            try {
+                ByteBuffer header = ByteBuffer.allocate(ChunkCodec.FIXED_HEADER);
+                ChunkCodec.readFully(channel, header, 0);
+                return new StoredChunk(channel, header.flip());
+            } catch (IOException | RuntimeException failure) {
+                channel.close();
+                throw failure;
+            }
+        }
+    }
+
+    // Content length, not size on disk
+    public int length() {
+        return length;
+    }
+
+    public boolean compressed() {
+        return compressed;
+    }
+
+    // Content bytes [position, position + count) to target
+    public void transferTo(long position, long count, WritableByteChannel target) throws IOException {
+        if (!compressed) {
+            long remaining = count;
+            while (remaining > 0) {
+                long sent = channel.transferTo(position, remaining, target);
+                if (sent <= 0) {
+                    throw new EOFException("Chunk shorter than its manifest entry");
+                }
+                position += sent;
+                remaining -= sent;
+            }
+            return;
+        }
+        long end = position + count;
+        for (int index = (int) (position / frameSize); (long) index * frameSize < end; index++) {
+            long frameStart = (long) index * frameSize;
+            int inflated = inflate(index);
+            int from = (int) Math.max(0, position - frameStart);
+            int to = (int) Math.min(inflated, end - frameStart);
+            ByteBuffer slice = ByteBuffer.wrap(frame, from, to - from);
+            while (slice.hasRemaining()) {
+                target.write(slice);
+            }
+        }
+    }
+
+    /**
+     * The whole chunk as deflate blocks that neither end the stream nor refer back before
+     * their start: the stored frames of a compressed chunk, copied without inflating, or
+     * stored (uncompressed) blocks for a raw one. Returns the CRC-32 of the content.
+     */
+    public long transferDeflated(WritableByteChannel target) throws IOException {
+        if (compressed) {
+            long position = frameOffsets[0];
+            long end = frameOffsets[frameOffsets.length - 1];
+            while (position < end) {
+                long sent = channel.transferTo(position, end - position, target);
+                if (sent <= 0) {
+                    throw new EOFException("Chunk file is truncated");
+                }
+                position += sent;
+            }
+            return crc32 & 0xFFFFFFFFL;
+        }
+        CRC32 crc = new CRC32();
+        ByteBuffer block = ByteBuffer.allocate(5 + STORED_BLOCK);
+        for (long position = 0; position < length; position += STORED_BLOCK) {
+            int blockLength = (int) Math.min(STORED_BLOCK, length - position);
+            block.clear();
+            block.put((byte) 0)
+                    .put((byte) blockLength).put((byte) (blockLength >>> 8))
+                    .put((byte) ~blockLength).put((byte) (~blockLength >>> 8));
+            ChunkCodec.readFully(channel, block.limit(5 + blockLength), position);
+            crc.update(block.array(), 5, blockLength);
+            block.flip();
+            while (block.hasRemaining()) {
+                target.write(block);
+            }
+        }
+        return crc.getValue();
+    }
+
+    // The content from the start; closing the stream closes the chunk
+    public InputStream openStream() {
+        if (!compressed) {
+            return Channels.newInputStream(channel);
+        }
+        return new InputStream() {
+            private int index;
+            private int position;
+            private int limit;
+
+            @Override
+            public int read() throws IOException {
+                byte[] one = new byte[1];
+                return read(one, 0, 1) == -1 ? -1 : one[0] & 0xFF;
+            }
+
+            @Override
+            public int read(byte[] buffer, int offset, int count) throws IOException {
+                if (position == limit) {
+                    if (index == frameOffsets.length - 1) {
+                        return -1;
+                    }
+                    limit = inflate(index++);
+                    position = 0;
+                }
+                int read = Math.min(count, limit - position);
+                System.arraycopy(frame, position, buffer, offset, read);
+                position += read;
+                return read;
+            }
+
+            @Override
+            public void close() throws IOException {
+                StoredChunk.this.close();
+            }
+        };
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (inflater != null) {
+            inflater.end();
+        }
+        channel.close();
+    }
+
+    // Inflates one frame into the frame buffer; returns its content length
+    private int inflate(int index) throws IOException {
+        if (inflater == null) {
+            inflater = new Inflater(true);
+            frame = new byte[frameSize];
+        }
+        int compressedLength = (int) (frameOffsets[index + 1] - frameOffsets[index]);
+        if (input == null || input.length < compressedLength) {
+            input = new byte[compressedLength];
+        }
+        ChunkCodec.readFully(channel, ByteBuffer.wrap(input, 0, compressedLength), frameOffsets[index]);
+
+        int expected = Math.min(frameSize, length - index * frameSize);
+        inflater.reset();
+        inflater.setInput(input, 0, compressedLength);
+        int inflated = 0;
+        try {
+            while (inflated < expected) {
+                int produced = inflater.inflate(frame, inflated, expected - inflated);
+                if (produced == 0 && (inflater.needsInput() || inflater.needsDictionary() || inflater.finished())) {
+                    throw new EOFException("Compressed frame is truncated");
+                }
+                inflated += produced;
+            }
+        } catch (DataFormatException e) {
+            throw new IOException("Compressed frame is corrupt", e);
+        }
+        return expected;
+    }
+}
@@ -0,0 +1,125 @@
+package com.drive.storagservice.quota;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Deltas recorded from many threads are drained exactly once, merged per user, and a
+ * restored batch goes out with the next drain.
+ */
+class UsageCountersTests {
+
+    private final UsageCounters counters = new UsageCounters(8);
+
+    @Test
+    void drainMergesPerUserInOwnerOrder() throws Exception {
+        try (ExecutorService executor = Executors.newFixedThreadPool(4)) {
+            for (int i = 0; i < 4; i++) {
+                executor.submit(() -> {
+                    counters.add(2L, 100, -100);
+                    counters.add(1L, 10, 0);
+                }).get();
+            }
+        }
+
+        Map<Long, long[]> drained = counters.drain();
+
+        assertEquals(List.of(1L, 2L), new ArrayList<>(drained.keySet()));
+        assertArrayEquals(new long[]{40, 0}, drained.get(1L));
+        assertArrayEquals(new long[]{400, -400}, drained.get(2L));
+        assertTrue(counters.drain().isEmpty());
+    }
+
+    @Test
+    void deltasThatCancelOutAreDropped() {
+        counters.add(1L, 0, 500);
+        counters.add(1L, 0, -500);
+        counters.add(2L, 1, 0);
+
+        assertEquals(Set.of(2L), counters.drain().keySet());
+    }
+
+    @Test
+    void pendingOwnersUntilDrained() {
+        counters.add(1L, 5, 0);
+        counters.add(3L, 0, 5);
+
+        assertEquals(Set.of(1L, 3L), counters.pendingOwners());
+        counters.drain();
+        assertTrue(counters.pendingOwners().isEmpty());
+    }
+
+    @Test
+    void restoredBatchJoinsTheNextDrain() {
+        counters.add(1L, 10, 20);
+        Map<Long, long[]> failed = counters.drain();
+        counters.add(1L, 1, 2);
+        counters.add(2L, 3, 4);
+
+        counters.restore(failed);
+
+        assertEquals(Set.of(1L, 2L), counters.pendingOwners());
+        Map<Long, long[]> drained = counters.drain();
+        assertArrayEquals(new long[]{11, 22}, drained.get(1L));
+        assertArrayEquals(new long[]{3, 4}, drained.get(2L));
+    }
+
+    @Test
+    void nothingIsLostOrCountedTwiceWhileDraining() throws Exception {
+        int threads = 8;
+        int adds = 20_000;
+        AtomicBoolean writing = new AtomicBoolean(true);
+        long[] total = new long[2];
+
+        try (ExecutorService executor = Executors.newFixedThreadPool(threads + 1)) {
+            // Drains concurrently with the writers, restoring every other batch as a failed write would
+            Future<?> drainer = executor.submit(() -> {
+                boolean restore = false;
+                while (writing.get()) {
+                    Map<Long, long[]> batch = counters.drain();
+                    if (restore) {
+                        counters.restore(batch);
+                    } else {
+                        batch.values().forEach(delta -> {
+                            total[0] += delta[0];
+                            total[1] += delta[1];
+                        });
+                    }
+                    restore = !restore;
+                }
+            });
+            List<Future<?>> writers = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                long ownerId = t % 3;
+                writers.add(executor.submit(() -> {
+                    for (int i = 0; i < adds; i++) {
+                        counters.add(ownerId, 1, 2);
+                    }
+                }));
+            }
+            for (Future<?> writer : writers) {
+                writer.get();
+            }
+            writing.set(false);
+            drainer.get();
+        }
+        counters.drain().values().forEach(delta -> {
+            total[0] += delta[0];
+            total[1] += delta[1];
+        });
+
+        assertArrayEquals(new long[]{(long) threads * adds, 2L * threads * adds}, total);
+    }
+}
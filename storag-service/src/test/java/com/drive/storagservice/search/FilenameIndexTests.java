@@ -0,0 +1,170 @@
+package com.drive.storagservice.search;
+
+import com.drive.storagservice.properties.StorageProperties;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Ranking of file name matches, renames and removals, compaction, and the snapshot
+ * format, both as a buffer and through {@link SearchSnapshotStore}.
+ */
+class FilenameIndexTests {
+
+    @TempDir
+    Path root;
+
+    private final FilenameIndex index = new FilenameIndex();
+    private final Map<UUID, String> files = new LinkedHashMap<>();
+
+    @Test
+    void ranksWholeNameThenPrefixThenWordThenSubstring() {
+        put("myreport.txt");
+        put("annual report.docx");
+        put("report-2024.xlsx");
+        put("Report.pdf");
+        put("notes.txt");
+
+        assertEquals(List.of("Report.pdf", "report-2024.xlsx", "annual report.docx", "myreport.txt"),
+                names(index.search("report", 10)));
+    }
+
+    @Test
+    void tiesGoToShorterNamesThenAlphabetical() {
+        put("plan-b.txt");
+        put("plan-a.txt");
+        put("plan.txt.bak");
+        put("plan-final.txt");
+
+        assertEquals(List.of("plan-a.txt", "plan-b.txt", "plan.txt.bak", "plan-final.txt"),
+                names(index.search("pla", 10)));
+        assertEquals(List.of("plan-a.txt", "plan-b.txt"), names(index.search("pla", 2)));
+    }
+
+    @Test
+    void shortQueriesMatchWordPrefixes() {
+        put("readme.md");
+        put("old readme.md");
+        put("thread.log");
+
+        assertEquals(List.of("readme.md", "old readme.md"), names(index.search("r", 10)));
+        assertEquals(List.of("readme.md", "old readme.md"), names(index.search("re", 10)));
+        // Three characters and more match anywhere
+        assertEquals(List.of("readme.md", "old readme.md", "thread.log"), names(index.search("rea", 10)));
+    }
+
+    @Test
+    void foldsCaseAndAccents() {
+        put("Résumé FINAL.pdf");
+
+        assertEquals(List.of("Résumé FINAL.pdf"), names(index.search("resume final", 10)));
+        assertEquals(List.of("Résumé FINAL.pdf"), names(index.search("RÉSU", 10)));
+        assertTrue(FilenameIndex.matches("Résumé FINAL.pdf", "sumé"));
+        assertFalse(FilenameIndex.matches("Résumé FINAL.pdf", "resumes"));
+    }
+
+    @Test
+    void renamesAndRemovalsDropOldMatches() {
+        UUID renamed = put("draft.txt");
+        UUID removed = put("draft-2.txt");
+
+        index.put(renamed, "final.txt");
+        index.remove(removed);
+
+        assertTrue(index.search("draft", 10).isEmpty());
+        assertEquals(List.of(new FilenameIndex.Hit(renamed, 4)), index.search("final", 10));
+        assertEquals(0, index.search("final", 0).size());
+        assertEquals(1, index.liveCount());
+    }
+
+    @Test
+    void compactionKeepsResultsAndReclaimsRemovedEntries() {
+        for (int i = 0; i < 2000; i++) {
+            put("file-%04d.txt".formatted(i));
+        }
+        files.keySet().stream().limit(1500).forEach(index::remove);
+        assertTrue(index.needsCompaction());
+
+        FilenameIndex compacted = index.compact();
+
+        assertFalse(compacted.needsCompaction());
+        assertEquals(index.search("file", 1000), compacted.search("file", 1000));
+        assertEquals(500, compacted.search("file", 1000).size());
+    }
+
+    @Test
+    void snapshotRoundTrips() {
+        put("Quarterly Report.xlsx");
+        put("photos 2024.zip");
+        put("Résumé.pdf");
+        FilenameIndex compacted = index.compact();
+
+        ByteBuffer buffer = ByteBuffer.allocate((int) compacted.snapshotSize());
+        compacted.writeSnapshot(buffer);
+        assertFalse(buffer.hasRemaining());
+        FilenameIndex read = FilenameIndex.readSnapshot(buffer.flip());
+
+        assertEquals(3, read.liveCount());
+        for (String query : List.of("report", "20", "resume", "p", ".z")) {
+            assertEquals(compacted.search(query, 10), read.search(query, 10), query);
+        }
+        // Still writable after loading
+        UUID added = UUID.randomUUID();
+        read.put(added, "report notes.txt");
+        assertEquals(added, read.search("report n", 10).getFirst().id());
+    }
+
+    @Test
+    void snapshotNeedsACompactedIndex() {
+        put("a.txt");
+        index.remove(put("b.txt"));
+
+        assertThrows(IllegalStateException.class,
+                () -> index.writeSnapshot(ByteBuffer.allocate((int) index.snapshotSize())));
+    }
+
+    @Test
+    void snapshotStoreRoundTrips() throws Exception {
+        StorageProperties properties = new StorageProperties();
+        properties.setRoot(root);
+        SearchSnapshotStore store = new SearchSnapshotStore(properties);
+        put("budget.ods");
+        put("budget 2025.ods");
+        Instant syncedAt = Instant.ofEpochMilli(1_772_366_400_000L);
+
+        store.write(42L, index.compact(), syncedAt);
+        SearchSnapshotStore.Snapshot snapshot = store.read(42L);
+
+        assertEquals(syncedAt, snapshot.syncedAt());
+        assertEquals(index.search("budget", 10), snapshot.index().search("budget", 10));
+        // Snapshots are per user
+        assertNull(store.read(43L));
+        store.delete(42L);
+        assertNull(store.read(42L));
+    }
+
+    private UUID put(String name) {
+        UUID id = UUID.randomUUID();
+        files.put(id, name);
+        index.put(id, name);
+        return id;
+    }
+
+    private List<String> names(List<FilenameIndex.Hit> hits) {
+        return hits.stream().map(hit -> files.get(hit.id())).toList();
+    }
+}
@@ -0,0 +1,59 @@
+package com.drive.storagservice.service;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * If-Range: a range is served only while the client's copy matches the current
+ * representation, by strong ETag comparison or by exact Last-Modified date.
+ */
+class DownloadServiceTests {
+
+    private static final String ETAG = "\"abc123\"";
+    // Sun, 01 Mar 2026 12:00:00 GMT
+    private static final long LAST_MODIFIED = 1_772_366_400_000L;
+
+    @Test
+    void noIfRangeAlwaysAllowsRanges() {
+        assertTrue(DownloadService.rangeStillValid(request(null), ETAG, LAST_MODIFIED));
+    }
+
+    @Test
+    void matchingEtagAllowsRanges() {
+        assertTrue(DownloadService.rangeStillValid(request(ETAG), ETAG, LAST_MODIFIED));
+        assertTrue(DownloadService.rangeStillValid(request(" " + ETAG + " "), ETAG, LAST_MODIFIED));
+    }
+
+    @Test
+    void otherOrWeakEtagSendsWholeFile() {
+        assertFalse(DownloadService.rangeStillValid(request("\"other\""), ETAG, LAST_MODIFIED));
+        assertFalse(DownloadService.rangeStillValid(request("W/" + ETAG), ETAG, LAST_MODIFIED));
+        // The gzip representation is a different one
+        assertFalse(DownloadService.rangeStillValid(request("\"abc123-gzip\""), ETAG, LAST_MODIFIED));
+    }
+
+    @Test
+    void exactDateAllowsRanges() {
+        assertTrue(DownloadService.rangeStillValid(request("Sun, 01 Mar 2026 12:00:00 GMT"), ETAG, LAST_MODIFIED));
+    }
+
+    @Test
+    void otherOrInvalidDateSendsWholeFile() {
+        assertFalse(DownloadService.rangeStillValid(request("Sun, 01 Mar 2026 12:00:01 GMT"), ETAG, LAST_MODIFIED));
+        assertFalse(DownloadService.rangeStillValid(request("Sun, 01 Mar 2026 11:59:59 GMT"), ETAG, LAST_MODIFIED));
+        assertFalse(DownloadService.rangeStillValid(request("yesterday"), ETAG, LAST_MODIFIED));
+    }
+
+    private static MockHttpServletRequest request(String ifRange) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/files/1/content");
+        request.addHeader(HttpHeaders.RANGE, "bytes=0-99");
+        if (ifRange != null) {
+            request.addHeader(HttpHeaders.IF_RANGE, ifRange);
+        }
+        return request;
+    }
+}
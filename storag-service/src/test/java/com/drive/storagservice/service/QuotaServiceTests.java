@@ -0,0 +1,163 @@
+package com.drive.storagservice.service;
+
+import com.drive.storagservice.properties.StorageProperties;
+import com.drive.storagservice.repository.StorageUsageRepository;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Reconcile passes interleaved with deltas that are committed but not yet flushed: the
+ * ledger row differs from the files table only until the delta lands, and correcting it
+ * in that window would count the delta twice. Repository mocked, clock fake.
+ */
+class QuotaServiceTests {
+
+    private static final long OWNER = 7L;
+    private static final long LOST = 4096;
+    private static final long IN_FLIGHT = 100;
+
+    private final StorageUsageRepository usageRepository = mock(StorageUsageRepository.class);
+    private final StorageProperties properties = new StorageProperties();
+    private final MutableClock clock = new MutableClock();
+    private QuotaService quotaService;
+
+    @BeforeEach
+    void setUp() {
+        quotaService = new QuotaService(
+                usageRepository, mock(JdbcTemplate.class), mock(PlatformTransactionManager.class), properties, clock);
+        when(usageRepository.findQuietOwners(any(), any(), any())).thenReturn(List.of(OWNER));
+    }
+
+    @Test
+    void inFlightDeltaIsNeverCorrected() {
+        // A delete committed on another instance, its delta not flushed yet
+        drift(IN_FLIGHT);
+        pass();
+
+        // The delta lands
+        drift(0);
+        pass();
+        pass();
+
+        verify(usageRepository, never()).correct(anyLong(), anyLong(), anyLong(), any());
+    }
+
+    @Test
+    void sameDriftOnTwoPassesIsCorrectedOnce() {
+        drift(LOST);
+        pass();
+        pass();
+        pass();
+
+        verify(usageRepository, times(1)).correct(eq(OWNER), eq(LOST), eq(0L), any());
+    }
+
+    @Test
+    void deltaInFlightDuringTheSecondPassDelaysTheCorrection() {
+        drift(LOST);
+        pass();
+
+        // Second pass sees the lost bytes plus a delta that is about to flush
+        drift(LOST + IN_FLIGHT);
+        pass();
+        verify(usageRepository, never()).correct(anyLong(), anyLong(), anyLong(), any());
+
+        drift(LOST);
+        pass();
+        verify(usageRepository, never()).correct(anyLong(), anyLong(), anyLong(), any());
+        pass();
+        verify(usageRepository, times(1)).correct(eq(OWNER), eq(LOST), eq(0L), any());
+    }
+
+    @Test
+    void passesWithinAFlushIntervalDoNotConfirm() {
+        drift(LOST);
+        quotaService.reconcile(Long.MIN_VALUE, 500);
+        clock.advance(properties.getQuota().getFlushInterval().dividedBy(2));
+        quotaService.reconcile(Long.MIN_VALUE, 500);
+
+        verify(usageRepository, never()).correct(anyLong(), anyLong(), anyLong(), any());
+    }
+
+    @Test
+    void ownerWithALocalDeltaIsSkipped() {
+        quotaService.record(OWNER, -IN_FLIGHT, 0);
+
+        pass();
+
+        verify(usageRepository, never()).findDrift(anyCollection());
+    }
+
+    private void pass() {
+        quotaService.reconcile(Long.MIN_VALUE, 500);
+        clock.advance(Duration.ofHours(6));
+    }
+
+    private void drift(long usedDrift) {
+        if (usedDrift == 0) {
+            when(usageRepository.findDrift(anyCollection())).thenReturn(List.of());
+            return;
+        }
+        StorageUsageRepository.Drift drift = new StorageUsageRepository.Drift() {
+            @Override
+            public Long getOwnerId() {
+                return OWNER;
+            }
+
+            @Override
+            public long getUsedDrift() {
+                return usedDrift;
+            }
+
+            @Override
+            public long getReservedDrift() {
+                return 0;
+            }
+        };
+        when(usageRepository.findDrift(anyCollection())).thenReturn(List.of(drift));
+    }
+
+    private static final class MutableClock extends Clock {
+
+        private Instant now = Instant.parse("2026-01-01T00:00:00Z");
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
@@ -0,0 +1,291 @@
+package com.drive.storagservice.service;
+
+import com.drive.storagservice.dto.FileResponse;
+import com.drive.storagservice.entity.Folder;
+import com.drive.storagservice.entity.StoredFile;
+import com.drive.storagservice.entity.UploadSession;
+import com.drive.storagservice.exception.InvalidUploadException;
+import com.drive.storagservice.exception.UploadConflictException;
+import com.drive.storagservice.exception.UploadIncompleteException;
+import com.drive.storagservice.exception.UploadNotFoundException;
+import com.drive.storagservice.properties.StorageProperties;
+import com.drive.storagservice.repository.StoredFileRepository;
+import com.drive.storagservice.repository.UploadChunkRepository;
+import com.drive.storagservice.repository.UploadSessionRepository;
+import com.drive.storagservice.security.AuthenticatedUser;
+import com.drive.storagservice.storage.ChunkCodec;
+import com.drive.storagservice.storage.FileStore;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Random;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Chunk writes and commit of an upload against a real {@link FileStore}. The chunk
+ * table is an in-memory stand-in with the claim semantics of the native queries in
+ * {@link UploadChunkRepository}; content storage and the database are mocked.
+ */
+class UploadServiceTests {
+
+    private static final AuthenticatedUser USER = new AuthenticatedUser(1L, "USER");
+    private static final int CHUNK = 1024;
+    private static final int SIZE = 2 * CHUNK + 100;
+
+    @TempDir
+    Path root;
+
+    private final UploadSessionRepository sessionRepository = mock(UploadSessionRepository.class);
+    private final UploadChunkRepository chunkRepository = mock(UploadChunkRepository.class);
+    private final StoredFileRepository fileRepository = mock(StoredFileRepository.class);
+    private final ContentService contentService = mock(ContentService.class);
+    private final FolderService folderService = mock(FolderService.class);
+    private final QuotaService quotaService = mock(QuotaService.class);
+    private final PreviewService previewService = mock(PreviewService.class);
+    private final ChunkTable chunks = new ChunkTable();
+
+    private FileStore fileStore;
+    private UploadService uploadService;
+    private UploadSession session;
+    private byte[] content;
+
+    // upload_chunks rows of the session: a null sha256 is a claim, otherwise the chunk is received
+    private static final class ChunkTable {
+        final Map<Integer, String> sha256 = new HashMap<>();
+        final Map<Integer, Instant> claimedAt = new HashMap<>();
+
+        int claim(int index, Instant now, Instant staleBefore) {
+            if (claimedAt.containsKey(index)
+                    && (sha256.get(index) != null || !claimedAt.get(index).isBefore(staleBefore))) {
+                return 0;
+            }
+            claimedAt.put(index, now);
+            sha256.put(index, null);
+            return 1;
+        }
+
+        int markReceived(int index, Instant claimed, String digest) {
+            if (sha256.get(index) != null || !claimed.equals(claimedAt.get(index))) {
+                return 0;
+            }
+            sha256.put(index, digest);
+            return 1;
+        }
+
+        int releaseClaim(int index, Instant claimed) {
+            if (sha256.get(index) != null || !claimed.equals(claimedAt.get(index))) {
+                return 0;
+            }
+            sha256.remove(index);
+            claimedAt.remove(index);
+            return 1;
+        }
+
+        long countReceived() {
+            return sha256.values().stream().filter(digest -> digest != null).count();
+        }
+    }
+
+    @BeforeEach
+    void setUp() throws IOException {
+        StorageProperties properties = new StorageProperties();
+        properties.setRoot(root);
+        fileStore = new FileStore(properties, new ChunkCodec(properties));
+        uploadService = new UploadService(sessionRepository, chunkRepository, fileRepository, contentService,
+                folderService, quotaService, previewService, mock(ApplicationEventPublisher.class), fileStore,
+                properties, mock(PlatformTransactionManager.class));
+
+        content = new byte[SIZE];
+        new Random(42).nextBytes(content);
+        Instant now = Instant.now();
+        session = UploadSession.builder()
+                .id(UUID.randomUUID())
+                .ownerId(USER.userId())
+                .folderId(UUID.randomUUID())
+                .fileName("data.bin")
+                .totalSize(SIZE)
+                .chunkSize(CHUNK)
+                .chunkCount(3)
+                .createdAt(now)
+                .expiresAt(now.plusSeconds(3600))
+                .build();
+        fileStore.allocateUpload(session.getId(), SIZE);
+
+        UUID id = session.getId();
+        when(sessionRepository.findByIdAndOwnerId(id, USER.userId())).thenReturn(Optional.of(session));
+        when(chunkRepository.claim(eq(id), anyInt(), any(), any()))
+                .thenAnswer(call -> chunks.claim(call.getArgument(1), call.getArgument(2), call.getArgument(3)));
+        when(chunkRepository.markReceived(eq(id), anyInt(), any(), anyString()))
+                .thenAnswer(call -> chunks.markReceived(call.getArgument(1), call.getArgument(2), call.getArgument(3)));
+        when(chunkRepository.releaseClaim(eq(id), anyInt(), any()))
+                .thenAnswer(call -> chunks.releaseClaim(call.getArgument(1), call.getArgument(2)));
+        when(chunkRepository.findReceivedSha256(eq(id), anyInt()))
+                .thenAnswer(call -> Optional.ofNullable(chunks.sha256.get(call.<Integer>getArgument(1))));
+        when(chunkRepository.countReceived(id)).thenAnswer(call -> chunks.countReceived());
+    }
+
+    @Test
+    void chunkIsWrittenAndRecordedWithItsDigest() throws IOException {
+        write(1, chunk(1), null);
+
+        assertEquals(sha256(chunk(1)), chunks.sha256.get(1));
+        assertArrayEquals(chunk(1), Arrays.copyOfRange(fileStore.readUploadHead(session.getId(), SIZE), CHUNK, 2 * CHUNK));
+    }
+
+    @Test
+    void resendingTheSameChunkSucceedsWithoutWriting() throws IOException {
+        write(0, chunk(0), null);
+
+        write(0, chunk(0), sha256(chunk(0)));
+
+        assertEquals(sha256(chunk(0)), chunks.sha256.get(0));
+        verify(chunkRepository, never()).releaseClaim(any(), anyInt(), any());
+    }
+
+    @Test
+    void resendingDifferentContentIsAConflict() throws IOException {
+        write(0, chunk(0), null);
+        byte[] other = chunk(0).clone();
+        other[10] ^= 1;
+
+        assertThrows(UploadConflictException.class, () -> write(0, other, null));
+        assertArrayEquals(chunk(0), fileStore.readUploadHead(session.getId(), CHUNK));
+    }
+
+    @Test
+    void chunkBeingWrittenIsAConflict() {
+        chunks.claim(2, Instant.now(), Instant.now().minusSeconds(600));
+
+        assertThrows(UploadConflictException.class, () -> write(2, chunk(2), null));
+        assertEquals(1, chunks.claimedAt.size());
+    }
+
+    @Test
+    void abandonedClaimIsTakenOver() throws IOException {
+        chunks.claim(2, Instant.now().minusSeconds(3600), Instant.EPOCH);
+
+        write(2, chunk(2), null);
+
+        assertEquals(sha256(chunk(2)), chunks.sha256.get(2));
+    }
+
+    @Test
+    void failedWriteGivesTheClaimBack() throws IOException {
+        assertThrows(InvalidUploadException.class, () -> write(0, chunk(0), sha256(chunk(1))));
+        assertThrows(InvalidUploadException.class, () -> write(0, Arrays.copyOf(chunk(0), CHUNK - 1), null));
+        assertTrue(chunks.claimedAt.isEmpty());
+
+        // So it can be resent at once
+        write(0, chunk(0), null);
+        assertEquals(sha256(chunk(0)), chunks.sha256.get(0));
+    }
+
+    @Test
+    void commitNeedsEveryChunk() throws IOException {
+        write(0, chunk(0), null);
+        write(2, chunk(2), null);
+
+        UploadIncompleteException missing =
+                assertThrows(UploadIncompleteException.class, () -> uploadService.commit(USER, session.getId()));
+
+        assertEquals(1, missing.getMissingChunks());
+        verify(sessionRepository, never()).deleteAndCount(any());
+    }
+
+    @Test
+    void commitRecordsTheFileAndTurnsTheReservationIntoUsage() throws IOException {
+        writeAll();
+        int contentChunk = (int) new StorageProperties().getContent().getChunkSize().toBytes();
+        ContentService.Content hashed = new ContentService.Content(sha256(content), List.of(sha256(content)));
+        when(sessionRepository.deleteAndCount(session.getId())).thenReturn(1);
+        when(contentService.hash(session.getId(), SIZE, contentChunk)).thenReturn(hashed);
+        when(folderService.lockFolder(USER.userId(), session.getFolderId()))
+                .thenReturn(Folder.builder().id(session.getFolderId()).build());
+        when(fileRepository.save(any(StoredFile.class))).thenAnswer(call -> call.getArgument(0));
+
+        FileResponse file = uploadService.commit(USER, session.getId());
+
+        assertEquals("data.bin", file.getName());
+        verify(contentService).ingest(eq(session.getId()), any(), eq((long) SIZE), eq(contentChunk),
+                eq(hashed.chunkHashes()), anyBoolean());
+        verify(quotaService).record(USER.userId(), SIZE, -SIZE);
+        verify(chunkRepository).deleteBySessionId(session.getId());
+        assertThrows(NoSuchFileException.class, () -> fileStore.readUploadHead(session.getId(), 1));
+    }
+
+    @Test
+    void commitOfMismatchingContentReleasesTheUpload() throws IOException {
+        writeAll();
+        session.setSha256(sha256(new byte[]{1}));
+        when(sessionRepository.deleteAndCount(session.getId())).thenReturn(1);
+        when(contentService.hash(eq(session.getId()), anyLong(), anyInt()))
+                .thenReturn(new ContentService.Content(sha256(content), List.of()));
+
+        assertThrows(InvalidUploadException.class, () -> uploadService.commit(USER, session.getId()));
+
+        verify(contentService, never()).stage(any(), anyLong(), anyInt(), any(), any());
+        verify(quotaService).record(USER.userId(), 0, -SIZE);
+        verify(chunkRepository).deleteBySessionId(session.getId());
+        assertThrows(NoSuchFileException.class, () -> fileStore.readUploadHead(session.getId(), 1));
+    }
+
+    @Test
+    void concurrentCommitLosesWithoutReleasing() throws IOException {
+        writeAll();
+        when(sessionRepository.deleteAndCount(session.getId())).thenReturn(0);
+
+        assertThrows(UploadNotFoundException.class, () -> uploadService.commit(USER, session.getId()));
+
+        verify(contentService, never()).hash(any(), anyLong(), anyInt());
+        verify(quotaService, never()).record(anyLong(), anyLong(), anyLong());
+        verify(chunkRepository, never()).deleteBySessionId(any());
+    }
+
+    private void writeAll() throws IOException {
+        for (int index = 0; index < session.getChunkCount(); index++) {
+            write(index, chunk(index), null);
+        }
+    }
+
+    private void write(int index, byte[] body, String sha256Hex) throws IOException {
+        uploadService.writeChunk(USER, session.getId(), index, new ByteArrayInputStream(body), sha256Hex);
+    }
+
+    private byte[] chunk(int index) {
+        return Arrays.copyOfRange(content, index * CHUNK, Math.min(SIZE, (index + 1) * CHUNK));
+    }
+
+    private static String sha256(byte[] bytes) {
+        return HexFormat.of().formatHex(FileStore.sha256().digest(bytes));
+    }
+}
@@ -0,0 +1,75 @@
+package com.drive.storagservice.storage;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * {@code Range} header parsing against a 1000-byte representation: which headers give
+ * ranges, which give 416 (empty list) and which are ignored (null, whole file).
+ */
+class ByteRangeTests {
+
+    private static final long SIZE = 1000;
+
+    @Test
+    void closedRange() {
+        assertEquals(List.of(new ByteRange(0, 99)), ByteRange.parse("bytes=0-99", SIZE));
+        assertEquals(100, ByteRange.parse("bytes=0-99", SIZE).getFirst().length());
+    }
+
+    @Test
+    void openRangeRunsToTheEnd() {
+        assertEquals(List.of(new ByteRange(500, 999)), ByteRange.parse("bytes=500-", SIZE));
+    }
+
+    @Test
+    void suffixRange() {
+        assertEquals(List.of(new ByteRange(900, 999)), ByteRange.parse("bytes=-100", SIZE));
+        assertEquals(List.of(new ByteRange(0, 999)), ByteRange.parse("bytes=-5000", SIZE));
+    }
+
+    @Test
+    void endBeyondSizeIsClamped() {
+        assertEquals(List.of(new ByteRange(990, 999)), ByteRange.parse("bytes=990-5000", SIZE));
+    }
+
+    @Test
+    void multipleRangesKeepRequestOrder() {
+        assertEquals(List.of(new ByteRange(500, 509), new ByteRange(0, 0)),
+                ByteRange.parse("Bytes= 500-509 , 0-0", SIZE));
+    }
+
+    @Test
+    void unsatisfiableRangesAreDropped() {
+        assertEquals(List.of(new ByteRange(0, 9)), ByteRange.parse("bytes=2000-3000,0-9", SIZE));
+        assertTrue(ByteRange.parse("bytes=1000-", SIZE).isEmpty());
+        assertTrue(ByteRange.parse("bytes=-0", SIZE).isEmpty());
+        assertTrue(ByteRange.parse("bytes=0-", 0).isEmpty());
+        assertTrue(ByteRange.parse("bytes=-10", 0).isEmpty());
+    }
+
+    @Test
+    void invalidHeadersAreIgnored() {
+        assertNull(ByteRange.parse(null, SIZE));
+        assertNull(ByteRange.parse("items=0-9", SIZE));
+        assertNull(ByteRange.parse("bytes=9-0", SIZE));
+        assertNull(ByteRange.parse("bytes=10", SIZE));
+        assertNull(ByteRange.parse("bytes=a-b", SIZE));
+        assertNull(ByteRange.parse("bytes=0-9,x", SIZE));
+    }
+
+    @Test
+    void tooManyOrTooLargeRangesAreIgnored() {
+        String many = IntStream.range(0, 33).mapToObj(i -> i + "-" + i).collect(Collectors.joining(","));
+        assertNull(ByteRange.parse("bytes=" + many, SIZE));
+        // Overlapping ranges adding up to more than the file
+        assertNull(ByteRange.parse("bytes=0-999,0-999", SIZE));
+    }
+}
@@ -0,0 +1,195 @@
+package com.drive.storagservice.storage;
+
+import com.drive.storagservice.properties.StorageProperties;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.zip.CRC32;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * The compressed chunk layout read back through {@link StoredChunk}: whole, by ranges
+ * across frame boundaries, and as raw deflate frames; and {@link ChunkCodec#crc32Combine}
+ * against {@link CRC32} over the concatenation.
+ */
+class ChunkCodecTests {
+
+    private static final int FRAME = 64 * 1024;
+
+    @TempDir
+    Path dir;
+
+    private final ChunkCodec codec = new ChunkCodec(new StorageProperties());
+
+    @Test
+    void compressedChunkRoundTrips() throws IOException {
+        byte[] content = text(3 * FRAME + FRAME / 2 + 17);
+        Path compressed = encode(content);
+
+        try (StoredChunk chunk = StoredChunk.open(dir.resolve("missing"), compressed)) {
+            assertTrue(chunk.compressed());
+            assertEquals(content.length, chunk.length());
+            assertArrayEquals(content, chunk.openStream().readAllBytes());
+        }
+        assertTrue(codec.worthKeeping(Files.size(compressed), content.length));
+    }
+
+    @Test
+    void encodeDigestsTheContent() throws Exception {
+        byte[] content = text(FRAME + 1);
+        MessageDigest digest = FileStore.sha256();
+        encode(content, digest);
+
+        assertArrayEquals(MessageDigest.getInstance("SHA-256").digest(content), digest.digest());
+    }
+
+    @Test
+    void rangesAcrossFramesMatchTheContent() throws IOException {
+        byte[] content = text(3 * FRAME + 100);
+        Path compressed = encode(content);
+
+        long[][] ranges = {{0, 1}, {FRAME - 10, 20}, {FRAME, FRAME}, {10, 3 * FRAME}, {3 * FRAME + 99, 1}};
+        try (StoredChunk chunk = StoredChunk.open(dir.resolve("missing"), compressed)) {
+            for (long[] range : ranges) {
+                ByteArrayOutputStream out = new ByteArrayOutputStream();
+                chunk.transferTo(range[0], range[1], Channels.newChannel(out));
+                assertArrayEquals(Arrays.copyOfRange(content, (int) range[0], (int) (range[0] + range[1])),
+                        out.toByteArray(), "range at " + range[0]);
+            }
+        }
+    }
+
+    @Test
+    void deflatedFramesInflateToTheContent() throws Exception {
+        byte[] content = text(2 * FRAME + 5);
+        Path compressed = encode(content);
+
+        try (StoredChunk chunk = StoredChunk.open(dir.resolve("missing"), compressed)) {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            long crc = chunk.transferDeflated(Channels.newChannel(out));
+
+            assertArrayEquals(content, inflate(out.toByteArray(), content.length));
+            assertEquals(crc32(content), crc);
+        }
+    }
+
+    @Test
+    void rawChunkIsSentAsStoredBlocks() throws Exception {
+        // More than one 65535-byte stored block
+        byte[] content = random(150_000, 1);
+        Path raw = dir.resolve("raw");
+        Files.write(raw, content);
+
+        try (StoredChunk chunk = StoredChunk.open(raw, dir.resolve("missing"))) {
+            assertFalse(chunk.compressed());
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            long crc = chunk.transferDeflated(Channels.newChannel(out));
+
+            assertArrayEquals(content, inflate(out.toByteArray(), content.length));
+            assertEquals(crc32(content), crc);
+        }
+    }
+
+    @Test
+    void crc32CombineMatchesCrcOfConcatenation() {
+        Random random = new Random(42);
+        int[] lengths = {0, 1, 7, 64, 1000, 65_536, 300_001};
+        for (int firstLength : lengths) {
+            for (int secondLength : lengths) {
+                byte[] first = random(firstLength, random.nextLong());
+                byte[] second = random(secondLength, random.nextLong());
+                byte[] both = Arrays.copyOf(first, firstLength + secondLength);
+                System.arraycopy(second, 0, both, firstLength, secondLength);
+
+                assertEquals(crc32(both), ChunkCodec.crc32Combine(crc32(first), crc32(second), secondLength),
+                        firstLength + " + " + secondLength);
+            }
+        }
+    }
+
+    @Test
+    void crc32CombineFoldsManyChunks() {
+        byte[] content = random(10 * 4096 + 123, 7);
+        long combined = 0;
+        for (int offset = 0; offset < content.length; offset += 4096) {
+            byte[] chunk = Arrays.copyOfRange(content, offset, Math.min(content.length, offset + 4096));
+            combined = ChunkCodec.crc32Combine(combined, crc32(chunk), chunk.length);
+        }
+
+        assertEquals(crc32(content), combined);
+    }
+
+    private Path encode(byte[] content) throws IOException {
+        return encode(content, FileStore.sha256());
+    }
+
+    private Path encode(byte[] content, MessageDigest digest) throws IOException {
+        Path source = Files.write(dir.resolve("source"), content);
+        Path target = dir.resolve("chunk.z");
+        try (FileChannel channel = FileChannel.open(source, StandardOpenOption.READ)) {
+            codec.encode(channel, 0, content.length, target, digest);
+        }
+        return target;
+    }
+
+    // Frames leave the deflate stream open, as they do when concatenated for gzip
+    private static byte[] inflate(byte[] deflated, int length) throws DataFormatException {
+        Inflater inflater = new Inflater(true);
+        try {
+            inflater.setInput(deflated);
+            byte[] content = new byte[length];
+            int inflated = 0;
+            while (inflated < length) {
+                int produced = inflater.inflate(content, inflated, length - inflated);
+                if (produced == 0 && inflater.needsInput()) {
+                    break;
+                }
+                inflated += produced;
+            }
+            assertEquals(length, inflated);
+            assertFalse(inflater.finished());
+            return content;
+        } finally {
+            inflater.end();
+        }
+    }
+
+    private static byte[] text(int length) {
+        byte[] line = "2026-03-01T12:00:00Z INFO request served in 12 ms\n".getBytes(StandardCharsets.US_ASCII);
+        byte[] content = new byte[length];
+        for (int i = 0; i < length; i++) {
+            content[i] = line[i % line.length];
+        }
+        return content;
+    }
+
+    private static byte[] random(int length, long seed) {
+        byte[] bytes = new byte[length];
+        new Random(seed).nextBytes(bytes);
+        return bytes;
+    }
+
+    private static long crc32(byte[] bytes) {
+        CRC32 crc = new CRC32();
+        crc.update(bytes);
+        return crc.getValue();
+    }
+}
@@ -0,0 +1,118 @@
+package com.drive.storagebenchmarks;
+
+import com.drive.storagservice.dto.UpdateFolderRequest;
+import com.drive.storagservice.service.FolderService;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Folder operations on the 1M-file tree of {@link TreeFixture}. {@code firstPage} and
+ * {@code deepPage} list 100 entries at the start and near the end of a 100k-entry folder
+ * and should cost the same; {@code offsetDeepPage} is the OFFSET query keyset pagination
+ * replaces, for comparison. {@code subtreeSummary} totals 900k files under one folder,
+ * {@code moveSubtree} moves a 101-folder subtree between two parents.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class FolderTreeBenchmark {
+
+    private static final int PAGE = 100;
+    private static final int DEEP_OFFSET = TreeFixture.FLAT_FILES - 2 * PAGE;
+
+    private ConfigurableApplicationContext context;
+    private FolderService folderService;
+    private JdbcTemplate jdbc;
+
+    private UUID flat;
+    private UUID tree;
+    private UUID moving;
+    private UUID[] moveTargets;
+    private int moves;
+    private String deepCursor;
+
+    @Setup
+    public void setUp() throws Exception {
+        context = TreeFixture.start();
+        folderService = context.getBean(FolderService.class);
+        jdbc = context.getBean(JdbcTemplate.class);
+        TreeFixture.seed(jdbc, folderService);
+
+        UUID root = folderService.root(TreeFixture.USER).getId();
+        flat = TreeFixture.findChild(jdbc, root, "flat");
+        tree = TreeFixture.findChild(jdbc, root, "tree");
+        moveTargets = new UUID[]{
+                TreeFixture.findChild(jdbc, root, "moves-b"),
+                TreeFixture.findChild(jdbc, root, "moves-a")
+        };
+        moving = TreeFixture.findChild(jdbc, moveTargets[1], "moving");
+        if (moving == null) {
+            // A previous run stopped between moves
+            moving = TreeFixture.findChild(jdbc, moveTargets[0], "moving");
+            moves = 1;
+        }
+        deepCursor = cursorAt(DEEP_OFFSET);
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public void firstPage() {
+        folderService.list(TreeFixture.USER, flat, null, PAGE, OutputStream.nullOutputStream());
+    }
+
+    @Benchmark
+    public void deepPage() {
+        folderService.list(TreeFixture.USER, flat, deepCursor, PAGE, OutputStream.nullOutputStream());
+    }
+
+    @Benchmark
+    public int offsetDeepPage() {
+        int[] rows = new int[1];
+        jdbc.query("select * from files where folder_id = ? order by name, id offset ? limit ?",
+                rs -> {
+                    rows[0]++;
+                }, flat, DEEP_OFFSET, PAGE);
+        return rows[0];
+    }
+
+    @Benchmark
+    public long subtreeSummary() {
+        return folderService.summary(TreeFixture.USER, tree).getFileCount();
+    }
+
+    @Benchmark
+    public UUID moveSubtree() {
+        UpdateFolderRequest request = UpdateFolderRequest.builder()
+                .parentId(moveTargets[moves++ % 2])
+                .build();
+        return folderService.update(TreeFixture.USER, moving, request).getParentId();
+    }
+
+    // Follows nextCursor with maximum-size pages, the way a client would reach the offset
+    private String cursorAt(int offset) {
+        JsonMapper jsonMapper = context.getBean(JsonMapper.class);
+        String cursor = null;
+        for (int skipped = 0; skipped < offset; skipped += 1000) {
+            ByteArrayOutputStream page = new ByteArrayOutputStream();
+            folderService.list(TreeFixture.USER, flat, cursor, Math.min(1000, offset - skipped), page);
+            cursor = jsonMapper.readTree(page.toByteArray()).get("nextCursor").asString();
+        }
+        return cursor;
+    }
+}
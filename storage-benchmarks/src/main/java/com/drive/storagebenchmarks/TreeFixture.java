@@ -0,0 +1,110 @@
+package com.drive.storagebenchmarks;
+
+import com.drive.storagservice.StoragServiceApplication;
+import com.drive.storagservice.security.AuthenticatedUser;
+import com.drive.storagservice.service.FolderService;
+
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.UUID;
+
+/**
+ * Starts storag-service without the web layer against the Postgres given by
+ * {@code -Dbench.datasource.url/username/password} and seeds, once per database, a tree
+ * of 1,000,000 files for one user:
+ * <pre>
+ * root
+ * ├── flat/              100,000 files in one folder
+ * ├── tree/              10 folders × 100 folders × 900 files
+ * ├── moves-a/moving/    100 folders, moved back and forth by the benchmark
+ * └── moves-b/
+ * </pre>
+ * Rows are generated in SQL; files have no content, which listings and totals never read.
+ */
+final class TreeFixture {
+
+    static final AuthenticatedUser USER = new AuthenticatedUser(1L, "USER");
+    static final int FLAT_FILES = 100_000;
+
+    private TreeFixture() {
+    }
+
+    static ConfigurableApplicationContext start() throws Exception {
+        Path storageRoot = Files.createTempDirectory("storage-bench");
+        return new SpringApplicationBuilder(StoragServiceApplication.class)
+                .web(WebApplicationType.NONE)
+                .properties(
+                        "spring.datasource.url=" + System.getProperty("bench.datasource.url",
+                                "jdbc:postgresql://localhost:5432/storage_bench"),
+                        "spring.datasource.username=" + System.getProperty("bench.datasource.username", "storage"),
+                        "spring.datasource.password=" + System.getProperty("bench.datasource.password", "storage"),
+                        "spring.jpa.show-sql=false",
+                        "eureka.client.enabled=false",
+                        "storage.root=" + storageRoot,
+                        "storage.identity.secret=YmVuY2htYXJrLWlkZW50aXR5LXNlY3JldC0wMTIzNDU2Nzg5YWJjZGVm"
+                )
+                .run();
+    }
+
+    // Idempotent: an already seeded database is reused as is
+    static void seed(JdbcTemplate jdbc, FolderService folderService) {
+        UUID root = folderService.root(USER).getId();
+        if (findChild(jdbc, root, "flat") != null) {
+            return;
+        }
+
+        UUID flat = createFolder(jdbc, root, "flat");
+        insertFiles(jdbc, "select id from folders where id = '" + flat + "'", FLAT_FILES);
+
+        UUID tree = createFolder(jdbc, root, "tree");
+        insertFolders(jdbc, "select id, path from folders where id = '" + tree + "'", 10);
+        insertFolders(jdbc, "select id, path from folders where parent_id = '" + tree + "'", 100);
+        insertFiles(jdbc, "select id from folders where parent_id in (select id from folders where parent_id = '"
+                + tree + "')", 900);
+
+        UUID movesA = createFolder(jdbc, root, "moves-a");
+        createFolder(jdbc, root, "moves-b");
+        UUID moving = createFolder(jdbc, movesA, "moving");
+        insertFolders(jdbc, "select id, path from folders where id = '" + moving + "'", 100);
+
+        jdbc.execute("analyze folders");
+        jdbc.execute("analyze files");
+    }
+
+    static UUID findChild(JdbcTemplate jdbc, UUID parentId, String name) {
+        return jdbc.query("select id from folders where parent_id = ? and name = ?",
+                rs -> rs.next() ? rs.getObject(1, UUID.class) : null, parentId, name);
+    }
+
+    private static UUID createFolder(JdbcTemplate jdbc, UUID parentId, String name) {
+        insertFolders(jdbc, "select id, path from folders where id = '" + parentId + "'", 1, name);
+        return findChild(jdbc, parentId, name);
+    }
+
+    private static void insertFolders(JdbcTemplate jdbc, String parents, int perParent) {
+        insertFolders(jdbc, parents, perParent, null);
+    }
+
+    private static void insertFolders(JdbcTemplate jdbc, String parents, int perParent, String name) {
+        jdbc.update("""
+                insert into folders (id, owner_id, parent_id, name, path, created_at)
+                select c.id, 1, c.parent_id, coalesce(?::text, 'folder-' || lpad(c.n::text, 4, '0')), c.parent_path || c.id || '/', now()
+                from (select gen_random_uuid() as id, p.id as parent_id, p.path as parent_path, n
+                      from (%s) p cross join generate_series(0, ? - 1) n) c
+                """.formatted(parents), name, perParent);
+    }
+
+    private static void insertFiles(JdbcTemplate jdbc, String folders, int perFolder) {
+        jdbc.update("""
+                insert into files (id, owner_id, folder_id, name, content_type, size, content_hash, chunk_size, created_at)
+                select gen_random_uuid(), 1, f.id, 'file-' || lpad(n::text, 6, '0') || '.bin',
+                       'application/octet-stream', 4096 + n, repeat('0', 64), 4194304, now()
+                from (%s) f cross join generate_series(0, ? - 1) n
+                """.formatted(folders), perFolder);
+    }
+}